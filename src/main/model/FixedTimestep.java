@@ -0,0 +1,93 @@
+package model;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+
+/**
+ * A fixed-timestep accumulator. Real time scaled by a timescale is banked as simulated time, and every
+ * whole step of stepSeconds in the bank is paid out as one sub-step, so the simulation advances at the
+ * same rate no matter how irregularly it is polled; the fraction of a step left over carries into the
+ * next poll. A single poll never pays out more than maxStepsPerPoll steps: anything beyond that budget
+ * is dropped rather than owed, so a stall cannot snowball into ever larger catch-up batches, and the
+ * dropped simulated time is recorded. Written by one thread only: poll, clearBank and reset must all be
+ * called from that thread, while the metrics may be read from any thread.
+ */
+public final class FixedTimestep {
+    private final float stepSeconds;
+    private final int maxStepsPerPoll;
+
+    private double banked;                 // simulated seconds not yet paid out, always < stepSeconds between polls
+    private volatile double droppedSeconds;
+    private volatile long droppedPolls;
+    private volatile long steps;
+
+    // REQUIRES: stepSeconds > 0, maxStepsPerPoll >= 1
+    // EFFECTS: creates an empty accumulator paying out steps of stepSeconds, at most maxStepsPerPoll at a time;
+    //          throws ArgumentOutOfBoundsException otherwise
+    public FixedTimestep(float stepSeconds, int maxStepsPerPoll) {
+        if (!(stepSeconds > 0f) || maxStepsPerPoll < 1) {
+            throw new ArgumentOutOfBoundsException("Invalid fixed timestep.");
+        }
+        this.stepSeconds = stepSeconds;
+        this.maxStepsPerPoll = maxStepsPerPoll;
+    }
+
+    // REQUIRES: realSeconds >= 0, timeScale >= 0
+    // MODIFIES: this
+    // EFFECTS: banks realSeconds * timeScale of simulated time and returns how many sub-steps are due now,
+    //          at most the per-poll budget; simulated time beyond the budget is dropped and recorded
+    public int poll(float realSeconds, float timeScale) {
+        banked += (double) realSeconds * timeScale;
+        long due = (long) (banked / stepSeconds);
+        int paid = (int) Math.min(due, maxStepsPerPoll);
+        banked -= (double) due * stepSeconds;
+        if (due > paid) {
+            droppedSeconds += (double) (due - paid) * stepSeconds;
+            droppedPolls++;
+        }
+        steps += paid;
+        return paid;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: empties the bank without recording anything as dropped, e.g. while the simulation is paused
+    public void clearBank() {
+        banked = 0.0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: empties the bank and clears the metrics; like poll, only to be called by the writing thread
+    public void reset() {
+        banked = 0.0;
+        droppedSeconds = 0.0;
+        droppedPolls = 0;
+        steps = 0;
+    }
+
+    public float getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public int getMaxStepsPerPoll() {
+        return maxStepsPerPoll;
+    }
+
+    // EFFECTS: returns the fraction of a step banked towards the next one, in [0, 1)
+    public float getBankedFraction() {
+        return (float) (banked / stepSeconds);
+    }
+
+    // EFFECTS: returns the simulated seconds dropped because polls exceeded the step budget
+    public double getDroppedSeconds() {
+        return droppedSeconds;
+    }
+
+    // EFFECTS: returns the number of polls that hit the step budget and dropped time
+    public long getDroppedPolls() {
+        return droppedPolls;
+    }
+
+    // EFFECTS: returns the number of steps paid out since the last reset
+    public long getSteps() {
+        return steps;
+    }
+}
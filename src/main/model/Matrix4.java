@@ -0,0 +1,253 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents a mutable 4x4 matrix stored row-major in one flat float[16], where entry (row, col) sits at
+// row * 4 + col. Every operation writes into an existing matrix or array, so a matrix can be rebuilt each
+// tick and applied to thousands of points without allocating. Matrices whose bottom row is (0, 0, 0, 1)
+// are affine and take a shorter path that skips the homogeneous row. Not thread-safe.
+public final class Matrix4 {
+    private static final float DEGREE_TO_RAD = 0.0174533f;
+    private static final int SIZE = 4;
+
+    final float[] elements;
+
+    // EFFECTS: creates an identity matrix
+    public Matrix4() {
+        elements = new float[SIZE * SIZE];
+        setIdentity();
+    }
+
+    // EFFECTS: creates a copy of other
+    public Matrix4(Matrix4 other) {
+        elements = Arrays.copyOf(other.elements, SIZE * SIZE);
+    }
+
+    // REQUIRES: 0 <= row, col < 4
+    // EFFECTS: returns the entry at (row, col)
+    public float get(int row, int col) {
+        return elements[row * SIZE + col];
+    }
+
+    // REQUIRES: 0 <= row, col < 4
+    // MODIFIES: this
+    // EFFECTS: sets the entry at (row, col) to value
+    public void set(int row, int col, float value) {
+        elements[row * SIZE + col] = value;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: copies every entry of other into this
+    public void set(Matrix4 other) {
+        System.arraycopy(other.elements, 0, elements, 0, SIZE * SIZE);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes this the identity matrix
+    public void setIdentity() {
+        Arrays.fill(elements, 0f);
+        elements[0] = 1f;
+        elements[5] = 1f;
+        elements[10] = 1f;
+        elements[15] = 1f;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes this a translation by (x, y, z)
+    public void setTranslation(float x, float y, float z) {
+        setIdentity();
+        elements[3] = x;
+        elements[7] = y;
+        elements[11] = z;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes this a scale by (x, y, z) along the axes
+    public void setScale(float x, float y, float z) {
+        setIdentity();
+        elements[0] = x;
+        elements[5] = y;
+        elements[10] = z;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes this a rotation by the given degrees about the x axis
+    public void setRotationX(float degrees) {
+        setPlaneRotation(5, 6, 9, 10, degrees);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes this a rotation by the given degrees about the y axis
+    public void setRotationY(float degrees) {
+        setPlaneRotation(10, 8, 2, 0, degrees);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes this a rotation by the given degrees about the z axis
+    public void setRotationZ(float degrees) {
+        setPlaneRotation(0, 4, 1, 5, degrees);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes this the identity except for the cosine at first and last, -sine at negative and sine
+    //          at positive
+    private void setPlaneRotation(int first, int negative, int positive, int last, float degrees) {
+        float cos = (float) Math.cos(degrees * DEGREE_TO_RAD);
+        float sin = (float) Math.sin(degrees * DEGREE_TO_RAD);
+        setIdentity();
+        elements[first] = cos;
+        elements[negative] = -sin;
+        elements[positive] = sin;
+        elements[last] = cos;
+    }
+
+    // EFFECTS: returns true iff the bottom row is (0, 0, 0, 1), so points need no homogeneous divide
+    public boolean isAffine() {
+        return elements[12] == 0f && elements[13] == 0f && elements[14] == 0f && elements[15] == 1f;
+    }
+
+    // REQUIRES: out is not both left and right at once unless that matrix is affine
+    // MODIFIES: out
+    // EFFECTS: stores left * right in out, which may be left or right itself
+    public static void mulInto(Matrix4 left, Matrix4 right, Matrix4 out) {
+        if (left.isAffine() && right.isAffine()) {
+            mulAffine(left.elements, right.elements, out.elements);
+        } else if (out == right) {
+            for (int col = 0; col < SIZE; col++) {
+                mulColumn(left.elements, right.elements, out.elements, col);
+            }
+        } else {
+            for (int row = 0; row < SIZE; row++) {
+                mulRow(left.elements, right.elements, out.elements, row);
+            }
+        }
+    }
+
+    // REQUIRES: a and b are affine
+    // MODIFIES: out
+    // EFFECTS: stores a * b in out, which may alias a or b, computing only the top three rows
+    @SuppressWarnings("methodlength")
+    private static void mulAffine(float[] a, float[] b, float[] out) {
+        float b00 = b[0];
+        float b01 = b[1];
+        float b02 = b[2];
+        float b03 = b[3];
+        float b10 = b[4];
+        float b11 = b[5];
+        float b12 = b[6];
+        float b13 = b[7];
+        float b20 = b[8];
+        float b21 = b[9];
+        float b22 = b[10];
+        float b23 = b[11];
+        for (int base = 0; base < 12; base += SIZE) {
+            float x = a[base];
+            float y = a[base + 1];
+            float z = a[base + 2];
+            float w = a[base + 3];
+            out[base] = x * b00 + y * b10 + z * b20;
+            out[base + 1] = x * b01 + y * b11 + z * b21;
+            out[base + 2] = x * b02 + y * b12 + z * b22;
+            out[base + 3] = x * b03 + y * b13 + z * b23 + w;
+        }
+        out[12] = 0f;
+        out[13] = 0f;
+        out[14] = 0f;
+        out[15] = 1f;
+    }
+
+    // MODIFIES: out
+    // EFFECTS: stores the given row of a * b in out; safe when out aliases a
+    private static void mulRow(float[] a, float[] b, float[] out, int row) {
+        int base = row * SIZE;
+        float x = a[base];
+        float y = a[base + 1];
+        float z = a[base + 2];
+        float w = a[base + 3];
+        for (int col = 0; col < SIZE; col++) {
+            out[base + col] = x * b[col] + y * b[SIZE + col] + z * b[2 * SIZE + col] + w * b[3 * SIZE + col];
+        }
+    }
+
+    // MODIFIES: out
+    // EFFECTS: stores the given column of a * b in out; safe when out aliases b
+    private static void mulColumn(float[] a, float[] b, float[] out, int col) {
+        float x = b[col];
+        float y = b[SIZE + col];
+        float z = b[2 * SIZE + col];
+        float w = b[3 * SIZE + col];
+        for (int base = 0; base < SIZE * SIZE; base += SIZE) {
+            out[base + col] = a[base] * x + a[base + 1] * y + a[base + 2] * z + a[base + 3] * w;
+        }
+    }
+
+    // REQUIRES: in and out hold at least 3 * count floats and are either the same array or distinct ones
+    // MODIFIES: out
+    // EFFECTS: transforms the count points stored as consecutive x, y, z triples in in and writes the results
+    //          the same way to out (which may be in itself); non-affine matrices divide by the homogeneous w
+    public void transformPoints(float[] in, float[] out, int count) {
+        if (isAffine()) {
+            transformAffine(in, out, count * 3);
+        } else {
+            transformProjective(in, out, count * 3);
+        }
+    }
+
+    // MODIFIES: out
+    // EFFECTS: transforms the points in in[0 .. length) by the top three rows; every coefficient is hoisted
+    //          out of the loop, which is a plain multiply-add over the triples
+    @SuppressWarnings("methodlength")
+    private void transformAffine(float[] in, float[] out, int length) {
+        float m00 = elements[0];
+        float m01 = elements[1];
+        float m02 = elements[2];
+        float m03 = elements[3];
+        float m10 = elements[4];
+        float m11 = elements[5];
+        float m12 = elements[6];
+        float m13 = elements[7];
+        float m20 = elements[8];
+        float m21 = elements[9];
+        float m22 = elements[10];
+        float m23 = elements[11];
+        for (int base = 0; base < length; base += 3) {
+            float x = in[base];
+            float y = in[base + 1];
+            float z = in[base + 2];
+            out[base] = m00 * x + m01 * y + m02 * z + m03;
+            out[base + 1] = m10 * x + m11 * y + m12 * z + m13;
+            out[base + 2] = m20 * x + m21 * y + m22 * z + m23;
+        }
+    }
+
+    // MODIFIES: out
+    // EFFECTS: transforms the points in in[0 .. length) by the full matrix and divides by w
+    private void transformProjective(float[] in, float[] out, int length) {
+        float[] m = elements;
+        for (int base = 0; base < length; base += 3) {
+            float x = in[base];
+            float y = in[base + 1];
+            float z = in[base + 2];
+            float w = m[12] * x + m[13] * y + m[14] * z + m[15];
+            out[base] = (m[0] * x + m[1] * y + m[2] * z + m[3]) / w;
+            out[base + 1] = (m[4] * x + m[5] * y + m[6] * z + m[7]) / w;
+            out[base + 2] = (m[8] * x + m[9] * y + m[10] * z + m[11]) / w;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Matrix4)) {
+            return false;
+        }
+        return Arrays.equals(elements, ((Matrix4) o).elements);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(elements);
+    }
+}
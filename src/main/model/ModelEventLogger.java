@@ -1,5 +1,18 @@
 package model;
 
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import model.analysis.BasinMap;
+import model.analysis.CriticalPoint;
+import model.analysis.CriticalPointType;
+import model.analysis.DescentResult;
+import model.analysis.MultiStartDescent;
+import model.analysis.OptimizerComparison;
+import model.analysis.SweepResult;
+import model.optimizer.OptimizerType;
+
 /**
  * Centralized logger for model events to keep EventLog usage within the model package.
  */
@@ -32,6 +45,88 @@ public final class ModelEventLogger {
         LOG.logEvent(new Event(String.format("Simulation random start set to (%.2f, %.2f)", x, y)));
     }
 
+    // EFFECTS: logs how many runs of a multi-start batch converged and where the deepest minimum was found
+    public static void logMultiStart(List<DescentResult> results) {
+        int converged = 0;
+        for (DescentResult result : results) {
+            converged += result.isConverged() ? 1 : 0;
+        }
+        String summary = String.format("Multi-start finished: %d of %d runs converged", converged, results.size());
+        DescentResult best = MultiStartDescent.bestOf(results);
+        if (best != null) {
+            summary += String.format(", deepest minimum at (%.2f, %.2f)", best.getFinalX(), best.getFinalY());
+        }
+        LOG.logEvent(new Event(summary));
+    }
+
+    // EFFECTS: logs the iterations every optimizer needed to converge and which one was fastest
+    public static void logOptimizerComparison(Map<OptimizerType, DescentResult> results) {
+        StringBuilder summary = new StringBuilder("Optimizer comparison:");
+        for (Map.Entry<OptimizerType, DescentResult> entry : results.entrySet()) {
+            DescentResult result = entry.getValue();
+            summary.append(' ').append(entry.getKey()).append(' ');
+            summary.append(result.isConverged() ? result.getIterations() + " it" : result.getStatus().toString());
+            if (result.getLineSearchEvaluations() > 0) {
+                summary.append(" + ").append(result.getLineSearchEvaluations()).append(" line-search evals");
+            }
+            if (result.getHessianEvaluations() > 0) {
+                summary.append(" + ").append(result.getHessianEvaluations()).append(" Hessian evals");
+            }
+            summary.append(';');
+        }
+        OptimizerType fastest = OptimizerComparison.fastest(results);
+        summary.append(" fastest: ").append((fastest == null) ? "none" : fastest.toString());
+        LOG.logEvent(new Event(summary.toString()));
+    }
+
+    // EFFECTS: logs how many basins a basin map found and where the deepest minimum lies
+    public static void logBasinMap(BasinMap map) {
+        String summary = String.format("Basin map %dx%d: %d basins, %d cells unconverged",
+                map.getColumns(), map.getRows(), map.getBasinCount(), map.getUnconvergedCount());
+        if (map.getBasinCount() > 0) {
+            summary += String.format(", deepest minimum at (%.2f, %.2f)", map.getMinimumX(0), map.getMinimumY(0));
+        }
+        LOG.logEvent(new Event(summary));
+    }
+
+    // EFFECTS: logs that a basin map was exported to path
+    public static void logBasinMapExported(String path) {
+        LOG.logEvent(new Event("Basin map exported to " + path));
+    }
+
+    // EFFECTS: logs how many critical points of each type were found and where the deepest minimum lies
+    public static void logCriticalPoints(List<CriticalPoint> points) {
+        Map<CriticalPointType, Integer> counts = new EnumMap<>(CriticalPointType.class);
+        CriticalPoint deepest = null;
+        for (CriticalPoint point : points) {
+            counts.merge(point.getType(), 1, Integer::sum);
+            if (deepest == null && point.getType() == CriticalPointType.MINIMUM) {
+                deepest = point;   // points are ordered by value
+            }
+        }
+        String summary = "Critical points found: " + points.size() + " " + counts;
+        if (deepest != null) {
+            summary += String.format(", deepest minimum at (%.2f, %.2f)", deepest.getX(), deepest.getY());
+        }
+        LOG.logEvent(new Event(summary));
+    }
+
+    // EFFECTS: logs that a critical point search failed for the given reason
+    public static void logCriticalPointSearchFailed(String reason) {
+        LOG.logEvent(new Event("Critical point search failed: " + reason));
+    }
+
+    // EFFECTS: logs how many configurations of a hyperparameter sweep finished and which ranked first
+    public static void logSweep(List<SweepResult> ranked, int total, String reportPath) {
+        String summary = String.format("Sweep finished: %d of %d configurations", ranked.size(), total);
+        if (!ranked.isEmpty()) {
+            SweepResult best = ranked.get(0);
+            summary += String.format(", best %s (%.0f%% converged in %.1f it)", best.getConfiguration(),
+                    100f * best.getConvergenceRate(), best.getMeanIterations());
+        }
+        LOG.logEvent(new Event(summary + ", report at " + reportPath));
+    }
+
     // EFFECTS: logs that the simulation was started
     public static void logSimulationStarted() {
         LOG.logEvent(new Event("Simulation started."));
@@ -1,16 +1,27 @@
 package model;
 
-import java.util.function.BiFunction;
+import java.util.Arrays;
 
 import model.exceptions.ArgumentOutOfBoundsException;
 import model.exceptions.InvalidFunctionException;
+import model.expression.CompiledExpression;
+import model.expression.DualNumberEvaluator;
 
 // Represents a scalar field f(x, y) -> z for visualization and gradient descent.
 public class ScalarField {
     private static final float DEFAULT_EPS = 0.0005f;
+    private static final float HESSIAN_EPS = 0.01f;   // wider than DEFAULT_EPS: a second difference divides by h²
+    private static final int ANALYTIC_HESSIAN_COST = 3;
 
     private final String name;
-    private final BiFunction<Float, Float, Float> function;
+    private final ScalarFunction function;
+    private final CompiledExpression expression; // null when backed by an arbitrary function
+    private final ScalarFunction partialX;       // exact ∂f/∂x, null when only finite differences apply
+    private final ScalarFunction partialY;       // exact ∂f/∂y, null when only finite differences apply
+    private final DualNumberEvaluator dual;      // one-pass value and gradient, null for arbitrary functions
+    private final ScalarFunction partialXX;      // exact second partials, null when only the stencil applies
+    private final ScalarFunction partialXY;
+    private final ScalarFunction partialYY;
 
     // Domain bounds for valid evaluation
     private float xxMin = -10.0f;
@@ -22,7 +33,18 @@ public class ScalarField {
 
     // REQUIRES: name is non-null and non-empty; function is non-null
     // EFFECTS: creates a scalar field with the given name and function
-    public ScalarField(String name, BiFunction<Float, Float, Float> function) {
+    public ScalarField(String name, ScalarFunction function) {
+        this(name, function, null);
+    }
+
+    // REQUIRES: expression is non-null
+    // EFFECTS: creates a scalar field named after the expression source that evaluates
+    //          through the expression's most direct evaluator
+    public ScalarField(CompiledExpression expression) {
+        this(sourceOf(expression), expression.getEvaluator(), expression);
+    }
+
+    private ScalarField(String name, ScalarFunction function, CompiledExpression expression) {
         if (name == null || name.isEmpty()) {
             throw new InvalidFunctionException("Field must have a valid name.");
         }
@@ -32,42 +54,256 @@ public class ScalarField {
 
         this.name = name;
         this.function = function;
+        this.expression = expression;
+        this.partialX = (expression == null) ? null : expression.getPartialX();
+        this.partialY = (expression == null) ? null : expression.getPartialY();
+        this.dual = (expression == null) ? null : expression.getDualEvaluator();
+        boolean secondOrder = expression != null && expression.hasSecondPartials();
+        this.partialXX = secondOrder ? expression.getPartialXX() : null;
+        this.partialXY = secondOrder ? expression.getPartialXY() : null;
+        this.partialYY = secondOrder ? expression.getPartialYY() : null;
     }
 
     public String getName() {
         return name;
     }
 
+    // EFFECTS: returns the compiled expression backing this field, or null if the field
+    //          was built from an arbitrary function
+    public CompiledExpression getExpression() {
+        return expression;
+    }
+
+    // EFFECTS: returns true iff gradients come from exact symbolic derivatives rather than finite differences
+    public boolean hasAnalyticGradient() {
+        return partialX != null;
+    }
+
     // REQUIRES: x and y lie within the domain bounds
     // EFFECTS: returns f(x, y)
     public float evaluate(float x, float y) {
-        if (x < xxMin || x > xxMax || y < yyMin || y > yyMax) {
-            throw new ArgumentOutOfBoundsException("Input (x, y) outside domain.");
-        }
+        ensureInDomain(x, y);
 
-        Float result = function.apply(x, y);
+        float result = function.applyAsFloat(x, y);
 
-        if (result == null || Float.isNaN(result) || Float.isInfinite(result)) {
+        if (Float.isNaN(result) || Float.isInfinite(result)) {
             throw new InvalidFunctionException("Function returned invalid numeric value.");
         }
 
         return result;
     }
 
+    // REQUIRES: xs and ys have equal length and out is at least as long
+    // MODIFIES: out
+    // EFFECTS: writes f(xs[i], ys[i]) into out[i]; only the batch's bounding box is checked against the
+    //          domain, once up front, instead of every point, and points where f is undefined are written
+    //          as NaN or an infinity instead of throwing
+    public void evaluateBatch(float[] xs, float[] ys, float[] out) {
+        if (ys.length != xs.length || out.length < xs.length) {
+            throw new ArgumentOutOfBoundsException("Batch arrays must have matching lengths.");
+        }
+        ensureBoundsInDomain(xs, ys);
+        function.applyBatch(xs, ys, out, xs.length);
+    }
+
+    // REQUIRES: the rectangle [xMin, xMax] x [yMin, yMax] lies within the domain; nx, ny >= 1;
+    //           out.length >= nx * ny
+    // MODIFIES: out
+    // EFFECTS: samples f on an nx-by-ny grid spanning the rectangle (both ends inclusive) and writes
+    //          the sample at column i, row j into out[j * nx + i]; undefined points are written as
+    //          with evaluateBatch
+    public void evaluateGrid(float xMin, float xMax, float yMin, float yMax, int nx, int ny, float[] out) {
+        if (nx < 1 || ny < 1 || out.length < nx * ny) {
+            throw new ArgumentOutOfBoundsException("Invalid grid dimensions.");
+        }
+        ensureInDomain(xMin, yMin);
+        ensureInDomain(xMax, yMax);
+
+        float[] xs = new float[nx];
+        float[] ys = new float[nx];
+        float[] row = new float[nx];
+        float dx = (nx == 1) ? 0f : (xMax - xMin) / (nx - 1);
+        float dy = (ny == 1) ? 0f : (yMax - yMin) / (ny - 1);
+        for (int i = 0; i < nx; i++) {
+            xs[i] = Math.min(xMin + i * dx, xMax);
+        }
+        for (int j = 0; j < ny; j++) {
+            Arrays.fill(ys, Math.min(yMin + j * dy, yMax));
+            function.applyBatch(xs, ys, row, nx);
+            System.arraycopy(row, 0, out, j * nx, nx);
+        }
+    }
+
     // REQUIRES: x and y lie within domain bounds and function must be evaluatable
-    // EFFECTS: returns the gradient vector ∇f(x, y) computed using central finite differences
+    // EFFECTS: returns the gradient vector ∇f(x, y); see gradientAt(float, float, float[])
     public Vector2 gradientAt(float x, float y) {
+        float[] out = new float[2];
+        gradientAt(x, y, out);
+        return new Vector2(out[0], out[1]);
+    }
+
+    // REQUIRES: x and y lie within domain bounds, function must be evaluatable, out.length >= 2
+    // MODIFIES: out
+    // EFFECTS: writes ∂f/∂x into out[0] and ∂f/∂y into out[1] without allocating; uses the exact
+    //          symbolic derivatives when available and finite at (x, y), otherwise finite differences
+    public void gradientAt(float x, float y, float[] out) {
+        ensureInDomain(x, y);
+
+        if (partialX != null) {
+            float dfdx = partialX.applyAsFloat(x, y);
+            float dfdy = partialY.applyAsFloat(x, y);
+            if (isFinite(dfdx) && isFinite(dfdy)) {
+                out[0] = dfdx;
+                out[1] = dfdy;
+                return;
+            }
+        }
+        finiteDifferenceGradient(x, y, out);
+    }
+
+    // REQUIRES: x and y lie within domain bounds, function must be evaluatable, out.length >= 3
+    // MODIFIES: out
+    // EFFECTS: writes f(x, y) into out[0], ∂f/∂x into out[1] and ∂f/∂y into out[2] without allocating;
+    //          expression fields compute all three in one dual-number pass, other fields (and points
+    //          where that pass is not finite) use evaluate and gradientAt
+    public void valueAndGradient(float x, float y, float[] out) {
+        ensureInDomain(x, y);
+
+        if (dual != null) {
+            dual.evaluate(x, y, out);
+            if (isFinite(out[0]) && isFinite(out[1]) && isFinite(out[2])) {
+                return;
+            }
+        }
+        float value = evaluate(x, y);
+        gradientAt(x, y, out);
+        out[2] = out[1];
+        out[1] = out[0];
+        out[0] = value;
+    }
+
+    // EFFECTS: returns true iff Hessians come from exact symbolic derivatives rather than finite differences
+    public boolean hasAnalyticHessian() {
+        return partialXX != null;
+    }
+
+    // REQUIRES: x and y lie within domain bounds, function must be evaluatable, out.length >= 3
+    // MODIFIES: out
+    // EFFECTS: writes the Hessian of f at (x, y) into out as ∂²f/∂x², ∂²f/∂x∂y, ∂²f/∂y² and returns the
+    //          number of function evaluations it took; see hessianAt(float, float, float, float[])
+    public int hessianAt(float x, float y, float[] out) {
+        return hessianAt(x, y, Float.NaN, out);
+    }
+
+    // REQUIRES: x and y lie within domain bounds, function must be evaluatable, out.length >= 3;
+    //           value is f(x, y) if the caller already sampled it, otherwise NaN
+    // MODIFIES: out
+    // EFFECTS: writes the Hessian of f at (x, y) into out as ∂²f/∂x², ∂²f/∂x∂y, ∂²f/∂y² without allocating
+    //          and returns the number of evaluations of f or its derivatives it took. Uses the exact
+    //          symbolic second partials when available and finite (3 evaluations), otherwise a 9-point
+    //          stencil whose centre reuses value (8 evaluations, 9 without it, plus the 3 analytic ones
+    //          if they were tried and came out non-finite)
+    public int hessianAt(float x, float y, float value, float[] out) {
+        ensureInDomain(x, y);
+
+        if (partialXX != null) {
+            float dxx = partialXX.applyAsFloat(x, y);
+            float dxy = partialXY.applyAsFloat(x, y);
+            float dyy = partialYY.applyAsFloat(x, y);
+            if (isFinite(dxx) && isFinite(dxy) && isFinite(dyy)) {
+                out[0] = dxx;
+                out[1] = dxy;
+                out[2] = dyy;
+                return ANALYTIC_HESSIAN_COST;
+            }
+            return ANALYTIC_HESSIAN_COST + finiteDifferenceHessian(x, y, value, out);
+        }
+        return finiteDifferenceHessian(x, y, value, out);
+    }
+
+    // REQUIRES: x and y lie within domain bounds; the domain is wider than 2 * HESSIAN_EPS on both axes
+    // MODIFIES: out
+    // EFFECTS: writes the Hessian estimated on the 3x3 stencil around (x, y) into out and returns the number
+    //          of evaluations it took. The centre sample is shared by both second differences and the four
+    //          axis samples, so only the corners are extra for the mixed partial. Near the domain edge the
+    //          stencil is moved inward so it never evaluates outside the domain, and value is only reused
+    //          when the stencil stays centred on (x, y).
+    private int finiteDifferenceHessian(float x, float y, float value, float[] out) {
+        float h = HESSIAN_EPS;
+        float cx = Math.max(xxMin + h, Math.min(x, xxMax - h));
+        float cy = Math.max(yyMin + h, Math.min(y, yyMax - h));
+        int evaluations = 8;
+        float centre = value;
+        if (cx != x || cy != y || !isFinite(value)) {
+            centre = evaluate(cx, cy);
+            evaluations++;
+        }
+
+        float east = evaluate(cx + h, cy);
+        float west = evaluate(cx - h, cy);
+        float north = evaluate(cx, cy + h);
+        float south = evaluate(cx, cy - h);
+        float corners = evaluate(cx + h, cy + h) - evaluate(cx + h, cy - h)
+                - evaluate(cx - h, cy + h) + evaluate(cx - h, cy - h);
+
+        float hh = h * h;
+        out[0] = (east - 2f * centre + west) / hh;
+        out[1] = corners / (4f * hh);
+        out[2] = (north - 2f * centre + south) / hh;
+        return evaluations;
+    }
+
+    // REQUIRES: x and y lie within domain bounds
+    // MODIFIES: out
+    // EFFECTS: writes the gradient estimated with central differences into out; near the domain
+    //          edge the stencil is clamped to the domain so it never evaluates outside it
+    private void finiteDifferenceGradient(float x, float y, float[] out) {
         float eps = DEFAULT_EPS;
 
-        float fxh = evaluate(x + eps, y);
-        float fxh2 = evaluate(x - eps, y);
-        float fyh = evaluate(x, y + eps);
-        float fyh2 = evaluate(x, y - eps);
+        float xxHigh = Math.min(x + eps, xxMax);
+        float xxLow = Math.max(x - eps, xxMin);
+        float yyHigh = Math.min(y + eps, yyMax);
+        float yyLow = Math.max(y - eps, yyMin);
 
-        float dfdx = (fxh - fxh2) / (2.0f * eps);
-        float dfdy = (fyh - fyh2) / (2.0f * eps);
+        out[0] = (evaluate(xxHigh, y) - evaluate(xxLow, y)) / (xxHigh - xxLow);
+        out[1] = (evaluate(x, yyHigh) - evaluate(x, yyLow)) / (yyHigh - yyLow);
+    }
+
+    // EFFECTS: returns true iff (x, y) lies within the domain bounds
+    public boolean contains(float x, float y) {
+        return x >= xxMin && x <= xxMax && y >= yyMin && y <= yyMax;
+    }
+
+    // EFFECTS: throws ArgumentOutOfBoundsException if (x, y) lies outside the domain
+    private void ensureInDomain(float x, float y) {
+        if (!contains(x, y)) {
+            throw new ArgumentOutOfBoundsException("Input (x, y) outside domain.");
+        }
+    }
 
-        return new Vector2(dfdx, dfdy);
+    // REQUIRES: xs and ys have equal length
+    // EFFECTS: throws ArgumentOutOfBoundsException unless every (xs[i], ys[i]) lies in the domain, by checking
+    //          the corners of the points' bounding box once; a NaN coordinate makes the box NaN and fails too
+    private void ensureBoundsInDomain(float[] xs, float[] ys) {
+        if (xs.length == 0) {
+            return;
+        }
+        float minX = xs[0];
+        float maxX = xs[0];
+        float minY = ys[0];
+        float maxY = ys[0];
+        for (int i = 1; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        ensureInDomain(minX, minY);
+        ensureInDomain(maxX, maxY);
+    }
+
+    private static boolean isFinite(float value) {
+        return !Float.isNaN(value) && !Float.isInfinite(value);
     }
 
     // REQUIRES: xxMax > xxMin, yyMax > yyMin, zzMax > zzMin
@@ -110,6 +346,14 @@ public class ScalarField {
         return zzMax; 
     }
 
+    // EFFECTS: returns the source of expression; throws InvalidFunctionException if expression is null
+    private static String sourceOf(CompiledExpression expression) {
+        if (expression == null) {
+            throw new InvalidFunctionException("Expression cannot be null.");
+        }
+        return expression.getSource();
+    }
+
     // EFFECTS: returns the field name
     @Override
     public String toString() {
@@ -0,0 +1,29 @@
+package model;
+
+import java.util.function.BiFunction;
+
+// Represents a primitive scalar function (x, y) -> z that is evaluated without boxing
+@FunctionalInterface
+public interface ScalarFunction {
+    // EFFECTS: returns f(x, y)
+    float applyAsFloat(float x, float y);
+
+    // REQUIRES: xs, ys and out each hold at least count entries
+    // MODIFIES: out
+    // EFFECTS: writes f(xs[i], ys[i]) into out[i] for every i < count; implementations that can
+    //          evaluate a whole batch faster than point by point override this
+    default void applyBatch(float[] xs, float[] ys, float[] out, int count) {
+        for (int i = 0; i < count; i++) {
+            out[i] = applyAsFloat(xs[i], ys[i]);
+        }
+    }
+
+    // REQUIRES: function is non-null
+    // EFFECTS: adapts a boxed bi-function into a scalar function; a null result is reported as NaN
+    static ScalarFunction boxed(BiFunction<Float, Float, Float> function) {
+        return (x, y) -> {
+            Float result = function.apply(x, y);
+            return (result == null) ? Float.NaN : result;
+        };
+    }
+}
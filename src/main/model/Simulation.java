@@ -2,39 +2,65 @@ package model;
 
 import java.util.*;
 
+import model.analysis.DescentKernel;
+import model.analysis.DescentStatus;
+import model.analysis.DivergenceDetector;
 import model.exceptions.ArgumentOutOfBoundsException;
-
-// Represents a gradient descent simulation on a scalar field f(x, y)
+import model.optimizer.GradientClipping;
+import model.optimizer.GradientDescent;
+import model.optimizer.Optimizer;
+import model.optimizer.StepSizeController;
+import model.optimizer.StepSizeMode;
+
+// Represents a gradient descent simulation on a scalar field f(x, y). Mutators are synchronized; the
+// field, elapsed time and path snapshots are published so that renderers can read them without locking.
 public class Simulation {
     private static final EventLog LOG = EventLog.getInstance();
 
-    private ScalarField field;        
-    private Vector2 currentPoint;      
-    private List<Vector2> path;        
+    private volatile ScalarField field;
+    private boolean hasPoint;
+    private float currentX;
+    private float currentY;
+    private final Trajectory path;     // every point visited, with heights cached as they are sampled
+    private float currentValue;        // f at the current point as of the last sample
 
     private float learningRate;        
     private float stopThreshold;       
     private int maxIterations;         
     private float eps;                 
+    private Optimizer optimizer;       // computes each step; its state belongs to the current run
+    private StepSizeController stepSize;  // sizes each step and counts line-search evaluations for the run
+    private GradientClipping clipping;
+    private DivergenceDetector detector;  // ends hopeless runs; its history belongs to the current run
+    private long hessianEvaluations;      // spent by curvature-using optimizers over the current run
+    private long stepCount;               // steps taken over the current run
+    private DescentKernel kernel;         // reused across steps; null once anything it was built from changes
+    private float kernelThreshold;        // the stop threshold kernel was built with
 
-    private float timeElapsed;         
+    private volatile float timeElapsed;
 
     // EFFECTS: creates an empty simulation with no field and default parameters
     public Simulation() {
         this.field = null;
-        this.currentPoint = null;
+        this.hasPoint = false;
+        this.currentValue = Float.NaN;
 
-        this.path = new ArrayList<>();
+        this.path = new Trajectory();
 
         this.learningRate = 0.01f;
         this.stopThreshold = 0.0001f;
         this.maxIterations = 5000;
         this.eps = 0.0f;
+        this.optimizer = new GradientDescent();
+        this.stepSize = new StepSizeController(StepSizeMode.FIXED);
+        this.clipping = GradientClipping.NONE;
+        this.detector = new DivergenceDetector();
 
         this.timeElapsed = 0.0f;
     }
 
-    public synchronized float getTimeElapsed() {
+    // EFFECTS: returns the simulated time elapsed; does not lock
+    public float getTimeElapsed() {
         return timeElapsed;
     }
 
@@ -58,6 +84,7 @@ public class Simulation {
     // EFFECTS: sets the stop threshold used to detect convergence
     public synchronized void setStopThreshold(float newStopThreshold) {
         this.stopThreshold = newStopThreshold;
+        kernel = null;
     }
 
     // MODIFIES: this
@@ -72,34 +99,68 @@ public class Simulation {
         this.eps = newEps;
     }
 
-    public synchronized ScalarField getField() {
+    // EFFECTS: returns the field being descended, or null; does not lock
+    public ScalarField getField() {
         return field;
     }
 
     public synchronized Vector2 getCurrentPoint() {
-        return currentPoint;
+        return hasPoint ? new Vector2(currentX, currentY) : null;
+    }
+
+    // EFFECTS: returns f at the point where the gradient was last sampled, or NaN if none has been
+    public synchronized float getCurrentValue() {
+        return currentValue;
+    }
+
+    // EFFECTS: returns a read-only live view of the path; it is not copied, so callers must not read it
+    //          while another thread steps this simulation
+    public synchronized TrajectoryView getTrajectory() {
+        return path;
     }
 
+    // EFFECTS: returns an immutable snapshot of the path as published so far; does not lock or copy, so
+    //          it is safe to call from a render thread while another thread steps this simulation
+    public TrajectorySnapshot getTrajectorySnapshot() {
+        return path.snapshot();
+    }
+
+    // EFFECTS: returns a copy of the path as a list of points; prefer getTrajectory, which does not copy
     public synchronized List<Vector2> getPath() {
-        return new ArrayList<>(path);
+        List<Vector2> copy = new ArrayList<>(path.size());
+        for (int i = 0; i < path.size(); i++) {
+            copy.add(new Vector2(path.getX(i), path.getY(i)));
+        }
+        return copy;
     }
 
     // MODIFIES: this
     // EFFECTS: clears the current path and replaces it with the provided sequence.
     //          If the list is empty or null, the current point becomes null.
     public synchronized void overwritePath(List<Vector2> newPath) {
+        Trajectory points = new Trajectory();
+        if (newPath != null) {
+            for (Vector2 point : newPath) {
+                points.add(point.getX(), point.getY());
+            }
+        }
+        overwriteTrajectory(points);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: clears the current path and replaces it with a copy of newPath.
+    //          If newPath is empty or null, the current point becomes null.
+    public synchronized void overwriteTrajectory(TrajectoryView newPath) {
         path.clear();
+        kernel = null;
         if (newPath == null || newPath.isEmpty()) {
-            currentPoint = null;
+            hasPoint = false;
             return;
         }
 
-        for (Vector2 point : newPath) {
-            path.add(new Vector2(point));
-        }
-
-        Vector2 last = path.get(path.size() - 1);
-        currentPoint = new Vector2(last);
+        path.addAll(newPath);
+        int last = path.size() - 1;
+        moveTo(path.getX(last), path.getY(last));
     }
 
     // MODIFIES: this
@@ -115,21 +176,81 @@ public class Simulation {
         ensureFieldLoaded();
         ensurePointInitialized();
 
-        int completedEpochs = 0;
-        for (int i = 0; i < epochs; i++) {
-            try {
-                Vector2 grad = field.gradientAt(currentPoint.getX(), currentPoint.getY());
-                Vector2 scaled = Vector2.multiply(grad, learningRate);
-                currentPoint = Vector2.sub(currentPoint, scaled);
-                path.add(new Vector2(currentPoint));
-                completedEpochs++;
-            } catch (RuntimeException ex) {
-                logNewEvent("Manual epoch halted: " + ex.getMessage());
-                break;
-            }
+        DescentKernel kernel = runKernel(epochs, 0f);
+        if (kernel.getStatus().isFailure()) {
+            logNewEvent("Manual epoch halted: " + kernel.getHaltReason());
         }
 
-        logNewEvent("Ran " + completedEpochs + " manual epochs.");
+        logNewEvent("Ran " + kernel.getIterations() + " manual epochs.");
+    }
+
+    public synchronized Optimizer getOptimizer() {
+        return optimizer;
+    }
+
+    // REQUIRES: newOptimizer is non-null
+    // MODIFIES: this
+    // EFFECTS: descends with newOptimizer from now on; its existing state is kept, so a restored optimizer
+    //          resumes where it left off
+    public synchronized void setOptimizer(Optimizer newOptimizer) {
+        this.optimizer = newOptimizer;
+        kernel = null;
+        logNewEvent("Optimizer set to " + newOptimizer);
+    }
+
+    public synchronized StepSizeMode getStepSizeMode() {
+        return stepSize.getMode();
+    }
+
+    // REQUIRES: mode is non-null
+    // MODIFIES: this
+    // EFFECTS: sizes steps according to mode from now on, starting its history afresh
+    public synchronized void setStepSizeMode(StepSizeMode mode) {
+        this.stepSize = new StepSizeController(mode);
+        kernel = null;
+        logNewEvent("Step size mode set to " + mode);
+    }
+
+    // EFFECTS: returns the function values sampled by line searches since the run started; these are
+    //          spent on top of the one sample each iteration takes
+    public synchronized long getLineSearchEvaluations() {
+        return stepSize.getLineSearchEvaluations();
+    }
+
+    // EFFECTS: returns the evaluations of f or its second derivatives spent on Hessians since the run
+    //          started; only curvature-using optimizers such as Newton spend any
+    public synchronized long getHessianEvaluations() {
+        return hessianEvaluations;
+    }
+
+    // EFFECTS: returns the number of descent steps taken since the run started
+    public synchronized long getStepCount() {
+        return stepCount;
+    }
+
+    public synchronized GradientClipping getGradientClipping() {
+        return clipping;
+    }
+
+    // REQUIRES: newClipping is non-null
+    // MODIFIES: this
+    // EFFECTS: clips the gradient the optimizer sees from the next step on
+    public synchronized void setGradientClipping(GradientClipping newClipping) {
+        this.clipping = newClipping;
+        kernel = null;
+        logNewEvent("Gradient clipping set to " + newClipping);
+    }
+
+    public synchronized DivergenceDetector getDivergenceDetector() {
+        return detector;
+    }
+
+    // REQUIRES: newDetector is non-null
+    // MODIFIES: this
+    // EFFECTS: judges divergence with newDetector from the next step on
+    public synchronized void setDivergenceDetector(DivergenceDetector newDetector) {
+        this.detector = newDetector;
+        kernel = null;
     }
 
     // MODIFIES: this
@@ -139,8 +260,15 @@ public class Simulation {
             return;
         }
         this.field = newField;
-        this.currentPoint = null;
+        this.hasPoint = false;
+        this.currentValue = Float.NaN;
         this.path.clear();
+        this.optimizer.reset();
+        this.stepSize.reset();
+        this.hessianEvaluations = 0;
+        this.stepCount = 0;
+        this.detector.reset();
+        this.kernel = null;
 
         logNewEvent("Loaded scalar field: " + newField.getName());
     }
@@ -151,6 +279,7 @@ public class Simulation {
     // EFFECTS: sets the learning rate for gradient descent
     public synchronized void setLearningRate(float newLearningRate) {
         this.learningRate = newLearningRate;
+        kernel = null;
     }
 
     // MODIFIES: this
@@ -159,35 +288,62 @@ public class Simulation {
     public synchronized void setInitialPoint(float x, float y) {
         ensureFieldLoaded();
 
-        currentPoint = new Vector2(x, y);
+        moveTo(x, y);
         path.clear();
-        path.add(new Vector2(currentPoint));
-
-        logNewEvent("Set initial point to " + currentPoint.toString());
+        path.add(x, y);
+        optimizer.reset();
+        stepSize.reset();
+        detector.reset();
+        kernel = null;
+        hessianEvaluations = 0;
+        stepCount = 0;
+
+        logNewEvent("Set initial point to " + getCurrentPoint().toString());
     }
 
     // MODIFIES: this
     // REQUIRES: field and currentPoint are non-null
-    // EFFECTS: performs one gradient descent step; updates currentPoint, path, timeElapsed
-    public synchronized void step(float deltaTime) {
+    // EFFECTS: performs one gradient descent step; updates currentPoint, path, timeElapsed. Returns how the
+    //          step ended: a failure status means the run cannot continue from its current point, and is
+    //          logged instead of thrown
+    public synchronized DescentStatus step(float deltaTime) {
         ensureFieldLoaded();
         ensurePointInitialized();
 
-        Vector2 grad = field.gradientAt(currentPoint.getX(), currentPoint.getY());
-        float mag = grad.magnitude();
+        DescentKernel kernel = runKernel(1, stopThreshold);
+        if (kernel.getIterations() > 0) {
+            timeElapsed += deltaTime;
+            logNewEvent("Step taken to " + getCurrentPoint().toString());
+        }
 
-        if (mag < stopThreshold) {
-            logNewEvent("Convergence reached at " + currentPoint.toString());
-            return;
+        DescentStatus status = kernel.getStatus();
+        if (status.isFailure()) {
+            logNewEvent("Descent halted: " + kernel.getHaltReason());
+        } else if (status == DescentStatus.CONVERGED && kernel.getIterations() == 0) {
+            logConvergence();
         }
+        return status;
+    }
 
-        Vector2 scaled = Vector2.multiply(grad, learningRate);
-        currentPoint = Vector2.sub(currentPoint, scaled);
+    // MODIFIES: this
+    // REQUIRES: field and currentPoint are non-null, maxSteps >= 0
+    // EFFECTS: performs up to maxSteps gradient descent steps in one batch, advancing timeElapsed by deltaTime
+    //          per step taken, and returns how the batch ended. Meant for callers stepping continuously, so
+    //          individual steps are not logged; only convergence and failures are
+    public synchronized DescentStatus advance(int maxSteps, float deltaTime) {
+        ensureFieldLoaded();
+        ensurePointInitialized();
 
-        path.add(new Vector2(currentPoint));
-        timeElapsed += deltaTime;
+        DescentKernel kernel = runKernel(maxSteps, stopThreshold);
+        timeElapsed += deltaTime * kernel.getIterations();
 
-        logNewEvent("Step taken to " + currentPoint.toString());
+        DescentStatus status = kernel.getStatus();
+        if (status.isFailure()) {
+            logNewEvent("Descent halted: " + kernel.getHaltReason());
+        } else if (status == DescentStatus.CONVERGED) {
+            logConvergence();
+        }
+        return status;
     }
 
     // MODIFIES: this
@@ -197,26 +353,61 @@ public class Simulation {
         ensureFieldLoaded();
         ensurePointInitialized();
 
-        int iterations = 0;
-        while (iterations < maxIterations) {
-            Vector2 grad = field.gradientAt(currentPoint.getX(), currentPoint.getY());
-            if (grad.magnitude() < stopThreshold) {
-                logNewEvent("Convergence reached at " + currentPoint.toString());
-                break;
-            }
-
-            Vector2 scaled = Vector2.multiply(grad, learningRate);
-            currentPoint = Vector2.sub(currentPoint, scaled);
-
-            path.add(new Vector2(currentPoint));
-            timeElapsed += deltaTime;
+        long evaluationsBefore = stepSize.getLineSearchEvaluations();
+        DescentKernel kernel = runKernel(maxIterations, stopThreshold);
+        timeElapsed += deltaTime * kernel.getIterations();
 
-            iterations++;
+        if (kernel.getStatus().isFailure()) {
+            logNewEvent("Descent halted: " + kernel.getHaltReason());
+        } else if (kernel.getStatus() == DescentStatus.MAX_ITERATIONS) {
+            logNewEvent("Max iterations reached without convergence.");
+        } else {
+            logConvergence();
+        }
+        long evaluations = stepSize.getLineSearchEvaluations() - evaluationsBefore;
+        if (evaluations > 0) {
+            logNewEvent("Line search sampled " + evaluations + " extra values over " + kernel.getIterations()
+                    + " iterations.");
+        }
+        if (kernel.getHessianEvaluations() > 0) {
+            logNewEvent("Hessians took " + kernel.getHessianEvaluations() + " evaluations over "
+                    + kernel.getIterations() + " iterations.");
         }
+    }
 
-        if (iterations == maxIterations) {
-            logNewEvent("Max iterations reached without convergence.");
+    // REQUIRES: field is non-null and the current point is set
+    // MODIFIES: this
+    // EFFECTS: descends from the current point for at most maxSteps steps on the allocation-free kernel,
+    //          appending to the path, and returns the kernel describing how the run ended. The kernel is
+    //          kept for the next call, which then starts from the sample this one ended on; it is only
+    //          rebuilt once the field, a parameter, the optimizer or its helpers, or the point changed
+    private DescentKernel runKernel(int maxSteps, float threshold) {
+        if (kernel == null || kernelThreshold != threshold) {
+            kernel = new DescentKernel(field, learningRate, threshold, optimizer, stepSize);
+            kernel.setGradientClipping(clipping);
+            kernel.setDivergenceDetector(detector);
+            kernelThreshold = threshold;
         }
+        kernel.resume(currentX, currentY);
+        path.ensureCapacity(path.size() + maxSteps);
+        kernel.advance(maxSteps, path);
+        hessianEvaluations += kernel.getHessianEvaluations();
+        stepCount += kernel.getIterations();
+        moveTo(kernel.getX(), kernel.getY());
+        currentValue = kernel.getValue();
+        return kernel;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the current point to (x, y)
+    private void moveTo(float x, float y) {
+        currentX = x;
+        currentY = y;
+        hasPoint = true;
+    }
+
+    private void logConvergence() {
+        logNewEvent("Convergence reached at " + getCurrentPoint().toString() + " with f = " + currentValue);
     }
 
     private void ensureFieldLoaded() {
@@ -226,7 +417,7 @@ public class Simulation {
     }
 
     private void ensurePointInitialized() {
-        if (currentPoint == null) {
+        if (!hasPoint) {
             throw new ArgumentOutOfBoundsException("Initial point not set for simulation.");
         }
     }
@@ -0,0 +1,163 @@
+package model;
+
+import java.util.Arrays;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+
+/**
+ * A growable descent path stored as parallel float arrays rather than one Vector2 per point.
+ * Each point may also cache its height f(x, y), so renderers need not re-evaluate the field
+ * for points whose value the descent already computed.
+ *
+ * A trajectory has a single writer but can be read by any number of threads through snapshots.
+ * Points are append-only: a point is written before the volatile length that publishes it, and
+ * published coordinates are never overwritten. Growing or clearing moves the writer to a fresh
+ * segment instead of reusing the old arrays, so a snapshot taken earlier stays valid without locks.
+ */
+public class Trajectory implements TrajectoryView {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private volatile Segment segment;
+
+    // EFFECTS: creates an empty trajectory
+    public Trajectory() {
+        segment = new Segment(INITIAL_CAPACITY, 0L);
+    }
+
+    // EFFECTS: creates a trajectory holding a copy of the points (and cached heights) of source
+    public Trajectory(TrajectoryView source) {
+        this();
+        addAll(source);
+    }
+
+    @Override
+    public int size() {
+        return segment.length;
+    }
+
+    @Override
+    public float getX(int index) {
+        Segment current = segment;
+        checkIndex(index, current.length);
+        return current.xs[index];
+    }
+
+    @Override
+    public float getY(int index) {
+        Segment current = segment;
+        checkIndex(index, current.length);
+        return current.ys[index];
+    }
+
+    @Override
+    public float getZ(int index) {
+        Segment current = segment;
+        checkIndex(index, current.length);
+        return current.zs[index];
+    }
+
+    @Override
+    public void forEach(int from, int to, TrajectoryVisitor visitor) {
+        snapshot().forEach(from, to, visitor);
+    }
+
+    // EFFECTS: returns an immutable view of the points published so far; taking it needs no lock and
+    //          copies nothing
+    public TrajectorySnapshot snapshot() {
+        Segment current = segment;
+        return new TrajectorySnapshot(current.xs, current.ys, current.zs, current.length, current.version);
+    }
+
+    // EFFECTS: returns a counter that changes whenever the trajectory is cleared, so readers can tell
+    //          a path that was replaced from one that only grew
+    public long getVersion() {
+        return segment.version;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends (x, y) with no cached height
+    public void add(float x, float y) {
+        add(x, y, Float.NaN);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends (x, y) with cached height z (NaN for none) and publishes it to readers
+    public void add(float x, float y, float z) {
+        ensureCapacity(segment.length + 1);
+        Segment current = segment;
+        int index = current.length;
+        current.xs[index] = x;
+        current.ys[index] = y;
+        current.zs[index] = z;
+        current.length = index + 1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends every point of source, including its cached heights
+    public void addAll(TrajectoryView source) {
+        int count = source.size();
+        ensureCapacity(size() + count);
+        for (int i = 0; i < count; i++) {
+            add(source.getX(i), source.getY(i), source.getZ(i));
+        }
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // MODIFIES: this
+    // EFFECTS: caches z as the height of the point at index; readers see either the old or the new height
+    public void setZ(int index, float z) {
+        Segment current = segment;
+        checkIndex(index, current.length);
+        current.zs[index] = z;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes all points and advances the version; existing snapshots keep their points
+    public void clear() {
+        Segment current = segment;
+        segment = new Segment(INITIAL_CAPACITY, current.version + 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows the backing arrays so at least capacity points fit without reallocating
+    public void ensureCapacity(int capacity) {
+        Segment current = segment;
+        if (capacity <= current.xs.length) {
+            return;
+        }
+        int grown = Math.max(capacity, current.xs.length + (current.xs.length >> 1));
+        Segment larger = new Segment(current, grown);
+        segment = larger;
+    }
+
+    private static void checkIndex(int index, int length) {
+        if (index < 0 || index >= length) {
+            throw new ArgumentOutOfBoundsException("Trajectory index out of bounds: " + index);
+        }
+    }
+
+    // Backing arrays of a trajectory; points below length are published and never rewritten
+    private static final class Segment {
+        private final float[] xs;
+        private final float[] ys;
+        private final float[] zs;
+        private final long version;
+        private volatile int length;
+
+        Segment(int capacity, long version) {
+            this.xs = new float[capacity];
+            this.ys = new float[capacity];
+            this.zs = new float[capacity];
+            this.version = version;
+            this.length = 0;
+        }
+
+        Segment(Segment source, int capacity) {
+            this.xs = Arrays.copyOf(source.xs, capacity);
+            this.ys = Arrays.copyOf(source.ys, capacity);
+            this.zs = Arrays.copyOf(source.zs, capacity);
+            this.version = source.version;
+            this.length = source.length;
+        }
+    }
+}
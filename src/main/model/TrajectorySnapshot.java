@@ -0,0 +1,70 @@
+package model;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+
+/**
+ * A fixed-length, read-only view of a Trajectory at the moment the snapshot was taken. It shares the
+ * trajectory's arrays instead of copying them, which is safe because published points are never
+ * rewritten; only cached heights may later change from NaN to a value.
+ */
+public final class TrajectorySnapshot implements TrajectoryView {
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] zs;
+    private final int length;
+    private final long version;
+
+    // REQUIRES: the first length entries of xs, ys and zs are published and never rewritten
+    // EFFECTS: creates a snapshot over the first length points
+    TrajectorySnapshot(float[] xs, float[] ys, float[] zs, int length, long version) {
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.length = length;
+        this.version = version;
+    }
+
+    // EFFECTS: returns the version of the trajectory this snapshot was taken from
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public float getX(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    @Override
+    public float getY(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    @Override
+    public float getZ(int index) {
+        checkIndex(index);
+        return zs[index];
+    }
+
+    @Override
+    public void forEach(int from, int to, TrajectoryVisitor visitor) {
+        if (from < 0 || to > length || from > to) {
+            throw new ArgumentOutOfBoundsException("Trajectory range out of bounds.");
+        }
+        for (int i = from; i < to; i++) {
+            visitor.visit(i, xs[i], ys[i], zs[i]);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= length) {
+            throw new ArgumentOutOfBoundsException("Trajectory index out of bounds: " + index);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package model;
+
+// Represents read-only access to a sequence of descent points stored as primitive coordinates
+public interface TrajectoryView {
+    // EFFECTS: returns the number of points
+    int size();
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: returns the x coordinate of the point at index
+    float getX(int index);
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: returns the y coordinate of the point at index
+    float getY(int index);
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: returns the cached height f(x, y) of the point at index, or NaN if none is cached
+    float getZ(int index);
+
+    // REQUIRES: 0 <= from <= to <= size()
+    // EFFECTS: visits the points in [from, to) in order
+    void forEach(int from, int to, TrajectoryVisitor visitor);
+
+    // EFFECTS: visits every point in order
+    default void forEach(TrajectoryVisitor visitor) {
+        forEach(0, size(), visitor);
+    }
+
+    // EFFECTS: returns true iff there are no points
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
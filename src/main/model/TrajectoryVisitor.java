@@ -0,0 +1,8 @@
+package model;
+
+// Receives the points of a trajectory one at a time, without any per-point allocation
+@FunctionalInterface
+public interface TrajectoryVisitor {
+    // EFFECTS: visits the point at index; z is the cached height f(x, y), or NaN if none is cached
+    void visit(int index, float x, float y, float z);
+}
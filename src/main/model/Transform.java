@@ -1,165 +1,141 @@
 package model;
 
-// Represents a 4x4 affine transform matrix (yayy computer graphics!)
+// Represents a 4x4 affine transform matrix (yayy computer graphics!), backed by a flat Matrix4. Every
+// operation here returns a new transform; per-frame code can work on Matrix4 directly instead
 public class Transform {
-    private static final float DEGREE_TO_RAD = 0.0174533f;
     private static final int ROW_COUNT = 4;
     private static final int COL_COUNT = 4;
-    private final float[][] components;
+    private final Matrix4 matrix;
 
     // EFFECTS: creates an identity matrix
     public Transform() {
-        this(buildIdentity());
+        this(new Matrix4());
     }
 
-    private Transform(float[][] backing) {
-        this.components = backing;
+    private Transform(Matrix4 backing) {
+        this.matrix = backing;
     }
 
+    // EFFECTS: returns a transform holding a copy of matrix
+    public static Transform of(Matrix4 matrix) {
+        return new Transform(new Matrix4(matrix));
+    }
+
+    // EFFECTS: returns the matrix backing this transform; callers must not modify it
+    public Matrix4 getMatrix() {
+        return matrix;
+    }
+
+    // EFFECTS: returns the entries as an array of rows; the array is a copy, so changing it leaves this
+    //          transform unchanged
     public float[][] getComponents() {
+        float[][] components = new float[ROW_COUNT][COL_COUNT];
+        for (int r = 0; r < ROW_COUNT; r++) {
+            for (int c = 0; c < COL_COUNT; c++) {
+                components[r][c] = matrix.get(r, c);
+            }
+        }
         return components;
     }
 
     // EFFECTS: creates a translation matrix
     public static Transform translation(Vector3 trl) {
-        Transform matrix = new Transform();
-        matrix.components[0][3] = trl.getX();
-        matrix.components[1][3] = trl.getY();
-        matrix.components[2][3] = trl.getZ();
-        return matrix;
+        Transform transform = new Transform();
+        transform.matrix.setTranslation(trl.getX(), trl.getY(), trl.getZ());
+        return transform;
     }
 
     // EFFECTS: creates a scale matrix
     public static Transform scale(Vector3 scl) {
-        Transform matrix = new Transform();
-        matrix.components[0][0] = scl.getX();
-        matrix.components[1][1] = scl.getY();
-        matrix.components[2][2] = scl.getZ();
-        return matrix;
+        Transform transform = new Transform();
+        transform.matrix.setScale(scl.getX(), scl.getY(), scl.getZ());
+        return transform;
     }
 
     // EFFECTS: creates a rotation matrix about the x axis
     public static Transform rotationX(float rotDegrees) {
-        Transform matrix = new Transform();
-
-        float cosDeg = cosDegrees(rotDegrees);
-        float sinDeg = sinDegrees(rotDegrees);
-        matrix.components[1][1] = cosDeg;
-        matrix.components[2][1] = sinDeg;
-        matrix.components[1][2] = -sinDeg;
-        matrix.components[2][2] = cosDeg;
-        return matrix;
+        Transform transform = new Transform();
+        transform.matrix.setRotationX(rotDegrees);
+        return transform;
     }
 
     // EFFECTS: creates a rotation matrix about the y axis
     public static Transform rotationY(float rotDegrees) {
-        Transform matrix = new Transform();
-
-        float cosDeg = cosDegrees(rotDegrees);
-        float sinDeg = sinDegrees(rotDegrees);
-        matrix.components[0][0] = cosDeg;
-        matrix.components[0][2] = sinDeg;
-        matrix.components[2][0] = -sinDeg;
-        matrix.components[2][2] = cosDeg;
-        return matrix;
+        Transform transform = new Transform();
+        transform.matrix.setRotationY(rotDegrees);
+        return transform;
     }
 
     // EFFECTS: creates a rotation matrix about the z axis
     public static Transform rotationZ(float rotDegrees) {
-        Transform matrix = new Transform();
-
-        float cosDeg = cosDegrees(rotDegrees);
-        float sinDeg = sinDegrees(rotDegrees);
-        matrix.components[0][0] = cosDeg;
-        matrix.components[0][1] = sinDeg;
-        matrix.components[1][0] = -sinDeg;
-        matrix.components[1][1] = cosDeg;
-        return matrix;
+        Transform transform = new Transform();
+        transform.matrix.setRotationZ(rotDegrees);
+        return transform;
     }
 
     // EFFECTS: creates a 3D rotation matrix
     public static Transform rotation(Vector3 rot) {
-        Transform matrix = new Transform();
+        Transform transform = rotationX(rot.getX());
+        Matrix4 step = new Matrix4();
 
-        Transform rotX = rotationX(rot.getX());
-        Transform rotY = rotationY(rot.getY());
-        Transform rotZ = rotationZ(rot.getZ());
+        step.setRotationY(rot.getY());
+        Matrix4.mulInto(transform.matrix, step, transform.matrix);
+        step.setRotationZ(rot.getZ());
+        Matrix4.mulInto(transform.matrix, step, transform.matrix);
 
-        matrix = multiply(matrix, rotX);
-        matrix = multiply(matrix, rotY);
-        matrix = multiply(matrix, rotZ);
-
-        return matrix;
+        return transform;
     }
 
     // EFFECTS: creates a TRS matrix
     public static Transform transform(Vector3 trl, Vector3 rot, Vector3 scl) {
-        Transform tformMatrix = new Transform();
-        Transform matScale = scale(scl);
-        Transform matRot = rotation(rot);
-        Transform matTrans = translation(trl);
+        Transform tformMatrix = scale(scl);
 
-        tformMatrix = multiply(tformMatrix, matScale);
-        tformMatrix = multiply(tformMatrix, matRot);
-        tformMatrix = multiply(tformMatrix, matTrans);
+        Matrix4.mulInto(tformMatrix.matrix, rotation(rot).matrix, tformMatrix.matrix);
+        Matrix4.mulInto(tformMatrix.matrix, translation(trl).matrix, tformMatrix.matrix);
 
         return tformMatrix;
     }
 
     // EFFECTS: returns the multiplication of two matricies
     public static Transform multiply(Transform left, Transform right) {
-        float[][] out = new float[ROW_COUNT][COL_COUNT];
-        for (int r = 0; r < ROW_COUNT; r++) {
-            for (int c = 0; c < COL_COUNT; c++) {
-                out[r][c] = dotRowByColumn(left.components, right.components, r, c);
-            }
-        }
-        return new Transform(out);
+        Transform product = new Transform();
+        Matrix4.mulInto(left.matrix, right.matrix, product.matrix);
+        return product;
     }
 
-    // EFFECTS: returns the multiplication of a matricie and a vector
+    // EFFECTS: returns the multiplication of a matricie and a vector, ignoring the bottom row
     public static Vector3 multiply(Transform m, Vector3 v) {
-        float[][] matrix = m.getComponents();
-
-        float x = matrix[0][0] * v.getX()
-                + matrix[0][1] * v.getY()
-                + matrix[0][2] * v.getZ()
-                + matrix[0][3] * 1.0f;
-        float y = matrix[1][0] * v.getX()
-                + matrix[1][1] * v.getY()
-                + matrix[1][2] * v.getZ()
-                + matrix[1][3] * 1.0f;
-        float z = matrix[2][0] * v.getX()
-                + matrix[2][1] * v.getY()
-                + matrix[2][2] * v.getZ()
-                + matrix[2][3] * 1.0f;
+        float[] e = m.matrix.elements;
+
+        float x = e[0] * v.getX()
+                + e[1] * v.getY()
+                + e[2] * v.getZ()
+                + e[3];
+        float y = e[4] * v.getX()
+                + e[5] * v.getY()
+                + e[6] * v.getZ()
+                + e[7];
+        float z = e[8] * v.getX()
+                + e[9] * v.getY()
+                + e[10] * v.getZ()
+                + e[11];
 
         return new Vector3(x, y, z);
     }
 
     // EFFECTS: extracts a scale vector from the transform
-    public static Vector3 extractScale(Transform matrix) {
-        float[][] comp = matrix.components;
-        float scaleX = new Vector3(comp[0][0], comp[0][1], comp[0][2]).magnitude();
-        float scaleY = new Vector3(comp[1][0], comp[1][1], comp[1][2]).magnitude();
-        float scaleZ = new Vector3(comp[2][0], comp[2][1], comp[2][2]).magnitude();
+    public static Vector3 extractScale(Transform transform) {
+        Matrix4 m = transform.matrix;
+        float scaleX = new Vector3(m.get(0, 0), m.get(0, 1), m.get(0, 2)).magnitude();
+        float scaleY = new Vector3(m.get(1, 0), m.get(1, 1), m.get(1, 2)).magnitude();
+        float scaleZ = new Vector3(m.get(2, 0), m.get(2, 1), m.get(2, 2)).magnitude();
         return new Vector3(scaleX, scaleY, scaleZ);
     }
 
     // EFFECTS: extracts a translation vector from the transform
-    public static Vector3 extractTranslation(Transform matrix) {
-        float[][] comp = matrix.components;
-        return new Vector3(comp[0][3], comp[1][3], comp[2][3]);
-    }
-
-    // EFFECTS: returns sinx in degrees
-    private static float sinDegrees(float x) {
-        return (float) Math.sin(x * DEGREE_TO_RAD);
-    }
-
-    // EFFECTS: returns cosx in degrees
-    private static float cosDegrees(float x) {
-        return (float) Math.cos(x * DEGREE_TO_RAD);
+    public static Vector3 extractTranslation(Transform transform) {
+        Matrix4 m = transform.matrix;
+        return new Vector3(m.get(0, 3), m.get(1, 3), m.get(2, 3));
     }
 
     public static Transform lookAt(Vector3 eye, Vector3 center, Vector3 up) {
@@ -167,47 +143,29 @@ public class Transform {
         Vector3 s = Vector3.normalize(Vector3.cross(f, up));         // side
         Vector3 u = Vector3.cross(s, f);                             // corrected up
 
-        Transform matrix = new Transform();
-        float[][] m = matrix.getComponents();
+        Transform transform = new Transform();
+        Matrix4 m = transform.matrix;
 
-        m[0][0] = s.getX();
-        m[1][0] = s.getY();
-        m[2][0] = s.getZ();
-        m[3][0] = -Vector3.dotProduct(s, eye);
+        m.set(0, 0, s.getX());
+        m.set(1, 0, s.getY());
+        m.set(2, 0, s.getZ());
+        m.set(3, 0, -Vector3.dotProduct(s, eye));
 
-        m[0][1] = u.getX();
-        m[1][1] = u.getY();
-        m[2][1] = u.getZ();
-        m[3][1] = -Vector3.dotProduct(u, eye);
+        m.set(0, 1, u.getX());
+        m.set(1, 1, u.getY());
+        m.set(2, 1, u.getZ());
+        m.set(3, 1, -Vector3.dotProduct(u, eye));
 
-        m[0][2] = -f.getX();
-        m[1][2] = -f.getY();
-        m[2][2] = -f.getZ();
-        m[3][2] = Vector3.dotProduct(f, eye);
+        m.set(0, 2, -f.getX());
+        m.set(1, 2, -f.getY());
+        m.set(2, 2, -f.getZ());
+        m.set(3, 2, Vector3.dotProduct(f, eye));
 
-        m[0][3] = 0f;
-        m[1][3] = 0f;
-        m[2][3] = 0f;
-        m[3][3] = 1f;
+        m.set(0, 3, 0f);
+        m.set(1, 3, 0f);
+        m.set(2, 3, 0f);
+        m.set(3, 3, 1f);
 
-        return matrix;
-    }
-
-    // EFFECTS: builds a standard identity matrix backing
-    private static float[][] buildIdentity() {
-        float[][] out = new float[ROW_COUNT][COL_COUNT];
-        for (int i = 0; i < ROW_COUNT; i++) {
-            out[i][i] = 1.0f;
-        }
-        return out;
-    }
-
-    // EFFECTS: computes dot product between a row of left and column of right
-    private static float dotRowByColumn(float[][] left, float[][] right, int row, int col) {
-        float sum = 0f;
-        for (int k = 0; k < COL_COUNT; k++) {
-            sum += left[row][k] * right[k][col];
-        }
-        return sum;
+        return transform;
     }
 }
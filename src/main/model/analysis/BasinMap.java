@@ -0,0 +1,157 @@
+package model.analysis;
+
+/**
+ * An immutable basin-of-attraction map: an nx-by-ny grid of cells over a rectangle of a field's
+ * domain, each labelled with the minimum a descent started at the cell's centre converged to.
+ * Minima closer than the clustering tolerance share a label, and labels are ordered by the value
+ * of their minimum, so label 0 is always the deepest basin. Cells whose descent did not converge
+ * are labelled UNCONVERGED.
+ */
+public final class BasinMap {
+    public static final int UNCONVERGED = -1;
+    public static final int UNCONVERGED_COLOR = 0xFF202020;
+    private static final float GOLDEN_RATIO_CONJUGATE = 0.618034f;
+
+    private final int columns;
+    private final int rows;
+    private final float minX;
+    private final float maxX;
+    private final float minY;
+    private final float maxY;
+    private final int[] labels;
+    private final float[] minimaX;
+    private final float[] minimaY;
+    private final float[] minimaValues;
+    private final int[] basinSizes;
+
+    // REQUIRES: labels.length == columns * rows, laid out row by row; every label is UNCONVERGED or an
+    //           index into the minima arrays, which have equal lengths and are sorted by value
+    // EFFECTS: creates a map over [minX, maxX] x [minY, maxY] taking ownership of the arrays
+    BasinMap(int columns, int rows, float minX, float maxX, float minY, float maxY, int[] labels,
+             float[] minimaX, float[] minimaY, float[] minimaValues) {
+        this.columns = columns;
+        this.rows = rows;
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.labels = labels;
+        this.minimaX = minimaX;
+        this.minimaY = minimaY;
+        this.minimaValues = minimaValues;
+        this.basinSizes = new int[minimaX.length];
+        for (int label : labels) {
+            if (label != UNCONVERGED) {
+                basinSizes[label]++;
+            }
+        }
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public float getXMin() {
+        return minX;
+    }
+
+    public float getXMax() {
+        return maxX;
+    }
+
+    public float getYMin() {
+        return minY;
+    }
+
+    public float getYMax() {
+        return maxY;
+    }
+
+    // REQUIRES: 0 <= column < getColumns(), 0 <= row < getRows()
+    // EFFECTS: returns the label of the cell in the given column and row (row 0 at minY)
+    public int getLabel(int column, int row) {
+        return labels[row * columns + column];
+    }
+
+    // EFFECTS: returns the label of the cell containing (x, y), or UNCONVERGED if it lies outside the map
+    public int labelAt(float x, float y) {
+        if (!(x >= minX && x <= maxX && y >= minY && y <= maxY)) {
+            return UNCONVERGED;
+        }
+        int column = Math.min(columns - 1, (int) ((x - minX) / (maxX - minX) * columns));
+        int row = Math.min(rows - 1, (int) ((y - minY) / (maxY - minY) * rows));
+        return getLabel(column, row);
+    }
+
+    // EFFECTS: returns the number of distinct minima found
+    public int getBasinCount() {
+        return minimaX.length;
+    }
+
+    // REQUIRES: 0 <= label < getBasinCount()
+    public float getMinimumX(int label) {
+        return minimaX[label];
+    }
+
+    // REQUIRES: 0 <= label < getBasinCount()
+    public float getMinimumY(int label) {
+        return minimaY[label];
+    }
+
+    // REQUIRES: 0 <= label < getBasinCount()
+    // EFFECTS: returns the lowest value any descent into this basin ended at
+    public float getMinimumValue(int label) {
+        return minimaValues[label];
+    }
+
+    // REQUIRES: 0 <= label < getBasinCount()
+    // EFFECTS: returns the number of cells draining into the basin
+    public int getBasinSize(int label) {
+        return basinSizes[label];
+    }
+
+    // EFFECTS: returns the number of cells whose descent did not converge
+    public int getUnconvergedCount() {
+        int count = labels.length;
+        for (int size : basinSizes) {
+            count -= size;
+        }
+        return count;
+    }
+
+    // REQUIRES: 0 <= column < getColumns(), 0 <= row < getRows()
+    // EFFECTS: returns the opaque ARGB color of the cell in the given column and row
+    public int getColor(int column, int row) {
+        return colorOf(getLabel(column, row));
+    }
+
+    // EFFECTS: returns an opaque ARGB color for label; successive labels get well separated hues and
+    //          UNCONVERGED is drawn dark grey
+    public static int colorOf(int label) {
+        if (label < 0) {
+            return UNCONVERGED_COLOR;
+        }
+        float hue = (label * GOLDEN_RATIO_CONJUGATE) % 1f * 6f;
+        int sector = Math.min(5, (int) hue);
+        int high = 242;                                   // channel levels of a bright, fairly saturated color
+        int low = 85;
+        int up = low + Math.round((high - low) * (hue - sector));
+        int down = high + low - up;
+        switch (sector) {
+            case 0: return rgb(high, up, low);
+            case 1: return rgb(down, high, low);
+            case 2: return rgb(low, high, up);
+            case 3: return rgb(low, down, high);
+            case 4: return rgb(up, low, high);
+            default: return rgb(high, low, down);
+        }
+    }
+
+    private static int rgb(int red, int green, int blue) {
+        return 0xFF000000 | (red << 16) | (green << 8) | blue;
+    }
+}
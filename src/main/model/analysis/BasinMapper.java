@@ -0,0 +1,221 @@
+package model.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.ScalarField;
+import model.exceptions.ArgumentOutOfBoundsException;
+import model.optimizer.GradientDescent;
+import model.optimizer.Optimizer;
+import model.optimizer.StepSizeController;
+import model.optimizer.StepSizeMode;
+
+/**
+ * Computes basin-of-attraction maps. A descent is started from the centre of every cell of a grid
+ * over the field's domain, on the same DescentKernel and with the same Optimizer and StepSizeMode
+ * Simulation uses; the cells are spread across a fork-join pool. Descents record no path, and only
+ * their endpoints are kept, in flat arrays, so a 512x512 map needs a few megabytes. Once every cell
+ * has finished, converged endpoints are clustered into minima with a SpatialHash, so each endpoint
+ * is compared only with the minima founded near it.
+ */
+public final class BasinMapper {
+    private static final int LEAF_SIZE = 64;   // cells descended sequentially by one fork-join task
+
+    private final ScalarField field;
+    private final float learningRate;
+    private final float stopThreshold;
+    private final int maxIterations;
+    private final Optimizer prototype;      // copied fresh for every leaf task, never stepped itself
+    private final StepSizeMode stepSizeMode;
+    private final ForkJoinPool pool;
+    private final AtomicInteger completedCells;
+
+    // REQUIRES: field is non-null, learningRate > 0, maxIterations >= 0
+    // EFFECTS: creates a plain gradient descent mapper that runs on the common fork-join pool
+    public BasinMapper(ScalarField field, float learningRate, float stopThreshold, int maxIterations) {
+        this(field, learningRate, stopThreshold, maxIterations, new GradientDescent(), StepSizeMode.FIXED,
+                ForkJoinPool.commonPool());
+    }
+
+    // REQUIRES: field, optimizer, stepSizeMode and pool are non-null, learningRate > 0, maxIterations >= 0
+    // EFFECTS: creates a mapper descending with fresh copies of optimizer, sized by stepSizeMode, on pool
+    public BasinMapper(ScalarField field, float learningRate, float stopThreshold, int maxIterations,
+                       Optimizer optimizer, StepSizeMode stepSizeMode, ForkJoinPool pool) {
+        this.field = field;
+        this.learningRate = learningRate;
+        this.stopThreshold = stopThreshold;
+        this.maxIterations = maxIterations;
+        this.prototype = optimizer.freshCopy();
+        this.stepSizeMode = stepSizeMode;
+        this.pool = pool;
+        this.completedCells = new AtomicInteger();
+    }
+
+    // REQUIRES: columns, rows >= 1, tolerance > 0
+    // EFFECTS: starts mapping an columns-by-rows grid over the field's domain in the background, clustering
+    //          minima closer than tolerance, and returns the task producing the map; throws
+    //          ArgumentOutOfBoundsException for an empty grid or a non-positive tolerance
+    public ForkJoinTask<BasinMap> start(int columns, int rows, float tolerance) {
+        if (columns < 1 || rows < 1 || !(tolerance > 0f)) {
+            throw new ArgumentOutOfBoundsException("Invalid basin map grid or tolerance.");
+        }
+        completedCells.set(0);
+        return pool.submit(new MapTask(StartPoints.grid(field, columns, rows), columns, rows, tolerance));
+    }
+
+    // EFFECTS: maps a columns-by-rows grid and returns the map once every cell has finished; see start
+    public BasinMap compute(int columns, int rows, float tolerance) {
+        return start(columns, rows, tolerance).join();
+    }
+
+    // EFFECTS: returns the number of cells of the current map whose descent has finished
+    public int getCompletedCells() {
+        return completedCells.get();
+    }
+
+    // REQUIRES: endX, endY and endValues have equal lengths, with NaN marking unconverged cells
+    // EFFECTS: clusters the converged endpoints into minima within tolerance of the first endpoint that
+    //          founded them, and returns the cell labels ordered so that label 0 is the deepest minimum
+    static BasinMap cluster(int columns, int rows, ScalarField field, float[] endX, float[] endY,
+                            float[] endValues, float tolerance) {
+        int[] labels = new int[endX.length];
+        Clusters clusters = new Clusters(tolerance);
+        for (int cell = 0; cell < endX.length; cell++) {
+            labels[cell] = Float.isNaN(endValues[cell]) ? BasinMap.UNCONVERGED
+                    : clusters.assign(endX[cell], endY[cell], endValues[cell]);
+        }
+
+        int[] rank = clusters.rankByValue();
+        int count = rank.length;
+        float[] minimaX = new float[count];
+        float[] minimaY = new float[count];
+        float[] minimaValues = new float[count];
+        for (int i = 0; i < count; i++) {
+            minimaX[rank[i]] = clusters.lowestX(i);
+            minimaY[rank[i]] = clusters.lowestY(i);
+            minimaValues[rank[i]] = clusters.lowestValue(i);
+        }
+        for (int cell = 0; cell < labels.length; cell++) {
+            labels[cell] = (labels[cell] == BasinMap.UNCONVERGED) ? BasinMap.UNCONVERGED : rank[labels[cell]];
+        }
+        return new BasinMap(columns, rows, field.getXMin(), field.getXMax(), field.getYMin(), field.getYMax(),
+                labels, minimaX, minimaY, minimaValues);
+    }
+
+    // Growing set of minima, deduplicated by the endpoint that founded each one
+    private static final class Clusters {
+        private final SpatialHash founders;
+        private final List<float[]> lowest = new ArrayList<>();      // x, y, value of the deepest member
+
+        Clusters(float tolerance) {
+            this.founders = new SpatialHash(tolerance);
+        }
+
+        // MODIFIES: this
+        // EFFECTS: returns the cluster (x, y) belongs to, founding a new one if no founder is within tolerance
+        int assign(float x, float y, float value) {
+            int found = founders.insert(x, y);
+            if (found == lowest.size()) {
+                lowest.add(new float[] {x, y, value});
+            } else if (value < lowest.get(found)[2]) {
+                lowest.set(found, new float[] {x, y, value});
+            }
+            return found;
+        }
+
+        // EFFECTS: returns, for every cluster, its position when the clusters are sorted by lowest value
+        int[] rankByValue() {
+            Integer[] byValue = new Integer[lowest.size()];
+            for (int i = 0; i < byValue.length; i++) {
+                byValue[i] = i;
+            }
+            Arrays.sort(byValue, (a, b) -> Float.compare(lowestValue(a), lowestValue(b)));
+            int[] rank = new int[byValue.length];
+            for (int i = 0; i < byValue.length; i++) {
+                rank[byValue[i]] = i;
+            }
+            return rank;
+        }
+
+        float lowestX(int index) {
+            return lowest.get(index)[0];
+        }
+
+        float lowestY(int index) {
+            return lowest.get(index)[1];
+        }
+
+        float lowestValue(int index) {
+            return lowest.get(index)[2];
+        }
+    }
+
+    // Root task: descends every cell, then clusters the endpoints into a map
+    private final class MapTask extends RecursiveTask<BasinMap> {
+        private static final long serialVersionUID = 1L;
+
+        private final StartPoints starts;
+        private final int columns;
+        private final int rows;
+        private final float tolerance;
+        private final float[] endX;
+        private final float[] endY;
+        private final float[] endValues;
+
+        MapTask(StartPoints starts, int columns, int rows, float tolerance) {
+            this.starts = starts;
+            this.columns = columns;
+            this.rows = rows;
+            this.tolerance = tolerance;
+            this.endX = new float[starts.size()];
+            this.endY = new float[starts.size()];
+            this.endValues = new float[starts.size()];
+        }
+
+        @Override
+        protected BasinMap compute() {
+            new CellTask(this, 0, starts.size()).invoke();
+            return cluster(columns, rows, field, endX, endY, endValues, tolerance);
+        }
+    }
+
+    // Fork-join task descending the cells in [from, to), splitting until spans are small
+    private final class CellTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final MapTask map;
+        private final int from;
+        private final int to;
+
+        CellTask(MapTask map, int from, int to) {
+            this.map = map;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CellTask(map, from, middle), new CellTask(map, middle, to));
+                return;
+            }
+            DescentKernel kernel = new DescentKernel(field, learningRate, stopThreshold, prototype.freshCopy(),
+                    new StepSizeController(stepSizeMode));
+            for (int cell = from; cell < to; cell++) {
+                kernel.reset(map.starts.getX(cell), map.starts.getY(cell));
+                boolean converged = kernel.advance(maxIterations, null) == DescentStatus.CONVERGED;
+                map.endX[cell] = kernel.getX();
+                map.endY[cell] = kernel.getY();
+                map.endValues[cell] = converged ? kernel.getValue() : Float.NaN;
+            }
+            completedCells.addAndGet(to - from);
+        }
+    }
+}
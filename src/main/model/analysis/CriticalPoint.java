@@ -0,0 +1,39 @@
+package model.analysis;
+
+// Represents an immutable critical point of a scalar field: where it lies, the value of f there and its
+// kind according to the Hessian
+public final class CriticalPoint {
+    private final float x;
+    private final float y;
+    private final float value;
+    private final CriticalPointType type;
+
+    // EFFECTS: creates a critical point of the given type at (x, y) with f(x, y) = value
+    public CriticalPoint(float x, float y, float value, CriticalPointType type) {
+        this.x = x;
+        this.y = y;
+        this.value = value;
+        this.type = type;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getValue() {
+        return value;
+    }
+
+    public CriticalPointType getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s at (%.3f, %.3f), f = %.4f", type, x, y, value);
+    }
+}
@@ -0,0 +1,268 @@
+package model.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import model.ScalarField;
+import model.exceptions.ArgumentOutOfBoundsException;
+
+/**
+ * Finds the critical points (∇f = 0) of a scalar field: minima, maxima and saddles alike. A coarse
+ * grid scan seeds a candidate at every vertex where |∇f| is no larger than at its eight neighbours;
+ * each candidate is then refined in parallel on a fork-join pool by Newton's method on ∇f = 0, which,
+ * unlike descent, converges to whichever kind of critical point is nearest. Refined points closer
+ * than the tolerance are merged by a SpatialHash, and each distinct point is classified by the signs
+ * of its Hessian's eigenvalues.
+ */
+public final class CriticalPointFinder {
+    private static final int LEAF_SIZE = 16;              // candidates refined sequentially by one task
+    private static final int MAX_REFINEMENTS = 50;        // Newton iterations per candidate
+    private static final float CURVATURE_TOLERANCE = 1e-3f;
+
+    private final ScalarField field;
+    private final float gradientThreshold;
+    private final ForkJoinPool pool;
+
+    // REQUIRES: field is non-null, gradientThreshold > 0
+    // EFFECTS: creates a finder accepting points where |∇f| <= gradientThreshold, on the common fork-join pool
+    public CriticalPointFinder(ScalarField field, float gradientThreshold) {
+        this(field, gradientThreshold, ForkJoinPool.commonPool());
+    }
+
+    // REQUIRES: field and pool are non-null, gradientThreshold > 0
+    // EFFECTS: creates a finder accepting points where |∇f| <= gradientThreshold, on the given pool
+    public CriticalPointFinder(ScalarField field, float gradientThreshold, ForkJoinPool pool) {
+        this.field = field;
+        this.gradientThreshold = gradientThreshold;
+        this.pool = pool;
+    }
+
+    // REQUIRES: columns, rows >= 2, tolerance > 0
+    // EFFECTS: starts searching from a columns-by-rows scan of the field's domain in the background, merging
+    //          points closer than tolerance, and returns the task producing the critical points ordered by
+    //          value; throws ArgumentOutOfBoundsException for a degenerate scan or non-positive tolerance
+    public ForkJoinTask<List<CriticalPoint>> start(int columns, int rows, float tolerance) {
+        if (columns < 2 || rows < 2 || !(tolerance > 0f)) {
+            throw new ArgumentOutOfBoundsException("Invalid critical point scan or tolerance.");
+        }
+        return pool.submit(new SearchTask(columns, rows, tolerance));
+    }
+
+    // EFFECTS: searches as start does and returns the critical points once the search has finished
+    public List<CriticalPoint> find(int columns, int rows, float tolerance) {
+        return start(columns, rows, tolerance).join();
+    }
+
+    // REQUIRES: columns, rows >= 2
+    // EFFECTS: returns the vertices of a columns-by-rows grid spanning the field's domain (both ends
+    //          inclusive) at which |∇f| is defined and no larger than at any neighbouring vertex
+    static StartPoints seeds(ScalarField field, int columns, int rows) {
+        float[] magnitudes = new float[columns * rows];
+        float[] gradient = new float[2];
+        for (int j = 0; j < rows; j++) {
+            for (int i = 0; i < columns; i++) {
+                magnitudes[j * columns + i] = squaredGradient(field, vertexX(field, i, columns),
+                        vertexY(field, j, rows), gradient);
+            }
+        }
+        List<Integer> candidates = new ArrayList<>();
+        for (int j = 0; j < rows; j++) {
+            for (int i = 0; i < columns; i++) {
+                if (isLowestAmongNeighbours(magnitudes, columns, rows, i, j)) {
+                    candidates.add(j * columns + i);
+                }
+            }
+        }
+        float[] xs = new float[candidates.size()];
+        float[] ys = new float[candidates.size()];
+        for (int k = 0; k < xs.length; k++) {
+            xs[k] = vertexX(field, candidates.get(k) % columns, columns);
+            ys[k] = vertexY(field, candidates.get(k) / columns, rows);
+        }
+        return StartPoints.of(xs, ys);
+    }
+
+    // MODIFIES: gradient
+    // EFFECTS: returns |∇f(x, y)|^2, or NaN if the gradient cannot be evaluated there
+    private static float squaredGradient(ScalarField field, float x, float y, float[] gradient) {
+        try {
+            field.gradientAt(x, y, gradient);
+        } catch (RuntimeException ex) {
+            return Float.NaN;
+        }
+        return gradient[0] * gradient[0] + gradient[1] * gradient[1];
+    }
+
+    // EFFECTS: returns true iff the magnitude at vertex (i, j) is finite and no neighbour's finite magnitude
+    //          is smaller
+    private static boolean isLowestAmongNeighbours(float[] magnitudes, int columns, int rows, int i, int j) {
+        float own = magnitudes[j * columns + i];
+        if (Float.isNaN(own) || Float.isInfinite(own)) {
+            return false;
+        }
+        for (int nj = Math.max(0, j - 1); nj <= Math.min(rows - 1, j + 1); nj++) {
+            for (int ni = Math.max(0, i - 1); ni <= Math.min(columns - 1, i + 1); ni++) {
+                if (magnitudes[nj * columns + ni] < own) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static float vertexX(ScalarField field, int i, int columns) {
+        return Math.min(field.getXMax(), field.getXMin() + (field.getXMax() - field.getXMin()) * i / (columns - 1));
+    }
+
+    private static float vertexY(ScalarField field, int j, int rows) {
+        return Math.min(field.getYMax(), field.getYMin() + (field.getYMax() - field.getYMin()) * j / (rows - 1));
+    }
+
+    // EFFECTS: merges the refined points (NaN marks a candidate that failed) closer than tolerance, keeping
+    //          the first of each group, and returns them classified and ordered by value; a group whose
+    //          point cannot be evaluated or classified is dropped
+    private List<CriticalPoint> deduplicate(float[] endX, float[] endY, float tolerance) {
+        SpatialHash distinct = new SpatialHash(tolerance);
+        List<CriticalPoint> points = new ArrayList<>();
+        float[] hessian = new float[3];
+        int groups = 0;
+        for (int k = 0; k < endX.length; k++) {
+            if (Float.isNaN(endX[k]) || distinct.insert(endX[k], endY[k]) != groups) {
+                continue;
+            }
+            groups++;
+            CriticalPoint point = classify(endX[k], endY[k], hessian);
+            if (point != null) {
+                points.add(point);
+            }
+        }
+        points.sort(Comparator.comparingDouble(CriticalPoint::getValue));
+        return Collections.unmodifiableList(points);
+    }
+
+    // MODIFIES: hessian
+    // EFFECTS: returns the critical point at (x, y) classified by its Hessian, or null if f or its Hessian
+    //          cannot be evaluated there
+    private CriticalPoint classify(float x, float y, float[] hessian) {
+        try {
+            float value = field.evaluate(x, y);
+            field.hessianAt(x, y, value, hessian);
+            return new CriticalPoint(x, y, value, CriticalPointType.classify(hessian, CURVATURE_TOLERANCE));
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    // Root task: scans for candidates, refines them all, then merges and classifies the results
+    private final class SearchTask extends RecursiveTask<List<CriticalPoint>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int columns;
+        private final int rows;
+        private final float tolerance;
+
+        SearchTask(int columns, int rows, float tolerance) {
+            this.columns = columns;
+            this.rows = rows;
+            this.tolerance = tolerance;
+        }
+
+        @Override
+        protected List<CriticalPoint> compute() {
+            StartPoints candidates = seeds(field, columns, rows);
+            float maxStep = Math.max((field.getXMax() - field.getXMin()) / (columns - 1),
+                    (field.getYMax() - field.getYMin()) / (rows - 1));
+            float[] endX = new float[candidates.size()];
+            float[] endY = new float[candidates.size()];
+            new RefineTask(candidates, maxStep, endX, endY, 0, candidates.size()).invoke();
+            return deduplicate(endX, endY, tolerance);
+        }
+    }
+
+    // Fork-join task refining the candidates in [from, to), splitting until spans are small
+    private final class RefineTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final StartPoints candidates;
+        private final float maxStep;
+        private final float[] endX;
+        private final float[] endY;
+        private final int from;
+        private final int to;
+        private final float[] gradient = new float[2];
+        private final float[] hessian = new float[3];
+
+        RefineTask(StartPoints candidates, float maxStep, float[] endX, float[] endY, int from, int to) {
+            this.candidates = candidates;
+            this.maxStep = maxStep;
+            this.endX = endX;
+            this.endY = endY;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RefineTask(candidates, maxStep, endX, endY, from, middle),
+                        new RefineTask(candidates, maxStep, endX, endY, middle, to));
+                return;
+            }
+            float[] point = new float[2];
+            for (int k = from; k < to; k++) {
+                point[0] = candidates.getX(k);
+                point[1] = candidates.getY(k);
+                boolean found = refine(point);
+                endX[k] = found ? point[0] : Float.NaN;
+                endY[k] = found ? point[1] : Float.NaN;
+            }
+        }
+
+        // MODIFIES: this, point
+        // EFFECTS: takes Newton steps on ∇f = 0 from point, each at most maxStep long, and returns true once
+        //          |∇f| <= gradientThreshold there; returns false if the gradient or Hessian cannot be
+        //          evaluated, the Hessian becomes singular or undefined, a step leaves the domain or the
+        //          iterations run out
+        private boolean refine(float[] point) {
+            try {
+                return newton(point);
+            } catch (RuntimeException ex) {
+                return false;
+            }
+        }
+
+        // MODIFIES: this, point
+        // EFFECTS: as refine, but lets a failure to evaluate the gradient or Hessian propagate
+        private boolean newton(float[] point) {
+            for (int iteration = 0; iteration <= MAX_REFINEMENTS; iteration++) {
+                field.gradientAt(point[0], point[1], gradient);
+                float squared = gradient[0] * gradient[0] + gradient[1] * gradient[1];
+                if (squared <= gradientThreshold * gradientThreshold) {
+                    return true;
+                }
+                field.hessianAt(point[0], point[1], hessian);
+                double det = (double) hessian[0] * hessian[2] - (double) hessian[1] * hessian[1];
+                double stepX = -(hessian[2] * gradient[0] - hessian[1] * gradient[1]) / det;
+                double stepY = -(hessian[0] * gradient[1] - hessian[1] * gradient[0]) / det;
+                double length = Math.sqrt(stepX * stepX + stepY * stepY);
+                if (Double.isNaN(length) || Double.isInfinite(length)) {
+                    return false;
+                }
+                double scale = (length > maxStep) ? maxStep / length : 1.0;
+                point[0] += (float) (stepX * scale);
+                point[1] += (float) (stepY * scale);
+                if (!field.contains(point[0], point[1])) {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+}
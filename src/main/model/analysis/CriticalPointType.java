@@ -0,0 +1,37 @@
+package model.analysis;
+
+// Represents the kind of a critical point (∇f = 0) of a scalar field, read off the eigenvalues of its Hessian
+public enum CriticalPointType {
+    MINIMUM,      // both eigenvalues positive: f curves upward in every direction
+    MAXIMUM,      // both eigenvalues negative: f curves downward in every direction
+    SADDLE,       // eigenvalues of opposite sign
+    DEGENERATE;   // an eigenvalue is (numerically) zero, so the second-derivative test is inconclusive
+
+    // REQUIRES: hessian.length >= 3, laid out as ∂²f/∂x², ∂²f/∂x∂y, ∂²f/∂y²; tolerance >= 0
+    // EFFECTS: classifies a critical point with the given Hessian; eigenvalues within tolerance of zero
+    //          (relative to the larger eigenvalue magnitude, and at least tolerance in absolute terms)
+    //          count as zero
+    public static CriticalPointType classify(float[] hessian, float tolerance) {
+        float[] eigenvalues = new float[2];
+        eigenvalues(hessian, eigenvalues);
+        float zero = tolerance * Math.max(1f, Math.max(Math.abs(eigenvalues[0]), Math.abs(eigenvalues[1])));
+        if (!(Math.abs(eigenvalues[0]) > zero) || !(Math.abs(eigenvalues[1]) > zero)) {
+            return DEGENERATE;
+        }
+        if (eigenvalues[0] > 0f) {
+            return MINIMUM;
+        }
+        return (eigenvalues[1] < 0f) ? MAXIMUM : SADDLE;
+    }
+
+    // REQUIRES: hessian.length >= 3, laid out as ∂²f/∂x², ∂²f/∂x∂y, ∂²f/∂y²; out.length >= 2
+    // MODIFIES: out
+    // EFFECTS: writes the eigenvalues of the symmetric 2x2 Hessian into out, smaller first
+    public static void eigenvalues(float[] hessian, float[] out) {
+        double mean = 0.5 * (hessian[0] + hessian[2]);
+        double halfGap = 0.5 * (hessian[0] - hessian[2]);
+        double radius = Math.sqrt(halfGap * halfGap + (double) hessian[1] * hessian[1]);
+        out[0] = (float) (mean - radius);
+        out[1] = (float) (mean + radius);
+    }
+}
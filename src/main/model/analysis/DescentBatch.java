@@ -0,0 +1,88 @@
+package model.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Represents a running or finished multi-start batch: a handle to cancel it, poll its progress
+// and collect its results
+public final class DescentBatch {
+    private final StartPoints starts;
+    private final DescentResult[] results;
+    private final AtomicInteger completed;
+    private final DescentProgressListener listener;   // may be null
+    private volatile boolean cancelled;
+    private ForkJoinTask<?> task;
+
+    // EFFECTS: creates a handle for a batch over starts that has not been submitted yet
+    DescentBatch(StartPoints starts, DescentProgressListener listener) {
+        this.starts = starts;
+        this.results = new DescentResult[starts.size()];
+        this.completed = new AtomicInteger();
+        this.listener = listener;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: requests cancellation; runs in progress stop within their next chunk of 256 iterations and
+    //          report CANCELLED
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // EFFECTS: returns true iff every run has finished or been cancelled
+    public boolean isDone() {
+        return task.isDone();
+    }
+
+    // EFFECTS: returns the number of runs that have finished so far
+    public int getCompletedCount() {
+        return completed.get();
+    }
+
+    public int getTotal() {
+        return results.length;
+    }
+
+    // EFFECTS: waits for the batch to finish and returns one result per start, in start order
+    public List<DescentResult> getResults() {
+        task.join();
+        List<DescentResult> list = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            list.add(results[i] != null ? results[i] : cancelledAt(i));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    StartPoints getStarts() {
+        return starts;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: associates the submitted task with this handle
+    void setTask(ForkJoinTask<?> task) {
+        this.task = task;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores the result of the run at index and notifies the listener
+    void record(int index, DescentResult result) {
+        results[index] = result;
+        int done = completed.incrementAndGet();
+        if (listener != null) {
+            listener.onProgress(done, results.length);
+        }
+    }
+
+    // EFFECTS: returns the result reported for a start that never ran
+    private DescentResult cancelledAt(int index) {
+        float x = starts.getX(index);
+        float y = starts.getY(index);
+        return new DescentResult(x, y, x, y, Float.NaN, Float.NaN, 0, DescentStatus.CANCELLED);
+    }
+}
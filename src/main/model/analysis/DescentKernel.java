@@ -0,0 +1,310 @@
+package model.analysis;
+
+import model.ScalarField;
+import model.Trajectory;
+import model.optimizer.GradientClipping;
+import model.optimizer.GradientDescent;
+import model.optimizer.Optimizer;
+import model.optimizer.StepSizeController;
+import model.optimizer.StepSizeMode;
+
+/**
+ * The inner descent loop shared by Simulation and MultiStartDescent. Each step is computed by an
+ * Optimizer (plain gradient descent by default) from the gradient after GradientClipping (none by
+ * default), and sized by a StepSizeController (the fixed learning rate by default). A
+ * DivergenceDetector ends hopeless runs early. Optimizers that use curvature are also handed the
+ * Hessian at every sampled point, and the evaluations it costs are counted. Position, value and
+ * gradient live in primitive locals and reused buffers, convergence is tested on the squared
+ * gradient norm, and visited points are written straight into a Trajectory, so a run allocates
+ * nothing once the trajectory has capacity. A kernel is resumable: advance can be called
+ * repeatedly to run in bounded chunks, and the sample a chunk ends on is reused by the next one
+ * instead of being taken again, so chunking costs no extra evaluations. Not thread-safe; use one
+ * kernel per thread.
+ */
+public final class DescentKernel {
+    private static final String OUTSIDE_DOMAIN = "Input (x, y) outside domain.";
+    private static final String NOT_FINITE = "Function or gradient is not finite.";
+
+    private final ScalarField field;
+    private final float learningRate;
+    private final float thresholdSquared;
+    private final float[] sample;
+    private final float[] clipped;
+    private final float[] delta;
+    private final float[] hessian;
+    private final Optimizer optimizer;
+    private final StepSizeController stepSize;
+    private GradientClipping clipping;
+    private DivergenceDetector detector;
+
+    private float currentX;
+    private float currentY;
+    private float value;
+    private float gradientSquared;
+    private int iterations;
+    private DescentStatus status;
+    private String haltReason;
+    private long hessianEvaluations;
+    private boolean sampled;   // sample holds f and ∇f at the current point, already seen by the detector
+
+    // REQUIRES: field is non-null, learningRate > 0
+    // EFFECTS: creates a kernel descending field with the given step size; a run converges once the
+    //          gradient magnitude falls below stopThreshold (a threshold of 0 never converges)
+    public DescentKernel(ScalarField field, float learningRate, float stopThreshold) {
+        this(field, learningRate, stopThreshold, new GradientDescent());
+    }
+
+    // REQUIRES: field and optimizer are non-null, learningRate > 0
+    // EFFECTS: creates a kernel whose steps are computed by optimizer, continuing from optimizer's current
+    //          state; reset clears that state for a new run
+    public DescentKernel(ScalarField field, float learningRate, float stopThreshold, Optimizer optimizer) {
+        this(field, learningRate, stopThreshold, optimizer, new StepSizeController(StepSizeMode.FIXED));
+    }
+
+    // REQUIRES: field, optimizer and stepSize are non-null, learningRate > 0
+    // EFFECTS: creates a kernel whose steps are computed by optimizer and sized by stepSize, continuing from
+    //          their current state; reset clears that state for a new run. The kernel starts without
+    //          clipping and with a default divergence detector.
+    public DescentKernel(ScalarField field, float learningRate, float stopThreshold, Optimizer optimizer,
+                         StepSizeController stepSize) {
+        this.field = field;
+        this.learningRate = learningRate;
+        this.thresholdSquared = stopThreshold * stopThreshold;
+        this.sample = new float[3];
+        this.clipped = new float[2];
+        this.delta = new float[2];
+        this.hessian = new float[3];
+        this.optimizer = optimizer;
+        this.stepSize = stepSize;
+        this.clipping = GradientClipping.NONE;
+        this.detector = new DivergenceDetector();
+        resume(0f, 0f);
+    }
+
+    // REQUIRES: clipping is non-null
+    // MODIFIES: this
+    // EFFECTS: clips the gradient handed to the optimizer from the next step on
+    public void setGradientClipping(GradientClipping clipping) {
+        this.clipping = clipping;
+    }
+
+    // REQUIRES: detector is non-null
+    // MODIFIES: this
+    // EFFECTS: judges divergence with detector from the next sample on, continuing from its current history;
+    //          reset clears that history for a new run
+    public void setDivergenceDetector(DivergenceDetector detector) {
+        this.detector = detector;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a new run at (x, y) with no iterations taken and the optimizer's, step size
+    //          controller's and divergence detector's history cleared
+    public void reset(float x, float y) {
+        sampled = false;
+        resume(x, y);
+        optimizer.reset();
+        stepSize.reset();
+        detector.reset();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: continues from (x, y) with no iterations or Hessian evaluations counted, keeping the
+    //          optimizer's, step size controller's and divergence detector's history; used when the caller
+    //          has restored a run that was already in progress. If (x, y) is where the last advance stopped,
+    //          its sample is kept.
+    public void resume(float x, float y) {
+        sampled = sampled && x == currentX && y == currentY;
+        currentX = x;
+        currentY = y;
+        if (!sampled) {
+            value = Float.NaN;
+            gradientSquared = Float.NaN;
+        }
+        iterations = 0;
+        hessianEvaluations = 0;
+        status = null;
+        haltReason = null;
+    }
+
+    // REQUIRES: maxSteps >= 0
+    // MODIFIES: this, path
+    // EFFECTS: samples the current point and takes descent steps until it converges (CONVERGED), is judged
+    //          divergent (DIVERGED), leaves the domain (OUT_OF_DOMAIN), reaches a point where f or ∇f is
+    //          undefined (UNDEFINED), or maxSteps steps have been taken in this call (MAX_ITERATIONS).
+    //          Every new point is appended to path (may be null), and the height of each sampled point is
+    //          cached on path's head. A current point already sampled by the previous call is not sampled
+    //          again, so each step costs one evaluation of f and ∇f however the run is chunked.
+    public DescentStatus advance(int maxSteps, Trajectory path) {
+        float x = currentX;
+        float y = currentY;
+        int steps = 0;
+        haltReason = null;
+        try {
+            while (true) {
+                status = sampleAndPropose(x, y, path, steps == maxSteps);
+                if (status != null) {
+                    return status;
+                }
+                optimizer.onStepTaken(delta[0], delta[1]);
+                x += delta[0];
+                y += delta[1];
+                sampled = false;
+                steps++;
+                if (path != null) {
+                    path.add(x, y);
+                }
+            }
+        } finally {
+            currentX = x;
+            currentY = y;
+            iterations += steps;
+        }
+    }
+
+    // MODIFIES: this, path
+    // EFFECTS: samples (x, y) and, unless the run ends there or the step budget is spent, proposes the next
+    //          step in delta; returns the status if the run ends, else null
+    private DescentStatus sampleAndPropose(float x, float y, Trajectory path, boolean budgetSpent) {
+        DescentStatus ending = sampled ? reuseSample(path) : sample(x, y, path);
+        if (ending == null && budgetSpent) {
+            ending = DescentStatus.MAX_ITERATIONS;
+        }
+        return (ending == null) ? proposeStep(x, y) : ending;
+    }
+
+    // REQUIRES: sample holds f and ∇f at (x, y)
+    // MODIFIES: this
+    // EFFECTS: writes the displacement to the next point into delta; returns DIVERGED if the detector
+    //          rejects that step, else null
+    private DescentStatus proposeStep(float x, float y) {
+        if (optimizer.usesCurvature()) {
+            supplyCurvature(x, y);
+        }
+        float rate = stepSize.learningRate(learningRate, x, y, sample[1], sample[2]);
+        clipping.clip(sample[1], sample[2], clipped);
+        optimizer.computeStep(clipped[0], clipped[1], rate, delta);
+        stepSize.adjust(field, x, y, sample[0], sample[1], sample[2], delta);
+        return diverged(detector.observeStep(delta[0], delta[1]));
+    }
+
+    // REQUIRES: sample holds f and ∇f at (x, y)
+    // MODIFIES: this
+    // EFFECTS: hands the Hessian at (x, y) to the optimizer, reusing the sampled value; if part of the
+    //          stencil is undefined the optimizer gets no curvature and falls back to a gradient step
+    private void supplyCurvature(float x, float y) {
+        try {
+            hessianEvaluations += field.hessianAt(x, y, sample[0], hessian);
+        } catch (RuntimeException ex) {
+            return;
+        }
+        optimizer.observeCurvature(sample[0], hessian[0], hessian[1], hessian[2]);
+    }
+
+    // REQUIRES: sampled
+    // MODIFIES: path
+    // EFFECTS: judges the current point from the sample kept from the previous advance, which the detector
+    //          has already observed; returns CONVERGED if the run ends there, else null
+    private DescentStatus reuseSample(Trajectory path) {
+        if (path != null && !path.isEmpty()) {
+            path.setZ(path.size() - 1, value);
+        }
+        return (gradientSquared < thresholdSquared) ? DescentStatus.CONVERGED : null;
+    }
+
+    // MODIFIES: this, path
+    // EFFECTS: samples f and ∇f at (x, y); returns the status if the run ends there, else null
+    private DescentStatus sample(float x, float y, Trajectory path) {
+        if (!field.contains(x, y)) {
+            return halt(DescentStatus.OUT_OF_DOMAIN, OUTSIDE_DOMAIN);
+        }
+        try {
+            field.valueAndGradient(x, y, sample);
+        } catch (RuntimeException ex) {
+            return halt(DescentStatus.UNDEFINED, ex.getMessage());
+        }
+        value = sample[0];
+        gradientSquared = sample[1] * sample[1] + sample[2] * sample[2];
+        if (Float.isNaN(value) || Float.isInfinite(value) || Float.isNaN(gradientSquared)
+                || Float.isInfinite(gradientSquared)) {
+            return halt(DescentStatus.UNDEFINED, NOT_FINITE);
+        }
+        if (path != null && !path.isEmpty()) {
+            path.setZ(path.size() - 1, value);
+        }
+        if (gradientSquared < thresholdSquared) {
+            sampled = true;
+            return DescentStatus.CONVERGED;
+        }
+        DescentStatus ending = diverged(detector.observeSample(value, gradientSquared));
+        sampled = ending == null;
+        return ending;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns DIVERGED and records reason if reason is non-null, else returns null
+    private DescentStatus diverged(String reason) {
+        if (reason == null) {
+            return null;
+        }
+        haltReason = "Diverging: " + reason;
+        return DescentStatus.DIVERGED;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records why the run could not sample its current point and returns status
+    private DescentStatus halt(DescentStatus status, String reason) {
+        value = Float.NaN;
+        gradientSquared = Float.NaN;
+        haltReason = reason;
+        return status;
+    }
+
+    public Optimizer getOptimizer() {
+        return optimizer;
+    }
+
+    // EFFECTS: returns the function values sampled by line searches since the last reset, which are not
+    //          counted as iterations
+    public long getLineSearchEvaluations() {
+        return stepSize.getLineSearchEvaluations();
+    }
+
+    // EFFECTS: returns the evaluations of f or its second derivatives spent on Hessians since the last
+    //          reset or resume; nonzero only for optimizers that use curvature
+    public long getHessianEvaluations() {
+        return hessianEvaluations;
+    }
+
+    public float getX() {
+        return currentX;
+    }
+
+    public float getY() {
+        return currentY;
+    }
+
+    // EFFECTS: returns f at the current point, or NaN if it has not been sampled or could not be
+    public float getValue() {
+        return value;
+    }
+
+    // EFFECTS: returns |∇f| at the current point, or NaN if it has not been sampled or could not be
+    public float getGradientMagnitude() {
+        return (float) Math.sqrt(gradientSquared);
+    }
+
+    // EFFECTS: returns the number of steps taken since the last reset or resume
+    public int getIterations() {
+        return iterations;
+    }
+
+    // EFFECTS: returns how the last advance ended, or null if advance has not run since the last reset
+    public DescentStatus getStatus() {
+        return status;
+    }
+
+    // EFFECTS: returns why the last advance ended with a failure status, or null if it did not
+    public String getHaltReason() {
+        return haltReason;
+    }
+}
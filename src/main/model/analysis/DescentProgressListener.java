@@ -0,0 +1,9 @@
+package model.analysis;
+
+// Receives progress updates from a running multi-start batch. Called from worker threads, so
+// implementations must be thread-safe and should return quickly.
+@FunctionalInterface
+public interface DescentProgressListener {
+    // EFFECTS: notified after each run finishes; completed counts finished runs out of total
+    void onProgress(int completed, int total);
+}
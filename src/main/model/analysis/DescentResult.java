@@ -0,0 +1,105 @@
+package model.analysis;
+
+// Represents the outcome of one gradient descent run started from (startX, startY)
+public final class DescentResult {
+    private final float startX;
+    private final float startY;
+    private final float finalX;
+    private final float finalY;
+    private final float finalValue;
+    private final float gradientMagnitude;
+    private final int iterations;
+    private final DescentStatus status;
+    private final long lineSearchEvaluations;
+    private final long hessianEvaluations;
+
+    // EFFECTS: creates a result; finalValue and gradientMagnitude are NaN when they could not be evaluated
+    public DescentResult(float startX, float startY, float finalX, float finalY, float finalValue,
+                         float gradientMagnitude, int iterations, DescentStatus status) {
+        this(startX, startY, finalX, finalY, finalValue, gradientMagnitude, iterations, status, 0);
+    }
+
+    // EFFECTS: creates a result that also records the function values a line search sampled on top of
+    //          the iterations
+    public DescentResult(float startX, float startY, float finalX, float finalY, float finalValue,
+                         float gradientMagnitude, int iterations, DescentStatus status, long lineSearchEvaluations) {
+        this(startX, startY, finalX, finalY, finalValue, gradientMagnitude, iterations, status,
+                lineSearchEvaluations, 0);
+    }
+
+    // EFFECTS: creates a result that also records the function values a line search sampled and the
+    //          evaluations spent on Hessians, both on top of the iterations
+    public DescentResult(float startX, float startY, float finalX, float finalY, float finalValue,
+                         float gradientMagnitude, int iterations, DescentStatus status, long lineSearchEvaluations,
+                         long hessianEvaluations) {
+        this.startX = startX;
+        this.startY = startY;
+        this.finalX = finalX;
+        this.finalY = finalY;
+        this.finalValue = finalValue;
+        this.gradientMagnitude = gradientMagnitude;
+        this.iterations = iterations;
+        this.status = status;
+        this.lineSearchEvaluations = lineSearchEvaluations;
+        this.hessianEvaluations = hessianEvaluations;
+    }
+
+    // EFFECTS: returns the result of the run kernel has just finished from (startX, startY)
+    static DescentResult of(float startX, float startY, DescentKernel kernel, DescentStatus status) {
+        return new DescentResult(startX, startY, kernel.getX(), kernel.getY(), kernel.getValue(),
+                kernel.getGradientMagnitude(), kernel.getIterations(), status, kernel.getLineSearchEvaluations(),
+                kernel.getHessianEvaluations());
+    }
+
+    public float getStartX() {
+        return startX;
+    }
+
+    public float getStartY() {
+        return startY;
+    }
+
+    public float getFinalX() {
+        return finalX;
+    }
+
+    public float getFinalY() {
+        return finalY;
+    }
+
+    public float getFinalValue() {
+        return finalValue;
+    }
+
+    public float getGradientMagnitude() {
+        return gradientMagnitude;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public DescentStatus getStatus() {
+        return status;
+    }
+
+    // EFFECTS: returns the function values sampled by line searches, which are not counted as iterations
+    public long getLineSearchEvaluations() {
+        return lineSearchEvaluations;
+    }
+
+    public long getHessianEvaluations() {
+        return hessianEvaluations;
+    }
+
+    // EFFECTS: returns true iff the run converged
+    public boolean isConverged() {
+        return status == DescentStatus.CONVERGED;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s after %d iterations at (%.4f, %.4f), f = %.4f",
+                status, iterations, finalX, finalY, finalValue);
+    }
+}
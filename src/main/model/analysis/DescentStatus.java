@@ -0,0 +1,17 @@
+package model.analysis;
+
+// Represents how a single gradient descent run ended
+public enum DescentStatus {
+    CONVERGED,       // gradient magnitude fell below the stop threshold
+    DIVERGED,        // the divergence detector judged the run hopeless and ended it early
+    OUT_OF_DOMAIN,   // the run stepped outside the field's domain
+    UNDEFINED,       // reached a point where f or its gradient is undefined
+    MAX_ITERATIONS,  // ran out of iterations before converging
+    CANCELLED;       // the batch was cancelled before the run finished
+
+    // EFFECTS: returns true iff the run was ended by a problem with the descent itself, so that continuing
+    //          from its final point is pointless
+    public boolean isFailure() {
+        return this == DIVERGED || this == OUT_OF_DOMAIN || this == UNDEFINED;
+    }
+}
@@ -0,0 +1,107 @@
+package model.analysis;
+
+/**
+ * Watches a descent for signs that it can no longer converge, so the run can be ended early
+ * instead of wandering until it leaves the domain. A run is judged divergent when |f| or the
+ * gradient norm has grown by more than the configured factor over its value at the start of the
+ * run (both measured against at least 1, so runs starting near a minimum are not penalised), or
+ * when consecutive steps have reversed direction without shrinking for the configured number of
+ * iterations. A factor or patience of 0 turns that check off. Not thread-safe; use one detector
+ * per kernel.
+ */
+public final class DivergenceDetector {
+    public static final float DEFAULT_VALUE_GROWTH = 1e6f;
+    public static final float DEFAULT_GRADIENT_GROWTH = 1e6f;
+    public static final int DEFAULT_OSCILLATION_PATIENCE = 20;
+
+    private final float valueGrowth;
+    private final float gradientGrowth;
+    private final int oscillationPatience;
+
+    private boolean hasReference;
+    private float valueLimit;
+    private float gradientSquaredLimit;
+    private float previousStepX;
+    private float previousStepY;
+    private int oscillations;
+
+    // EFFECTS: creates a detector with the default limits
+    public DivergenceDetector() {
+        this(DEFAULT_VALUE_GROWTH, DEFAULT_GRADIENT_GROWTH, DEFAULT_OSCILLATION_PATIENCE);
+    }
+
+    // REQUIRES: valueGrowth >= 0, gradientGrowth >= 0, oscillationPatience >= 0
+    // EFFECTS: creates a detector with the given limits; 0 disables the corresponding check
+    public DivergenceDetector(float valueGrowth, float gradientGrowth, int oscillationPatience) {
+        this.valueGrowth = valueGrowth;
+        this.gradientGrowth = gradientGrowth;
+        this.oscillationPatience = oscillationPatience;
+        reset();
+    }
+
+    // EFFECTS: returns a detector that never reports divergence
+    public static DivergenceDetector disabled() {
+        return new DivergenceDetector(0f, 0f, 0);
+    }
+
+    // EFFECTS: returns a detector with the same limits and no history
+    public DivergenceDetector freshCopy() {
+        return new DivergenceDetector(valueGrowth, gradientGrowth, oscillationPatience);
+    }
+
+    public float getValueGrowth() {
+        return valueGrowth;
+    }
+
+    public float getGradientGrowth() {
+        return gradientGrowth;
+    }
+
+    public int getOscillationPatience() {
+        return oscillationPatience;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets the current run; the next sample becomes the new reference
+    public void reset() {
+        hasReference = false;
+        previousStepX = 0f;
+        previousStepY = 0f;
+        oscillations = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records f and |∇f|^2 at the current point; returns why the run is diverging, or null if it
+    //          is not
+    public String observeSample(float value, float gradientSquared) {
+        if (!hasReference) {
+            hasReference = true;
+            valueLimit = valueGrowth * Math.max(Math.abs(value), 1f);
+            float gradientLimit = gradientGrowth * Math.max((float) Math.sqrt(gradientSquared), 1f);
+            gradientSquaredLimit = gradientLimit * gradientLimit;
+            return null;
+        }
+        if (valueGrowth > 0f && Math.abs(value) > valueLimit) {
+            return "|f| grew more than " + valueGrowth + " times.";
+        }
+        if (gradientGrowth > 0f && gradientSquared > gradientSquaredLimit) {
+            return "Gradient norm grew more than " + gradientGrowth + " times.";
+        }
+        return null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records the step (dx, dy) about to be taken; returns why the run is diverging, or null if it
+    //          is not
+    public String observeStep(float dx, float dy) {
+        boolean reversed = dx * previousStepX + dy * previousStepY < 0f;
+        boolean shrinking = dx * dx + dy * dy < previousStepX * previousStepX + previousStepY * previousStepY;
+        oscillations = (reversed && !shrinking) ? oscillations + 1 : 0;
+        previousStepX = dx;
+        previousStepY = dy;
+        if (oscillationPatience > 0 && oscillations >= oscillationPatience) {
+            return "Steps oscillated without shrinking for " + oscillations + " iterations.";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,183 @@
+package model.analysis;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import model.ScalarField;
+import model.optimizer.StepSizeController;
+import model.optimizer.StepSizeMode;
+
+/**
+ * Sweeps a grid of hyperparameters over a field: every configuration of a SweepSpace descends from
+ * every start point on the same DescentKernel Simulation uses, with a default optimizer of the
+ * configuration's type. Work is split both across configurations and across the starts of each
+ * configuration, so a fork-join pool can keep every core busy even when the grid is small; leaf tasks
+ * tally their runs locally and merge once. Each configuration's aggregate is reported to the listener
+ * the moment its last start finishes, which lets a report be streamed while the sweep is running.
+ */
+public final class HyperparameterSweep {
+    private static final int LEAF_SIZE = 8;       // starts descended sequentially by one fork-join task
+    private static final int CHUNK_STEPS = 256;   // iterations between cancellation checks
+
+    private final ScalarField field;
+    private final StepSizeMode stepSizeMode;
+    private final ForkJoinPool pool;
+
+    // REQUIRES: field is non-null
+    // EFFECTS: creates a sweep engine with fixed step sizes that runs on the common fork-join pool
+    public HyperparameterSweep(ScalarField field) {
+        this(field, StepSizeMode.FIXED, ForkJoinPool.commonPool());
+    }
+
+    // REQUIRES: field, stepSizeMode and pool are non-null
+    // EFFECTS: creates a sweep engine sizing steps by stepSizeMode that runs on the given pool
+    public HyperparameterSweep(ScalarField field, StepSizeMode stepSizeMode, ForkJoinPool pool) {
+        this.field = field;
+        this.stepSizeMode = stepSizeMode;
+        this.pool = pool;
+    }
+
+    // EFFECTS: starts sweeping every configuration of space over starts in the background and returns the
+    //          batch handle; listener (may be null) receives each configuration's result from worker threads
+    public SweepBatch start(SweepSpace space, StartPoints starts, SweepListener listener) {
+        SweepBatch batch = new SweepBatch(space, starts, listener);
+        batch.setTask(pool.submit(new ConfigurationTask(batch, 0, space.size())));
+        return batch;
+    }
+
+    // EFFECTS: sweeps every configuration of space over starts and returns the ranked results
+    public List<SweepResult> run(SweepSpace space, StartPoints starts) {
+        return start(space, starts, null).getRankedResults();
+    }
+
+    // Running totals of the runs of one configuration, merged from its leaf tasks
+    private static final class Tally {
+        private int runs;
+        private int converged;
+        private int diverged;
+        private long iterationSum;        // over converged runs
+        private double finalValueSum;     // over runs that ended at a finite value
+        private int finiteRuns;
+        private float best = Float.NaN;   // lowest converged value
+
+        // MODIFIES: this
+        // EFFECTS: counts a run that ended with status after iterations at value
+        void add(DescentStatus status, int iterations, float value) {
+            runs++;
+            if (status == DescentStatus.CONVERGED) {
+                converged++;
+                iterationSum += iterations;
+                best = (Float.isNaN(best) || value < best) ? value : best;
+            } else if (status.isFailure()) {
+                diverged++;
+            }
+            if (!Float.isNaN(value) && !Float.isInfinite(value)) {
+                finalValueSum += value;
+                finiteRuns++;
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: adds the runs counted by other
+        synchronized void merge(Tally other) {
+            runs += other.runs;
+            converged += other.converged;
+            diverged += other.diverged;
+            iterationSum += other.iterationSum;
+            finalValueSum += other.finalValueSum;
+            finiteRuns += other.finiteRuns;
+            best = (Float.isNaN(best) || other.best < best) ? other.best : best;
+        }
+
+        synchronized SweepResult toResult(SweepConfiguration configuration) {
+            float meanIterations = (converged == 0) ? Float.NaN : (float) iterationSum / converged;
+            float meanFinalValue = (finiteRuns == 0) ? Float.NaN : (float) (finalValueSum / finiteRuns);
+            return new SweepResult(configuration, runs, converged, diverged, meanIterations, meanFinalValue, best);
+        }
+    }
+
+    // Fork-join task sweeping the configurations in [from, to), splitting down to single configurations
+    private final class ConfigurationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SweepBatch batch;
+        private final int from;
+        private final int to;
+
+        ConfigurationTask(SweepBatch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ConfigurationTask(batch, from, middle), new ConfigurationTask(batch, middle, to));
+                return;
+            }
+            SweepConfiguration configuration = batch.getSpace().get(from);
+            Tally tally = new Tally();
+            new StartTask(batch, configuration, tally, 0, batch.getStarts().size()).invoke();
+            if (!batch.isCancelled()) {
+                batch.record(from, tally.toResult(configuration));
+            }
+        }
+    }
+
+    // Fork-join task descending the starts in [from, to) with one configuration, splitting until spans are small
+    private final class StartTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SweepBatch batch;
+        private final SweepConfiguration configuration;
+        private final Tally tally;
+        private final int from;
+        private final int to;
+
+        StartTask(SweepBatch batch, SweepConfiguration configuration, Tally tally, int from, int to) {
+            this.batch = batch;
+            this.configuration = configuration;
+            this.tally = tally;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new StartTask(batch, configuration, tally, from, middle),
+                        new StartTask(batch, configuration, tally, middle, to));
+                return;
+            }
+            DescentKernel kernel = new DescentKernel(field, configuration.getLearningRate(),
+                    configuration.getStopThreshold(), configuration.getOptimizerType().create(),
+                    new StepSizeController(stepSizeMode));
+            Tally local = new Tally();
+            StartPoints starts = batch.getStarts();
+            for (int i = from; i < to && !batch.isCancelled(); i++) {
+                kernel.reset(starts.getX(i), starts.getY(i));
+                DescentStatus status = descend(kernel, configuration.getMaxIterations());
+                local.add(status, kernel.getIterations(), kernel.getValue());
+            }
+            tally.merge(local);
+        }
+
+        // MODIFIES: kernel
+        // EFFECTS: descends until convergence, divergence, the iteration limit or cancellation of the batch,
+        //          which is checked between chunks of CHUNK_STEPS iterations
+        private DescentStatus descend(DescentKernel kernel, int maxIterations) {
+            DescentStatus status;
+            do {
+                if (batch.isCancelled()) {
+                    return DescentStatus.CANCELLED;
+                }
+                status = kernel.advance(Math.min(CHUNK_STEPS, maxIterations - kernel.getIterations()), null);
+            } while (status == DescentStatus.MAX_ITERATIONS && kernel.getIterations() < maxIterations);
+            return status;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package model.analysis;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import model.ScalarField;
+import model.optimizer.GradientDescent;
+import model.optimizer.Optimizer;
+import model.optimizer.StepSizeController;
+import model.optimizer.StepSizeMode;
+
+/**
+ * Runs many independent gradient descents over the same scalar field, spread across the cores of
+ * a fork-join pool. Each start is descended by a DescentKernel, the same update Simulation
+ * performs with the same choice of Optimizer and StepSizeMode, and reports where and how it
+ * ended. Batches run asynchronously so the UI thread can keep ticking, poll progress and cancel.
+ */
+public final class MultiStartDescent {
+    private static final int LEAF_SIZE = 8;       // starts descended sequentially by one fork-join task
+    private static final int CHUNK_STEPS = 256;   // iterations between cancellation checks
+
+    private final ScalarField field;
+    private final float learningRate;
+    private final float stopThreshold;
+    private final int maxIterations;
+    private final Optimizer prototype;      // copied fresh for every leaf task, never stepped itself
+    private final StepSizeMode stepSizeMode;
+    private final ForkJoinPool pool;
+
+    // REQUIRES: field is non-null, learningRate > 0, maxIterations >= 0
+    // EFFECTS: creates a multi-start engine that runs on the common fork-join pool
+    public MultiStartDescent(ScalarField field, float learningRate, float stopThreshold, int maxIterations) {
+        this(field, learningRate, stopThreshold, maxIterations, ForkJoinPool.commonPool());
+    }
+
+    // REQUIRES: field and pool are non-null, learningRate > 0, maxIterations >= 0
+    // EFFECTS: creates a plain gradient descent multi-start engine that runs on the given pool
+    public MultiStartDescent(ScalarField field, float learningRate, float stopThreshold, int maxIterations,
+                             ForkJoinPool pool) {
+        this(field, learningRate, stopThreshold, maxIterations, new GradientDescent(), StepSizeMode.FIXED, pool);
+    }
+
+    // REQUIRES: field, optimizer, stepSizeMode and pool are non-null, learningRate > 0, maxIterations >= 0
+    // EFFECTS: creates a multi-start engine stepping with fresh copies of optimizer, sized by stepSizeMode,
+    //          on the given pool
+    public MultiStartDescent(ScalarField field, float learningRate, float stopThreshold, int maxIterations,
+                             Optimizer optimizer, StepSizeMode stepSizeMode, ForkJoinPool pool) {
+        this.field = field;
+        this.learningRate = learningRate;
+        this.stopThreshold = stopThreshold;
+        this.maxIterations = maxIterations;
+        this.prototype = optimizer.freshCopy();
+        this.stepSizeMode = stepSizeMode;
+        this.pool = pool;
+    }
+
+    // EFFECTS: starts descending from every start point in the background and returns the batch handle;
+    //          listener (may be null) is notified from worker threads as runs finish
+    public DescentBatch start(StartPoints starts, DescentProgressListener listener) {
+        DescentBatch batch = new DescentBatch(starts, listener);
+        batch.setTask(pool.submit(new SpanTask(batch, 0, starts.size())));
+        return batch;
+    }
+
+    // EFFECTS: descends from every start point and returns the results in start order once all finish
+    public List<DescentResult> run(StartPoints starts) {
+        return start(starts, null).getResults();
+    }
+
+    // EFFECTS: returns the converged result with the lowest final value, or null if none converged
+    public static DescentResult bestOf(List<DescentResult> results) {
+        DescentResult best = null;
+        for (DescentResult result : results) {
+            if (result.isConverged() && (best == null || result.getFinalValue() < best.getFinalValue())) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    // MODIFIES: kernel
+    // EFFECTS: descends from (startX, startY) until convergence, divergence, the iteration limit or
+    //          cancellation of batch, which is checked between chunks of CHUNK_STEPS iterations
+    private DescentResult descend(float startX, float startY, DescentBatch batch, DescentKernel kernel) {
+        kernel.reset(startX, startY);
+        DescentStatus status;
+        do {
+            if (batch.isCancelled()) {
+                status = DescentStatus.CANCELLED;
+                break;
+            }
+            status = kernel.advance(Math.min(CHUNK_STEPS, maxIterations - kernel.getIterations()), null);
+        } while (status == DescentStatus.MAX_ITERATIONS && kernel.getIterations() < maxIterations);
+
+        return DescentResult.of(startX, startY, kernel, status);
+    }
+
+    // Fork-join task descending the starts in [from, to) of a batch, splitting until spans are small
+    private final class SpanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final DescentBatch batch;
+        private final int from;
+        private final int to;
+
+        SpanTask(DescentBatch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SpanTask(batch, from, middle), new SpanTask(batch, middle, to));
+                return;
+            }
+            DescentKernel kernel = new DescentKernel(field, learningRate, stopThreshold, prototype.freshCopy(),
+                    new StepSizeController(stepSizeMode));
+            StartPoints starts = batch.getStarts();
+            for (int i = from; i < to; i++) {
+                batch.record(i, descend(starts.getX(i), starts.getY(i), batch, kernel));
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package model.analysis;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import model.ScalarField;
+import model.optimizer.OptimizerType;
+import model.optimizer.StepSizeController;
+import model.optimizer.StepSizeMode;
+
+/**
+ * Descends a field from one start point with every optimizer type, using each type's default
+ * hyperparameters and the same learning rate, step size mode, threshold and iteration budget, so
+ * that the iterations (and line-search evaluations) each needed to converge can be compared side
+ * by side.
+ */
+public final class OptimizerComparison {
+    private final ScalarField field;
+    private final float learningRate;
+    private final float stopThreshold;
+    private final int maxIterations;
+    private final StepSizeMode stepSizeMode;
+
+    // REQUIRES: field is non-null, learningRate > 0, maxIterations >= 0
+    // EFFECTS: creates a comparison with the given descent settings
+    public OptimizerComparison(ScalarField field, float learningRate, float stopThreshold, int maxIterations) {
+        this(field, learningRate, stopThreshold, maxIterations, StepSizeMode.FIXED);
+    }
+
+    // REQUIRES: field and stepSizeMode are non-null, learningRate > 0, maxIterations >= 0
+    // EFFECTS: creates a comparison with the given descent settings, sizing steps by stepSizeMode
+    public OptimizerComparison(ScalarField field, float learningRate, float stopThreshold, int maxIterations,
+                               StepSizeMode stepSizeMode) {
+        this.field = field;
+        this.learningRate = learningRate;
+        this.stopThreshold = stopThreshold;
+        this.maxIterations = maxIterations;
+        this.stepSizeMode = stepSizeMode;
+    }
+
+    // EFFECTS: descends from (startX, startY) once per optimizer type and returns each run's result,
+    //          in OptimizerType declaration order
+    public Map<OptimizerType, DescentResult> run(float startX, float startY) {
+        Map<OptimizerType, DescentResult> results = new EnumMap<>(OptimizerType.class);
+        for (OptimizerType type : OptimizerType.values()) {
+            results.put(type, descend(type, startX, startY));
+        }
+        return results;
+    }
+
+    // EFFECTS: returns the type that converged in the fewest iterations, or null if none converged
+    public static OptimizerType fastest(Map<OptimizerType, DescentResult> results) {
+        OptimizerType fastest = null;
+        int fewest = Integer.MAX_VALUE;
+        for (Map.Entry<OptimizerType, DescentResult> entry : results.entrySet()) {
+            DescentResult result = entry.getValue();
+            if (result.isConverged() && result.getIterations() < fewest) {
+                fastest = entry.getKey();
+                fewest = result.getIterations();
+            }
+        }
+        return fastest;
+    }
+
+    // EFFECTS: runs a single descent with a fresh optimizer of the given type
+    private DescentResult descend(OptimizerType type, float startX, float startY) {
+        DescentKernel kernel = new DescentKernel(field, learningRate, stopThreshold, type.create(),
+                new StepSizeController(stepSizeMode));
+        kernel.reset(startX, startY);
+        DescentStatus status = kernel.advance(maxIterations, null);
+        return DescentResult.of(startX, startY, kernel, status);
+    }
+}
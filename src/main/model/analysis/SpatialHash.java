@@ -0,0 +1,103 @@
+package model.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A growing set of points in the plane in which points closer than a tolerance count as the same
+ * point. Points are bucketed by the tolerance-wide grid cell they fall in, so a lookup only compares
+ * against the points of its own and the eight neighbouring cells, and inserting takes expected O(1)
+ * time however many points are stored. Points are numbered in insertion order. Not thread-safe.
+ */
+public final class SpatialHash {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final float tolerance;
+    private final Map<Long, List<Integer>> buckets;
+    private float[] xs;
+    private float[] ys;
+    private int size;
+
+    // REQUIRES: tolerance > 0
+    // EFFECTS: creates an empty set merging points within tolerance of each other
+    public SpatialHash(float tolerance) {
+        this.tolerance = tolerance;
+        this.buckets = new HashMap<>();
+        this.xs = new float[INITIAL_CAPACITY];
+        this.ys = new float[INITIAL_CAPACITY];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the index of a stored point within tolerance of (x, y); if there is none, stores
+    //          (x, y) and returns its new index, size() - 1
+    public int insert(float x, float y) {
+        long cellX = cellOf(x);
+        long cellY = cellOf(y);
+        int found = find(x, y, cellX, cellY);
+        if (found >= 0) {
+            return found;
+        }
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        buckets.computeIfAbsent(key(cellX, cellY), k -> new ArrayList<>()).add(size);
+        return size++;
+    }
+
+    // EFFECTS: returns the index of the first stored point within tolerance of (x, y), or -1 if there is none
+    public int find(float x, float y) {
+        return find(x, y, cellOf(x), cellOf(y));
+    }
+
+    private int find(float x, float y, long cellX, long cellY) {
+        for (long cx = cellX - 1; cx <= cellX + 1; cx++) {
+            for (long cy = cellY - 1; cy <= cellY + 1; cy++) {
+                List<Integer> bucket = buckets.get(key(cx, cy));
+                if (bucket == null) {
+                    continue;
+                }
+                for (int index : bucket) {
+                    float dx = xs[index] - x;
+                    float dy = ys[index] - y;
+                    if (dx * dx + dy * dy <= tolerance * tolerance) {
+                        return index;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private long cellOf(float coordinate) {
+        return (long) Math.floor(coordinate / tolerance);
+    }
+
+    private static long key(long cellX, long cellY) {
+        return (cellX << 32) ^ (cellY & 0xFFFFFFFFL);
+    }
+
+    // EFFECTS: returns the number of distinct points stored
+    public int size() {
+        return size;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    public float getX(int index) {
+        return xs[index];
+    }
+
+    // REQUIRES: 0 <= index < size()
+    public float getY(int index) {
+        return ys[index];
+    }
+
+    public float getTolerance() {
+        return tolerance;
+    }
+}
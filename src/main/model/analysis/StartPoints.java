@@ -0,0 +1,84 @@
+package model.analysis;
+
+import java.util.Random;
+
+import model.ScalarField;
+import model.exceptions.ArgumentOutOfBoundsException;
+
+// Represents an immutable set of starting points for a multi-start descent, stored as parallel arrays
+public final class StartPoints {
+    private final float[] xs;
+    private final float[] ys;
+
+    private StartPoints(float[] xs, float[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    // REQUIRES: xs and ys have the same length
+    // EFFECTS: returns start points copied from xs and ys
+    public static StartPoints of(float[] xs, float[] ys) {
+        if (xs.length != ys.length) {
+            throw new ArgumentOutOfBoundsException("Start point coordinate arrays must have equal lengths.");
+        }
+        return new StartPoints(xs.clone(), ys.clone());
+    }
+
+    // REQUIRES: nx, ny >= 1
+    // EFFECTS: returns the centres of an nx-by-ny grid of cells covering the field's domain
+    public static StartPoints grid(ScalarField field, int nx, int ny) {
+        if (nx < 1 || ny < 1) {
+            throw new ArgumentOutOfBoundsException("Grid must have at least one start per axis.");
+        }
+        float cellWidth = (field.getXMax() - field.getXMin()) / nx;
+        float cellHeight = (field.getYMax() - field.getYMin()) / ny;
+        float[] xs = new float[nx * ny];
+        float[] ys = new float[nx * ny];
+        for (int j = 0; j < ny; j++) {
+            for (int i = 0; i < nx; i++) {
+                xs[j * nx + i] = field.getXMin() + (i + 0.5f) * cellWidth;
+                ys[j * nx + i] = field.getYMin() + (j + 0.5f) * cellHeight;
+            }
+        }
+        return new StartPoints(xs, ys);
+    }
+
+    // REQUIRES: count >= 0
+    // EFFECTS: returns count points drawn uniformly from the field's domain
+    public static StartPoints uniform(ScalarField field, int count, Random random) {
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = field.getXMin() + random.nextFloat() * (field.getXMax() - field.getXMin());
+            ys[i] = field.getYMin() + random.nextFloat() * (field.getYMax() - field.getYMin());
+        }
+        return new StartPoints(xs, ys);
+    }
+
+    // REQUIRES: count >= 0, deviation >= 0
+    // EFFECTS: returns count points drawn from a gaussian around (meanX, meanY), clamped to the field's domain
+    public static StartPoints gaussian(ScalarField field, int count, float meanX, float meanY, float deviation,
+                                       Random random) {
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        for (int i = 0; i < count; i++) {
+            float x = meanX + deviation * (float) random.nextGaussian();
+            float y = meanY + deviation * (float) random.nextGaussian();
+            xs[i] = Math.max(field.getXMin(), Math.min(field.getXMax(), x));
+            ys[i] = Math.max(field.getYMin(), Math.min(field.getYMax(), y));
+        }
+        return new StartPoints(xs, ys);
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public float getX(int index) {
+        return xs[index];
+    }
+
+    public float getY(int index) {
+        return ys[index];
+    }
+}
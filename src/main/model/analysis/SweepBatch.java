@@ -0,0 +1,91 @@
+package model.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Represents a running or finished hyperparameter sweep: a handle to cancel it, poll its progress and
+// collect its ranked results
+public final class SweepBatch {
+    private final SweepSpace space;
+    private final StartPoints starts;
+    private final SweepResult[] results;
+    private final AtomicInteger completed;
+    private final SweepListener listener;   // may be null
+    private volatile boolean cancelled;
+    private ForkJoinTask<?> task;
+
+    // EFFECTS: creates a handle for a sweep of space over starts that has not been submitted yet
+    SweepBatch(SweepSpace space, StartPoints starts, SweepListener listener) {
+        this.space = space;
+        this.starts = starts;
+        this.results = new SweepResult[space.size()];
+        this.completed = new AtomicInteger();
+        this.listener = listener;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: requests cancellation; configurations in progress stop at their next chunk of iterations
+    //          and are left out of the results, while those already reported are kept
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // EFFECTS: returns true iff every configuration has finished or been cancelled
+    public boolean isDone() {
+        return task.isDone();
+    }
+
+    // EFFECTS: returns the number of configurations that have finished so far
+    public int getCompletedCount() {
+        return completed.get();
+    }
+
+    public int getTotal() {
+        return results.length;
+    }
+
+    // EFFECTS: waits for the sweep to finish and returns the results of every configuration that finished,
+    //          best first according to SweepResult.RANKING
+    public List<SweepResult> getRankedResults() {
+        task.join();
+        List<SweepResult> ranked = new ArrayList<>(results.length);
+        for (SweepResult result : results) {
+            if (result != null) {
+                ranked.add(result);
+            }
+        }
+        ranked.sort(SweepResult.RANKING);
+        return Collections.unmodifiableList(ranked);
+    }
+
+    SweepSpace getSpace() {
+        return space;
+    }
+
+    StartPoints getStarts() {
+        return starts;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: associates the submitted task with this handle
+    void setTask(ForkJoinTask<?> task) {
+        this.task = task;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores the result of the configuration at index and passes it on to the listener
+    void record(int index, SweepResult result) {
+        results[index] = result;
+        int done = completed.incrementAndGet();
+        if (listener != null) {
+            listener.onResult(result, done, results.length);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package model.analysis;
+
+import model.optimizer.OptimizerType;
+
+// Represents one immutable combination of hyperparameters from a sweep space
+public final class SweepConfiguration {
+    private final OptimizerType optimizerType;
+    private final float learningRate;
+    private final float stopThreshold;
+    private final int maxIterations;
+
+    // EFFECTS: creates a configuration descending with a default optimizer of optimizerType
+    public SweepConfiguration(OptimizerType optimizerType, float learningRate, float stopThreshold,
+                              int maxIterations) {
+        this.optimizerType = optimizerType;
+        this.learningRate = learningRate;
+        this.stopThreshold = stopThreshold;
+        this.maxIterations = maxIterations;
+    }
+
+    public OptimizerType getOptimizerType() {
+        return optimizerType;
+    }
+
+    public float getLearningRate() {
+        return learningRate;
+    }
+
+    public float getStopThreshold() {
+        return stopThreshold;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s lr=%g threshold=%g maxIterations=%d", optimizerType, learningRate, stopThreshold,
+                maxIterations);
+    }
+}
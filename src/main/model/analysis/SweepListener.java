@@ -0,0 +1,10 @@
+package model.analysis;
+
+// Receives the result of each configuration of a running sweep as soon as it finishes. Called from
+// worker threads, possibly concurrently, so implementations must be thread-safe.
+@FunctionalInterface
+public interface SweepListener {
+    // EFFECTS: notified after each configuration finishes; completed counts finished configurations
+    //          out of total
+    void onResult(SweepResult result, int completed, int total);
+}
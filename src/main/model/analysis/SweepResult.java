@@ -0,0 +1,83 @@
+package model.analysis;
+
+import java.util.Comparator;
+
+/**
+ * The aggregated outcome of descending every start point of a sweep with one configuration. A run
+ * counts as diverged when it ended in a failure status (see DescentStatus.isFailure). Results are
+ * ranked by RANKING: the most reliable configurations first, and among equally reliable ones the
+ * fastest to converge, then the one reaching the lowest values.
+ */
+public final class SweepResult {
+    // Orders results by descending convergence rate, then ascending divergence rate, mean iterations to
+    // converge and mean final value; undefined means sort last
+    public static final Comparator<SweepResult> RANKING = Comparator
+            .comparingDouble((SweepResult result) -> -result.getConvergenceRate())
+            .thenComparingDouble(SweepResult::getDivergenceRate)
+            .thenComparing(SweepResult::getMeanIterations, Float::compare)
+            .thenComparing(SweepResult::getMeanFinalValue, Float::compare);
+
+    private final SweepConfiguration configuration;
+    private final int runs;
+    private final int converged;
+    private final int diverged;
+    private final float meanIterations;
+    private final float meanFinalValue;
+    private final float bestFinalValue;
+
+    // REQUIRES: 0 <= converged + diverged <= runs
+    // EFFECTS: creates a result for configuration; meanIterations is over converged runs only,
+    //          meanFinalValue over runs that ended at a finite value, and bestFinalValue is the lowest
+    //          converged value; each is NaN when no run qualifies
+    SweepResult(SweepConfiguration configuration, int runs, int converged, int diverged, float meanIterations,
+                float meanFinalValue, float bestFinalValue) {
+        this.configuration = configuration;
+        this.runs = runs;
+        this.converged = converged;
+        this.diverged = diverged;
+        this.meanIterations = meanIterations;
+        this.meanFinalValue = meanFinalValue;
+        this.bestFinalValue = bestFinalValue;
+    }
+
+    public SweepConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public int getConverged() {
+        return converged;
+    }
+
+    public int getDiverged() {
+        return diverged;
+    }
+
+    // EFFECTS: returns the fraction of runs that converged, 0 if there were none
+    public float getConvergenceRate() {
+        return (runs == 0) ? 0f : (float) converged / runs;
+    }
+
+    // EFFECTS: returns the fraction of runs that diverged, left the domain or became undefined
+    public float getDivergenceRate() {
+        return (runs == 0) ? 0f : (float) diverged / runs;
+    }
+
+    // EFFECTS: returns the mean iterations the converged runs needed, NaN if none converged
+    public float getMeanIterations() {
+        return meanIterations;
+    }
+
+    // EFFECTS: returns the mean value the runs ended at, ignoring undefined ones; NaN if all were undefined
+    public float getMeanFinalValue() {
+        return meanFinalValue;
+    }
+
+    // EFFECTS: returns the lowest value a converged run ended at, NaN if none converged
+    public float getBestFinalValue() {
+        return bestFinalValue;
+    }
+}
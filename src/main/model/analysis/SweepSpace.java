@@ -0,0 +1,93 @@
+package model.analysis;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+import model.optimizer.OptimizerType;
+
+/**
+ * An immutable grid of hyperparameter values to sweep: every optimizer type is combined with every
+ * learning rate, stop threshold and iteration budget. Combinations are numbered from 0 to size() - 1
+ * with the iteration budget varying fastest and the optimizer type slowest, so a sweep can hand out
+ * spans of indices instead of building every configuration up front.
+ */
+public final class SweepSpace {
+    private final OptimizerType[] optimizerTypes;
+    private final float[] learningRates;
+    private final float[] stopThresholds;
+    private final int[] maxIterations;
+
+    // REQUIRES: every array is non-empty, learning rates > 0, iteration budgets >= 0
+    // EFFECTS: creates a space over copies of the given values; throws ArgumentOutOfBoundsException if an
+    //          array is empty or holds an invalid value
+    public SweepSpace(OptimizerType[] optimizerTypes, float[] learningRates, float[] stopThresholds,
+                      int[] maxIterations) {
+        if (optimizerTypes.length == 0 || learningRates.length == 0 || stopThresholds.length == 0
+                || maxIterations.length == 0) {
+            throw new ArgumentOutOfBoundsException("Every swept parameter needs at least one value.");
+        }
+        for (float learningRate : learningRates) {
+            if (!(learningRate > 0f)) {
+                throw new ArgumentOutOfBoundsException("Swept learning rates must be positive.");
+            }
+        }
+        for (int budget : maxIterations) {
+            if (budget < 0) {
+                throw new ArgumentOutOfBoundsException("Swept iteration budgets must not be negative.");
+            }
+        }
+        this.optimizerTypes = optimizerTypes.clone();
+        this.learningRates = learningRates.clone();
+        this.stopThresholds = stopThresholds.clone();
+        this.maxIterations = maxIterations.clone();
+    }
+
+    // REQUIRES: count >= 1
+    // EFFECTS: returns count values evenly spaced from first to last inclusive
+    public static float[] linear(float first, float last, int count) {
+        requireCount(count);
+        float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (count == 1) ? first : first + (last - first) * i / (count - 1);
+        }
+        return values;
+    }
+
+    // REQUIRES: first > 0, last > 0, count >= 1
+    // EFFECTS: returns count values spaced by a constant ratio from first to last inclusive, the usual
+    //          spacing for learning rates and thresholds that span orders of magnitude
+    public static float[] logarithmic(float first, float last, int count) {
+        requireCount(count);
+        if (!(first > 0f && last > 0f)) {
+            throw new ArgumentOutOfBoundsException("Logarithmic ranges must be positive.");
+        }
+        float[] values = new float[count];
+        double ratio = Math.log(last / (double) first);
+        for (int i = 0; i < count; i++) {
+            values[i] = (count == 1) ? first : (float) (first * Math.exp(ratio * i / (count - 1)));
+        }
+        return values;
+    }
+
+    private static void requireCount(int count) {
+        if (count < 1) {
+            throw new ArgumentOutOfBoundsException("A range needs at least one value.");
+        }
+    }
+
+    // EFFECTS: returns the number of combinations in the space
+    public int size() {
+        return optimizerTypes.length * learningRates.length * stopThresholds.length * maxIterations.length;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: returns the combination with the given index
+    public SweepConfiguration get(int index) {
+        int budget = index % maxIterations.length;
+        index /= maxIterations.length;
+        int threshold = index % stopThresholds.length;
+        index /= stopThresholds.length;
+        int rate = index % learningRates.length;
+        int type = index / learningRates.length;
+        return new SweepConfiguration(optimizerTypes[type], learningRates[rate], stopThresholds[threshold],
+                maxIterations[budget]);
+    }
+}
@@ -0,0 +1,406 @@
+package model.expression;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.ScalarFunction;
+import model.exceptions.InvalidFunctionException;
+
+/**
+ * Translates an expression tree into a small JVM class implementing ScalarFunction, so the JIT
+ * compiles and inlines each field like hand-written Java instead of walking exp4j's token list.
+ * Every generated class gets its own class loader and is unloaded once its function is unreachable.
+ * The class also overrides applyBatch with its own loop: the inherited default loop is shared by
+ * every implementation, so its call to applyAsFloat would never be inlined once several fields exist.
+ */
+public final class BytecodeCompiler {
+    private static final String CLASS_NAME = "model/expression/GeneratedScalarFunction";
+    private static final String OBJECT_CLASS = "java/lang/Object";
+    private static final String INTERFACE_CLASS = "model/ScalarFunction";
+    private static final String MATH_CLASS = "java/lang/Math";
+    private static final String HELPER_CLASS = "model/expression/ExpressionMath";
+
+    private static final int CLASS_VERSION = 52;          // Java 8; only the batch loop needs stack maps
+    private static final int HUGE_METHOD_LIMIT = 8000;    // HotSpot never JIT-compiles larger methods
+    private static final int MAX_STACK_SLOTS = 0xFFFF;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ICONST_0 = 0x03;
+    private static final int ILOAD = 0x15;
+    private static final int ISTORE = 0x36;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ALOAD_3 = 0x2d;
+    private static final int FALOAD = 0x30;
+    private static final int FASTORE = 0x51;
+    private static final int IINC = 0x84;
+    private static final int IF_ICMPGE = 0xa2;
+    private static final int GOTO = 0xa7;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int FLOAD_1 = 0x23;
+    private static final int FLOAD_2 = 0x24;
+    private static final int DCONST_0 = 0x0e;
+    private static final int DCONST_1 = 0x0f;
+    private static final int LDC2_W = 0x14;
+    private static final int DADD = 0x63;
+    private static final int DSUB = 0x67;
+    private static final int DMUL = 0x6b;
+    private static final int DDIV = 0x6f;
+    private static final int DREM = 0x73;
+    private static final int DNEG = 0x77;
+    private static final int F2D = 0x8d;
+    private static final int D2F = 0x90;
+    private static final int FRETURN = 0xae;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+
+    private static final int BATCH_COUNT_LOCAL = 4;   // applyBatch(xs, ys, out, count)
+    private static final int BATCH_INDEX_LOCAL = 5;
+    private static final int BATCH_MAX_STACK = 6;     // out, i, this, x, ys, i
+    private static final int FRAME_APPEND_ONE = 252;
+    private static final int FRAME_SAME_EXTENDED = 251;
+    private static final int VERIFY_INTEGER = 1;
+
+    private final ConstantPool pool;
+    private final ByteSink code;
+    private int stackDepth;
+    private int maxStackDepth;
+
+    private BytecodeCompiler() {
+        pool = new ConstantPool();
+        code = new ByteSink();
+    }
+
+    // REQUIRES: root is non-null
+    // EFFECTS: returns a ScalarFunction computing root in double precision and rounding to float once;
+    //          throws InvalidFunctionException if the tree cannot be turned into a loadable class
+    public static ScalarFunction compile(ExpressionNode root) {
+        try {
+            byte[] bytes = new BytecodeCompiler().assemble(root);
+            Class<?> generated = new GeneratedClassLoader().define(bytes);
+            return (ScalarFunction) generated.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError | StackOverflowError ex) {
+            throw new InvalidFunctionException("Failed to compile expression to bytecode: " + ex);
+        }
+    }
+
+    // EFFECTS: returns the bytes of a class file whose applyAsFloat(x, y) evaluates root
+    private byte[] assemble(ExpressionNode root) {
+        emitNode(root);
+        code.u1(D2F);
+        code.u1(FRETURN);
+        if (code.size() > HUGE_METHOD_LIMIT || maxStackDepth > MAX_STACK_SLOTS) {
+            throw new IllegalStateException("generated method too large to JIT-compile");
+        }
+        return writeClassFile(code.toByteArray());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: emits code leaving the double value of node on the operand stack
+    private void emitNode(ExpressionNode node) {
+        Operation op = node.getOperation();
+        switch (op) {
+            case CONSTANT:
+                emitConstant(node.getValue());
+                return;
+            case VAR_X:
+            case VAR_Y:
+                code.u1(op == Operation.VAR_X ? FLOAD_1 : FLOAD_2);
+                code.u1(F2D);
+                push(2);
+                return;
+            default:
+                emitNode(node.getLeft());
+                if (op.getArity() == 2) {
+                    emitNode(node.getRight());
+                }
+                emitOperation(op);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: emits code pushing the double constant value
+    private void emitConstant(double value) {
+        if (Double.doubleToRawLongBits(value) == 0L) {
+            code.u1(DCONST_0);
+        } else if (value == 1.0) {
+            code.u1(DCONST_1);
+        } else {
+            code.u1(LDC2_W);
+            code.u2(pool.doubleConstant(value));
+        }
+        push(2);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: emits the instruction(s) applying op to the operand(s) on top of the stack
+    private void emitOperation(Operation op) {
+        if (op == Operation.NEG) {
+            code.u1(DNEG);
+        } else if (op == Operation.POW) {
+            code.u1(INVOKESTATIC);
+            code.u2(pool.methodRef(MATH_CLASS, "pow", "(DD)D"));
+            pop(2);
+        } else if (op.getArity() == 2) {
+            code.u1(arithmeticOpcode(op));
+            pop(2);
+        } else {
+            boolean helper = (op == Operation.COT || op == Operation.LOG2);
+            code.u1(INVOKESTATIC);
+            code.u2(pool.methodRef(helper ? HELPER_CLASS : MATH_CLASS, op.getSymbol(), "(D)D"));
+        }
+    }
+
+    // REQUIRES: op is one of ADD, SUB, MUL, DIV, MOD
+    // EFFECTS: returns the double arithmetic opcode implementing op
+    private static int arithmeticOpcode(Operation op) {
+        switch (op) {
+            case ADD:
+                return DADD;
+            case SUB:
+                return DSUB;
+            case MUL:
+                return DMUL;
+            case DIV:
+                return DDIV;
+            default:
+                return DREM;
+        }
+    }
+
+    private void push(int slots) {
+        stackDepth += slots;
+        maxStackDepth = Math.max(maxStackDepth, stackDepth);
+    }
+
+    private void pop(int slots) {
+        stackDepth -= slots;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the code of applyBatch([F[F[FI)V, a counted loop calling this class's own
+    //          applyAsFloat, together with the stack map frames its loop needs
+    private byte[][] assembleBatchLoop() {
+        ByteSink loop = new ByteSink();
+        loop.u1(ICONST_0).u1(ISTORE).u1(BATCH_INDEX_LOCAL);
+        int loopStart = loop.size();
+        loop.u1(ILOAD).u1(BATCH_INDEX_LOCAL).u1(ILOAD).u1(BATCH_COUNT_LOCAL);
+        int exitBranch = loop.size();
+        loop.u1(IF_ICMPGE).u2(0);
+        loop.u1(ALOAD_3).u1(ILOAD).u1(BATCH_INDEX_LOCAL);
+        loop.u1(ALOAD_0);
+        loop.u1(ALOAD_1).u1(ILOAD).u1(BATCH_INDEX_LOCAL).u1(FALOAD);
+        loop.u1(ALOAD_2).u1(ILOAD).u1(BATCH_INDEX_LOCAL).u1(FALOAD);
+        loop.u1(INVOKEVIRTUAL).u2(pool.methodRef(CLASS_NAME, "applyAsFloat", "(FF)F"));
+        loop.u1(FASTORE);
+        loop.u1(IINC).u1(BATCH_INDEX_LOCAL).u1(1);
+        int backBranch = loop.size();
+        loop.u1(GOTO).u2(loopStart - backBranch);
+        int loopEnd = loop.size();
+        loop.u1(RETURN);
+        loop.patchU2(exitBranch + 1, loopEnd - exitBranch);
+
+        ByteSink frames = new ByteSink();
+        frames.u2(2);
+        frames.u1(FRAME_APPEND_ONE).u2(loopStart).u1(VERIFY_INTEGER);
+        frames.u1(FRAME_SAME_EXTENDED).u2(loopEnd - loopStart - 1);
+        return new byte[][] {loop.toByteArray(), frames.toByteArray()};
+    }
+
+    // EFFECTS: returns a complete class file with a no-arg constructor, applyAsFloat(FF)F and applyBatch
+    private byte[] writeClassFile(byte[] applyCode) {
+        int thisClass = pool.classRef(CLASS_NAME);
+        int superClass = pool.classRef(OBJECT_CLASS);
+        int iface = pool.classRef(INTERFACE_CLASS);
+        byte[] ctorCode = {(byte) ALOAD_0, (byte) INVOKESPECIAL, 0, 0, (byte) RETURN};
+        int objectInit = pool.methodRef(OBJECT_CLASS, "<init>", "()V");
+        ctorCode[2] = (byte) (objectInit >> 8);
+        ctorCode[3] = (byte) objectInit;
+
+        ByteSink body = new ByteSink();
+        body.u2(ACC_PUBLIC | ACC_FINAL | ACC_SUPER).u2(thisClass).u2(superClass);
+        body.u2(1).u2(iface);
+        body.u2(0);
+        byte[][] batch = assembleBatchLoop();
+        body.u2(3);
+        writeMethod(body, "<init>", "()V", ctorCode, 1, 1, null);
+        writeMethod(body, "applyAsFloat", "(FF)F", applyCode, maxStackDepth, 3, null);
+        writeMethod(body, "applyBatch", "([F[F[FI)V", batch[0], BATCH_MAX_STACK, BATCH_INDEX_LOCAL + 1, batch[1]);
+        body.u2(0);
+
+        ByteSink file = new ByteSink();
+        file.u4(0xCAFEBABE).u2(0).u2(CLASS_VERSION);
+        file.u2(pool.count()).bytes(pool.toByteArray());
+        file.bytes(body.toByteArray());
+        return file.toByteArray();
+    }
+
+    // MODIFIES: out
+    // EFFECTS: writes a public method with a single Code attribute, carrying stackMapTable if non-null
+    private void writeMethod(ByteSink out, String name, String descriptor, byte[] body, int maxStack,
+                             int maxLocals, byte[] stackMapTable) {
+        int attributesLength = (stackMapTable == null) ? 0 : 6 + stackMapTable.length;
+        out.u2(ACC_PUBLIC).u2(pool.utf8(name)).u2(pool.utf8(descriptor));
+        out.u2(1);
+        out.u2(pool.utf8("Code")).u4(12 + body.length + attributesLength);
+        out.u2(maxStack).u2(maxLocals).u4(body.length).bytes(body);
+        out.u2(0);
+        if (stackMapTable == null) {
+            out.u2(0);
+        } else {
+            out.u2(1).u2(pool.utf8("StackMapTable")).u4(stackMapTable.length).bytes(stackMapTable);
+        }
+    }
+
+    // Growable big-endian byte buffer used to lay out class file structures
+    private static final class ByteSink {
+        private byte[] data = new byte[256];
+        private int length;
+
+        ByteSink u1(int value) {
+            ensure(1);
+            data[length++] = (byte) value;
+            return this;
+        }
+
+        ByteSink u2(int value) {
+            return u1(value >> 8).u1(value);
+        }
+
+        ByteSink u4(int value) {
+            return u2(value >> 16).u2(value);
+        }
+
+        ByteSink bytes(byte[] values) {
+            ensure(values.length);
+            System.arraycopy(values, 0, data, length, values.length);
+            length += values.length;
+            return this;
+        }
+
+        // REQUIRES: position + 2 <= size()
+        // EFFECTS: overwrites the two bytes at position, used to back-patch forward branch offsets
+        void patchU2(int position, int value) {
+            data[position] = (byte) (value >> 8);
+            data[position + 1] = (byte) value;
+        }
+
+        int size() {
+            return length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(data, length);
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+            }
+        }
+    }
+
+    // Class file constant pool that interns each entry once
+    private static final class ConstantPool {
+        private static final int TAG_UTF8 = 1;
+        private static final int TAG_DOUBLE = 6;
+        private static final int TAG_CLASS = 7;
+        private static final int TAG_METHODREF = 10;
+        private static final int TAG_NAME_AND_TYPE = 12;
+
+        private final ByteSink entries = new ByteSink();
+        private final Map<String, Integer> indices = new HashMap<>();
+        private int nextIndex = 1;
+
+        int utf8(String text) {
+            String key = "U" + text;
+            Integer existing = indices.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+            entries.u1(TAG_UTF8).u2(encoded.length).bytes(encoded);
+            return register(key, 1);
+        }
+
+        int doubleConstant(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            String key = "D" + bits;
+            Integer existing = indices.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            entries.u1(TAG_DOUBLE).u4((int) (bits >>> 32)).u4((int) bits);
+            return register(key, 2);
+        }
+
+        int classRef(String internalName) {
+            String key = "C" + internalName;
+            Integer existing = indices.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            int name = utf8(internalName);
+            entries.u1(TAG_CLASS).u2(name);
+            return register(key, 1);
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            String key = "M" + owner + "." + name + descriptor;
+            Integer existing = indices.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            int ownerIndex = classRef(owner);
+            int nameAndType = nameAndType(name, descriptor);
+            entries.u1(TAG_METHODREF).u2(ownerIndex).u2(nameAndType);
+            return register(key, 1);
+        }
+
+        int nameAndType(String name, String descriptor) {
+            String key = "N" + name + descriptor;
+            Integer existing = indices.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            entries.u1(TAG_NAME_AND_TYPE).u2(nameIndex).u2(descriptorIndex);
+            return register(key, 1);
+        }
+
+        // EFFECTS: returns the constant_pool_count value (one more than the last index)
+        int count() {
+            return nextIndex;
+        }
+
+        byte[] toByteArray() {
+            return entries.toByteArray();
+        }
+
+        private int register(String key, int slots) {
+            int index = nextIndex;
+            indices.put(key, index);
+            nextIndex += slots;
+            return index;
+        }
+    }
+
+    // Loader holding exactly one generated class so it can be collected with its function
+    private static final class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader() {
+            super(BytecodeCompiler.class.getClassLoader());
+        }
+
+        Class<?> define(byte[] bytes) {
+            return defineClass(CLASS_NAME.replace('/', '.'), bytes, 0, bytes.length);
+        }
+    }
+}
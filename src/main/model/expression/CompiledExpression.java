@@ -0,0 +1,283 @@
+package model.expression;
+
+import model.ScalarFunction;
+import model.exceptions.InvalidFunctionException;
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+
+/**
+ * A scalar field expression f(x, y) that is tokenized and parsed by exp4j exactly once.
+ * exp4j expressions keep their variable bindings as mutable state, so every thread
+ * evaluates through its own copy of the parsed prototype instead of sharing one instance.
+ * With the BYTECODE engine the expression is additionally translated into a JVM class, and
+ * exp4j only remains as the fallback when that translation fails. exp4j's own division, modulo
+ * and cotangent throw at a zero divisor; they are replaced by the IEEE 754 versions Operation
+ * uses, so every engine returns the same infinity or NaN there and ScalarField rejects it alike.
+ */
+public final class CompiledExpression implements ScalarFunction {
+    public static final String VAR_X = "x";
+    public static final String VAR_Y = "y";
+
+    private static final Operator DIVIDE = new Operator("/", 2, true, Operator.PRECEDENCE_DIVISION) {
+        @Override
+        public double apply(double... args) {
+            return Operation.DIV.apply(args[0], args[1]);
+        }
+    };
+    private static final Operator MODULO = new Operator("%", 2, true, Operator.PRECEDENCE_MODULO) {
+        @Override
+        public double apply(double... args) {
+            return Operation.MOD.apply(args[0], args[1]);
+        }
+    };
+    private static final Function COTANGENT = new Function("cot", 1) {
+        @Override
+        public double apply(double... args) {
+            return Operation.COT.apply(args[0], 0.0);
+        }
+    };
+
+    private final String source;
+    private final ThreadLocal<Expression> perThread;
+    private final ExpressionNode tree;         // null if the expression has no tree form
+    private final ScalarFunction compiled;     // null when evaluated by exp4j
+    private final ScalarFunction partialX;     // ∂f/∂x, null if not symbolically differentiable
+    private final ScalarFunction partialY;     // ∂f/∂y, null if not symbolically differentiable
+    private final ScalarFunction[] hessian;    // ∂²f/∂x², ∂²f/∂x∂y, ∂²f/∂y², null if not twice differentiable
+    private final DualNumberEvaluator dual;    // null if the expression has no tree form
+
+    // REQUIRES: prototype was built from source with variables x and y
+    // EFFECTS: wraps an already parsed expression and its optional tree and generated evaluator
+    private CompiledExpression(String source, Expression prototype, ExpressionNode tree, ScalarFunction compiled,
+                               ScalarFunction[] partials) {
+        this.source = source;
+        this.perThread = ThreadLocal.withInitial(() -> new Expression(prototype));
+        this.tree = tree;
+        this.compiled = compiled;
+        this.partialX = (partials == null) ? null : partials[0];
+        this.partialY = (partials == null) ? null : partials[1];
+        this.hessian = (partials == null || partials.length < 5) ? null
+                : new ScalarFunction[] {partials[2], partials[3], partials[4]};
+        this.dual = (tree == null) ? null : tryBuildDual(tree);
+    }
+
+    // EFFECTS: parses source once and returns its compiled form using the bytecode engine,
+    //          falling back to exp4j if bytecode generation fails;
+    //          throws InvalidFunctionException if exp4j cannot parse the expression
+    public static CompiledExpression compile(String source) {
+        return compile(source, ExpressionEngine.BYTECODE);
+    }
+
+    // EFFECTS: parses source once and returns its compiled form evaluated by the requested engine,
+    //          together with its symbolic first and second partial derivatives when it is differentiable;
+    //          a BYTECODE request silently falls back to EXP4J when bytecode generation fails;
+    //          throws InvalidFunctionException if exp4j cannot parse the expression
+    public static CompiledExpression compile(String source, ExpressionEngine engine) {
+        Expression parsed = parseWithExp4j(source);
+        ExpressionNode tree = tryParseTree(source);
+        ScalarFunction compiled = null;
+        if (engine == ExpressionEngine.BYTECODE && tree != null) {
+            compiled = tryCompileBytecode(tree);
+        }
+        ScalarFunction[] partials = (tree == null) ? null : tryDifferentiate(tree, engine);
+        return new CompiledExpression(source, parsed, tree, compiled, partials);
+    }
+
+    // EFFECTS: returns true iff source can be compiled into an expression of x and y
+    public static boolean isCompilable(String source) {
+        try {
+            parseWithExp4j(source);
+            return true;
+        } catch (InvalidFunctionException ex) {
+            return false;
+        }
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    // EFFECTS: returns the engine that actually evaluates this expression
+    public ExpressionEngine getEngine() {
+        return (compiled != null) ? ExpressionEngine.BYTECODE : ExpressionEngine.EXP4J;
+    }
+
+    // EFFECTS: returns the parsed expression tree, or null if none could be built
+    public ExpressionNode getTree() {
+        return tree;
+    }
+
+    // EFFECTS: returns the function that evaluates this expression most directly: the generated
+    //          class when bytecode compilation succeeded, otherwise this
+    public ScalarFunction getEvaluator() {
+        return (compiled != null) ? compiled : this;
+    }
+
+    // EFFECTS: returns the symbolic ∂f/∂x, or null if the expression is not differentiable
+    public ScalarFunction getPartialX() {
+        return partialX;
+    }
+
+    // EFFECTS: returns the symbolic ∂f/∂y, or null if the expression is not differentiable
+    public ScalarFunction getPartialY() {
+        return partialY;
+    }
+
+    // EFFECTS: returns true iff the symbolic second partial derivatives are available
+    public boolean hasSecondPartials() {
+        return hessian != null;
+    }
+
+    // REQUIRES: hasSecondPartials()
+    // EFFECTS: returns the symbolic ∂²f/∂x²
+    public ScalarFunction getPartialXX() {
+        return hessian[0];
+    }
+
+    // REQUIRES: hasSecondPartials()
+    // EFFECTS: returns the symbolic ∂²f/∂x∂y
+    public ScalarFunction getPartialXY() {
+        return hessian[1];
+    }
+
+    // REQUIRES: hasSecondPartials()
+    // EFFECTS: returns the symbolic ∂²f/∂y²
+    public ScalarFunction getPartialYY() {
+        return hessian[2];
+    }
+
+    // EFFECTS: returns the forward-mode evaluator of f and its gradient, or null if there is none
+    public DualNumberEvaluator getDualEvaluator() {
+        return dual;
+    }
+
+    // EFFECTS: returns f(x, y) in double precision using exp4j and the calling thread's copy of the expression
+    public double evaluate(double x, double y) {
+        Expression expression = perThread.get();
+        expression.setVariable(VAR_X, x);
+        expression.setVariable(VAR_Y, y);
+        return expression.evaluate();
+    }
+
+    // EFFECTS: returns f(x, y); throws IllegalArgumentException if exp4j fails to evaluate
+    @Override
+    public float applyAsFloat(float x, float y) {
+        if (compiled != null) {
+            return compiled.applyAsFloat(x, y);
+        }
+        try {
+            return (float) evaluate(x, y);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Failed to evaluate expression: " + source, ex);
+        }
+    }
+
+    // REQUIRES: xs, ys and out each hold at least count entries
+    // MODIFIES: out
+    // EFFECTS: writes f(xs[i], ys[i]) into out[i]; points exp4j cannot evaluate are written as NaN
+    @Override
+    public void applyBatch(float[] xs, float[] ys, float[] out, int count) {
+        if (compiled != null) {
+            compiled.applyBatch(xs, ys, out, count);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            try {
+                out[i] = (float) evaluate(xs[i], ys[i]);
+            } catch (RuntimeException ex) {
+                out[i] = Float.NaN;
+            }
+        }
+    }
+
+    // EFFECTS: parses and validates source with exp4j;
+    //          throws InvalidFunctionException if it is not a valid expression of x and y
+    private static Expression parseWithExp4j(String source) {
+        if (source == null || source.trim().isEmpty()) {
+            throw new InvalidFunctionException("Expression cannot be empty.");
+        }
+
+        try {
+            Expression parsed = new ExpressionBuilder(source)
+                    .variables(VAR_X, VAR_Y)
+                    .operator(DIVIDE, MODULO)
+                    .function(COTANGENT)
+                    .build();
+            if (parsed.validate(false).isValid()) {
+                return parsed;
+            }
+        } catch (RuntimeException ex) {
+            // fall through to the shared failure below
+        }
+        throw new InvalidFunctionException("Failed to parse expression: " + source);
+    }
+
+    // EFFECTS: returns the expression tree of source, or null if it cannot be represented as one
+    private static ExpressionNode tryParseTree(String source) {
+        try {
+            return ExpressionParser.parse(source);
+        } catch (InvalidFunctionException ex) {
+            return null;
+        }
+    }
+
+    // EFFECTS: returns a generated evaluator for tree, or null if bytecode generation fails
+    private static ScalarFunction tryCompileBytecode(ExpressionNode tree) {
+        try {
+            return BytecodeCompiler.compile(tree);
+        } catch (InvalidFunctionException ex) {
+            return null;
+        }
+    }
+
+    // EFFECTS: returns a dual-number evaluator for tree, or null if it is nested too deeply to flatten
+    private static DualNumberEvaluator tryBuildDual(ExpressionNode tree) {
+        try {
+            return new DualNumberEvaluator(tree);
+        } catch (StackOverflowError ex) {
+            return null;
+        }
+    }
+
+    // EFFECTS: returns evaluators for ∂f/∂x and ∂f/∂y of tree, followed by ∂²f/∂x², ∂²f/∂x∂y and ∂²f/∂y²
+    //          when the first partials can be differentiated again; returns null if tree is not differentiable
+    private static ScalarFunction[] tryDifferentiate(ExpressionNode tree, ExpressionEngine engine) {
+        ExpressionNode dx;
+        ExpressionNode dy;
+        try {
+            dx = SymbolicDifferentiator.differentiate(tree, Operation.VAR_X);
+            dy = SymbolicDifferentiator.differentiate(tree, Operation.VAR_Y);
+        } catch (InvalidFunctionException | StackOverflowError ex) {
+            return null; // step functions, or trees nested too deeply to rewrite recursively
+        }
+        ScalarFunction[] first = {toEvaluator(dx, engine), toEvaluator(dy, engine)};
+        try {
+            // ∂²f/∂y∂x equals ∂²f/∂x∂y wherever both are continuous, so the mixed partial is derived once
+            ExpressionNode dxx = SymbolicDifferentiator.differentiate(dx, Operation.VAR_X);
+            ExpressionNode dxy = SymbolicDifferentiator.differentiate(dx, Operation.VAR_Y);
+            ExpressionNode dyy = SymbolicDifferentiator.differentiate(dy, Operation.VAR_Y);
+            return new ScalarFunction[] {first[0], first[1],
+                    toEvaluator(dxx, engine), toEvaluator(dxy, engine), toEvaluator(dyy, engine)};
+        } catch (InvalidFunctionException | StackOverflowError ex) {
+            return first; // e.g. abs, whose derivative is a step function
+        }
+    }
+
+    // EFFECTS: returns an evaluator for node; generated bytecode if requested and possible,
+    //          otherwise a walk of the tree
+    private static ScalarFunction toEvaluator(ExpressionNode node, ExpressionEngine engine) {
+        ScalarFunction generated = (engine == ExpressionEngine.BYTECODE) ? tryCompileBytecode(node) : null;
+        if (generated != null) {
+            return generated;
+        }
+        return (x, y) -> (float) node.evaluate(x, y);
+    }
+
+    // EFFECTS: returns the expression source
+    @Override
+    public String toString() {
+        return source;
+    }
+}
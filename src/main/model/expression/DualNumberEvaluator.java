@@ -0,0 +1,163 @@
+package model.expression;
+
+/**
+ * Forward-mode automatic differentiation of an expression tree. Every intermediate value is
+ * carried as a dual number (v, ∂v/∂x, ∂v/∂y), so a single pass over the flattened tree yields
+ * f(x, y) together with its gradient. The tree is flattened into postfix arrays once; evaluation
+ * runs over a per-thread scratch stack and does not allocate.
+ */
+public final class DualNumberEvaluator {
+    private static final double LN_10 = Math.log(10.0);
+    private static final double LN_2 = Math.log(2.0);
+    private static final int SLOT = 3;  // value, d/dx, d/dy
+
+    private final Operation[] ops;
+    private final double[] constants;
+    private final ThreadLocal<double[]> scratch;
+
+    // REQUIRES: root is non-null
+    // EFFECTS: flattens root into postfix order for repeated dual-number evaluation
+    public DualNumberEvaluator(ExpressionNode root) {
+        int size = root.size();
+        this.ops = new Operation[size];
+        this.constants = new double[size];
+        int[] depth = new int[2];   // {current, max}
+        flatten(root, 0, depth);
+        int stackSlots = depth[1] * SLOT;
+        this.scratch = ThreadLocal.withInitial(() -> new double[stackSlots]);
+    }
+
+    // REQUIRES: out.length >= 3
+    // MODIFIES: out
+    // EFFECTS: writes f(x, y) into out[0], ∂f/∂x into out[1] and ∂f/∂y into out[2]; results may be
+    //          NaN or infinite where f or its derivatives are undefined
+    public void evaluate(double x, double y, float[] out) {
+        double[] stack = scratch.get();
+        int top = 0;
+        for (int i = 0; i < ops.length; i++) {
+            Operation op = ops[i];
+            switch (op) {
+                case CONSTANT:
+                    top = push(stack, top, constants[i], 0.0, 0.0);
+                    break;
+                case VAR_X:
+                    top = push(stack, top, x, 1.0, 0.0);
+                    break;
+                case VAR_Y:
+                    top = push(stack, top, y, 0.0, 1.0);
+                    break;
+                default:
+                    top = applyOperation(op, stack, top);
+            }
+        }
+        out[0] = (float) stack[0];
+        out[1] = (float) stack[1];
+        out[2] = (float) stack[2];
+    }
+
+    // MODIFIES: this, depth
+    // EFFECTS: writes node's subtree in postfix order starting at index and returns the next free index;
+    //          tracks the operand stack depth needed to evaluate it
+    private int flatten(ExpressionNode node, int index, int[] depth) {
+        int next = index;
+        if (node.getLeft() != null) {
+            next = flatten(node.getLeft(), next, depth);
+        }
+        if (node.getRight() != null) {
+            next = flatten(node.getRight(), next, depth);
+        }
+        ops[next] = node.getOperation();
+        constants[next] = node.getValue();
+        depth[0] += 1 - node.getOperation().getArity();
+        depth[1] = Math.max(depth[1], depth[0]);
+        return next + 1;
+    }
+
+    // MODIFIES: stack
+    // EFFECTS: pushes the dual number (value, dx, dy) and returns the new stack height in slots
+    private static int push(double[] stack, int top, double value, double dx, double dy) {
+        stack[top] = value;
+        stack[top + 1] = dx;
+        stack[top + 2] = dy;
+        return top + SLOT;
+    }
+
+    // MODIFIES: stack
+    // EFFECTS: replaces op's operands on top of stack with its result and returns the new stack height
+    private static int applyOperation(Operation op, double[] stack, int top) {
+        if (op.getArity() == 1) {
+            int a = top - SLOT;
+            double value = op.apply(stack[a], 0.0);
+            double slope = unarySlope(op, stack[a], value);
+            stack[a] = value;
+            stack[a + 1] *= slope;
+            stack[a + 2] *= slope;
+            return top;
+        }
+        int b = top - SLOT;
+        int a = b - SLOT;
+        applyBinary(op, stack, a, b);
+        return b;
+    }
+
+    // MODIFIES: stack
+    // EFFECTS: overwrites the dual number at a with op applied to the dual numbers at a and b
+    private static void applyBinary(Operation op, double[] stack, int a, int b) {
+        double left = stack[a];
+        double right = stack[b];
+        double value = op.apply(left, right);
+        for (int k = 1; k < SLOT; k++) {
+            stack[a + k] = binaryDerivative(op, left, right, value, stack[a + k], stack[b + k]);
+        }
+        stack[a] = value;
+    }
+
+    // EFFECTS: returns the derivative of op(a, b) given value = op(a, b) and the derivatives da, db
+    private static double binaryDerivative(Operation op, double a, double b, double value, double da, double db) {
+        switch (op) {
+            case ADD: return da + db;
+            case SUB: return da - db;
+            case MUL: return da * b + a * db;
+            case DIV: return (da - value * db) / b;
+            case MOD: return (db == 0.0) ? da : da - ((a - value) / b) * db;
+            default: return powerDerivative(a, b, value, da, db);
+        }
+    }
+
+    // EFFECTS: returns the derivative of a^b; a constant exponent avoids log(a), which is undefined for a <= 0
+    private static double powerDerivative(double a, double b, double value, double da, double db) {
+        if (db == 0.0) {
+            return (da == 0.0) ? 0.0 : b * Math.pow(a, b - 1.0) * da;
+        }
+        return value * (db * Math.log(a) + ((da == 0.0) ? 0.0 : b * da / a));
+    }
+
+    // REQUIRES: op is NEG or a single-argument function
+    // EFFECTS: returns op'(a) given value = op(a)
+    @SuppressWarnings("methodlength")
+    private static double unarySlope(Operation op, double a, double value) {
+        switch (op) {
+            case NEG: return -1.0;
+            case SIN: return Math.cos(a);
+            case COS: return -Math.sin(a);
+            case TAN: return 1.0 / (Math.cos(a) * Math.cos(a));
+            case COT: return -1.0 / (Math.sin(a) * Math.sin(a));
+            case ASIN: return 1.0 / Math.sqrt(1.0 - a * a);
+            case ACOS: return -1.0 / Math.sqrt(1.0 - a * a);
+            case ATAN: return 1.0 / (1.0 + a * a);
+            case SINH: return Math.cosh(a);
+            case COSH: return Math.sinh(a);
+            case TANH: return 1.0 / (Math.cosh(a) * Math.cosh(a));
+            case ABS: return Math.signum(a);
+            case LOG: return 1.0 / a;
+            case LOG10: return 1.0 / (a * LN_10);
+            case LOG2: return 1.0 / (a * LN_2);
+            case LOG1P: return 1.0 / (1.0 + a);
+            case SQRT: return 0.5 / value;
+            case CBRT: return 1.0 / (3.0 * value * value);
+            case EXP: return value;
+            case EXPM1: return value + 1.0;
+            default: return 0.0; // ceil, floor and signum are flat almost everywhere
+        }
+    }
+}
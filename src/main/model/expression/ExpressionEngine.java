@@ -0,0 +1,7 @@
+package model.expression;
+
+// Represents the strategy used to evaluate a compiled scalar field expression
+public enum ExpressionEngine {
+    EXP4J,      // exp4j walks its parsed token list on every evaluation
+    BYTECODE    // the expression is translated into a JVM class that the JIT compiles and inlines
+}
@@ -0,0 +1,23 @@
+package model.expression;
+
+/**
+ * Expression functions that java.lang.Math does not provide directly. Public so that
+ * classes generated by BytecodeCompiler, which live in their own class loader, can call them.
+ */
+public final class ExpressionMath {
+    private static final double LN_2 = Math.log(2.0);
+
+    private ExpressionMath() {
+        // utility
+    }
+
+    // EFFECTS: returns the cotangent of a (radians)
+    public static double cot(double a) {
+        return 1.0 / Math.tan(a);
+    }
+
+    // EFFECTS: returns the base-2 logarithm of a
+    public static double log2(double a) {
+        return Math.log(a) / LN_2;
+    }
+}
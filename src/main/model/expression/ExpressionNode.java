@@ -0,0 +1,116 @@
+package model.expression;
+
+/**
+ * An immutable node in the parsed tree of a scalar field expression f(x, y).
+ */
+public final class ExpressionNode {
+    private static final ExpressionNode X = new ExpressionNode(Operation.VAR_X, 0.0, null, null);
+    private static final ExpressionNode Y = new ExpressionNode(Operation.VAR_Y, 0.0, null, null);
+
+    private final Operation operation;
+    private final double value;         // only meaningful for CONSTANT
+    private final ExpressionNode left;  // first operand, null for leaves
+    private final ExpressionNode right; // second operand, null unless binary
+
+    private ExpressionNode(Operation operation, double value, ExpressionNode left, ExpressionNode right) {
+        this.operation = operation;
+        this.value = value;
+        this.left = left;
+        this.right = right;
+    }
+
+    // EFFECTS: returns a leaf holding the given constant
+    public static ExpressionNode constant(double value) {
+        return new ExpressionNode(Operation.CONSTANT, value, null, null);
+    }
+
+    // EFFECTS: returns the leaf for the variable x
+    public static ExpressionNode variableX() {
+        return X;
+    }
+
+    // EFFECTS: returns the leaf for the variable y
+    public static ExpressionNode variableY() {
+        return Y;
+    }
+
+    // REQUIRES: operation has arity 1; operand is non-null
+    // EFFECTS: returns a node applying operation to operand
+    public static ExpressionNode unary(Operation operation, ExpressionNode operand) {
+        return new ExpressionNode(operation, 0.0, operand, null);
+    }
+
+    // REQUIRES: operation has arity 2; left and right are non-null
+    // EFFECTS: returns a node applying operation to left and right
+    public static ExpressionNode binary(Operation operation, ExpressionNode left, ExpressionNode right) {
+        return new ExpressionNode(operation, 0.0, left, right);
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public ExpressionNode getLeft() {
+        return left;
+    }
+
+    public ExpressionNode getRight() {
+        return right;
+    }
+
+    // EFFECTS: returns true iff this node is the constant c
+    public boolean isConstant(double c) {
+        return operation == Operation.CONSTANT && value == c;
+    }
+
+    // EFFECTS: evaluates the tree at (x, y) by walking it recursively
+    public double evaluate(double x, double y) {
+        switch (operation) {
+            case CONSTANT:
+                return value;
+            case VAR_X:
+                return x;
+            case VAR_Y:
+                return y;
+            default:
+                double a = left.evaluate(x, y);
+                double b = (right == null) ? 0.0 : right.evaluate(x, y);
+                return operation.apply(a, b);
+        }
+    }
+
+    // EFFECTS: returns the number of nodes in the tree
+    public int size() {
+        int count = 1;
+        if (left != null) {
+            count += left.size();
+        }
+        if (right != null) {
+            count += right.size();
+        }
+        return count;
+    }
+
+    // EFFECTS: returns the tree as a fully parenthesized infix expression
+    @Override
+    public String toString() {
+        switch (operation) {
+            case CONSTANT:
+                return (value < 0) ? "(" + value + ")" : Double.toString(value);
+            case VAR_X:
+            case VAR_Y:
+                return operation.getSymbol();
+            case NEG:
+                return "(-" + left + ")";
+            default:
+                if (operation.isFunction()) {
+                    return operation.getSymbol() + "(" + left + ")";
+                }
+                return "(" + left + " " + operation.getSymbol() + " " + right + ")";
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package model.expression;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import model.exceptions.InvalidFunctionException;
+import net.objecthunter.exp4j.shuntingyard.ShuntingYard;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+/**
+ * Builds expression trees from source text. Tokenizing and operator precedence are delegated to
+ * exp4j's shunting-yard converter so the tree accepts exactly the grammar exp4j evaluates.
+ */
+public final class ExpressionParser {
+    // built-in constants exp4j binds as variables on every expression
+    private static final Map<String, Double> CONSTANTS = new HashMap<>();
+
+    static {
+        CONSTANTS.put("pi", Math.PI);
+        CONSTANTS.put("π", Math.PI);
+        CONSTANTS.put("φ", 1.61803398874d);
+        CONSTANTS.put("e", Math.E);
+    }
+
+    private ExpressionParser() {
+        // utility
+    }
+
+    // EFFECTS: parses source into an expression tree over x and y;
+    //          throws InvalidFunctionException if the expression cannot be represented
+    public static ExpressionNode parse(String source) {
+        Token[] tokens;
+        try {
+            tokens = ShuntingYard.convertToRPN(source, Collections.emptyMap(), Collections.emptyMap(),
+                    variableNames(), true);
+        } catch (RuntimeException ex) {
+            throw new InvalidFunctionException("Failed to parse expression: " + source);
+        }
+
+        Deque<ExpressionNode> stack = new ArrayDeque<>();
+        for (Token token : tokens) {
+            pushToken(stack, token, source);
+        }
+        if (stack.size() != 1) {
+            throw new InvalidFunctionException("Malformed expression: " + source);
+        }
+        return stack.pop();
+    }
+
+    // MODIFIES: stack
+    // EFFECTS: consumes the operands of token from stack and pushes the resulting node
+    private static void pushToken(Deque<ExpressionNode> stack, Token token, String source) {
+        switch (token.getType()) {
+            case Token.TOKEN_NUMBER:
+                stack.push(ExpressionNode.constant(((NumberToken) token).getValue()));
+                break;
+            case Token.TOKEN_VARIABLE:
+                stack.push(variable(((VariableToken) token).getName(), source));
+                break;
+            case Token.TOKEN_OPERATOR:
+                OperatorToken opToken = (OperatorToken) token;
+                int operands = opToken.getOperator().getNumOperands();
+                Operation op = Operation.fromOperator(opToken.getOperator().getSymbol(), operands);
+                if (op == null && operands == 1 && "+".equals(opToken.getOperator().getSymbol())) {
+                    requireOperands(stack, 1, source);
+                    break; // unary plus leaves its operand untouched
+                }
+                applyOperation(stack, op, source);
+                break;
+            case Token.TOKEN_FUNCTION:
+                applyOperation(stack, Operation.fromFunctionName(((FunctionToken) token).getFunction().getName()),
+                        source);
+                break;
+            default:
+                throw new InvalidFunctionException("Unexpected token in expression: " + source);
+        }
+    }
+
+    // MODIFIES: stack
+    // EFFECTS: pops op's operands and pushes the node applying op to them
+    private static void applyOperation(Deque<ExpressionNode> stack, Operation op, String source) {
+        if (op == null) {
+            throw new InvalidFunctionException("Unsupported operation in expression: " + source);
+        }
+        requireOperands(stack, op.getArity(), source);
+        if (op.getArity() == 1) {
+            stack.push(ExpressionNode.unary(op, stack.pop()));
+            return;
+        }
+        ExpressionNode right = stack.pop();
+        ExpressionNode left = stack.pop();
+        stack.push(ExpressionNode.binary(op, left, right));
+    }
+
+    // EFFECTS: throws InvalidFunctionException if stack holds fewer than count operands
+    private static void requireOperands(Deque<ExpressionNode> stack, int count, String source) {
+        if (stack.size() < count) {
+            throw new InvalidFunctionException("Missing operand in expression: " + source);
+        }
+    }
+
+    // EFFECTS: returns the leaf for a variable or built-in constant name
+    private static ExpressionNode variable(String name, String source) {
+        if (CompiledExpression.VAR_X.equals(name)) {
+            return ExpressionNode.variableX();
+        }
+        if (CompiledExpression.VAR_Y.equals(name)) {
+            return ExpressionNode.variableY();
+        }
+        Double constant = CONSTANTS.get(name);
+        if (constant == null) {
+            throw new InvalidFunctionException("Unknown variable " + name + " in expression: " + source);
+        }
+        return ExpressionNode.constant(constant);
+    }
+
+    // EFFECTS: returns the variable names exp4j must recognise: x, y and the built-in constants
+    private static Set<String> variableNames() {
+        Set<String> names = new HashSet<>(CONSTANTS.keySet());
+        names.add(CompiledExpression.VAR_X);
+        names.add(CompiledExpression.VAR_Y);
+        return names;
+    }
+}
@@ -0,0 +1,85 @@
+package model.expression;
+
+/**
+ * Algebraic clean-up of expression trees: folds constant subtrees and removes identities such as
+ * a + 0, a * 1 and a ^ 1. Mostly useful for derivative trees, which are full of such terms.
+ */
+public final class ExpressionSimplifier {
+
+    private ExpressionSimplifier() {
+        // utility
+    }
+
+    // EFFECTS: returns a tree equivalent to node with constants folded and identities removed
+    public static ExpressionNode simplify(ExpressionNode node) {
+        if (node.getOperation().getArity() == 0) {
+            return node;
+        }
+        ExpressionNode left = simplify(node.getLeft());
+        ExpressionNode right = (node.getRight() == null) ? null : simplify(node.getRight());
+        return combine(node.getOperation(), left, right);
+    }
+
+    // REQUIRES: left (and right, for binary op) are already simplified
+    // EFFECTS: returns the simplest node applying op to left and right
+    public static ExpressionNode combine(Operation op, ExpressionNode left, ExpressionNode right) {
+        boolean leftConstant = left.getOperation() == Operation.CONSTANT;
+        boolean rightConstant = right == null || right.getOperation() == Operation.CONSTANT;
+        if (leftConstant && rightConstant) {
+            return ExpressionNode.constant(op.apply(left.getValue(), (right == null) ? 0.0 : right.getValue()));
+        }
+        if (op.getArity() == 1) {
+            return combineUnary(op, left);
+        }
+        ExpressionNode identity = applyIdentity(op, left, right);
+        return (identity != null) ? identity : ExpressionNode.binary(op, left, right);
+    }
+
+    // EFFECTS: returns -(-a) as a, otherwise op applied to operand
+    private static ExpressionNode combineUnary(Operation op, ExpressionNode operand) {
+        if (op == Operation.NEG && operand.getOperation() == Operation.NEG) {
+            return operand.getLeft();
+        }
+        return ExpressionNode.unary(op, operand);
+    }
+
+    // EFFECTS: returns the result of an algebraic identity for op(left, right), or null if none applies
+    @SuppressWarnings("methodlength")
+    private static ExpressionNode applyIdentity(Operation op, ExpressionNode left, ExpressionNode right) {
+        switch (op) {
+            case ADD:
+                if (left.isConstant(0.0)) {
+                    return right;
+                }
+                return right.isConstant(0.0) ? left : null;
+            case SUB:
+                if (right.isConstant(0.0)) {
+                    return left;
+                }
+                return left.isConstant(0.0) ? combineUnary(Operation.NEG, right) : null;
+            case MUL:
+                if (left.isConstant(0.0) || right.isConstant(0.0)) {
+                    return ExpressionNode.constant(0.0);
+                }
+                if (left.isConstant(1.0)) {
+                    return right;
+                }
+                if (right.isConstant(1.0)) {
+                    return left;
+                }
+                return left.isConstant(-1.0) ? combineUnary(Operation.NEG, right) : null;
+            case DIV:
+                if (left.isConstant(0.0)) {
+                    return ExpressionNode.constant(0.0);
+                }
+                return right.isConstant(1.0) ? left : null;
+            case POW:
+                if (right.isConstant(0.0)) {
+                    return ExpressionNode.constant(1.0);
+                }
+                return right.isConstant(1.0) ? left : null;
+            default:
+                return null;
+        }
+    }
+}
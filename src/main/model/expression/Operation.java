@@ -0,0 +1,128 @@
+package model.expression;
+
+// Represents the operations an expression tree node can perform; mirrors the grammar exp4j accepts
+public enum Operation {
+    CONSTANT(0, "const"),
+    VAR_X(0, CompiledExpression.VAR_X),
+    VAR_Y(0, CompiledExpression.VAR_Y),
+
+    ADD(2, "+"),
+    SUB(2, "-"),
+    MUL(2, "*"),
+    DIV(2, "/"),
+    MOD(2, "%"),
+    POW(2, "^"),
+    NEG(1, "-"),
+
+    SIN(1, "sin"),
+    COS(1, "cos"),
+    TAN(1, "tan"),
+    COT(1, "cot"),
+    ASIN(1, "asin"),
+    ACOS(1, "acos"),
+    ATAN(1, "atan"),
+    SINH(1, "sinh"),
+    COSH(1, "cosh"),
+    TANH(1, "tanh"),
+    ABS(1, "abs"),
+    LOG(1, "log"),
+    LOG10(1, "log10"),
+    LOG2(1, "log2"),
+    LOG1P(1, "log1p"),
+    CEIL(1, "ceil"),
+    FLOOR(1, "floor"),
+    SQRT(1, "sqrt"),
+    CBRT(1, "cbrt"),
+    EXP(1, "exp"),
+    EXPM1(1, "expm1"),
+    SIGNUM(1, "signum");
+
+    private final int arity;
+    private final String symbol;
+
+    Operation(int arity, String symbol) {
+        this.arity = arity;
+        this.symbol = symbol;
+    }
+
+    // EFFECTS: returns the number of operands the operation consumes
+    public int getArity() {
+        return arity;
+    }
+
+    // EFFECTS: returns the operator symbol or function name as written in an expression
+    public String getSymbol() {
+        return symbol;
+    }
+
+    // EFFECTS: returns true iff the operation is a named single-argument function such as sin
+    public boolean isFunction() {
+        return ordinal() >= SIN.ordinal();
+    }
+
+    // EFFECTS: returns the function with the given exp4j name ("pow" maps to POW), or null if unknown
+    public static Operation fromFunctionName(String name) {
+        if ("pow".equals(name)) {
+            return POW;
+        }
+        for (Operation op : values()) {
+            if (op.isFunction() && op.symbol.equals(name)) {
+                return op;
+            }
+        }
+        return null;
+    }
+
+    // EFFECTS: returns the operator with the given symbol and operand count, or null if unknown;
+    //          unary plus is not an operation and also yields null
+    public static Operation fromOperator(String symbol, int operands) {
+        if (operands == 1) {
+            return "-".equals(symbol) ? NEG : null;
+        }
+        for (Operation op : values()) {
+            if (op.arity == 2 && op.symbol.equals(symbol)) {
+                return op;
+            }
+        }
+        return null;
+    }
+
+    // REQUIRES: this is not CONSTANT, VAR_X or VAR_Y; b is ignored for unary operations
+    // EFFECTS: applies the operation to its operands with the same semantics as exp4j; division, modulo
+    //          and cotangent at a zero divisor yield an infinity or NaN, as CompiledExpression has exp4j do
+    @SuppressWarnings("methodlength")
+    public double apply(double a, double b) {
+        switch (this) {
+            case ADD: return a + b;
+            case SUB: return a - b;
+            case MUL: return a * b;
+            case DIV: return a / b;
+            case MOD: return a % b;
+            case POW: return Math.pow(a, b);
+            case NEG: return -a;
+            case SIN: return Math.sin(a);
+            case COS: return Math.cos(a);
+            case TAN: return Math.tan(a);
+            case COT: return ExpressionMath.cot(a);
+            case ASIN: return Math.asin(a);
+            case ACOS: return Math.acos(a);
+            case ATAN: return Math.atan(a);
+            case SINH: return Math.sinh(a);
+            case COSH: return Math.cosh(a);
+            case TANH: return Math.tanh(a);
+            case ABS: return Math.abs(a);
+            case LOG: return Math.log(a);
+            case LOG10: return Math.log10(a);
+            case LOG2: return ExpressionMath.log2(a);
+            case LOG1P: return Math.log1p(a);
+            case CEIL: return Math.ceil(a);
+            case FLOOR: return Math.floor(a);
+            case SQRT: return Math.sqrt(a);
+            case CBRT: return Math.cbrt(a);
+            case EXP: return Math.exp(a);
+            case EXPM1: return Math.expm1(a);
+            case SIGNUM: return Math.signum(a);
+            default: throw new IllegalStateException("Operation has no operands: " + this);
+        }
+    }
+}
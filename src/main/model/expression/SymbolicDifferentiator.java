@@ -0,0 +1,153 @@
+package model.expression;
+
+import model.exceptions.InvalidFunctionException;
+
+/**
+ * Derives exact partial derivatives of expression trees with the usual calculus rules. Step
+ * functions (ceil, floor, signum) and a modulo by a variable divisor have no useful derivative,
+ * so they are reported as not differentiable and callers fall back to finite differences.
+ */
+public final class SymbolicDifferentiator {
+    private static final double LN_10 = Math.log(10.0);
+    private static final double LN_2 = Math.log(2.0);
+
+    private SymbolicDifferentiator() {
+        // utility
+    }
+
+    // REQUIRES: variable is VAR_X or VAR_Y
+    // EFFECTS: returns the simplified partial derivative of node with respect to variable;
+    //          throws InvalidFunctionException if node is not symbolically differentiable
+    public static ExpressionNode differentiate(ExpressionNode node, Operation variable) {
+        return ExpressionSimplifier.simplify(derive(node, variable));
+    }
+
+    // EFFECTS: returns true iff the tree under node refers to variable
+    public static boolean dependsOn(ExpressionNode node, Operation variable) {
+        if (node.getOperation() == variable) {
+            return true;
+        }
+        return (node.getLeft() != null && dependsOn(node.getLeft(), variable))
+                || (node.getRight() != null && dependsOn(node.getRight(), variable));
+    }
+
+    // EFFECTS: returns the (unsimplified) derivative of node with respect to variable
+    private static ExpressionNode derive(ExpressionNode node, Operation variable) {
+        if (!dependsOn(node, variable)) {
+            return ExpressionNode.constant(0.0);
+        }
+        Operation op = node.getOperation();
+        if (op == variable) {
+            return ExpressionNode.constant(1.0);
+        }
+        if (op.isFunction()) {
+            return mul(deriveFunction(op, node.getLeft()), derive(node.getLeft(), variable));
+        }
+        return deriveOperator(node, variable);
+    }
+
+    // EFFECTS: returns the derivative of an arithmetic operator node
+    @SuppressWarnings("methodlength")
+    private static ExpressionNode deriveOperator(ExpressionNode node, Operation variable) {
+        ExpressionNode a = node.getLeft();
+        ExpressionNode b = node.getRight();
+        switch (node.getOperation()) {
+            case NEG:
+                return neg(derive(a, variable));
+            case ADD:
+                return add(derive(a, variable), derive(b, variable));
+            case SUB:
+                return sub(derive(a, variable), derive(b, variable));
+            case MUL:
+                return add(mul(derive(a, variable), b), mul(a, derive(b, variable)));
+            case DIV:
+                return div(sub(mul(derive(a, variable), b), mul(a, derive(b, variable))), mul(b, b));
+            case POW:
+                return derivePower(a, b, variable);
+            case MOD:
+                if (dependsOn(b, variable)) {
+                    throw new InvalidFunctionException("Modulo by a variable is not differentiable.");
+                }
+                return derive(a, variable);
+            default:
+                throw new InvalidFunctionException("Cannot differentiate " + node.getOperation());
+        }
+    }
+
+    // EFFECTS: returns d(a^b), specialising constant exponents and constant bases
+    private static ExpressionNode derivePower(ExpressionNode a, ExpressionNode b, Operation variable) {
+        if (!dependsOn(b, variable)) {
+            ExpressionNode reduced = ExpressionSimplifier.simplify(sub(b, ExpressionNode.constant(1.0)));
+            return mul(mul(b, pow(a, reduced)), derive(a, variable));
+        }
+        ExpressionNode power = pow(a, b);
+        if (!dependsOn(a, variable)) {
+            return mul(mul(power, fn(Operation.LOG, a)), derive(b, variable));
+        }
+        ExpressionNode exponentTerm = mul(derive(b, variable), fn(Operation.LOG, a));
+        ExpressionNode baseTerm = div(mul(b, derive(a, variable)), a);
+        return mul(power, add(exponentTerm, baseTerm));
+    }
+
+    // EFFECTS: returns f'(u) for a single-argument function f (the chain factor u' is applied by the caller)
+    @SuppressWarnings("methodlength")
+    private static ExpressionNode deriveFunction(Operation op, ExpressionNode u) {
+        ExpressionNode one = ExpressionNode.constant(1.0);
+        switch (op) {
+            case SIN: return fn(Operation.COS, u);
+            case COS: return neg(fn(Operation.SIN, u));
+            case TAN: return div(one, square(fn(Operation.COS, u)));
+            case COT: return neg(div(one, square(fn(Operation.SIN, u))));
+            case ASIN: return div(one, fn(Operation.SQRT, sub(one, square(u))));
+            case ACOS: return neg(div(one, fn(Operation.SQRT, sub(one, square(u)))));
+            case ATAN: return div(one, add(one, square(u)));
+            case SINH: return fn(Operation.COSH, u);
+            case COSH: return fn(Operation.SINH, u);
+            case TANH: return div(one, square(fn(Operation.COSH, u)));
+            case ABS: return fn(Operation.SIGNUM, u);
+            case LOG: return div(one, u);
+            case LOG10: return div(one, mul(u, ExpressionNode.constant(LN_10)));
+            case LOG2: return div(one, mul(u, ExpressionNode.constant(LN_2)));
+            case LOG1P: return div(one, add(one, u));
+            case SQRT: return div(one, mul(ExpressionNode.constant(2.0), fn(Operation.SQRT, u)));
+            case CBRT: return div(one, mul(ExpressionNode.constant(3.0), square(fn(Operation.CBRT, u))));
+            case EXP:
+            case EXPM1:
+                return fn(Operation.EXP, u);
+            default:
+                throw new InvalidFunctionException(op.getSymbol() + " is not differentiable.");
+        }
+    }
+
+    private static ExpressionNode add(ExpressionNode a, ExpressionNode b) {
+        return ExpressionSimplifier.combine(Operation.ADD, a, b);
+    }
+
+    private static ExpressionNode sub(ExpressionNode a, ExpressionNode b) {
+        return ExpressionSimplifier.combine(Operation.SUB, a, b);
+    }
+
+    private static ExpressionNode mul(ExpressionNode a, ExpressionNode b) {
+        return ExpressionSimplifier.combine(Operation.MUL, a, b);
+    }
+
+    private static ExpressionNode div(ExpressionNode a, ExpressionNode b) {
+        return ExpressionSimplifier.combine(Operation.DIV, a, b);
+    }
+
+    private static ExpressionNode pow(ExpressionNode a, ExpressionNode b) {
+        return ExpressionSimplifier.combine(Operation.POW, a, b);
+    }
+
+    private static ExpressionNode neg(ExpressionNode a) {
+        return ExpressionSimplifier.combine(Operation.NEG, a, null);
+    }
+
+    private static ExpressionNode square(ExpressionNode a) {
+        return mul(a, a);
+    }
+
+    private static ExpressionNode fn(Operation op, ExpressionNode a) {
+        return ExpressionSimplifier.combine(op, a, null);
+    }
+}
@@ -0,0 +1,51 @@
+package model.optimizer;
+
+// AdaGrad: scales each axis by the root of its accumulated squared gradients,
+// x <- x - learningRate * g / (sqrt(sum g^2) + epsilon)
+public final class AdaGrad extends Optimizer {
+    private final float epsilon;
+    private float sumSquaresX;
+    private float sumSquaresY;
+
+    // REQUIRES: epsilon > 0
+    // EFFECTS: creates an AdaGrad optimizer with no accumulated history
+    public AdaGrad(float epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public OptimizerType getType() {
+        return OptimizerType.ADAGRAD;
+    }
+
+    @Override
+    public void computeStep(float gx, float gy, float learningRate, float[] delta) {
+        sumSquaresX += gx * gx;
+        sumSquaresY += gy * gy;
+        delta[0] = -learningRate * gx / ((float) Math.sqrt(sumSquaresX) + epsilon);
+        delta[1] = -learningRate * gy / ((float) Math.sqrt(sumSquaresY) + epsilon);
+    }
+
+    @Override
+    public void reset() {
+        sumSquaresX = 0f;
+        sumSquaresY = 0f;
+    }
+
+    @Override
+    public float[] getHyperparameters() {
+        return new float[] {epsilon};
+    }
+
+    @Override
+    public float[] getState() {
+        return new float[] {sumSquaresX, sumSquaresY};
+    }
+
+    @Override
+    public void restoreState(float[] state) {
+        requireLength(state, 2);
+        sumSquaresX = state[0];
+        sumSquaresY = state[1];
+    }
+}
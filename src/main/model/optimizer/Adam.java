@@ -0,0 +1,82 @@
+package model.optimizer;
+
+/**
+ * Adam: bias-corrected moving averages of the gradient (m) and squared gradient (v) per axis,
+ * x <- x - learningRate * m_hat / (sqrt(v_hat) + epsilon). The bias corrections keep running
+ * powers beta^t instead of calling Math.pow every step. Both moments are averages of the gradients
+ * seen at the points actually visited and never of the step, so a line search rescaling the step
+ * leaves them consistent and onStepTaken has nothing to correct.
+ */
+public final class Adam extends Optimizer {
+    private final float beta1;
+    private final float beta2;
+    private final float epsilon;
+    private float firstMomentX;
+    private float firstMomentY;
+    private float secondMomentX;
+    private float secondMomentY;
+    private float beta1Power;
+    private float beta2Power;
+
+    // REQUIRES: 0 <= beta1 < 1, 0 <= beta2 < 1, epsilon > 0
+    // EFFECTS: creates an Adam optimizer with no gradient history
+    public Adam(float beta1, float beta2, float epsilon) {
+        this.beta1 = beta1;
+        this.beta2 = beta2;
+        this.epsilon = epsilon;
+        reset();
+    }
+
+    @Override
+    public OptimizerType getType() {
+        return OptimizerType.ADAM;
+    }
+
+    @Override
+    public void computeStep(float gx, float gy, float learningRate, float[] delta) {
+        beta1Power *= beta1;
+        beta2Power *= beta2;
+        firstMomentX = beta1 * firstMomentX + (1f - beta1) * gx;
+        firstMomentY = beta1 * firstMomentY + (1f - beta1) * gy;
+        secondMomentX = beta2 * secondMomentX + (1f - beta2) * gx * gx;
+        secondMomentY = beta2 * secondMomentY + (1f - beta2) * gy * gy;
+
+        float firstCorrection = 1f - beta1Power;
+        float secondCorrection = 1f - beta2Power;
+        delta[0] = -learningRate * (firstMomentX / firstCorrection)
+                / ((float) Math.sqrt(secondMomentX / secondCorrection) + epsilon);
+        delta[1] = -learningRate * (firstMomentY / firstCorrection)
+                / ((float) Math.sqrt(secondMomentY / secondCorrection) + epsilon);
+    }
+
+    @Override
+    public void reset() {
+        firstMomentX = 0f;
+        firstMomentY = 0f;
+        secondMomentX = 0f;
+        secondMomentY = 0f;
+        beta1Power = 1f;
+        beta2Power = 1f;
+    }
+
+    @Override
+    public float[] getHyperparameters() {
+        return new float[] {beta1, beta2, epsilon};
+    }
+
+    @Override
+    public float[] getState() {
+        return new float[] {firstMomentX, firstMomentY, secondMomentX, secondMomentY, beta1Power, beta2Power};
+    }
+
+    @Override
+    public void restoreState(float[] state) {
+        requireLength(state, 6);
+        firstMomentX = state[0];
+        firstMomentY = state[1];
+        secondMomentX = state[2];
+        secondMomentY = state[3];
+        beta1Power = state[4];
+        beta2Power = state[5];
+    }
+}
@@ -0,0 +1,91 @@
+package model.optimizer;
+
+/**
+ * Nonlinear conjugate gradient. Each step follows d = -∇f + β·d_prev scaled by the learning rate,
+ * with β chosen by the Fletcher-Reeves (|g|² / |g_prev|²) or Polak-Ribière
+ * (g·(g - g_prev) / |g_prev|², clamped at 0) formula. The direction restarts from -∇f every
+ * restartInterval steps and whenever it stops pointing downhill. Works best with a line search
+ * (StepSizeMode.BACKTRACKING), which lets the steps follow the conjugate directions properly.
+ */
+public final class ConjugateGradient extends Optimizer {
+    private final boolean polakRibiere;
+    private final int restartInterval;
+
+    private float directionX;
+    private float directionY;
+    private float lastGradientX;
+    private float lastGradientY;
+    private int sinceRestart;      // steps since the direction was last reset to -∇f; 0 before the first
+
+    // REQUIRES: restartInterval >= 1
+    // EFFECTS: creates a Polak-Ribière optimizer if polakRibiere, otherwise a Fletcher-Reeves one
+    public ConjugateGradient(boolean polakRibiere, int restartInterval) {
+        this.polakRibiere = polakRibiere;
+        this.restartInterval = Math.max(1, restartInterval);
+    }
+
+    @Override
+    public OptimizerType getType() {
+        return polakRibiere ? OptimizerType.POLAK_RIBIERE : OptimizerType.FLETCHER_REEVES;
+    }
+
+    @Override
+    public void computeStep(float gx, float gy, float learningRate, float[] delta) {
+        float beta = (sinceRestart == 0 || sinceRestart >= restartInterval) ? 0f : beta(gx, gy);
+        float dx = -gx + beta * directionX;
+        float dy = -gy + beta * directionY;
+        if (!(gx * dx + gy * dy < 0f)) {
+            dx = -gx;
+            dy = -gy;
+            beta = 0f;
+        }
+        sinceRestart = (beta == 0f) ? 1 : sinceRestart + 1;
+        directionX = dx;
+        directionY = dy;
+        lastGradientX = gx;
+        lastGradientY = gy;
+        delta[0] = learningRate * dx;
+        delta[1] = learningRate * dy;
+    }
+
+    // EFFECTS: returns the conjugacy coefficient for the gradient (gx, gy)
+    private float beta(float gx, float gy) {
+        float previous = lastGradientX * lastGradientX + lastGradientY * lastGradientY;
+        if (previous == 0f) {
+            return 0f;
+        }
+        if (!polakRibiere) {
+            return (gx * gx + gy * gy) / previous;
+        }
+        return Math.max(0f, (gx * (gx - lastGradientX) + gy * (gy - lastGradientY)) / previous);
+    }
+
+    @Override
+    public void reset() {
+        directionX = 0f;
+        directionY = 0f;
+        lastGradientX = 0f;
+        lastGradientY = 0f;
+        sinceRestart = 0;
+    }
+
+    @Override
+    public float[] getHyperparameters() {
+        return new float[] {restartInterval};
+    }
+
+    @Override
+    public float[] getState() {
+        return new float[] {directionX, directionY, lastGradientX, lastGradientY, sinceRestart};
+    }
+
+    @Override
+    public void restoreState(float[] state) {
+        requireLength(state, 5);
+        directionX = state[0];
+        directionY = state[1];
+        lastGradientX = state[2];
+        lastGradientY = state[3];
+        sinceRestart = (int) state[4];
+    }
+}
@@ -0,0 +1,68 @@
+package model.optimizer;
+
+/**
+ * Limits the gradient an optimizer sees, to tame the huge steps a steep region would otherwise
+ * cause. Each component can be clamped to [-maxComponent, maxComponent], and the whole vector can
+ * be rescaled so that its norm is at most maxNorm; a limit of 0 turns that kind of clipping off.
+ * Clipping only shapes the step: convergence is still judged on the true gradient.
+ */
+public final class GradientClipping {
+    public static final GradientClipping NONE = new GradientClipping(0f, 0f);
+
+    private final float maxNorm;
+    private final float maxComponent;
+
+    // REQUIRES: maxNorm >= 0, maxComponent >= 0
+    // EFFECTS: creates a clipping rule; a limit of 0 disables that kind of clipping
+    public GradientClipping(float maxNorm, float maxComponent) {
+        this.maxNorm = maxNorm;
+        this.maxComponent = maxComponent;
+    }
+
+    public float getMaxNorm() {
+        return maxNorm;
+    }
+
+    public float getMaxComponent() {
+        return maxComponent;
+    }
+
+    // EFFECTS: returns true iff this rule can change a gradient
+    public boolean isEnabled() {
+        return maxNorm > 0f || maxComponent > 0f;
+    }
+
+    // REQUIRES: out.length >= 2
+    // MODIFIES: out
+    // EFFECTS: writes (gx, gy) clamped per component and then rescaled to the maximum norm into out
+    public void clip(float gx, float gy, float[] out) {
+        float cx = gx;
+        float cy = gy;
+        if (maxComponent > 0f) {
+            cx = Math.max(-maxComponent, Math.min(maxComponent, cx));
+            cy = Math.max(-maxComponent, Math.min(maxComponent, cy));
+        }
+        if (maxNorm > 0f) {
+            float norm = (float) Math.sqrt(cx * cx + cy * cy);
+            if (norm > maxNorm) {
+                float scale = maxNorm / norm;
+                cx *= scale;
+                cy *= scale;
+            }
+        }
+        out[0] = cx;
+        out[1] = cy;
+    }
+
+    @Override
+    public String toString() {
+        if (!isEnabled()) {
+            return "no clipping";
+        }
+        return String.format("clipping (norm %s, component %s)", limitToString(maxNorm), limitToString(maxComponent));
+    }
+
+    private static String limitToString(float limit) {
+        return (limit > 0f) ? Float.toString(limit) : "off";
+    }
+}
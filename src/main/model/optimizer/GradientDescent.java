@@ -0,0 +1,36 @@
+package model.optimizer;
+
+// Plain fixed-step gradient descent: x <- x - learningRate * ∇f(x)
+public final class GradientDescent extends Optimizer {
+
+    @Override
+    public OptimizerType getType() {
+        return OptimizerType.GRADIENT_DESCENT;
+    }
+
+    @Override
+    public void computeStep(float gx, float gy, float learningRate, float[] delta) {
+        delta[0] = -learningRate * gx;
+        delta[1] = -learningRate * gy;
+    }
+
+    @Override
+    public void reset() {
+        // stateless
+    }
+
+    @Override
+    public float[] getHyperparameters() {
+        return new float[0];
+    }
+
+    @Override
+    public float[] getState() {
+        return new float[0];
+    }
+
+    @Override
+    public void restoreState(float[] state) {
+        requireLength(state, 0);
+    }
+}
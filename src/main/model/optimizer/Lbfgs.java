@@ -0,0 +1,185 @@
+package model.optimizer;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+
+/**
+ * Limited-memory BFGS. The last historySize step / gradient-change pairs (s, y) are kept in
+ * preallocated ring buffers, and the two-loop recursion turns them into an approximate Newton
+ * step -H·∇f, where H is scaled by s·y / y·y of the newest pair. Until a pair is available (and
+ * whenever the history yields no descent direction) it falls back to -learningRate·∇f. Pairs come
+ * from the steps the descent actually took, as reported through onStepTaken, so step-size
+ * adjustments are accounted for; pairs that violate the curvature condition s·y > 0 are skipped.
+ */
+public final class Lbfgs extends Optimizer {
+    private static final float CURVATURE_EPSILON = 1e-10f;
+    private static final int HEADER = 8;   // head, count, hasGradient, gx, gy, hasStep, sx, sy
+
+    private final int historySize;
+    private final float[] stepsX;
+    private final float[] stepsY;
+    private final float[] changesX;
+    private final float[] changesY;
+    private final float[] rho;
+    private final float[] alpha;
+
+    private int head;              // index of the newest pair
+    private int count;
+    private boolean hasGradient;
+    private float lastGradientX;
+    private float lastGradientY;
+    private boolean hasStep;
+    private float lastStepX;
+    private float lastStepY;
+
+    // REQUIRES: historySize >= 1
+    // EFFECTS: creates an L-BFGS optimizer remembering historySize pairs; throws
+    //          ArgumentOutOfBoundsException if historySize < 1
+    public Lbfgs(int historySize) {
+        if (historySize < 1) {
+            throw new ArgumentOutOfBoundsException("L-BFGS history size must be at least 1.");
+        }
+        this.historySize = historySize;
+        this.stepsX = new float[historySize];
+        this.stepsY = new float[historySize];
+        this.changesX = new float[historySize];
+        this.changesY = new float[historySize];
+        this.rho = new float[historySize];
+        this.alpha = new float[historySize];
+        reset();
+    }
+
+    @Override
+    public OptimizerType getType() {
+        return OptimizerType.LBFGS;
+    }
+
+    @Override
+    public void computeStep(float gx, float gy, float learningRate, float[] delta) {
+        if (hasGradient && hasStep) {
+            remember(lastStepX, lastStepY, gx - lastGradientX, gy - lastGradientY);
+        }
+        hasGradient = true;
+        lastGradientX = gx;
+        lastGradientY = gy;
+        hasStep = false;
+
+        if (count > 0) {
+            twoLoop(gx, gy, delta);
+            if (gx * delta[0] + gy * delta[1] < 0f) {
+                return;
+            }
+            count = 0;   // the history has gone stale; start over from a gradient step
+        }
+        delta[0] = -learningRate * gx;
+        delta[1] = -learningRate * gy;
+    }
+
+    @Override
+    public void onStepTaken(float dx, float dy) {
+        hasStep = true;
+        lastStepX = dx;
+        lastStepY = dy;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the pair (s, y) as the newest in the ring unless it violates the curvature condition
+    private void remember(float sx, float sy, float yx, float yy) {
+        float curvature = sx * yx + sy * yy;
+        if (!(curvature > CURVATURE_EPSILON)) {
+            return;
+        }
+        head = (head + 1) % historySize;
+        stepsX[head] = sx;
+        stepsY[head] = sy;
+        changesX[head] = yx;
+        changesY[head] = yy;
+        rho[head] = 1f / curvature;
+        count = Math.min(count + 1, historySize);
+    }
+
+    // REQUIRES: count > 0
+    // MODIFIES: this, delta
+    // EFFECTS: writes -H·(gx, gy) into delta using the two-loop recursion over the stored pairs
+    private void twoLoop(float gx, float gy, float[] delta) {
+        float qx = gx;
+        float qy = gy;
+        for (int k = 0, i = head; k < count; k++, i = (i + historySize - 1) % historySize) {
+            alpha[i] = rho[i] * (stepsX[i] * qx + stepsY[i] * qy);
+            qx -= alpha[i] * changesX[i];
+            qy -= alpha[i] * changesY[i];
+        }
+        float gamma = (stepsX[head] * changesX[head] + stepsY[head] * changesY[head])
+                / (changesX[head] * changesX[head] + changesY[head] * changesY[head]);
+        qx *= gamma;
+        qy *= gamma;
+        int oldest = (head + historySize - count + 1) % historySize;
+        for (int k = 0, i = oldest; k < count; k++, i = (i + 1) % historySize) {
+            float beta = rho[i] * (changesX[i] * qx + changesY[i] * qy);
+            qx += stepsX[i] * (alpha[i] - beta);
+            qy += stepsY[i] * (alpha[i] - beta);
+        }
+        delta[0] = -qx;
+        delta[1] = -qy;
+    }
+
+    @Override
+    public void reset() {
+        head = historySize - 1;
+        count = 0;
+        hasGradient = false;
+        hasStep = false;
+    }
+
+    @Override
+    public float[] getHyperparameters() {
+        return new float[] {historySize};
+    }
+
+    @Override
+    public float[] getState() {
+        float[] state = new float[HEADER + 4 * historySize];
+        state[0] = head;
+        state[1] = count;
+        state[2] = hasGradient ? 1f : 0f;
+        state[3] = lastGradientX;
+        state[4] = lastGradientY;
+        state[5] = hasStep ? 1f : 0f;
+        state[6] = lastStepX;
+        state[7] = lastStepY;
+        System.arraycopy(stepsX, 0, state, HEADER, historySize);
+        System.arraycopy(stepsY, 0, state, HEADER + historySize, historySize);
+        System.arraycopy(changesX, 0, state, HEADER + 2 * historySize, historySize);
+        System.arraycopy(changesY, 0, state, HEADER + 3 * historySize, historySize);
+        return state;
+    }
+
+    @Override
+    public void restoreState(float[] state) {
+        requireLength(state, HEADER + 4 * historySize);
+        requireIndex(state[0], historySize - 1);
+        requireIndex(state[1], historySize);
+        head = (int) state[0];
+        count = (int) state[1];
+        hasGradient = state[2] != 0f;
+        lastGradientX = state[3];
+        lastGradientY = state[4];
+        hasStep = state[5] != 0f;
+        lastStepX = state[6];
+        lastStepY = state[7];
+        System.arraycopy(state, HEADER, stepsX, 0, historySize);
+        System.arraycopy(state, HEADER + historySize, stepsY, 0, historySize);
+        System.arraycopy(state, HEADER + 2 * historySize, changesX, 0, historySize);
+        System.arraycopy(state, HEADER + 3 * historySize, changesY, 0, historySize);
+        for (int i = 0; i < historySize; i++) {
+            float curvature = stepsX[i] * changesX[i] + stepsY[i] * changesY[i];
+            rho[i] = (curvature == 0f) ? 0f : 1f / curvature;
+        }
+    }
+
+    // EFFECTS: throws ArgumentOutOfBoundsException unless value is a whole number in [0, max]
+    private static void requireIndex(float value, int max) {
+        if (!(value >= 0f && value <= max && value == (int) value)) {
+            throw new ArgumentOutOfBoundsException("Expected an L-BFGS history index in [0, " + max + "].");
+        }
+    }
+}
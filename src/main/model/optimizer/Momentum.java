@@ -0,0 +1,57 @@
+package model.optimizer;
+
+// Heavy-ball momentum: v <- momentum * v - learningRate * ∇f(x), then x <- x + v. The velocity is the step
+// itself, so when a line search rescales the step the velocity is replaced by the step actually taken.
+public final class Momentum extends Optimizer {
+    private final float momentum;
+    private float velocityX;
+    private float velocityY;
+
+    // REQUIRES: 0 <= momentum < 1
+    // EFFECTS: creates a momentum optimizer at rest
+    public Momentum(float momentum) {
+        this.momentum = momentum;
+    }
+
+    @Override
+    public OptimizerType getType() {
+        return OptimizerType.MOMENTUM;
+    }
+
+    @Override
+    public void computeStep(float gx, float gy, float learningRate, float[] delta) {
+        velocityX = momentum * velocityX - learningRate * gx;
+        velocityY = momentum * velocityY - learningRate * gy;
+        delta[0] = velocityX;
+        delta[1] = velocityY;
+    }
+
+    @Override
+    public void onStepTaken(float dx, float dy) {
+        velocityX = dx;
+        velocityY = dy;
+    }
+
+    @Override
+    public void reset() {
+        velocityX = 0f;
+        velocityY = 0f;
+    }
+
+    @Override
+    public float[] getHyperparameters() {
+        return new float[] {momentum};
+    }
+
+    @Override
+    public float[] getState() {
+        return new float[] {velocityX, velocityY};
+    }
+
+    @Override
+    public void restoreState(float[] state) {
+        requireLength(state, 2);
+        velocityX = state[0];
+        velocityY = state[1];
+    }
+}
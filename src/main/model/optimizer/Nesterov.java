@@ -0,0 +1,68 @@
+package model.optimizer;
+
+/**
+ * Nesterov accelerated gradient in the form that only needs the gradient at the current point:
+ * v' = momentum * v - learningRate * ∇f(x), then x <- x - momentum * v + (1 + momentum) * v'.
+ * This is the usual look-ahead update with the iterate shifted to the look-ahead point. When a line
+ * search rescales the step, v' is solved back out of the step actually taken so the next update
+ * carries the momentum of the move that happened rather than the one proposed.
+ */
+public final class Nesterov extends Optimizer {
+    private final float momentum;
+    private float velocityX;
+    private float velocityY;
+    private float previousX;
+    private float previousY;
+
+    // REQUIRES: 0 <= momentum < 1
+    // EFFECTS: creates a Nesterov optimizer at rest
+    public Nesterov(float momentum) {
+        this.momentum = momentum;
+    }
+
+    @Override
+    public OptimizerType getType() {
+        return OptimizerType.NESTEROV;
+    }
+
+    @Override
+    public void computeStep(float gx, float gy, float learningRate, float[] delta) {
+        previousX = velocityX;
+        previousY = velocityY;
+        velocityX = momentum * velocityX - learningRate * gx;
+        velocityY = momentum * velocityY - learningRate * gy;
+        delta[0] = -momentum * previousX + (1f + momentum) * velocityX;
+        delta[1] = -momentum * previousY + (1f + momentum) * velocityY;
+    }
+
+    @Override
+    public void onStepTaken(float dx, float dy) {
+        velocityX = (dx + momentum * previousX) / (1f + momentum);
+        velocityY = (dy + momentum * previousY) / (1f + momentum);
+    }
+
+    @Override
+    public void reset() {
+        velocityX = 0f;
+        velocityY = 0f;
+        previousX = 0f;
+        previousY = 0f;
+    }
+
+    @Override
+    public float[] getHyperparameters() {
+        return new float[] {momentum};
+    }
+
+    @Override
+    public float[] getState() {
+        return new float[] {velocityX, velocityY};
+    }
+
+    @Override
+    public void restoreState(float[] state) {
+        requireLength(state, 2);
+        velocityX = state[0];
+        velocityY = state[1];
+    }
+}
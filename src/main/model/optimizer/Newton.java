@@ -0,0 +1,182 @@
+package model.optimizer;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+
+/**
+ * Damped Newton's method inside a trust region. Each step solves (H + λI)·p = -∇f, where the shift λ
+ * is 0 when the Hessian H is positive definite and otherwise just large enough to make it so
+ * (Levenberg damping), which turns saddle points and maxima into directions to escape along. The
+ * step is cut back to the trust radius, and the radius adapts to how well the quadratic model
+ * predicted the decrease of f over the previous step: poor predictions shrink it, accurate ones
+ * taken at the boundary grow it. Near a minimum the full Newton step is taken and convergence is
+ * quadratic. Steps are sized by the model rather than the learning rate, which only matters for
+ * the gradient step taken when no Hessian was supplied or the damped system cannot be solved.
+ */
+public final class Newton extends Optimizer {
+    private static final float MIN_RADIUS = 1e-6f;
+    private static final float MAX_RADIUS = 1e4f;
+    private static final float DAMPING_FLOOR = 1e-4f;   // smallest eigenvalue kept, relative to the largest
+    private static final float SHRINK_BELOW = 0.25f;
+    private static final float GROW_ABOVE = 0.75f;
+
+    private final float initialRadius;
+
+    private float radius;
+    private boolean hasCurvature;      // observeCurvature was called for the step about to be computed
+    private float value;
+    private float hessianXX;
+    private float hessianXY;
+    private float hessianYY;
+    private boolean modelReady;        // computeStep took a model step that onStepTaken has not judged yet
+    private float modelGradientX;
+    private float modelGradientY;
+    private boolean hasPending;        // a step was taken whose actual decrease is not known yet
+    private float pendingValue;
+    private float pendingReduction;
+    private boolean pendingAtBoundary;
+
+    // REQUIRES: initialRadius > 0
+    // EFFECTS: creates a Newton optimizer starting each run with the given trust radius; throws
+    //          ArgumentOutOfBoundsException if initialRadius is not positive
+    public Newton(float initialRadius) {
+        if (!(initialRadius > 0f)) {
+            throw new ArgumentOutOfBoundsException("Trust radius must be positive.");
+        }
+        this.initialRadius = initialRadius;
+        reset();
+    }
+
+    @Override
+    public OptimizerType getType() {
+        return OptimizerType.NEWTON;
+    }
+
+    @Override
+    public boolean usesCurvature() {
+        return true;
+    }
+
+    @Override
+    public void observeCurvature(float value, float hxx, float hxy, float hyy) {
+        if (hasPending) {
+            adaptRadius((pendingValue - value) / pendingReduction);
+            hasPending = false;
+        }
+        this.value = value;
+        hessianXX = hxx;
+        hessianXY = hxy;
+        hessianYY = hyy;
+        hasCurvature = true;
+    }
+
+    @Override
+    public void computeStep(float gx, float gy, float learningRate, float[] delta) {
+        modelReady = hasCurvature && solveDamped(gx, gy, delta);
+        hasCurvature = false;
+        if (!modelReady) {
+            delta[0] = -learningRate * gx;
+            delta[1] = -learningRate * gy;
+            return;
+        }
+        float length = (float) Math.sqrt(delta[0] * delta[0] + delta[1] * delta[1]);
+        if (length > radius) {
+            delta[0] *= radius / length;
+            delta[1] *= radius / length;
+        }
+        modelGradientX = gx;
+        modelGradientY = gy;
+    }
+
+    // MODIFIES: delta
+    // EFFECTS: writes the solution p of (H + λI)·p = -(gx, gy) into delta and returns true, or returns false
+    //          if the system cannot be solved with finite values
+    private boolean solveDamped(float gx, float gy, float[] delta) {
+        double mean = 0.5 * (hessianXX + hessianYY);
+        double halfGap = 0.5 * (hessianXX - hessianYY);
+        double spread = Math.sqrt(halfGap * halfGap + (double) hessianXY * hessianXY);
+        double smallest = mean - spread;
+        double floor = DAMPING_FLOOR * Math.max(1.0, Math.abs(mean + spread));
+        double shift = (smallest >= floor) ? 0.0 : floor - smallest;
+
+        double a = hessianXX + shift;
+        double c = hessianYY + shift;
+        double det = a * c - (double) hessianXY * hessianXY;
+        double px = -(c * gx - hessianXY * gy) / det;
+        double py = -(a * gy - hessianXY * gx) / det;
+        if (!(det > 0.0) || Double.isNaN(px + py) || Double.isInfinite(px + py)) {
+            return false;
+        }
+        delta[0] = (float) px;
+        delta[1] = (float) py;
+        return true;
+    }
+
+    // EFFECTS: remembers the decrease the quadratic model predicts for the step (dx, dy) actually taken, so
+    //          the next observeCurvature can compare it with the real one
+    @Override
+    public void onStepTaken(float dx, float dy) {
+        if (!modelReady) {
+            return;
+        }
+        modelReady = false;
+        float curvature = hessianXX * dx * dx + 2f * hessianXY * dx * dy + hessianYY * dy * dy;
+        float reduction = -(modelGradientX * dx + modelGradientY * dy + 0.5f * curvature);
+        if (reduction > 0f) {
+            hasPending = true;
+            pendingValue = value;
+            pendingReduction = reduction;
+            pendingAtBoundary = dx * dx + dy * dy >= 0.98f * radius * radius;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shrinks the trust radius if ratio (actual over predicted decrease) shows the model was poor,
+    //          grows it if the model was good and the step was held back by the radius
+    private void adaptRadius(float ratio) {
+        if (!(ratio >= SHRINK_BELOW)) {
+            radius = Math.max(MIN_RADIUS, radius * 0.25f);
+        } else if (ratio > GROW_ABOVE && pendingAtBoundary) {
+            radius = Math.min(MAX_RADIUS, radius * 2f);
+        }
+    }
+
+    // EFFECTS: returns the current trust radius
+    public float getTrustRadius() {
+        return radius;
+    }
+
+    @Override
+    public void reset() {
+        radius = initialRadius;
+        hasCurvature = false;
+        modelReady = false;
+        hasPending = false;
+        pendingValue = 0f;
+        pendingReduction = 0f;
+        pendingAtBoundary = false;
+    }
+
+    @Override
+    public float[] getHyperparameters() {
+        return new float[] {initialRadius};
+    }
+
+    // EFFECTS: returns radius, hasPending (0 or 1), pendingValue, pendingReduction, pendingAtBoundary (0 or 1)
+    @Override
+    public float[] getState() {
+        return new float[] {radius, hasPending ? 1f : 0f, pendingValue, pendingReduction,
+                pendingAtBoundary ? 1f : 0f};
+    }
+
+    @Override
+    public void restoreState(float[] state) {
+        requireLength(state, 5);
+        radius = state[0];
+        hasPending = state[1] != 0f;
+        pendingValue = state[2];
+        pendingReduction = state[3];
+        pendingAtBoundary = state[4] != 0f;
+        hasCurvature = false;
+        modelReady = false;
+    }
+}
@@ -0,0 +1,74 @@
+package model.optimizer;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+
+/**
+ * A strategy that turns the gradient at the current point into the next descent step. Optimizers
+ * keep their per-run state (velocities, squared-gradient averages, ...) in primitive fields, so a
+ * step allocates nothing. Hyperparameters and state are exposed as flat float arrays whose layout
+ * is fixed per OptimizerType, which is what persistence stores.
+ */
+public abstract class Optimizer {
+
+    // EFFECTS: returns the kind of this optimizer
+    public abstract OptimizerType getType();
+
+    // REQUIRES: delta.length >= 2
+    // MODIFIES: this, delta
+    // EFFECTS: updates the optimizer state with the gradient (gx, gy) at the current point and writes the
+    //          displacement to the next point into delta[0] and delta[1]
+    public abstract void computeStep(float gx, float gy, float learningRate, float[] delta);
+
+    // MODIFIES: this
+    // EFFECTS: told the step (dx, dy) the descent actually took after computeStep, which can differ from the
+    //          proposed one when a line search rescales it; does nothing unless the optimizer needs it
+    public void onStepTaken(float dx, float dy) {
+        // most optimizers only depend on the gradients they see
+    }
+
+    // EFFECTS: returns true iff the optimizer wants the Hessian at every point through observeCurvature; it
+    //          costs extra function evaluations, so the descent only computes it when asked
+    public boolean usesCurvature() {
+        return false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: told f and its Hessian (∂²f/∂x², ∂²f/∂x∂y, ∂²f/∂y²) at the current point just before
+    //          computeStep is called there; does nothing unless the optimizer uses curvature
+    public void observeCurvature(float value, float hxx, float hxy, float hyy) {
+        // first-order optimizers never ask for the Hessian
+    }
+
+    // MODIFIES: this
+    // EFFECTS: clears the per-run state so the next step behaves like the first step of a new run
+    public abstract void reset();
+
+    // EFFECTS: returns a copy of the hyperparameters in the layout documented by getType()
+    public abstract float[] getHyperparameters();
+
+    // EFFECTS: returns a copy of the per-run state in the layout documented by getType()
+    public abstract float[] getState();
+
+    // REQUIRES: state has the layout returned by getState()
+    // MODIFIES: this
+    // EFFECTS: restores a previously saved per-run state; throws ArgumentOutOfBoundsException if the
+    //          layout does not match
+    public abstract void restoreState(float[] state);
+
+    // EFFECTS: returns a new optimizer of the same type and hyperparameters, with fresh state
+    public Optimizer freshCopy() {
+        return getType().create(getHyperparameters());
+    }
+
+    // EFFECTS: throws ArgumentOutOfBoundsException unless values holds exactly length entries
+    protected static void requireLength(float[] values, int length) {
+        if (values == null || values.length != length) {
+            throw new ArgumentOutOfBoundsException("Expected " + length + " optimizer values.");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getType().toString();
+    }
+}
@@ -0,0 +1,81 @@
+package model.optimizer;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+
+// Represents the available optimizers, their display names and default hyperparameters. The layout of
+// each type's hyperparameter and state arrays is listed beside it.
+public enum OptimizerType {
+    GRADIENT_DESCENT("Gradient Descent"),           // hyper: -                        state: -
+    MOMENTUM("Momentum", 0.9f),                     // hyper: momentum                 state: vx, vy
+    NESTEROV("Nesterov", 0.9f),                     // hyper: momentum                 state: vx, vy
+    ADAGRAD("AdaGrad", 1e-8f),                      // hyper: epsilon                  state: sum gx^2, sum gy^2
+    RMSPROP("RMSProp", 0.9f, 1e-8f),                // hyper: decay, epsilon           state: avg gx^2, avg gy^2
+    ADAM("Adam", 0.9f, 0.999f, 1e-8f),              // hyper: beta1, beta2, epsilon    state: mx, my, vx, vy,
+                                                    //                                        beta1^t, beta2^t
+    LBFGS("L-BFGS", 5f),                            // hyper: history size m           state: see Lbfgs.getState
+    FLETCHER_REEVES("Fletcher-Reeves", 2f),         // hyper: restart interval         state: dx, dy, gx, gy, steps
+    POLAK_RIBIERE("Polak-Ribière", 2f),             // hyper: restart interval         state: dx, dy, gx, gy, steps
+    NEWTON("Newton", 1f);                           // hyper: initial trust radius     state: see Newton.getState
+
+    private final String displayName;
+    private final float[] defaults;
+
+    OptimizerType(String displayName, float... defaults) {
+        this.displayName = displayName;
+        this.defaults = defaults;
+    }
+
+    // EFFECTS: returns a copy of the default hyperparameters
+    public float[] getDefaultHyperparameters() {
+        return defaults.clone();
+    }
+
+    // EFFECTS: returns a new optimizer of this type with default hyperparameters
+    public Optimizer create() {
+        return create(defaults);
+    }
+
+    // REQUIRES: hyperparameters has this type's hyperparameter layout
+    // EFFECTS: returns a new optimizer of this type; throws ArgumentOutOfBoundsException if the layout
+    //          does not match
+    public Optimizer create(float[] hyperparameters) {
+        Optimizer.requireLength(hyperparameters, defaults.length);
+        switch (this) {
+            case MOMENTUM:
+                return new Momentum(hyperparameters[0]);
+            case NESTEROV:
+                return new Nesterov(hyperparameters[0]);
+            case ADAGRAD:
+                return new AdaGrad(hyperparameters[0]);
+            case RMSPROP:
+                return new RmsProp(hyperparameters[0], hyperparameters[1]);
+            case ADAM:
+                return new Adam(hyperparameters[0], hyperparameters[1], hyperparameters[2]);
+            case LBFGS:
+                return new Lbfgs((int) hyperparameters[0]);
+            case FLETCHER_REEVES:
+                return new ConjugateGradient(false, (int) hyperparameters[0]);
+            case POLAK_RIBIERE:
+                return new ConjugateGradient(true, (int) hyperparameters[0]);
+            case NEWTON:
+                return new Newton(hyperparameters[0]);
+            default:
+                return new GradientDescent();
+        }
+    }
+
+    // EFFECTS: returns the type with the given name; throws ArgumentOutOfBoundsException if there is none
+    public static OptimizerType fromName(String name) {
+        for (OptimizerType type : values()) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        throw new ArgumentOutOfBoundsException("Unknown optimizer: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,53 @@
+package model.optimizer;
+
+// RMSProp: scales each axis by the root of an exponential moving average of its squared gradients,
+// x <- x - learningRate * g / (sqrt(avg g^2) + epsilon)
+public final class RmsProp extends Optimizer {
+    private final float decay;
+    private final float epsilon;
+    private float averageSquaresX;
+    private float averageSquaresY;
+
+    // REQUIRES: 0 <= decay < 1, epsilon > 0
+    // EFFECTS: creates an RMSProp optimizer with no gradient history
+    public RmsProp(float decay, float epsilon) {
+        this.decay = decay;
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public OptimizerType getType() {
+        return OptimizerType.RMSPROP;
+    }
+
+    @Override
+    public void computeStep(float gx, float gy, float learningRate, float[] delta) {
+        averageSquaresX = decay * averageSquaresX + (1f - decay) * gx * gx;
+        averageSquaresY = decay * averageSquaresY + (1f - decay) * gy * gy;
+        delta[0] = -learningRate * gx / ((float) Math.sqrt(averageSquaresX) + epsilon);
+        delta[1] = -learningRate * gy / ((float) Math.sqrt(averageSquaresY) + epsilon);
+    }
+
+    @Override
+    public void reset() {
+        averageSquaresX = 0f;
+        averageSquaresY = 0f;
+    }
+
+    @Override
+    public float[] getHyperparameters() {
+        return new float[] {decay, epsilon};
+    }
+
+    @Override
+    public float[] getState() {
+        return new float[] {averageSquaresX, averageSquaresY};
+    }
+
+    @Override
+    public void restoreState(float[] state) {
+        requireLength(state, 2);
+        averageSquaresX = state[0];
+        averageSquaresY = state[1];
+    }
+}
@@ -0,0 +1,119 @@
+package model.optimizer;
+
+import model.ScalarField;
+
+/**
+ * Chooses step lengths for a descent according to a StepSizeMode. Barzilai-Borwein replaces the
+ * learning rate handed to the optimizer by (s·s)/(s·y), where s and y are the last changes in
+ * position and gradient. Backtracking rescales the optimizer's proposed step: it starts from twice
+ * the scale accepted last time and halves it until the sufficient decrease (Armijo) condition
+ * f(x + t·d) <= f(x) + c·t·∇f·d holds. Every value sampled by the line search is counted separately
+ * from the samples a descent takes anyway. State lives in primitive fields; nothing is allocated.
+ */
+public final class StepSizeController {
+    private static final float ARMIJO_CONSTANT = 1e-4f;
+    private static final float GROWTH = 2f;
+    private static final float SHRINK = 0.5f;
+    private static final float MAX_SCALE = 1e4f;
+    private static final int MAX_HALVINGS = 40;
+
+    private final StepSizeMode mode;
+
+    private float scale;                 // backtracking: scale accepted by the last line search
+    private boolean hasPrevious;         // Barzilai-Borwein: whether the previous* fields are set
+    private float previousX;
+    private float previousY;
+    private float previousGradientX;
+    private float previousGradientY;
+    private long lineSearchEvaluations;
+
+    // EFFECTS: creates a controller for the given mode with no history
+    public StepSizeController(StepSizeMode mode) {
+        this.mode = mode;
+        reset();
+    }
+
+    public StepSizeMode getMode() {
+        return mode;
+    }
+
+    // EFFECTS: returns the number of function values sampled by line searches since the last reset
+    public long getLineSearchEvaluations() {
+        return lineSearchEvaluations;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets the history of the current run and clears the evaluation count
+    public void reset() {
+        scale = 1f;
+        hasPrevious = false;
+        lineSearchEvaluations = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the learning rate for the step from (x, y), where the gradient is (gx, gy); this is
+    //          baseRate except in BARZILAI_BORWEIN mode, which falls back to baseRate on the first step
+    //          and wherever the curvature estimate is not positive
+    public float learningRate(float baseRate, float x, float y, float gx, float gy) {
+        if (mode != StepSizeMode.BARZILAI_BORWEIN) {
+            return baseRate;
+        }
+        float rate = baseRate;
+        if (hasPrevious) {
+            float sx = x - previousX;
+            float sy = y - previousY;
+            float curvature = sx * (gx - previousGradientX) + sy * (gy - previousGradientY);
+            float estimate = (sx * sx + sy * sy) / curvature;
+            if (curvature > 0f && estimate > 0f && estimate <= Float.MAX_VALUE) {
+                rate = estimate;
+            }
+        }
+        hasPrevious = true;
+        previousX = x;
+        previousY = y;
+        previousGradientX = gx;
+        previousGradientY = gy;
+        return rate;
+    }
+
+    // REQUIRES: value = f(x, y) and (gx, gy) = ∇f(x, y)
+    // MODIFIES: this, delta
+    // EFFECTS: in BACKTRACKING mode, rescales the proposed step delta so that it satisfies the Armijo
+    //          condition and stays in the domain, counting the values sampled; a step that is not a
+    //          descent direction is left unchanged. Does nothing in the other modes.
+    public void adjust(ScalarField field, float x, float y, float value, float gx, float gy, float[] delta) {
+        if (mode != StepSizeMode.BACKTRACKING) {
+            return;
+        }
+        float slope = gx * delta[0] + gy * delta[1];
+        if (!(slope < 0f)) {
+            return;
+        }
+        float t = Math.min(scale * GROWTH, MAX_SCALE);
+        for (int i = 0; i < MAX_HALVINGS && !isSufficientDecrease(field, x, y, value, slope, t, delta); i++) {
+            t *= SHRINK;
+        }
+        scale = t;
+        delta[0] *= t;
+        delta[1] *= t;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns true iff x + t·delta lies in the domain and decreases f enough for the Armijo condition
+    private boolean isSufficientDecrease(ScalarField field, float x, float y, float value, float slope, float t,
+                                         float[] delta) {
+        float trialX = x + t * delta[0];
+        float trialY = y + t * delta[1];
+        if (!field.contains(trialX, trialY)) {
+            return false;
+        }
+        lineSearchEvaluations++;
+        float trialValue;
+        try {
+            trialValue = field.evaluate(trialX, trialY);
+        } catch (RuntimeException ex) {
+            return false;   // f is undefined there
+        }
+        return trialValue <= value + ARMIJO_CONSTANT * t * slope;
+    }
+}
@@ -0,0 +1,19 @@
+package model.optimizer;
+
+// Represents how the length of each descent step is chosen
+public enum StepSizeMode {
+    FIXED("Fixed"),                          // the optimizer's step with the configured learning rate
+    BACKTRACKING("Backtracking"),            // the optimizer's step rescaled until it satisfies the Armijo condition
+    BARZILAI_BORWEIN("Barzilai-Borwein");    // learning rate estimated from the last change in position and gradient
+
+    private final String displayName;
+
+    StepSizeMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
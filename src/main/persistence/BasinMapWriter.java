@@ -0,0 +1,55 @@
+package persistence;
+
+import model.analysis.BasinMap;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+
+/**
+ * Utilities for exporting basin-of-attraction maps as PNG images in the save directory.
+ */
+public class BasinMapWriter {
+    public static final String FILE_SUFFIX = ".png";
+
+    private BasinMapWriter() {
+        // not allowed to be instantiated
+    }
+
+    // REQUIRES: fileTitle is non-null/non-empty
+    // EFFECTS: produces the File a basin map with the given title is exported to in the save directory
+    public static File fileFromFileTitle(String fileTitle) {
+        File file = new File(SimulationReadWriter.SAVE_PATH + fileTitle + FILE_SUFFIX);
+        file.getParentFile().mkdirs();
+        return file;
+    }
+
+    // REQUIRES: map non-null; fileTitle non-null/non-empty
+    // MODIFIES: filesystem
+    // EFFECTS: writes map as a PNG with one pixel per cell, y increasing upwards, and returns the file
+    //          written; throws IOException if it cannot be written
+    public static File writePng(BasinMap map, String fileTitle) throws IOException {
+        File file = fileFromFileTitle(fileTitle);
+        if (!ImageIO.write(toImage(map), "png", file)) {
+            throw new IOException("No PNG writer available.");
+        }
+        return file;
+    }
+
+    // EFFECTS: returns an image of map with one pixel per cell, row 0 of the map at the bottom
+    public static BufferedImage toImage(BasinMap map) {
+        int columns = map.getColumns();
+        int rows = map.getRows();
+        int[] pixels = new int[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            int offset = (rows - 1 - row) * columns;
+            for (int column = 0; column < columns; column++) {
+                pixels[offset + column] = map.getColor(column, row);
+            }
+        }
+        BufferedImage image = new BufferedImage(columns, rows, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, columns, rows, pixels, 0, columns);
+        return image;
+    }
+}
@@ -2,17 +2,19 @@ package persistence;
 
 import model.ScalarField;
 import model.Simulation;
+import model.Trajectory;
+import model.TrajectoryView;
 import model.Vector2;
+import model.analysis.DivergenceDetector;
+import model.expression.CompiledExpression;
+import model.optimizer.GradientClipping;
+import model.optimizer.Optimizer;
+import model.optimizer.OptimizerType;
+import model.optimizer.StepSizeMode;
 
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.BiFunction;
-
 /**
  * Handles translating simulations to and from JSON payloads for persistence.
  */
@@ -34,6 +36,19 @@ public class JsonConverter {
     private static final String KEY_EPS = "eps";
     private static final String KEY_TIME_ELAPSED = "timeElapsed";
 
+    private static final String KEY_STEP_SIZE_MODE = "stepSizeMode";
+    private static final String KEY_CLIPPING = "gradientClipping";
+    private static final String KEY_CLIPPING_MAX_NORM = "maxNorm";
+    private static final String KEY_CLIPPING_MAX_COMPONENT = "maxComponent";
+    private static final String KEY_DIVERGENCE = "divergence";
+    private static final String KEY_DIVERGENCE_VALUE_GROWTH = "valueGrowth";
+    private static final String KEY_DIVERGENCE_GRADIENT_GROWTH = "gradientGrowth";
+    private static final String KEY_DIVERGENCE_PATIENCE = "oscillationPatience";
+    private static final String KEY_OPTIMIZER = "optimizer";
+    private static final String KEY_OPTIMIZER_TYPE = "type";
+    private static final String KEY_OPTIMIZER_HYPERPARAMETERS = "hyperparameters";
+    private static final String KEY_OPTIMIZER_STATE = "state";
+
     private static final String KEY_VECTOR_X = "x";
     private static final String KEY_VECTOR_Y = "y";
 
@@ -61,10 +76,15 @@ public class JsonConverter {
         }
 
         JSONArray pathArray = new JSONArray();
-        for (Vector2 point : simulation.getPath()) {
-            pathArray.put(vector2ToJson(point));
+        TrajectoryView path = simulation.getTrajectory();
+        for (int i = 0; i < path.size(); i++) {
+            pathArray.put(pointToJson(path.getX(i), path.getY(i)));
         }
         jsonObject.put(KEY_PATH, pathArray);
+        jsonObject.put(KEY_OPTIMIZER, optimizerToJson(simulation.getOptimizer()));
+        jsonObject.put(KEY_STEP_SIZE_MODE, simulation.getStepSizeMode().name());
+        jsonObject.put(KEY_CLIPPING, clippingToJson(simulation.getGradientClipping()));
+        jsonObject.put(KEY_DIVERGENCE, detectorToJson(simulation.getDivergenceDetector()));
 
         return jsonObject;
     }
@@ -84,21 +104,48 @@ public class JsonConverter {
             simulation.setField(field);
         }
 
-        if (jsonObject.has(KEY_PATH)) {
-            List<Vector2> pathPoints = vector2ListFromJson(jsonObject.getJSONArray(KEY_PATH));
+        restorePosition(simulation, jsonObject);
+
+        // restored last: loading the field and initial point reset the optimizer's state
+        restoreDescentSettings(simulation, jsonObject);
+        return simulation;
+    }
+
+    // REQUIRES: simulation's field, if saved, is already restored
+    // MODIFIES: simulation
+    // EFFECTS: restores the saved path, or failing that the saved current point, onto simulation
+    private static void restorePosition(Simulation simulation, JSONObject json) {
+        if (json.has(KEY_PATH)) {
+            Trajectory pathPoints = trajectoryFromJson(json.getJSONArray(KEY_PATH));
             if (!pathPoints.isEmpty()) {
-                simulation.overwritePath(pathPoints);
+                simulation.overwriteTrajectory(pathPoints);
             }
         }
 
-        if (simulation.getCurrentPoint() == null && jsonObject.has(KEY_CURRENT_POINT)) {
-            Vector2 current = vector2FromJson(jsonObject.getJSONObject(KEY_CURRENT_POINT));
+        if (simulation.getCurrentPoint() == null && json.has(KEY_CURRENT_POINT)) {
+            Vector2 current = vector2FromJson(json.getJSONObject(KEY_CURRENT_POINT));
             if (current != null && simulation.getField() != null) {
                 simulation.setInitialPoint(current.getX(), current.getY());
             }
         }
+    }
 
-        return simulation;
+    // MODIFIES: simulation
+    // EFFECTS: restores the saved optimizer, step size mode, gradient clipping and divergence detector onto
+    //          simulation; settings missing from json keep simulation's defaults
+    private static void restoreDescentSettings(Simulation simulation, JSONObject json) {
+        if (json.has(KEY_STEP_SIZE_MODE)) {
+            simulation.setStepSizeMode(json.getEnum(StepSizeMode.class, KEY_STEP_SIZE_MODE));
+        }
+        if (json.has(KEY_CLIPPING)) {
+            simulation.setGradientClipping(clippingFromJson(json.getJSONObject(KEY_CLIPPING)));
+        }
+        if (json.has(KEY_DIVERGENCE)) {
+            simulation.setDivergenceDetector(detectorFromJson(json.getJSONObject(KEY_DIVERGENCE)));
+        }
+        if (json.has(KEY_OPTIMIZER)) {
+            simulation.setOptimizer(optimizerFromJson(json.getJSONObject(KEY_OPTIMIZER)));
+        }
     }
 
     private static JSONObject scalarFieldToJson(ScalarField field) {
@@ -126,11 +173,83 @@ public class JsonConverter {
         return field;
     }
 
+    // EFFECTS: converts an optimizer's type, hyperparameters and per-run state into JSON
+    private static JSONObject optimizerToJson(Optimizer optimizer) {
+        JSONObject json = new JSONObject();
+        json.put(KEY_OPTIMIZER_TYPE, optimizer.getType().name());
+        json.put(KEY_OPTIMIZER_HYPERPARAMETERS, floatsToJson(optimizer.getHyperparameters()));
+        json.put(KEY_OPTIMIZER_STATE, floatsToJson(optimizer.getState()));
+        return json;
+    }
+
+    // EFFECTS: rebuilds an optimizer with its saved state; missing hyperparameters fall back to the
+    //          type's defaults and missing state to a fresh run
+    private static Optimizer optimizerFromJson(JSONObject json) {
+        OptimizerType type = OptimizerType.fromName(json.getString(KEY_OPTIMIZER_TYPE));
+        Optimizer optimizer = json.has(KEY_OPTIMIZER_HYPERPARAMETERS)
+                ? type.create(floatsFromJson(json.getJSONArray(KEY_OPTIMIZER_HYPERPARAMETERS)))
+                : type.create();
+        if (json.has(KEY_OPTIMIZER_STATE)) {
+            optimizer.restoreState(floatsFromJson(json.getJSONArray(KEY_OPTIMIZER_STATE)));
+        }
+        return optimizer;
+    }
+
+    private static JSONObject clippingToJson(GradientClipping clipping) {
+        JSONObject json = new JSONObject();
+        json.put(KEY_CLIPPING_MAX_NORM, clipping.getMaxNorm());
+        json.put(KEY_CLIPPING_MAX_COMPONENT, clipping.getMaxComponent());
+        return json;
+    }
+
+    // EFFECTS: parses a clipping rule; a missing limit is treated as off
+    private static GradientClipping clippingFromJson(JSONObject json) {
+        return new GradientClipping((float) json.optDouble(KEY_CLIPPING_MAX_NORM, 0.0),
+                (float) json.optDouble(KEY_CLIPPING_MAX_COMPONENT, 0.0));
+    }
+
+    private static JSONObject detectorToJson(DivergenceDetector detector) {
+        JSONObject json = new JSONObject();
+        json.put(KEY_DIVERGENCE_VALUE_GROWTH, detector.getValueGrowth());
+        json.put(KEY_DIVERGENCE_GRADIENT_GROWTH, detector.getGradientGrowth());
+        json.put(KEY_DIVERGENCE_PATIENCE, detector.getOscillationPatience());
+        return json;
+    }
+
+    // EFFECTS: parses divergence limits; a missing limit takes its default
+    private static DivergenceDetector detectorFromJson(JSONObject json) {
+        return new DivergenceDetector(
+                (float) json.optDouble(KEY_DIVERGENCE_VALUE_GROWTH, DivergenceDetector.DEFAULT_VALUE_GROWTH),
+                (float) json.optDouble(KEY_DIVERGENCE_GRADIENT_GROWTH, DivergenceDetector.DEFAULT_GRADIENT_GROWTH),
+                json.optInt(KEY_DIVERGENCE_PATIENCE, DivergenceDetector.DEFAULT_OSCILLATION_PATIENCE));
+    }
+
+    private static JSONArray floatsToJson(float[] values) {
+        JSONArray array = new JSONArray();
+        for (float value : values) {
+            array.put(value);
+        }
+        return array;
+    }
+
+    private static float[] floatsFromJson(JSONArray array) {
+        float[] values = new float[array.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) array.getDouble(i);
+        }
+        return values;
+    }
+
     // EFFECTS: converts a Vector2 into a single JSON object with x/y keys
     private static JSONObject vector2ToJson(Vector2 vector) {
+        return pointToJson(vector.getX(), vector.getY());
+    }
+
+    // EFFECTS: converts the point (x, y) into a single JSON object with x/y keys
+    private static JSONObject pointToJson(float x, float y) {
         JSONObject json = new JSONObject();
-        json.put(KEY_VECTOR_X, vector.getX());
-        json.put(KEY_VECTOR_Y, vector.getY());
+        json.put(KEY_VECTOR_X, x);
+        json.put(KEY_VECTOR_Y, y);
         return json;
     }
 
@@ -144,37 +263,23 @@ public class JsonConverter {
         return new Vector2(x, y);
     }
 
-    // EFFECTS: builds a list of Vector2 objects from a JSON array, ignoring invalid entries
-    private static List<Vector2> vector2ListFromJson(JSONArray array) {
-        List<Vector2> list = new ArrayList<>();
+    // EFFECTS: builds a trajectory from a JSON array of x/y objects, ignoring invalid entries
+    private static Trajectory trajectoryFromJson(JSONArray array) {
+        Trajectory trajectory = new Trajectory();
         if (array == null) {
-            return list;
+            return trajectory;
         }
         for (int i = 0; i < array.length(); i++) {
             JSONObject entry = array.optJSONObject(i);
             if (entry != null) {
-                list.add(vector2FromJson(entry));
+                trajectory.add((float) entry.getDouble(KEY_VECTOR_X), (float) entry.getDouble(KEY_VECTOR_Y));
             }
         }
-        return list;
+        return trajectory;
     }
 
-    // EFFECTS: creates a ScalarField from an expression string using exp4j
+    // EFFECTS: creates a ScalarField from an expression string, parsing it once up front
     private static ScalarField createScalarFieldFromExpression(String expr) {
-        BiFunction<Float, Float, Float> fn = (Float x, Float y) -> {
-            try {
-                Expression expression = new ExpressionBuilder(expr)
-                        .variables("x", "y")
-                        .build()
-                        .setVariable("x", x)
-                        .setVariable("y", y);
-
-                return (float) expression.evaluate();
-            } catch (Exception ex) {
-                throw new IllegalArgumentException("Failed to evaluate expression: " + expr, ex);
-            }
-        };
-
-        return new ScalarField(expr, fn);
+        return new ScalarField(CompiledExpression.compile(expr));
     }
 }
@@ -0,0 +1,92 @@
+package persistence;
+
+import model.analysis.SweepConfiguration;
+import model.analysis.SweepListener;
+import model.analysis.SweepResult;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Streams hyperparameter sweep results into a CSV report in the save directory. Every result is
+ * written and flushed as soon as its configuration finishes, so the rows of a cancelled or crashed
+ * sweep are already on disk; the finished sweep can then be written again as a ranked table.
+ */
+public class SweepReportWriter implements SweepListener {
+    public static final String FILE_SUFFIX = ".csv";
+    public static final String HEADER = "optimizer,learningRate,stopThreshold,maxIterations,runs,converged,"
+            + "diverged,convergenceRate,divergenceRate,meanIterations,meanFinalValue,bestFinalValue";
+
+    private final File file;
+    private final PrintWriter writeStream;
+
+    // REQUIRES: fileTitle non-null/non-empty
+    // MODIFIES: filesystem
+    // EFFECTS: creates (or truncates) the report with the given file title and writes its header
+    public SweepReportWriter(String fileTitle) throws FileNotFoundException {
+        this.file = fileFromFileTitle(fileTitle);
+        this.writeStream = new PrintWriter(file);
+        writeStream.println(HEADER);
+        writeStream.flush();
+    }
+
+    // REQUIRES: fileTitle is non-null/non-empty
+    // EFFECTS: given a file title, produces the java.io File object which
+    // represents the report in the save directory
+    public static File fileFromFileTitle(String fileTitle) {
+        File file = new File(SimulationReadWriter.SAVE_PATH + fileTitle + FILE_SUFFIX);
+        file.getParentFile().mkdirs();
+        return file;
+    }
+
+    // REQUIRES: results non-null; fileTitle non-null/non-empty
+    // MODIFIES: filesystem
+    // EFFECTS: writes results, in the given order, as a complete report with the given file title
+    public static File writeTable(List<SweepResult> results, String fileTitle) throws FileNotFoundException {
+        SweepReportWriter writer = new SweepReportWriter(fileTitle);
+        for (SweepResult result : results) {
+            writer.append(result);
+        }
+        writer.close();
+        return writer.getFile();
+    }
+
+    // EFFECTS: returns result as one CSV row matching HEADER
+    public static String toRow(SweepResult result) {
+        SweepConfiguration configuration = result.getConfiguration();
+        return configuration.getOptimizerType().name() + ',' + configuration.getLearningRate() + ','
+                + configuration.getStopThreshold() + ',' + configuration.getMaxIterations() + ','
+                + result.getRuns() + ',' + result.getConverged() + ',' + result.getDiverged() + ','
+                + result.getConvergenceRate() + ',' + result.getDivergenceRate() + ','
+                + result.getMeanIterations() + ',' + result.getMeanFinalValue() + ',' + result.getBestFinalValue();
+    }
+
+    // MODIFIES: this, filesystem
+    // EFFECTS: appends result to the report and flushes it to disk
+    public synchronized void append(SweepResult result) {
+        writeStream.println(toRow(result));
+        writeStream.flush();
+    }
+
+    @Override
+    public void onResult(SweepResult result, int completed, int total) {
+        append(result);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the report; later results are discarded
+    public synchronized void close() {
+        writeStream.close();
+    }
+
+    // EFFECTS: returns true iff writing to the report has failed at some point
+    public synchronized boolean hasFailed() {
+        return writeStream.checkError();
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
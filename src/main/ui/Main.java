@@ -3,18 +3,20 @@ package ui;
 import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
 
 /**
- * Entry point that constructs the simulation state and UI, then drives the tick loop.
+ * Entry point that constructs the simulation state and UI, starts the simulation worker and then
+ * drives the UI tick loop.
  */
 @ExcludeFromJacocoGeneratedReport
 public class Main {
-    // EFFECTS: constructs a simulation state and UI, then updates them forever
+    // EFFECTS: constructs a simulation state and UI, steps the simulation in the background and redraws
+    //          the UI forever
     public static void main(String[] args) throws Exception {
         SimulatorState simState = SimulatorState.getInstance();
         SimulatorGUI simGfx = SimulatorGUI.getInstance();
+        simState.getWorker().start();
 
         new Thread(() -> {
             while (true) {
-                simState.tick();
                 simGfx.tick();
                 try {
                     Thread.sleep(16); // ~60 FPS
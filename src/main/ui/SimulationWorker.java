@@ -0,0 +1,161 @@
+package ui;
+
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+import model.FixedTimestep;
+import model.Simulation;
+import model.analysis.DescentStatus;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Advances the running simulation on its own thread, independently of the UI tick. Every few
+ * milliseconds a FixedTimestep turns the real time since the last batch, times the timescale, into
+ * fixed sub-steps of SECONDS_PER_STEP, which are taken in one batch under the state lock; a stall
+ * is caught up only up to MAX_BATCH_STEPS and the rest is dropped and counted. At unlimited speed
+ * it instead steps in chunks until its time slice is used up. The lock is released between batches so the UI and the
+ * renderer, which only sample the latest state, never wait long.
+ */
+@ExcludeFromJacocoGeneratedReport
+public final class SimulationWorker {
+    public static final int BASE_STEPS_PER_SECOND = 60;
+    public static final float SECONDS_PER_STEP = 1.0f / BASE_STEPS_PER_SECOND;  // simulated time per step
+
+    private static final long PERIOD_NANOS = 4_000_000L;          // how often a batch is scheduled
+    private static final long SLICE_NANOS = 3_000_000L;           // stepping time per batch at unlimited speed
+    private static final int CHUNK_STEPS = 256;                   // steps per lock hold at unlimited speed
+    private static final int MAX_BATCH_STEPS = 240;               // catch-up budget: 200 ms at the top timescale
+    private static final long RATE_WINDOW_NANOS = 500_000_000L;   // window over which throughput is measured
+
+    private final SimulatorState state;
+    private final ScheduledExecutorService executor;
+    private final FixedTimestep timestep;          // only touched on the worker thread, apart from its metrics
+    private final AtomicBoolean resetRequested = new AtomicBoolean();
+
+    private long lastBatchNanos;
+    private long windowStartNanos;
+    private long windowSteps;
+    private volatile float measuredStepsPerSecond;
+
+    // EFFECTS: creates a stopped worker stepping state's simulation
+    public SimulationWorker(SimulatorState state) {
+        this.state = state;
+        this.timestep = new FixedTimestep(SECONDS_PER_STEP, MAX_BATCH_STEPS);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "simulation-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts stepping in the background; the worker idles while the simulation is not running
+    public void start() {
+        lastBatchNanos = System.nanoTime();
+        windowStartNanos = lastBatchNanos;
+        executor.scheduleAtFixedRate(this::runBatch, 0L, PERIOD_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops stepping; a batch in progress finishes first
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // EFFECTS: returns the accumulator pacing the steps, whose metrics report any dropped time; it is only
+    //          written by the worker thread, so other threads must read it and use requestReset to reset it
+    public FixedTimestep getTimestep() {
+        return timestep;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: asks the worker to empty the timestep's bank and clear its metrics before its next batch;
+    //          safe to call from any thread
+    public void requestReset() {
+        resetRequested.set(true);
+    }
+
+    // EFFECTS: returns the steps per second actually taken recently, 0 while not running
+    public float getMeasuredStepsPerSecond() {
+        return measuredStepsPerSecond;
+    }
+
+    // MODIFIES: this, state
+    // EFFECTS: takes the steps due since the last batch; stops the run once it converges or fails
+    private void runBatch() {
+        long now = System.nanoTime();
+        float elapsed = (now - lastBatchNanos) / 1_000_000_000.0f;
+        lastBatchNanos = now;
+        if (resetRequested.getAndSet(false)) {
+            timestep.reset();
+        }
+        if (!state.shouldStepSimulation()) {
+            timestep.clearBank();
+            recordSteps(now, 0);
+            return;
+        }
+        try {
+            recordSteps(now, state.isUnlimitedSpeed() ? stepForSlice(now) : stepAtRate(elapsed));
+        } catch (RuntimeException ex) {
+            state.setIsRunning(false);  // e.g. the field was swapped out between the check and the batch
+        }
+    }
+
+    // MODIFIES: this, state
+    // EFFECTS: takes the sub-steps due for elapsed real seconds at the current timescale and returns how
+    //          many were taken
+    private int stepAtRate(float elapsed) {
+        int due = timestep.poll(elapsed, state.getTimeScale());
+        return (due == 0) ? 0 : stepBatch(due);
+    }
+
+    // MODIFIES: this, state
+    // EFFECTS: steps in chunks until the time slice starting at start is used up or the run ends, and
+    //          returns how many steps were taken
+    private int stepForSlice(long start) {
+        int taken = 0;
+        do {
+            int chunk = stepBatch(CHUNK_STEPS);
+            taken += chunk;
+            if (chunk < CHUNK_STEPS) {
+                break;
+            }
+        } while (System.nanoTime() - start < SLICE_NANOS);
+        return taken;
+    }
+
+    // MODIFIES: state
+    // EFFECTS: takes up to steps steps under the state lock and returns how many were taken; stops the run
+    //          if it converged or cannot continue
+    private int stepBatch(int steps) {
+        Simulation simulation = state.getSimulation();
+        state.lock();
+        try {
+            if (!state.getIsRunning()) {
+                return 0;   // stopped while this batch waited for the lock
+            }
+            long before = simulation.getStepCount();
+            DescentStatus status = simulation.advance(steps, SECONDS_PER_STEP);
+            if (status != DescentStatus.MAX_ITERATIONS) {
+                state.setIsRunning(false);
+            }
+            return (int) (simulation.getStepCount() - before);
+        } finally {
+            state.unlock();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds steps to the throughput window ending at now, publishing the rate when the window closes
+    private void recordSteps(long now, int steps) {
+        windowSteps += steps;
+        long window = now - windowStartNanos;
+        if (window >= RATE_WINDOW_NANOS) {
+            measuredStepsPerSecond = windowSteps * 1_000_000_000.0f / window;
+            windowSteps = 0;
+            windowStartNanos = now;
+        }
+    }
+}
@@ -8,21 +8,22 @@ import java.util.List;
 import java.util.concurrent.locks.*;
 
 /**
- * Contains all simulation state related data.
+ * Contains all simulation state related data. The simulation is advanced by a SimulationWorker on its
+ * own thread; everything else reads it under the state lock or through its lock-free accessors.
  */
 @ExcludeFromJacocoGeneratedReport
-public class SimulatorState implements Tickable {
+public class SimulatorState {
     public static final float TIMESCALE_MIN = 1.0f;
     public static final float TIMESCALE_MAX = 20.0f;
-    private static final float MAX_DELTATIME = 0.1f;
 
     private Simulation simulation;          // gradient descent engine
     private List<ScalarField> scalarFields; // backing list for ScalarFieldListPanel
+    private final SimulationWorker worker;
 
-    private float timeScale;
-    private boolean isRunning;
+    private volatile float timeScale;
+    private volatile boolean unlimitedSpeed;
+    private volatile boolean isRunning;
 
-    private long lastTickNanoseconds;
     private Lock lock;
 
     private float learningRate;
@@ -32,10 +33,12 @@ public class SimulatorState implements Tickable {
         simulation = new Simulation();
         scalarFields = new ArrayList<>();
 
+        worker = new SimulationWorker(this);
+
         timeScale = 1.0f;
+        unlimitedSpeed = false;
         isRunning = false;
 
-        lastTickNanoseconds = System.nanoTime();
         lock = new ReentrantLock();
 
         learningRate = 0.01f;
@@ -74,11 +77,26 @@ public class SimulatorState implements Tickable {
     }
 
     // MODIFIES: this
-    // EFFECTS: updates timescale multiplier used during tick integration
+    // EFFECTS: sets how many times SimulationWorker.BASE_STEPS_PER_SECOND steps the worker takes per second
     public void setTimeScale(float newTimeScale) {
         timeScale = newTimeScale;
     }
 
+    public boolean isUnlimitedSpeed() {
+        return unlimitedSpeed;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes the worker step as fast as it can instead of at the timescale's rate
+    public void setUnlimitedSpeed(boolean val) {
+        unlimitedSpeed = val;
+    }
+
+    // EFFECTS: returns the worker advancing the simulation in the background
+    public SimulationWorker getWorker() {
+        return worker;
+    }
+
     public float getLearningRate() {
         return learningRate;
     }
@@ -120,30 +138,9 @@ public class SimulatorState implements Tickable {
         lock.unlock();
     }
 
-    // MODIFIES: this, simulation
-    // EFFECTS: advances simulation by real time → sim time, whenever running
-    @Override
-    public void tick() {
-        float delta = pollDeltaTime();
-        if (!shouldStepSimulation()) {
-            return;
-        }
-
-        lock();
-        simulation.step(delta * timeScale);
-        unlock();
-    }
-
-    // EFFECTS: computes elapsed seconds since last tick (clamped)
-    private float pollDeltaTime() {
-        long now = System.nanoTime();
-        float delta = (now - lastTickNanoseconds) / 1_000_000_000.0f;
-        lastTickNanoseconds = now;
-        return Math.min(delta, MAX_DELTATIME);
-    }
-
-    // EFFECTS: returns true if simulation should advance this frame
-    private boolean shouldStepSimulation() {
+    // MODIFIES: this
+    // EFFECTS: returns true if the simulation should be stepped now; stops the run if there is nothing to step
+    boolean shouldStepSimulation() {
         if (!isRunning) {
             return false;
         }
@@ -2,6 +2,8 @@ package ui;
 
 import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
 import model.*;
+import model.expression.CompiledExpression;
+import model.optimizer.Optimizer;
 
 import java.awt.*;
 import java.util.*;
@@ -11,12 +13,8 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 
-import java.util.function.BiFunction;
 import java.awt.event.ActionListener;
 
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
-
 /**
  * Miscellaneous parsing, math, and UI methods for the gradient-descent GUI.
  */
@@ -90,12 +88,12 @@ public class SimulatorUtils {
         }
     }
 
-    // EFFECTS: returns true if expr is non-null/non-empty and contains an x or y variable
+    // EFFECTS: returns true if expr is non-null/non-empty, contains an x or y variable and parses
     public static boolean checkIfValidExpression(String expr) {
         if (expr == null || expr.isEmpty()) {
             return false;
         }
-        return (expr.contains("x") || expr.contains("y"));
+        return (expr.contains("x") || expr.contains("y")) && CompiledExpression.isCompilable(expr);
     }
 
     // EFFECTS: returns the stored expression placeholder for a scalar field (stub for persistence)
@@ -110,7 +108,7 @@ public class SimulatorUtils {
             throw new IllegalArgumentException("Invalid scalar field expression: " + expr);
         }
 
-        return new ScalarField(expr, buildEvaluator(expr));
+        return new ScalarField(CompiledExpression.compile(expr));
     }
 
     // REQUIRES: src and dst non-null
@@ -135,22 +133,6 @@ public class SimulatorUtils {
         return mean + deviation * (float) RANDOM.nextGaussian();
     }
 
-    // EFFECTS: builds a bi-function evaluator for the given expression
-    private static BiFunction<Float, Float, Float> buildEvaluator(String expr) {
-        return (Float x, Float y) -> {
-            try {
-                Expression expression = new ExpressionBuilder(expr)
-                        .variables("x", "y")
-                        .build()
-                        .setVariable("x", x)
-                        .setVariable("y", y);
-                return (float) expression.evaluate();
-            } catch (Exception ex) {
-                throw new IllegalArgumentException("Failed to evaluate expression: " + expr, ex);
-            }
-        };
-    }
-
     // MODIFIES: dst
     // EFFECTS: copies the scalar field reference from src if present
     private static void copyField(Simulation src, Simulation dst) {
@@ -163,9 +145,9 @@ public class SimulatorUtils {
     // MODIFIES: dst
     // EFFECTS: copies path or initial point from src into dst
     private static void copyTrajectory(Simulation src, Simulation dst) {
-        java.util.List<Vector2> srcPath = src.getPath();
+        TrajectoryView srcPath = src.getTrajectory();
         if (!srcPath.isEmpty()) {
-            dst.overwritePath(srcPath);
+            dst.overwriteTrajectory(srcPath);
             System.out.println("[DEBUG] Transferred path with " + srcPath.size() + " points.");
             return;
         }
@@ -177,8 +159,15 @@ public class SimulatorUtils {
     }
 
     // MODIFIES: dst
-    // EFFECTS: copies simulation numeric parameters from src to dst
+    // EFFECTS: copies simulation numeric parameters, step size mode, clipping, divergence limits and the
+    //          optimizer, with its per-run state, from src to dst
     private static void copyParameters(Simulation src, Simulation dst) {
+        Optimizer optimizer = src.getOptimizer().freshCopy();
+        optimizer.restoreState(src.getOptimizer().getState());
+        dst.setOptimizer(optimizer);
+        dst.setStepSizeMode(src.getStepSizeMode());
+        dst.setGradientClipping(src.getGradientClipping());
+        dst.setDivergenceDetector(src.getDivergenceDetector().freshCopy());
         dst.setLearningRate(src.getLearningRate());
         dst.setStopThreshold(src.getStopThreshold());
         dst.setMaxIterations(src.getMaxIterations());
@@ -0,0 +1,518 @@
+package ui.engine;
+
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+import model.Vector3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Rasterizes a frame's screen-space triangles and line segments into a color and depth buffer, split
+ * into horizontal bands of rows. Primitives are recorded into flat arrays while the scene is walked and
+ * binned into every band their rows overlap; finish() then clears and draws each band on its own, so in
+ * parallel mode the bands run concurrently on a fixed pool of worker threads (which the rasterizers of
+ * a frame's layers can share) without ever touching the same pixel. Each band steps only the part of a
+ * segment that crosses it, with the same per-step positions as a serial pass over the whole segment, so
+ * both modes produce identical frames.
+ * Triangles are filled with integer edge functions on a 1/16-pixel grid, stepped incrementally across
+ * the triangle's bounding box, with depth and Gouraud-interpolated color stepped alongside; lines are
+ * drawn after triangles with a small depth bias so that paths lying on a filled surface stay visible.
+ */
+@ExcludeFromJacocoGeneratedReport
+public final class BandRasterizer {
+    private static final int BANDS_PER_WORKER = 4;    // more bands than workers evens out uneven bands
+    private static final int MIN_BAND_ROWS = 8;
+    private static final int FLOATS_PER_SEGMENT = 8;  // ax, ay, az, bx, by, bz, heightA, heightB
+    private static final int INITIAL_SEGMENTS = 1024;
+    private static final int FLOATS_PER_TRIANGLE = 9; // x, y, z of each corner
+    private static final int SUBPIXELS = 16;          // edge function grid steps per pixel
+    private static final float MAX_EXTENT = 1 << 16;  // triangles reaching further off screen are skipped
+    private static final float LINE_DEPTH_BIAS = 0.02f;
+
+    private final int[] colorBuffer;
+    private final float[] depthBuffer;
+    private final int size;
+    private final int backgroundColor;
+    private final int bandRows;
+    private final int bandCount;
+    private final ExecutorService workers;
+    private final List<Callable<Void>> bandJobs;
+    private final float[] lineEnds = new float[6];   // staging for lines given as vectors
+
+    private boolean parallel;
+    private boolean clearing;          // whether the next finish() starts every band from the background
+    private int firstDrawnRow;         // rows that may hold drawn pixels since the buffers were last cleared
+    private int lastDrawnRow;
+    private float minHeight;
+    private float maxHeight;
+    private float[] segments;
+    private int[] colors;
+    private boolean[] shaded;          // colored by interpolated height rather than colors[i]
+    private int segmentCount;
+    private int[][] bins;              // per band, the indices of the segments crossing it
+    private int[] binCounts;
+    private float[] triangles;
+    private int[] triangleColors;      // the color of each corner
+    private int triangleCount;
+    private int[][] triangleBins;      // per band, the indices of the triangles crossing it
+    private int[] triangleBinCounts;
+
+    // REQUIRES: colorBuffer and depthBuffer hold size * size pixels, row 0 at the top
+    // EFFECTS: creates a rasterizer drawing into the given buffers over a background of backgroundColor,
+    //          with its own pool of one worker thread per available core for parallel mode, which is on by
+    //          default
+    public BandRasterizer(int[] colorBuffer, float[] depthBuffer, int size, int backgroundColor) {
+        this(colorBuffer, depthBuffer, size, backgroundColor, newWorkerPool());
+    }
+
+    // REQUIRES: colorBuffer and depthBuffer hold size * size pixels, row 0 at the top; workers is non-null
+    // EFFECTS: creates a rasterizer as above that draws its bands on workers, e.g. another rasterizer's
+    //          pool, so that layers of one frame share a single set of threads; shutting either down stops
+    //          the pool for both
+    public BandRasterizer(int[] colorBuffer, float[] depthBuffer, int size, int backgroundColor,
+                          ExecutorService workers) {
+        this.colorBuffer = colorBuffer;
+        this.depthBuffer = depthBuffer;
+        this.size = size;
+        this.backgroundColor = backgroundColor;
+        int targetBands = Runtime.getRuntime().availableProcessors() * BANDS_PER_WORKER;
+        this.bandRows = Math.max(MIN_BAND_ROWS, (size + targetBands - 1) / targetBands);
+        this.bandCount = (size + bandRows - 1) / bandRows;
+        this.workers = workers;
+        this.bandJobs = new ArrayList<>(bandCount);
+        for (int band = 0; band < bandCount; band++) {
+            final int index = band;
+            bandJobs.add(() -> {
+                drawBand(index);
+                return null;
+            });
+        }
+        allocatePrimitives();
+        this.parallel = !workers.isShutdown();
+        this.clearing = true;
+        this.firstDrawnRow = size;
+        this.lastDrawnRow = -1;
+    }
+
+    // EFFECTS: returns a fixed pool of daemon threads, one per available core
+    private static ExecutorService newWorkerPool() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "render-band");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: allocates the initial, growable storage for recorded segments and triangles and their bins
+    private void allocatePrimitives() {
+        segments = new float[INITIAL_SEGMENTS * FLOATS_PER_SEGMENT];
+        colors = new int[INITIAL_SEGMENTS];
+        shaded = new boolean[INITIAL_SEGMENTS];
+        bins = new int[bandCount][INITIAL_SEGMENTS / bandCount + 1];
+        binCounts = new int[bandCount];
+        triangles = new float[INITIAL_SEGMENTS * FLOATS_PER_TRIANGLE];
+        triangleColors = new int[INITIAL_SEGMENTS * 3];
+        triangleBins = new int[bandCount][INITIAL_SEGMENTS / bandCount + 1];
+        triangleBinCounts = new int[bandCount];
+    }
+
+    // EFFECTS: returns the pool bands are drawn on, to share with rasterizers of other layers
+    public ExecutorService getWorkers() {
+        return workers;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: chooses whether bands are drawn concurrently on the worker pool or one after another on the
+    //          calling thread; parallel mode stays off once the workers are shut down
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel && !workers.isShutdown();
+    }
+
+    public int getBandCount() {
+        return bandCount;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a new frame with no segments; shaded segments map heights in [minHeight, maxHeight]
+    //          onto the height palette
+    public void begin(float minHeight, float maxHeight) {
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+        clearing = true;
+        firstDrawnRow = size;
+        lastDrawnRow = -1;
+        reset();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a batch with no segments that finish() draws over what the buffers already hold,
+    //          depth-tested against it, instead of over a cleared background
+    public void beginAppend() {
+        clearing = false;
+        reset();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets every queued segment and triangle
+    private void reset() {
+        segmentCount = 0;
+        triangleCount = 0;
+        Arrays.fill(binCounts, 0);
+        Arrays.fill(triangleBinCounts, 0);
+    }
+
+    // REQUIRES: a and b are projected to screen space (x right, y up, z the camera-space depth)
+    // MODIFIES: this
+    // EFFECTS: records the segment from a to b, drawn in overrideColor if non-null, otherwise shaded by the
+    //          height interpolated from heightA to heightB (or the lowest color if either height is null)
+    public void addLine(Vector3 a, Vector3 b, Float heightA, Float heightB, Integer overrideColor) {
+        lineEnds[0] = a.getX();
+        lineEnds[1] = a.getY();
+        lineEnds[2] = a.getZ();
+        lineEnds[3] = b.getX();
+        lineEnds[4] = b.getY();
+        lineEnds[5] = b.getZ();
+        boolean hasHeights = overrideColor == null && heightA != null && heightB != null;
+        addLine(lineEnds, 0, 3, hasHeights ? heightA : 0f, hasHeights ? heightB : 0f, hasHeights,
+                (overrideColor != null) ? overrideColor : shade(minHeight));
+    }
+
+    // REQUIRES: points holds the screen-space x, y, z of the endpoints from offsetA and from offsetB on
+    // MODIFIES: this
+    // EFFECTS: records the segment between the two endpoints, shaded by the height interpolated from heightA
+    //          to heightB if shadedByHeight, otherwise drawn in color
+    public void addLine(float[] points, int offsetA, int offsetB, float heightA, float heightB,
+                        boolean shadedByHeight, int color) {
+        int firstRow = Math.min(rowOf(points[offsetA + 1]), rowOf(points[offsetB + 1]));
+        int lastRow = Math.max(rowOf(points[offsetA + 1]), rowOf(points[offsetB + 1]));
+        if (lastRow < 0 || firstRow >= size) {
+            return;
+        }
+        ensureSegmentCapacity();
+        markDrawn(firstRow - 1, lastRow + 1);
+        int base = segmentCount * FLOATS_PER_SEGMENT;
+        System.arraycopy(points, offsetA, segments, base, 3);
+        System.arraycopy(points, offsetB, segments, base + 3, 3);
+        segments[base + 6] = heightA;
+        segments[base + 7] = heightB;
+        shaded[segmentCount] = shadedByHeight;
+        colors[segmentCount] = color;
+        // one row of slack each way: the last step can round to a row past the endpoint's
+        bin(bins, binCounts, segmentCount, Math.max(0, firstRow - 1) / bandRows,
+                Math.min(size - 1, lastRow + 1) / bandRows);
+        segmentCount++;
+    }
+
+    // REQUIRES: points holds the screen-space x, y, z of the three corners from offset on; the corners
+    //           are colored colorA, colorB and colorC
+    // MODIFIES: this
+    // EFFECTS: records the filled triangle, its color interpolated between the corners; triangles that are
+    //          off screen or reach absurdly far beyond it (nearly level with the camera) are dropped
+    public void addTriangle(float[] points, int offset, int colorA, int colorB, int colorC) {
+        float lowY = Math.min(points[offset + 1], Math.min(points[offset + 4], points[offset + 7]));
+        float highY = Math.max(points[offset + 1], Math.max(points[offset + 4], points[offset + 7]));
+        float lowX = Math.min(points[offset], Math.min(points[offset + 3], points[offset + 6]));
+        float highX = Math.max(points[offset], Math.max(points[offset + 3], points[offset + 6]));
+        if (!(highY >= 0f && lowY < size && highX >= 0f && lowX < size)
+                || lowX < -MAX_EXTENT || lowY < -MAX_EXTENT || highX > MAX_EXTENT || highY > MAX_EXTENT) {
+            return;   // also rejects NaN corners
+        }
+        if (triangleCount * 3 == triangleColors.length) {
+            triangles = Arrays.copyOf(triangles, triangles.length * 2);
+            triangleColors = Arrays.copyOf(triangleColors, triangleColors.length * 2);
+        }
+        System.arraycopy(points, offset, triangles, triangleCount * FLOATS_PER_TRIANGLE, FLOATS_PER_TRIANGLE);
+        triangleColors[triangleCount * 3] = colorA;
+        triangleColors[triangleCount * 3 + 1] = colorB;
+        triangleColors[triangleCount * 3 + 2] = colorC;
+        markDrawn(rowOf(highY) - 1, rowOf(lowY) + 1);
+        bin(triangleBins, triangleBinCounts, triangleCount, Math.max(0, rowOf(highY) - 1) / bandRows,
+                Math.min(size - 1, rowOf(lowY) + 1) / bandRows);
+        triangleCount++;
+    }
+
+    // MODIFIES: colorBuffer, depthBuffer
+    // EFFECTS: clears the buffers and draws every recorded segment into them, band by band
+    public void finish() {
+        if (!parallel) {
+            for (int band = 0; band < bandCount; band++) {
+                drawBand(band);
+            }
+            return;
+        }
+        try {
+            for (Future<Void> done : workers.invokeAll(bandJobs)) {
+                done.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Band rasterization failed.", ex.getCause());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the worker threads; later frames must be drawn serially
+    public void shutdown() {
+        workers.shutdown();
+        parallel = false;
+    }
+
+    // EFFECTS: returns the buffer row screen coordinate y falls in; rows count down from the top
+    private int rowOf(float y) {
+        return size - 1 - (int) y;
+    }
+
+    private void ensureSegmentCapacity() {
+        if (segmentCount < colors.length) {
+            return;
+        }
+        segments = Arrays.copyOf(segments, segments.length * 2);
+        colors = Arrays.copyOf(colors, colors.length * 2);
+        shaded = Arrays.copyOf(shaded, shaded.length * 2);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: widens the range of rows that may hold drawn pixels to include [firstRow, lastRow]
+    private void markDrawn(int firstRow, int lastRow) {
+        firstDrawnRow = Math.max(0, Math.min(firstDrawnRow, firstRow));
+        lastDrawnRow = Math.min(size - 1, Math.max(lastDrawnRow, lastRow));
+    }
+
+    // REQUIRES: layer draws into buffers of this size over a background of 0, and is not drawing now
+    // MODIFIES: this
+    // EFFECTS: copies every pixel the layer has drawn since it was last cleared onto this rasterizer's
+    //          buffers wherever it is not hidden, with the same depth bias lines get; only the rows the layer
+    //          has drawn in are visited, so a thin layer costs little however much it holds
+    public void composite(BandRasterizer layer) {
+        int from = layer.firstDrawnRow * size;
+        int to = (layer.lastDrawnRow + 1) * size;
+        for (int index = from; index < to; index++) {
+            int color = layer.colorBuffer[index];
+            float depth = layer.depthBuffer[index];
+            if (color != 0 && depthBuffer[index] < depth + LINE_DEPTH_BIAS) {
+                colorBuffer[index] = color;
+                depthBuffer[index] = depth;
+            }
+        }
+    }
+
+    // MODIFIES: bins, counts
+    // EFFECTS: adds index to the bins of bands firstBand through lastBand, growing them as needed
+    private static void bin(int[][] bins, int[] counts, int index, int firstBand, int lastBand) {
+        for (int band = firstBand; band <= lastBand; band++) {
+            if (counts[band] == bins[band].length) {
+                bins[band] = Arrays.copyOf(bins[band], bins[band].length * 2);
+            }
+            bins[band][counts[band]++] = index;
+        }
+    }
+
+    // MODIFIES: colorBuffer, depthBuffer
+    // EFFECTS: clears the rows of band and draws the part of every triangle, then every segment, binned into it
+    private void drawBand(int band) {
+        int rowStart = band * bandRows;
+        int rowEnd = Math.min(size, rowStart + bandRows);
+        if (clearing) {
+            Arrays.fill(colorBuffer, rowStart * size, rowEnd * size, backgroundColor);
+            Arrays.fill(depthBuffer, rowStart * size, rowEnd * size, Float.NEGATIVE_INFINITY);
+        }
+        int[] triangleBin = triangleBins[band];
+        for (int k = 0; k < triangleBinCounts[band]; k++) {
+            drawTrianglePart(triangleBin[k], rowStart, rowEnd);
+        }
+        int[] bin = bins[band];
+        for (int k = 0; k < binCounts[band]; k++) {
+            drawSegmentPart(bin[k], rowStart, rowEnd);
+        }
+    }
+
+    // MODIFIES: colorBuffer, depthBuffer
+    // EFFECTS: steps segment one pixel at a time along its longer axis, depth-testing and writing only the
+    //          pixels that fall in rows [rowStart, rowEnd)
+    @SuppressWarnings("methodlength")
+    private void drawSegmentPart(int segment, int rowStart, int rowEnd) {
+        int base = segment * FLOATS_PER_SEGMENT;
+        float ax = segments[base];
+        float ay = segments[base + 1];
+        float az = segments[base + 2];
+        float dx = segments[base + 3] - ax;
+        float dy = segments[base + 4] - ay;
+        int steps = Math.max(1, (int) Math.max(Math.abs(dx), Math.abs(dy)));
+        float sx = dx / steps;
+        float sy = dy / steps;
+        float sz = (segments[base + 5] - az) / steps;
+
+        int first = 0;
+        int last = steps;
+        if (sy != 0f) {   // only the steps whose y lies within a row of the band, widened by one for truncation
+            float lowY = size - rowEnd - 1;
+            float highY = size - rowStart + 1;
+            float from = (((sy > 0f) ? lowY : highY) - ay) / sy;
+            float to = (((sy > 0f) ? highY : lowY) - ay) / sy;
+            first = Math.max(0, (int) Math.floor(from));
+            last = Math.min(steps, (int) Math.ceil(to));
+        }
+        for (int i = first; i <= last; i++) {
+            int row = rowOf(ay + sy * i);
+            int column = (int) (ax + sx * i);
+            if (row < rowStart || row >= rowEnd || column < 0 || column >= size) {
+                continue;
+            }
+            int index = row * size + column;
+            float z = az + sz * i;
+            if (depthBuffer[index] >= z + LINE_DEPTH_BIAS) {
+                continue;
+            }
+            depthBuffer[index] = z;
+            colorBuffer[index] = shaded[segment] ? shadeAlong(base, (float) i / steps) : colors[segment];
+        }
+    }
+
+    // MODIFIES: colorBuffer, depthBuffer
+    // EFFECTS: fills the pixels of triangle whose centres lie inside it and in rows [rowStart, rowEnd),
+    //          depth-testing each and coloring it by the corner colors weighted by its barycentric coordinates
+    @SuppressWarnings("methodlength")
+    private void drawTrianglePart(int triangle, int rowStart, int rowEnd) {
+        int base = triangle * FLOATS_PER_TRIANGLE;
+        int first = 1;                       // corner order that makes the edge functions positive inside
+        int second = 2;
+        long x0 = gridX(base);
+        long y0 = gridY(base);
+        long area = (gridX(base + 3) - x0) * (gridY(base + 6) - y0) - (gridY(base + 3) - y0) * (gridX(base + 6) - x0);
+        if (area == 0) {
+            return;
+        } else if (area < 0) {
+            first = 2;
+            second = 1;
+            area = -area;
+        }
+        int baseB = base + 3 * first;
+        int baseC = base + 3 * second;
+        long x1 = gridX(baseB);
+        long y1 = gridY(baseB);
+        long x2 = gridX(baseC);
+        long y2 = gridY(baseC);
+
+        int minColumn = (int) Math.max(0, Math.min(x0, Math.min(x1, x2)) / SUBPIXELS);
+        int maxColumn = (int) Math.min(size - 1, Math.max(x0, Math.max(x1, x2)) / SUBPIXELS);
+        int minRow = (int) Math.max(rowStart, Math.min(y0, Math.min(y1, y2)) / SUBPIXELS);
+        int maxRow = (int) Math.min(rowEnd - 1, Math.max(y0, Math.max(y1, y2)) / SUBPIXELS);
+        if (minColumn > maxColumn || minRow > maxRow) {
+            return;
+        }
+
+        // edge function of the edge opposite each corner, and its change per pixel across and down
+        long stepX0 = (y1 - y2) * SUBPIXELS;
+        long stepY0 = (x2 - x1) * SUBPIXELS;
+        long stepX1 = (y2 - y0) * SUBPIXELS;
+        long stepY1 = (x0 - x2) * SUBPIXELS;
+        long stepX2 = (y0 - y1) * SUBPIXELS;
+        long stepY2 = (x1 - x0) * SUBPIXELS;
+        long sampleX = (long) minColumn * SUBPIXELS + SUBPIXELS / 2;
+        long sampleY = (long) minRow * SUBPIXELS + SUBPIXELS / 2;
+        long row0 = (x2 - x1) * (sampleY - y1) - (y2 - y1) * (sampleX - x1);
+        long row1 = (x0 - x2) * (sampleY - y2) - (y0 - y2) * (sampleX - x2);
+        long row2 = (x1 - x0) * (sampleY - y0) - (y1 - y0) * (sampleX - x0);
+
+        float z0 = triangles[base + 2];
+        float z1 = triangles[baseB + 2];
+        float z2 = triangles[baseC + 2];
+        int color0 = triangleColors[triangle * 3];
+        int color1 = triangleColors[triangle * 3 + first];
+        int color2 = triangleColors[triangle * 3 + second];
+        float inverseArea = 1f / area;
+        float depthStepX = (stepX0 * z0 + stepX1 * z1 + stepX2 * z2) * inverseArea;
+        int redStepX = channelStep(stepX0, stepX1, stepX2, color0, color1, color2, 16, inverseArea);
+        int greenStepX = channelStep(stepX0, stepX1, stepX2, color0, color1, color2, 8, inverseArea);
+        int blueStepX = channelStep(stepX0, stepX1, stepX2, color0, color1, color2, 0, inverseArea);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            long w0 = row0;
+            long w1 = row1;
+            long w2 = row2;
+            float depth = (w0 * z0 + w1 * z1 + w2 * z2) * inverseArea;
+            int red = channelStep(w0, w1, w2, color0, color1, color2, 16, inverseArea);
+            int green = channelStep(w0, w1, w2, color0, color1, color2, 8, inverseArea);
+            int blue = channelStep(w0, w1, w2, color0, color1, color2, 0, inverseArea);
+            int index = row * size + minColumn;
+            for (int column = minColumn; column <= maxColumn; column++, index++) {
+                if ((w0 | w1 | w2) >= 0 && depth > depthBuffer[index]) {
+                    depthBuffer[index] = depth;
+                    colorBuffer[index] = 0xFF000000 | (clampChannel(red) << 16) | (clampChannel(green) << 8)
+                            | clampChannel(blue);
+                }
+                w0 += stepX0;
+                w1 += stepX1;
+                w2 += stepX2;
+                depth += depthStepX;
+                red += redStepX;
+                green += greenStepX;
+                blue += blueStepX;
+            }
+            row0 += stepY0;
+            row1 += stepY1;
+            row2 += stepY2;
+        }
+    }
+
+    // EFFECTS: returns the corner x of the triangle corner at base, on the subpixel grid
+    private long gridX(int base) {
+        return Math.round(triangles[base] * SUBPIXELS);
+    }
+
+    // EFFECTS: returns the corner's distance down from the top of the buffer, on the subpixel grid, so that
+    //          buffer row r spans [r, r + 1) pixels
+    private long gridY(int base) {
+        return Math.round((size - triangles[base + 1]) * SUBPIXELS);
+    }
+
+    // EFFECTS: returns the channel at shift of the corner colors weighted by w0, w1 and w2 (times inverseArea),
+    //          in 16.16 fixed point
+    private static int channelStep(long w0, long w1, long w2, int color0, int color1, int color2, int shift,
+                                   float inverseArea) {
+        float mixed = w0 * ((color0 >> shift) & 0xFF) + w1 * ((color1 >> shift) & 0xFF)
+                + w2 * ((color2 >> shift) & 0xFF);
+        return (int) (mixed * inverseArea * 65536f);
+    }
+
+    private static int clampChannel(int fixed) {
+        return Math.max(0, Math.min(255, fixed >> 16));
+    }
+
+    private int shadeAlong(int base, float t) {
+        float heightA = segments[base + 6];
+        return shade(heightA + (segments[base + 7] - heightA) * t);
+    }
+
+    // EFFECTS: maps height onto the palette running from blue at minHeight to red at maxHeight
+    int shade(float height) {
+        float normalized = (height - minHeight) / (maxHeight - minHeight);
+        normalized = Math.max(0f, Math.min(1f, normalized));
+
+        int startR = 30;
+        int startG = 110;
+        int startB = 255;
+
+        int endR = 255;
+        int endG = 70;
+        int endB = 60;
+
+        int r = (int) (startR + (endR - startR) * normalized);
+        int g = (int) (startG + (endG - startG) * normalized);
+        int b = (int) (startB + (endB - startB) * normalized);
+
+        return 0xFF000000 | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | (b & 0xFF);
+    }
+}
@@ -40,7 +40,10 @@ public class CameraController implements Tickable, KeyListener, MouseListener {
     private float pitch;
     private float pitchVelocity;
 
-    private Transform viewTransform;
+    private final Matrix4 orientation = new Matrix4();   // scratch matrices rebuilt in place every tick
+    private final Matrix4 turn = new Matrix4();
+    private final Matrix4 view = new Matrix4();
+    private final float[] move = new float[3];
 
     // EFFECTS: computes seconds since last tick and resets timestamp
     private float computeDeltaSeconds() {
@@ -80,9 +83,15 @@ public class CameraController implements Tickable, KeyListener, MouseListener {
     // MODIFIES: this
     // EFFECTS: integrates position and orientation from velocities
     private void integratePose(float deltaTime) {
-        Transform rotation = Transform.multiply(Transform.rotationX(pitch), Transform.rotationY(yaw));
-        Vector3 move = Transform.multiply(rotation, velocity);
-        position = Vector3.add(position, Vector3.multiply(move, deltaTime));
+        orientation.setRotationX(pitch);
+        turn.setRotationY(yaw);
+        Matrix4.mulInto(orientation, turn, orientation);
+        move[0] = velocity.getX();
+        move[1] = velocity.getY();
+        move[2] = velocity.getZ();
+        orientation.transformPoints(move, move, 1);
+        position = new Vector3(position.getX() + move[0] * deltaTime, position.getY() + move[1] * deltaTime,
+                position.getZ() + move[2] * deltaTime);
 
         yawVelocity = clamp(yawVelocity, MAX_ANGULAR_VELOCITY);
         pitchVelocity = clamp(pitchVelocity, MAX_ANGULAR_VELOCITY);
@@ -96,12 +105,14 @@ public class CameraController implements Tickable, KeyListener, MouseListener {
     }
 
     // MODIFIES: this
-    // EFFECTS: rebuilds the view transform matrix from current pose
+    // EFFECTS: rebuilds the view matrix in place from current pose and hands the renderer a snapshot of it
     private void buildViewMatrix() {
-        viewTransform = Transform.translation(Vector3.multiply(position, -1.0f));
-        viewTransform = Transform.multiply(viewTransform, Transform.rotationY(-yaw));
-        viewTransform = Transform.multiply(viewTransform, Transform.rotationX(-pitch));
-        parent.setViewTransform(viewTransform);
+        view.setTranslation(-position.getX(), -position.getY(), -position.getZ());
+        turn.setRotationY(-yaw);
+        Matrix4.mulInto(view, turn, view);
+        turn.setRotationX(-pitch);
+        Matrix4.mulInto(view, turn, view);
+        parent.setViewTransform(Transform.of(view));
     }
     
     // EFFECTS: initializes and registers input listeners
@@ -124,7 +135,7 @@ public class CameraController implements Tickable, KeyListener, MouseListener {
         yawVelocity = 0.0f;
         pitch = 0.0f;
         pitchVelocity = 0.0f;
-        viewTransform = new Transform();
+        view.setIdentity();
     }
 
     @Override
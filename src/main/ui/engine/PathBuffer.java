@@ -0,0 +1,113 @@
+package ui.engine;
+
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+import model.ScalarField;
+import model.Simulation;
+import model.TrajectorySnapshot;
+
+import java.util.Arrays;
+
+/**
+ * The world-space vertices of the descent path, packed like a SurfaceMesh's positions. Each point's height
+ * is worked out once, when the point is first seen, and kept until the simulation, its field, the field's
+ * domain or the path itself is replaced; a path that has only grown just has its new points appended.
+ */
+@ExcludeFromJacocoGeneratedReport
+final class PathBuffer {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private float[] positions = new float[INITIAL_CAPACITY * 3];
+    private int count;
+    private Simulation simulation;
+    private ScalarField field;
+    private long version = -1;
+    private final float[] domain = new float[6];
+
+    // MODIFIES: this
+    // EFFECTS: brings the buffer up to date with path, the trajectory of simulation over field, and returns
+    //          true iff it had to start over rather than append
+    boolean sync(Simulation simulation, TrajectorySnapshot path, ScalarField field) {
+        boolean restarted = this.simulation != simulation || this.field != field
+                || version != path.getVersion() || path.size() < count || domainChanged(field);
+        if (restarted) {
+            this.simulation = simulation;
+            this.field = field;
+            version = path.getVersion();
+            count = 0;
+            storeDomain(field);
+        }
+        if (path.size() * 3 > positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(positions.length * 2, path.size() * 3));
+        }
+        for (; count < path.size(); count++) {
+            if (!toWorld(field, path.getX(count), path.getY(count), path.getZ(count), positions, count * 3)) {
+                positions[count * 3 + 1] = Float.NaN;
+            }
+        }
+        return restarted;
+    }
+
+    private boolean domainChanged(ScalarField field) {
+        return domain[0] != field.getXMin() || domain[1] != field.getXMax() || domain[2] != field.getYMin()
+                || domain[3] != field.getYMax() || domain[4] != field.getZMin() || domain[5] != field.getZMax();
+    }
+
+    private void storeDomain(ScalarField field) {
+        domain[0] = field.getXMin();
+        domain[1] = field.getXMax();
+        domain[2] = field.getYMin();
+        domain[3] = field.getYMax();
+        domain[4] = field.getZMin();
+        domain[5] = field.getZMax();
+    }
+
+    // MODIFIES: out
+    // EFFECTS: stores the world x, height and depth of field point (x, y) at out[offset .. offset + 2] and
+    //          returns true, using cachedHeight unless it is NaN; returns false if the height cannot be
+    //          evaluated or lies outside the field's Z range
+    static boolean toWorld(ScalarField field, float x, float y, float cachedHeight, float[] out, int offset) {
+        float height;
+        try {
+            height = Float.isNaN(cachedHeight) ? field.evaluate(x, y) : cachedHeight;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+        if (!(height >= field.getZMin() && height <= field.getZMax())) {
+            return false;
+        }
+        float yrange = field.getYMax() - field.getYMin();
+        if (Math.abs(yrange) < 0.0001f) {
+            yrange = 1.0f;
+        }
+        float normalizedDepth = (y - field.getYMin()) / yrange;
+        out[offset] = x;
+        out[offset + 1] = height;
+        out[offset + 2] = -5.0f - normalizedDepth * 25.0f;
+        return true;
+    }
+
+    int size() {
+        return count;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: returns true iff the point at index lies on the drawable part of the surface
+    boolean isDrawn(int index) {
+        return !Float.isNaN(positions[index * 3 + 1]);
+    }
+
+    // REQUIRES: 0 <= index < size()
+    float getX(int index) {
+        return positions[index * 3];
+    }
+
+    // REQUIRES: 0 <= index < size()
+    float getHeight(int index) {
+        return positions[index * 3 + 1];
+    }
+
+    // REQUIRES: 0 <= index < size()
+    float getDepth(int index) {
+        return positions[index * 3 + 2];
+    }
+}
@@ -3,6 +3,9 @@ package ui.engine;
 import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
 import ui.*;
 import model.*;
+import model.analysis.BasinMap;
+import model.analysis.CriticalPoint;
+import model.analysis.CriticalPointType;
 
 import java.awt.*;
 import javax.swing.*;
@@ -19,24 +22,36 @@ public class RenderEngine3D implements Tickable {
 
     public static final float CLIP_Z = -0.1f;
     private static final int DEFAULT_MESH_RESOLUTION = 48;
+    private static final int SURFACE_MESH_RESOLUTION = 256;
     private static final float AXIS_DEPTH = -15f;
     private static final int COLOR_AXIS_X = 0xFFCC4444;
     private static final int COLOR_AXIS_Y = 0xFF44CC44;
     private static final int COLOR_AXIS_Z = 0xFF4488CC;
     private static final int COLOR_GRID = 0xFF3A3A3A;
     private static final int COLOR_PATH = 0xFFFFD200;
+    private static final int COLOR_MINIMUM = 0xFF33DD66;
+    private static final int COLOR_MAXIMUM = 0xFFEE4444;
+    private static final int COLOR_SADDLE = 0xFF33CCEE;
+    private static final int COLOR_DEGENERATE = 0xFFAAAAAA;
+    private static final float MARKER_SIZE = 0.25f;   // half the arm length of a critical point marker
 
     private int bufferSize;
     private int[] colorBuffer;
     private float[] depthBuffer;
     private BufferedImage image;
     private ReentrantLock imageSync;
+    private BandRasterizer rasterizer;
+    private BandRasterizer pathLayer;         // persistent layer the descent path is drawn into, see tick()
+    private final PathBuffer pathBuffer = new PathBuffer();
+    private final Matrix4 pathLayerView = new Matrix4();   // the view the path layer was drawn with
+    private int pathLayerCount = -1;          // path points already in the layer, or -1 if it must be redrawn
+    private volatile float frameMillis;
 
     private SimulatorState simState;
     private JPanel parent;
 
     private Transform viewTransform;
-    private Vector3[][] meshGrid;
+    private SurfaceMesh mesh;
     private ScalarField lastFieldUsed;
     private float minHeight;
     private float maxHeight;
@@ -47,6 +62,17 @@ public class RenderEngine3D implements Tickable {
     private float lastYMax;
     private float lastZMin;
     private float lastZMax;
+    private volatile BasinMap basinOverlay;   // null when the mesh is colored by height
+    private volatile List<CriticalPoint> criticalPoints;   // null when no markers are shown
+    private volatile boolean filledSurface;   // shaded triangles instead of a wireframe
+    private int lastResolution;
+    private float[] vertexLight;              // per mesh vertex brightness, see SurfaceMeshGenerator
+    private float[] viewVertices;             // per mesh vertex view-space x, y, z, refreshed every frame
+    private float[] projectedVertices;        // per mesh vertex screen x, y, z, NaN when not drawable
+    private int[] vertexColors;
+    private final float[] triangleCorners = new float[9];
+    private final float[] clippedCorners = new float[12];   // view-space corners left after near-plane clipping
+    private final int[] clippedColors = new int[4];
 
     private static final int COLOR_BG = 0xFF000000; // black
 
@@ -76,11 +102,14 @@ public class RenderEngine3D implements Tickable {
         depthBuffer = new float[size * size];
         image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
         colorBuffer = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        rasterizer = new BandRasterizer(colorBuffer, depthBuffer, size, COLOR_BG);
+        pathLayer = new BandRasterizer(new int[size * size], new float[size * size], size, 0,
+                rasterizer.getWorkers());
         imageSync = new ReentrantLock();
 
         viewTransform = buildDefaultViewTransform(); // 
 
-        meshGrid = null;
+        mesh = null;
         referenceLines = new ArrayList<>();
         buildReferenceLines();
         minHeight = 0f;
@@ -93,6 +122,33 @@ public class RenderEngine3D implements Tickable {
         lastZMax = Float.NaN;
     }
 
+    // EFFECTS: returns how long the last frame took to render, in milliseconds
+    public float getFrameMillis() {
+        return frameMillis;
+    }
+
+    public boolean isFilledSurface() {
+        return filledSurface;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: draws the surface as a finer mesh of lit, filled triangles from the next frame on, or as the
+    //          wireframe again if filled is false
+    public void setFilledSurface(boolean filled) {
+        this.filledSurface = filled;
+    }
+
+    public boolean isParallelRendering() {
+        return rasterizer.isParallel();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: chooses whether frames are rasterized in parallel bands or serially on the tick thread
+    public void setParallelRendering(boolean parallel) {
+        rasterizer.setParallel(parallel);
+        pathLayer.setParallel(parallel);
+    }
+
     // EFFECTS: returns the Swing panel hosting the render target
     public JPanel getPanel() {
         return parent;
@@ -105,6 +161,27 @@ public class RenderEngine3D implements Tickable {
         this.viewTransform = vt;
     }
 
+    // MODIFIES: this
+    // EFFECTS: colors the surface by basin of attraction from map from the next frame on, or by height again
+    //          if map is null
+    public void setBasinOverlay(BasinMap map) {
+        this.basinOverlay = map;
+    }
+
+    public BasinMap getBasinOverlay() {
+        return basinOverlay;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: marks points on the surface from the next frame on, colored by type, or no points if null
+    public void setCriticalPoints(List<CriticalPoint> points) {
+        this.criticalPoints = points;
+    }
+
+    public List<CriticalPoint> getCriticalPoints() {
+        return criticalPoints;
+    }
+
     // REQUIRES: g not null
     // MODIFIES: none (reads from image under lock)
     // EFFECTS: draws the latest rendered frame into the provided Graphics context
@@ -126,132 +203,310 @@ public class RenderEngine3D implements Tickable {
     }
 
     // REQUIRES: simState != null and imageSync available
-    // MODIFIES: image, depthBuffer, colorBuffer, simState (reads)
+    // MODIFIES: image, depthBuffer, colorBuffer
+    // EFFECTS: renders a frame; reads the simulation through its lock-free accessors and path snapshots,
+    //          so stepping never waits for drawing. The scene is walked and projected on this thread and
+    //          the rasterizer then clears and fills the buffers, in parallel bands if enabled
+    //          The descent path lives in its own persistent layer, composited over the frame by depth
     @Override
     public void tick() {
-        simState.lock();
         imageSync.lock();
         try {
+            long start = System.nanoTime();
             ensureMeshSynced();
-            clearBuffers();
+            rasterizer.begin(minHeight, maxHeight);
             renderScene();
+            rasterizer.finish();
+            if (updatePathLayer()) {
+                rasterizer.composite(pathLayer);
+            }
+            frameMillis = (System.nanoTime() - start) / 1_000_000.0f;
         } finally {
             imageSync.unlock();
-            simState.unlock();
         }
     }
 
-    // MODIFIES: buffers
-    // EFFECTS: draws axes, grid, and path onto the buffers
+    // MODIFIES: rasterizer
+    // EFFECTS: queues the axes, grid and markers for rasterization
     private void renderScene() {
         drawReferenceLines();
-        drawWireGrid();
-        drawGradientPath();
+        if (filledSurface) {
+            drawSurface();
+        } else {
+            drawWireGrid();
+        }
+        drawCriticalPoints();
     }
 
-    // REQUIRES: meshGrid != null, meshGrid.length != 0
-    // MODIFIES: simState
-    // EFFECTS: Creates 3D vectors for x and y (still need to implement z grid but i've already 
-    // tried and it looks bad so idk) depending on grid length (rn set to 10) and then draws them
-    // which converts the 3D vectors into 2D vectors that will display with the viewTransform. Rn
-    // this method is very convoluted but ima fix it at some point
+    // MODIFIES: this, rasterizer
+    // EFFECTS: projects every mesh vertex once and queues each edge of the mesh's index buffer, colored by
+    //          height or by basin; edges crossing the near plane are clipped and projected on their own
     // SOURCE: I received a lot of help from my friend who built the OpenGL renderer but also this
     // tutorial really helped: https://www.opengl-tutorial.org/beginners-tutorials/tutorial-3-matrices/
-    @SuppressWarnings("methodlength")
     private void drawWireGrid() {
-        if (meshGrid == null || meshGrid.length == 0 || meshGrid[0].length == 0) {
+        if (mesh == null) {
             return;
         }
+        BasinMap overlay = basinOverlay;
+        projectMesh();
+        if (overlay != null) {
+            for (int vertex = 0; vertex < vertexColors.length; vertex++) {
+                vertexColors[vertex] = mesh.isValid(vertex) ? basinColor(overlay, vertex) : 0;
+            }
+        }
+        int[] edges = mesh.getEdges();
+        for (int k = 0; k < edges.length; k += 2) {
+            int a = edges[k];
+            int b = edges[k + 1];
+            if (!Float.isNaN(projectedVertices[a * 3]) && !Float.isNaN(projectedVertices[b * 3])) {
+                rasterizer.addLine(projectedVertices, a * 3, b * 3, mesh.getHeight(a), mesh.getHeight(b),
+                        overlay == null, vertexColors[a]);
+            } else if (viewVertices[a * 3 + 2] < CLIP_Z || viewVertices[b * 3 + 2] < CLIP_Z) {
+                draw3DLine(worldVertex(a), worldVertex(b), mesh.getHeight(a), mesh.getHeight(b),
+                        (overlay == null) ? null : vertexColors[a]);
+            }
+        }
+    }
 
-        int width = meshGrid.length;
-        int height = meshGrid[0].length;
-
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                Vector3 current = meshGrid[i][j];
-                if (current == null) {
-                    continue;
-                }
-
-                if (i < width - 1) {
-                    Vector3 right = meshGrid[i + 1][j];
-                    if (right != null) {
-                        draw3DLine(current, right, current.getY(), right.getY(), null);
-                    }
-                }
-
-                if (j < height - 1) {
-                    Vector3 up = meshGrid[i][j + 1];
-                    if (up != null) {
-                        draw3DLine(current, up, current.getY(), up.getY(), null);
-                    }
-                }
+    // MODIFIES: this, rasterizer
+    // EFFECTS: projects every mesh vertex once, lights its height or basin color, and queues the triangles of
+    //          the mesh's index buffer, clipped to the part in front of the camera
+    private void drawSurface() {
+        if (mesh == null || vertexLight == null) {
+            return;
+        }
+        BasinMap overlay = basinOverlay;
+        projectMesh();
+        for (int vertex = 0; vertex < vertexColors.length; vertex++) {
+            if (mesh.isValid(vertex)) {
+                int base = (overlay == null) ? rasterizer.shade(mesh.getHeight(vertex)) : basinColor(overlay, vertex);
+                vertexColors[vertex] = lit(base, vertexLight[vertex]);
             }
         }
+        int[] triangles = mesh.getTriangles();
+        for (int k = 0; k < triangles.length; k += 3) {
+            queueTriangle(triangles[k], triangles[k + 1], triangles[k + 2]);
+        }
     }
 
-    // Note: Since all my math is being done in 2D (Scalar Fields -> z = xy), i made this method
-    // to transform my 2D vectors into 3D vectors which then get converted back into 2D vectors
-    // with viewTransform which then gets projected into the JPanel through rasterization (drawPanel)
-    // EFFECTS: returns a Vector3 obj that contains true pixel position on screen
-    private Vector3 buildPathVertex(Vector2 point, ScalarField field) {
-        try {
-            float height = field.evaluate(point.getX(), point.getY());
-            if (height < field.getZMin() || height > field.getZMax()) {
-                return null;
+    // MODIFIES: this
+    // EFFECTS: transforms every mesh vertex into view space exactly once, in one batch into viewVertices, and
+    //          stores its screen position in projectedVertices, NaN when the vertex is invalid or behind the
+    //          near plane; the buffers are reused from frame to frame
+    private void projectMesh() {
+        int count = mesh.getVertexCount();
+        if (projectedVertices == null || projectedVertices.length != count * 3) {
+            viewVertices = new float[count * 3];
+            projectedVertices = new float[count * 3];
+            vertexColors = new int[count];
+        }
+        viewTransform.getMatrix().transformPoints(mesh.getPositions(), viewVertices, count);
+        for (int base = 0; base < count * 3; base += 3) {
+            float viewZ = viewVertices[base + 2];
+            projectedVertices[base] = Float.NaN;
+            if (!mesh.isValid(base / 3) || !(viewZ < CLIP_Z)) {
+                continue;
             }
+            project(viewVertices, base, projectedVertices, base);
+        }
+    }
+
+    // EFFECTS: returns the world position of the given mesh vertex
+    private Vector3 worldVertex(int vertex) {
+        return new Vector3(mesh.getX(vertex), mesh.getHeight(vertex), mesh.getDepth(vertex));
+    }
 
-            float yrange = field.getYMax() - field.getYMin();
-            if (Math.abs(yrange) < 0.0001f) {
-                yrange = 1.0f;
+    // MODIFIES: this, rasterizer
+    // EFFECTS: queues the triangle between the mesh vertices a, b and c; a triangle crossing the near plane is
+    //          clipped against it first and its part in front of the camera queued instead
+    private void queueTriangle(int a, int b, int c) {
+        if (Float.isNaN(projectedVertices[a * 3]) || Float.isNaN(projectedVertices[b * 3])
+                || Float.isNaN(projectedVertices[c * 3])) {
+            if (mesh.isValid(a) && mesh.isValid(b) && mesh.isValid(c)) {
+                queueClippedTriangle(a, b, c);
             }
-            // norm to panel size and proj to 2D
-            float normalizedDepth = (point.getY() - field.getYMin()) / yrange; 
-            float depth = -5.0f - normalizedDepth * 25.0f;
+            return;
+        }
+        System.arraycopy(projectedVertices, a * 3, triangleCorners, 0, 3);
+        System.arraycopy(projectedVertices, b * 3, triangleCorners, 3, 3);
+        System.arraycopy(projectedVertices, c * 3, triangleCorners, 6, 3);
+        rasterizer.addTriangle(triangleCorners, 0, vertexColors[a], vertexColors[b], vertexColors[c]);
+    }
 
-            return new Vector3(point.getX(), height, depth);
-        } catch (RuntimeException ex) {
+    // REQUIRES: a, b and c are valid mesh vertices
+    // MODIFIES: this, rasterizer
+    // EFFECTS: clips the triangle a, b, c in view space to the near plane, one edge at a time, keeping the
+    //          corners in front of it and adding one where an edge crosses it with position and color
+    //          interpolated; what is left has at most four corners and is queued as a fan of up to two triangles
+    private void queueClippedTriangle(int a, int b, int c) {
+        int count = clipEdge(a, b, 0);
+        count = clipEdge(b, c, count);
+        count = clipEdge(c, a, count);
+        for (int corner = 2; corner < count; corner++) {
+            project(clippedCorners, 0, triangleCorners, 0);
+            project(clippedCorners, (corner - 1) * 3, triangleCorners, 3);
+            project(clippedCorners, corner * 3, triangleCorners, 6);
+            rasterizer.addTriangle(triangleCorners, 0, clippedColors[0], clippedColors[corner - 1],
+                    clippedColors[corner]);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends to the clipped corners, which already number count, the start of the edge from vertex
+    //          to next if it is in front of the near plane and the edge's crossing of the plane if it has
+    //          one; returns the new number of clipped corners
+    private int clipEdge(int vertex, int next, int count) {
+        float z = viewVertices[vertex * 3 + 2];
+        float nextZ = viewVertices[next * 3 + 2];
+        if (z < CLIP_Z) {
+            System.arraycopy(viewVertices, vertex * 3, clippedCorners, count * 3, 3);
+            clippedColors[count++] = vertexColors[vertex];
+        }
+        if ((z < CLIP_Z) != (nextZ < CLIP_Z)) {
+            // interpolate from the lower index so both triangles sharing the edge get the same crossing
+            int from = Math.min(vertex, next);
+            int to = Math.max(vertex, next);
+            float fromZ = viewVertices[from * 3 + 2];
+            float f = (CLIP_Z - fromZ) / (viewVertices[to * 3 + 2] - fromZ);
+            for (int axis = 0; axis < 2; axis++) {
+                float start = viewVertices[from * 3 + axis];
+                clippedCorners[count * 3 + axis] = start + (viewVertices[to * 3 + axis] - start) * f;
+            }
+            clippedCorners[count * 3 + 2] = CLIP_Z;
+            clippedColors[count++] = mix(vertexColors[from], vertexColors[to], f);
+        }
+        return count;
+    }
+
+    // EFFECTS: returns the opaque color a fraction f of the way from color to other, channel by channel
+    private static int mix(int color, int other, float f) {
+        int mixed = 0xFF000000;
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int channel = (color >> shift) & 0xFF;
+            mixed |= Math.round(channel + (((other >> shift) & 0xFF) - channel) * f) << shift;
+        }
+        return mixed;
+    }
+
+    // EFFECTS: returns color with each channel scaled by brightness
+    private static int lit(int color, float brightness) {
+        int r = (int) (((color >> 16) & 0xFF) * brightness);
+        int g = (int) (((color >> 8) & 0xFF) * brightness);
+        int b = (int) ((color & 0xFF) * brightness);
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
+    // EFFECTS: returns the basin color of the given mesh vertex; its row gives its field y coordinate, which
+    //          the vertex itself only stores as a depth
+    private int basinColor(BasinMap overlay, int vertex) {
+        int rows = mesh.getRows();
+        float y = lastYMin + (lastYMax - lastYMin) * (vertex % rows) / (rows - 1);
+        return BasinMap.colorOf(overlay.labelAt(mesh.getX(vertex), y));
+    }
+
+    // Note: Since all my math is being done in 2D (Scalar Fields -> z = xy), i made this method
+    // to transform my 2D vectors into 3D vectors which then get converted back into 2D vectors
+    // with viewTransform which then gets projected into the JPanel through rasterization (drawPanel)
+    // EFFECTS: returns a Vector3 obj that contains true pixel position on screen
+    private Vector3 buildPathVertex(float x, float y, float cachedHeight, ScalarField field) {
+        float[] world = new float[3];
+        if (!PathBuffer.toWorld(field, x, y, cachedHeight, world, 0)) {
             return null;
         }
+        return new Vector3(world[0], world[1], world[2]);
     }
 
     // Note: Just for visualization purposes, currently facing problems with vanishing and explo grad
-    // REQUIRES: field != null, gd must be computed beforehand (currently done with rand button)
-    // MODIFIES: simState as Simulation
-    // EFFECTS: draw lines connecting points in ArrayList of gradient descent points
-    private void drawGradientPath() {
+    // MODIFIES: this
+    // EFFECTS: brings the persistent path layer up to date and returns true iff there is a path to show.
+    //          Path heights come from pathBuffer, which evaluates each point once. While the view, field
+    //          and path stay put only the segments appended since the last frame are rasterized into the
+    //          layer, so a long run costs no more per frame than a short one; otherwise the layer is
+    //          cleared and the whole cached path is drawn into it again
+    private boolean updatePathLayer() {
         Simulation simulation = simState.getSimulation();
         ScalarField field = simulation.getField();
-        if (field == null) {
-            return;
+        TrajectorySnapshot path = simulation.getTrajectorySnapshot(); // immutable, taken without locking
+        if (field == null || path.isEmpty()) {
+            pathLayerCount = -1;
+            return false;
+        }
+        boolean restarted = pathBuffer.sync(simulation, path, field);
+        Matrix4 view = viewTransform.getMatrix();
+        if (restarted || pathLayerCount < 0 || !view.equals(pathLayerView)) {
+            pathLayerView.set(view);
+            pathLayer.begin(minHeight, maxHeight);
+            pathLayerCount = 0;
+        } else if (pathLayerCount == pathBuffer.size()) {
+            return true;
+        } else {
+            pathLayer.beginAppend();
         }
+        for (int i = pathLayerCount; i < pathBuffer.size(); i++) {
+            queuePathSegment(i);
+        }
+        pathLayer.finish();
+        pathLayerCount = pathBuffer.size();
+        return true;
+    }
 
-        List<Vector2> pathPoints = simulation.getPath(); // computed beforehand
-        if (pathPoints.isEmpty()) {
+    // MODIFIES: pathLayer
+    // EFFECTS: queues the segment from path point i - 1 to point i, or a dot at point i if it starts a run
+    //          of drawn points; does nothing if point i is not drawn
+    private void queuePathSegment(int i) {
+        if (!pathBuffer.isDrawn(i)) {
             return;
         }
+        Vector3 point = new Vector3(pathBuffer.getX(i), pathBuffer.getHeight(i), pathBuffer.getDepth(i));
+        Vector3 previous = point;
+        if (i > 0 && pathBuffer.isDrawn(i - 1)) {
+            previous = new Vector3(pathBuffer.getX(i - 1), pathBuffer.getHeight(i - 1), pathBuffer.getDepth(i - 1));
+        }
+        draw3DLine(pathLayer, previous, point, previous.getY(), point.getY(), COLOR_PATH);
+    }
 
-        Vector3 previous = null;
-        for (Vector2 point : pathPoints) {
-            Vector3 worldPoint = buildPathVertex(point, field);
-            if (worldPoint == null) {
-                previous = null;
+    // MODIFIES: buffers
+    // EFFECTS: draws a small three-armed cross at every marked critical point, colored by its type
+    private void drawCriticalPoints() {
+        List<CriticalPoint> points = criticalPoints;
+        ScalarField field = simState.getSimulation().getField();
+        if (points == null || field == null) {
+            return;
+        }
+        for (CriticalPoint point : points) {
+            Vector3 centre = buildPathVertex(point.getX(), point.getY(), point.getValue(), field);
+            if (centre == null) {
                 continue;
             }
+            int color = markerColor(point.getType());
+            float x = centre.getX();
+            float y = centre.getY();
+            float z = centre.getZ();
+            draw3DLine(new Vector3(x - MARKER_SIZE, y, z), new Vector3(x + MARKER_SIZE, y, z), y, y, color);
+            draw3DLine(new Vector3(x, y - MARKER_SIZE, z), new Vector3(x, y + MARKER_SIZE, z), y, y, color);
+            draw3DLine(new Vector3(x, y, z - MARKER_SIZE), new Vector3(x, y, z + MARKER_SIZE), y, y, color);
+        }
+    }
 
-            if (previous == null) {
-                draw3DLine(worldPoint, worldPoint, worldPoint.getY(), worldPoint.getY(), COLOR_PATH);
-            } else {
-                draw3DLine(previous, worldPoint, previous.getY(), worldPoint.getY(), COLOR_PATH);
-            }
-
-            previous = worldPoint;
+    private static int markerColor(CriticalPointType type) {
+        switch (type) {
+            case MINIMUM: return COLOR_MINIMUM;
+            case MAXIMUM: return COLOR_MAXIMUM;
+            case SADDLE: return COLOR_SADDLE;
+            default: return COLOR_DEGENERATE;
         }
     }
 
     // MODIFIES: apply vt to arg1 and arg2 into Vector3
     // EFFECTS: draw in 2D space after vt and rasterization
     private void draw3DLine(Vector3 worldA, Vector3 worldB, Float heightA, Float heightB, Integer overrideColor) {
+        draw3DLine(rasterizer, worldA, worldB, heightA, heightB, overrideColor);
+    }
+
+    // MODIFIES: target
+    // EFFECTS: as draw3DLine, but queues the line on the given rasterizer
+    private void draw3DLine(BandRasterizer target, Vector3 worldA, Vector3 worldB, Float heightA, Float heightB,
+                            Integer overrideColor) {
         Vector3 a = Transform.multiply(viewTransform, worldA);
         Vector3 b = Transform.multiply(viewTransform, worldB);
 
@@ -280,7 +535,18 @@ public class RenderEngine3D implements Tickable {
 
         Vector3 p0 = project(a);
         Vector3 p1 = project(b);
-        draw2DLine(p0, p1, heightA, heightB, overrideColor);
+        target.addLine(p0, p1, heightA, heightB, overrideColor);
+    }
+
+    // REQUIRES: view[from + 2] < CLIP_Z
+    // MODIFIES: out
+    // EFFECTS: stores the screen x, y and view depth of the view-space point at view[from .. from + 2] at
+    //          out[to .. to + 2]
+    private void project(float[] view, int from, float[] out, int to) {
+        float viewZ = view[from + 2];
+        out[to] = ((view[from] / viewZ + 1) * 0.5f) * bufferSize;
+        out[to + 1] = ((view[from + 1] / viewZ + 1) * 0.5f) * bufferSize;
+        out[to + 2] = viewZ;
     }
 
     // 
@@ -294,64 +560,7 @@ public class RenderEngine3D implements Tickable {
         return new Vector3(x, y, p.getZ());
     }
 
-    // REQUIRES: a, b already projected to screen space
-    // MODIFIES: colorBuffer, depthBuffer
-    // EFFECTS: rasterizes a straight line between a and b using a simple linear
-    // stepper; interpolates depth and optional height for coloring; writes pixels through drawPixel
-    private void draw2DLine(Vector3 a, Vector3 b, Float heightA, Float heightB, Integer overrideColor) {
-        // simple Bresenham-style stepper (not pixel-perfect, but fast and clean)
-        float dx = b.getX() - a.getX();
-        float dy = b.getY() - a.getY();
-        int steps = (int) Math.max(Math.abs(dx), Math.abs(dy));
-        if (steps < 1) {
-            steps = 1;
-        }
-
-        float sx = dx / steps;
-        float sy = dy / steps;
-
-        float x = a.getX();
-        float y = a.getY();
-        float z = a.getZ();
-        float dz = (b.getZ() - a.getZ()) / steps;
-
-        for (int i = 0; i <= steps; i++) {
-            float t = (float) i / (float) steps;
-            int color = (overrideColor != null)
-                    ? overrideColor
-                    : heightToColor(interpolateHeight(heightA, heightB, t));
-            drawPixel((int) x, (int) y, z, color);
-            x += sx;
-            y += sy;
-            z += dz;
-        }
-    }
-
-    // REQUIRES: 0 <= x,y < bufferSize
-    // MODIFIES: colorBuffer, depthBuffer
-    // EFFECTS: depth-tests the pixel at (x,y); if incoming z is closer, stores z and writes color into colorBuffer
-    private void drawPixel(int x, int y, float z, int color) {
-        if (x < 0 || x >= bufferSize || y < 0 || y >= bufferSize) {
-            return;
-        }
-
-        int idx = x + bufferSize * (bufferSize - 1 - y);
-        if (depthBuffer[idx] >= z) {
-            return;
-        }
-
-        depthBuffer[idx] = z;
-        colorBuffer[idx] = color;
-    }
-
-    private void clearBuffers() {
-        for (int i = 0; i < bufferSize * bufferSize; i++) {
-            colorBuffer[i] = COLOR_BG;
-            depthBuffer[i] = Float.NEGATIVE_INFINITY;
-        }
-    }
-
-    // MODIFIES: meshGrid, lastFieldUsed, cached domain values, height range
+    // MODIFIES: mesh, lastFieldUsed, cached domain values, height range
     // EFFECTS: checks if the ScalarField or its domain changed; if so regenerates the
     // mesh grid using SurfaceMeshGenerator and updates cached bounds; otherwise leaves the existing mesh untouched
     @SuppressWarnings("methodlength")
@@ -359,7 +568,7 @@ public class RenderEngine3D implements Tickable {
         ScalarField currentField = simState.getSimulation().getField();
         if (currentField == null) {
             if (lastFieldUsed != null) {
-                meshGrid = null;
+                mesh = null;
                 lastFieldUsed = null;
             }
             return;
@@ -372,19 +581,27 @@ public class RenderEngine3D implements Tickable {
                 || currentField.getZMin() != lastZMin
                 || currentField.getZMax() != lastZMax;
 
-        if (currentField == lastFieldUsed && !domainChanged) {
+        int resolution = filledSurface ? SURFACE_MESH_RESOLUTION : DEFAULT_MESH_RESOLUTION;
+        if (currentField == lastFieldUsed && !domainChanged && resolution == lastResolution) {
             return;
         }
+        if (currentField != lastFieldUsed || domainChanged) {
+            basinOverlay = null;   // it was computed for the previous field or domain
+            criticalPoints = null;
+        }
 
-        Vector3[][] generated = SurfaceMeshGenerator.generateGrid(
+        SurfaceMesh generated = SurfaceMeshGenerator.generateGrid(
                 currentField,
                 currentField.getXMin(),
                 currentField.getXMax(),
                 currentField.getYMin(),
                 currentField.getYMax(),
-                DEFAULT_MESH_RESOLUTION);
+                resolution);
 
-        meshGrid = generated;
+        mesh = generated;
+        vertexLight = filledSurface ? SurfaceMeshGenerator.computeLighting(currentField, generated,
+                currentField.getYMin(), currentField.getYMax()) : null;
+        lastResolution = resolution;
         lastFieldUsed = currentField;
         lastXMin = currentField.getXMin();
         lastXMax = currentField.getXMax();
@@ -407,11 +624,11 @@ public class RenderEngine3D implements Tickable {
     }
 
     // MODIFIES: minHeight, maxHeight
-    // EFFECTS: scans meshGrid for minimum and maximum Y values; normalizes invalid or
+    // EFFECTS: scans the mesh for minimum and maximum heights; normalizes invalid or
     // degenerate ranges; falls back to field Z-bounds when mesh is empty
     @SuppressWarnings("methodlength")
     private void computeHeightRangeFromGrid() {
-        if (meshGrid == null || meshGrid.length == 0 || meshGrid[0].length == 0) {
+        if (mesh == null) {
             minHeight = 0f;
             maxHeight = 1f;
             return;
@@ -420,18 +637,16 @@ public class RenderEngine3D implements Tickable {
         minHeight = Float.POSITIVE_INFINITY;
         maxHeight = Float.NEGATIVE_INFINITY;
 
-        for (Vector3[] column : meshGrid) {
-            for (Vector3 v : column) {
-                if (v == null) {
-                    continue;
-                }
-                float h = v.getY();
-                if (h < minHeight) {
-                    minHeight = h;
-                }
-                if (h > maxHeight) {
-                    maxHeight = h;
-                }
+        for (int vertex = 0; vertex < mesh.getVertexCount(); vertex++) {
+            if (!mesh.isValid(vertex)) {
+                continue;
+            }
+            float h = mesh.getHeight(vertex);
+            if (h < minHeight) {
+                minHeight = h;
+            }
+            if (h > maxHeight) {
+                maxHeight = h;
             }
         }
 
@@ -448,32 +663,6 @@ public class RenderEngine3D implements Tickable {
         }
     }
 
-    private float interpolateHeight(Float a, Float b, float t) {
-        if (a == null || b == null) {
-            return minHeight;
-        }
-        return a + (b - a) * t;
-    }
-
-    private int heightToColor(float height) {
-        float normalized = (height - minHeight) / (maxHeight - minHeight);
-        normalized = Math.max(0f, Math.min(1f, normalized));
-
-        int startR = 30;
-        int startG = 110;
-        int startB = 255;
-
-        int endR = 255;
-        int endG = 70;
-        int endB = 60;
-
-        int r = (int) (startR + (endR - startR) * normalized);
-        int g = (int) (startG + (endG - startG) * normalized);
-        int b = (int) (startB + (endB - startB) * normalized);
-
-        return 0xFF000000 | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | (b & 0xFF);
-    }
-
     // MODIFIES: referenceLines
     // EFFECTS: constructs the static world-space axis lines and grid lines used for
     // orientation reference in the 3D scene
@@ -0,0 +1,121 @@
+package ui.engine;
+
+import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A sampled surface packed into flat buffers. Vertex v = i * rows + j is the sample in column i and row j;
+ * its world x, height and depth sit at positions[3v .. 3v + 2], and it is valid iff the field was defined
+ * and within its Z range there. The index buffers list the wireframe edges between valid neighbours (as
+ * pairs, each vertex first with the neighbour to its right or above) and two triangles for every cell whose
+ * four corners are valid (as triples), so a frame never has to test for holes again.
+ */
+@ExcludeFromJacocoGeneratedReport
+public final class SurfaceMesh {
+    private final int columns;
+    private final int rows;
+    private final float[] positions;
+    private final BitSet valid;
+    private final int[] edges;
+    private final int[] triangles;
+
+    // REQUIRES: positions.length == 3 * columns * rows; columns, rows >= 1
+    // EFFECTS: creates a mesh owning positions and valid, and builds its index buffers
+    SurfaceMesh(int columns, int rows, float[] positions, BitSet valid) {
+        this.columns = columns;
+        this.rows = rows;
+        this.positions = positions;
+        this.valid = valid;
+        this.edges = buildEdges();
+        this.triangles = buildTriangles();
+    }
+
+    // EFFECTS: returns the pairs of valid vertices joined by a wireframe edge
+    private int[] buildEdges() {
+        int[] built = new int[4 * columns * rows];
+        int count = 0;
+        for (int v = valid.nextSetBit(0); v >= 0; v = valid.nextSetBit(v + 1)) {
+            if (v / rows < columns - 1 && valid.get(v + rows)) {
+                built[count++] = v;
+                built[count++] = v + rows;
+            }
+            if (v % rows < rows - 1 && valid.get(v + 1)) {
+                built[count++] = v;
+                built[count++] = v + 1;
+            }
+        }
+        return Arrays.copyOf(built, count);
+    }
+
+    // EFFECTS: returns two triangles for every cell whose four corners are valid
+    private int[] buildTriangles() {
+        int[] built = new int[6 * columns * rows];
+        int count = 0;
+        for (int i = 0; i < columns - 1; i++) {
+            for (int j = 0; j < rows - 1; j++) {
+                int corner = i * rows + j;
+                if (!valid.get(corner) || !valid.get(corner + 1) || !valid.get(corner + rows)
+                        || !valid.get(corner + rows + 1)) {
+                    continue;
+                }
+                built[count++] = corner;
+                built[count++] = corner + rows;
+                built[count++] = corner + rows + 1;
+                built[count++] = corner;
+                built[count++] = corner + rows + 1;
+                built[count++] = corner + 1;
+            }
+        }
+        return Arrays.copyOf(built, count);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getVertexCount() {
+        return columns * rows;
+    }
+
+    public boolean isValid(int vertex) {
+        return valid.get(vertex);
+    }
+
+    // EFFECTS: returns the number of valid vertices
+    public int getValidCount() {
+        return valid.cardinality();
+    }
+
+    public float getX(int vertex) {
+        return positions[vertex * 3];
+    }
+
+    public float getHeight(int vertex) {
+        return positions[vertex * 3 + 1];
+    }
+
+    public float getDepth(int vertex) {
+        return positions[vertex * 3 + 2];
+    }
+
+    // EFFECTS: returns the packed positions; callers must not modify them
+    float[] getPositions() {
+        return positions;
+    }
+
+    // EFFECTS: returns the edge index buffer, two vertex indices per edge; callers must not modify it
+    int[] getEdges() {
+        return edges;
+    }
+
+    // EFFECTS: returns the triangle index buffer, three vertex indices per triangle; callers must not modify it
+    int[] getTriangles() {
+        return triangles;
+    }
+}
@@ -1,45 +1,95 @@
 package ui.engine;
 
 import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
-import model.Vector3;
 import model.ScalarField;
 
+import java.util.BitSet;
+
 /**
  * Utility for sampling scalar fields into surface meshes for rendering.
  */
 @ExcludeFromJacocoGeneratedReport
 public class SurfaceMeshGenerator {
+    public static final float AMBIENT = 0.25f;       // brightness of a face turned edge-on to the light
+    private static final float LIGHT_X = 0.267f;     // unit direction towards the light: above, right, in front
+    private static final float LIGHT_Y = 0.891f;
+    private static final float LIGHT_Z = 0.367f;
 
-    // EFFECTS: samples the scalar field over the given domain and returns a grid of vertices
-    public static Vector3[][] generateGrid(
+    // EFFECTS: samples the scalar field over the given domain into a packed mesh of (resolution + 1)^2
+    //          vertices; samples where the field is undefined or outside its Z range are marked invalid
+    public static SurfaceMesh generateGrid(
             ScalarField field,
             float minX, float maxX,
             float minY, float maxY,
             int resolution
     ) {
-        Vector3[][] grid = new Vector3[resolution + 1][resolution + 1];
+        int samples = resolution + 1;
+        float[] heights = new float[samples * samples];
+        field.evaluateGrid(minX, maxX, minY, maxY, samples, samples, heights);
+        float[] positions = new float[samples * samples * 3];
+        BitSet valid = new BitSet(samples * samples);
 
         float dx = (maxX - minX) / resolution;
         float dy = (maxY - minY) / resolution;
+        float zMin = field.getZMin();
+        float zMax = field.getZMax();
 
-        for (int i = 0; i <= resolution; i++) {
-            for (int j = 0; j <= resolution; j++) {
-                float x = minX + i * dx;
-                float y = minY + j * dy;
+        for (int j = 0; j < samples; j++) {
+            float y = minY + j * dy;
+            float normalizedDepth = (y - minY) / (maxY - minY);
+            float depth = -5.0f - normalizedDepth * 25.0f;
 
-                float height = field.evaluate(x, y);
-                if (height < field.getZMin() || height > field.getZMax()) {
-                    grid[i][j] = null;
-                    continue;
+            for (int i = 0; i < samples; i++) {
+                float height = heights[j * samples + i];
+                int vertex = i * samples + j;
+                positions[vertex * 3] = minX + i * dx;
+                positions[vertex * 3 + 1] = height;
+                positions[vertex * 3 + 2] = depth;
+                if (height >= zMin && height <= zMax) { // also rejects NaN
+                    valid.set(vertex);
                 }
+            }
+        }
 
-                float normalizedDepth = (y - minY) / (maxY - minY);
-                float depth = -5.0f - normalizedDepth * 25.0f;
+        return new SurfaceMesh(samples, samples, positions, valid);
+    }
 
-                grid[i][j] = new Vector3(x, height, depth);
+    // REQUIRES: mesh was generated by generateGrid from field over [minX, maxX] x [minY, maxY]
+    // EFFECTS: returns, for every mesh vertex, the brightness in [AMBIENT, 1] of the surface there under a
+    //          fixed light. The normal comes from the field gradient, mapped into the mesh's world space,
+    //          where field y runs along the depth axis, and both faces are lit alike; vertices that are
+    //          invalid or have no defined gradient get full brightness
+    public static float[] computeLighting(ScalarField field, SurfaceMesh mesh, float minY, float maxY) {
+        int rows = mesh.getRows();
+        float depthPerY = -25.0f / (maxY - minY);
+        float[] light = new float[mesh.getVertexCount()];
+        float[] gradient = new float[2];
+        for (int vertex = 0; vertex < light.length; vertex++) {
+            light[vertex] = 1f;
+            if (!mesh.isValid(vertex)) {
+                continue;
             }
+            float y = minY + (maxY - minY) * (vertex % rows) / (rows - 1);
+            light[vertex] = brightness(field, mesh.getX(vertex), y, depthPerY, gradient);
         }
+        return light;
+    }
 
-        return grid;
+    // MODIFIES: gradient
+    // EFFECTS: returns the brightness of the surface at field point (x, y), or 1 if the gradient there cannot
+    //          be evaluated (e.g. its finite differences step outside where f is defined) or gives no normal
+    private static float brightness(ScalarField field, float x, float y, float depthPerY, float[] gradient) {
+        try {
+            field.gradientAt(x, y, gradient);
+        } catch (RuntimeException ex) {
+            return 1f;
+        }
+        // (1, fx, 0) x (0, fy, depthPerY): the cross product of the tangents along x and y
+        float normalX = gradient[0] * depthPerY;
+        float normalY = -depthPerY;
+        float normalZ = gradient[1];
+        float length = (float) Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+        float facing = Math.abs(normalX * LIGHT_X + normalY * LIGHT_Y + normalZ * LIGHT_Z) / length;
+        return Float.isNaN(facing) ? 1f : AMBIENT + (1f - AMBIENT) * facing;
     }
 }
@@ -3,6 +3,7 @@ package ui.panels;
 import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
 import ui.*;
 import model.*;
+import model.optimizer.GradientClipping;
 
 import java.awt.*;
 import javax.swing.*;
@@ -28,6 +29,7 @@ public class ScalarFieldEditorPanel extends JPanel implements ActionListener, Ch
     private JButton removeFieldButton;
 
     private JSlider learningRateSlider;
+    private JSlider clippingSlider;
     private JSlider xxMinSlider;
     private JSlider xxMaxSlider;
     private JSlider yyMinSlider;
@@ -39,7 +41,9 @@ public class ScalarFieldEditorPanel extends JPanel implements ActionListener, Ch
     private JLabel zzBoundsSummary;
 
     private boolean updatingDomainControls;
+    private boolean updatingClippingSlider;
     private ScalarField lastSelectedField;
+    private GradientClipping lastClipping;   // the simulation's clipping the slider last showed
 
     // REQUIRES: parent not null
     // MODIFIES: this
@@ -77,6 +81,12 @@ public class ScalarFieldEditorPanel extends JPanel implements ActionListener, Ch
         infoPanel.add(new JLabel("Learning Rate:"), SimulatorUtils.makeGbConstraints(0, 5, 1));
         infoPanel.add(learningRateSlider, SimulatorUtils.makeGbConstraints(1, 5, 2));
 
+        // Gradient clipping slider (max gradient norm, 0 = off)
+        clippingSlider = new JSlider(JSlider.HORIZONTAL, 0, 50, 0);
+        clippingSlider.addChangeListener(this);
+        infoPanel.add(new JLabel("Clip |∇f| (0 = off):"), SimulatorUtils.makeGbConstraints(0, 4, 1));
+        infoPanel.add(clippingSlider, SimulatorUtils.makeGbConstraints(1, 4, 2));
+
         // Domain sliders
         infoPanel.add(new JLabel("Domain Bounds"), SimulatorUtils.makeGbConstraints(0, 6, 3));
 
@@ -213,9 +223,9 @@ public class ScalarFieldEditorPanel extends JPanel implements ActionListener, Ch
         }
     }
 
-    // REQUIRES: e source is learning rate or domain sliders
-    // MODIFIES: SimulatorState learning rate or selected ScalarField domain
-    // EFFECTS: updates learning rate or domain bounds based on slider movement
+    // REQUIRES: e source is learning rate, clipping or domain sliders
+    // MODIFIES: SimulatorState learning rate, simulation clipping or selected ScalarField domain
+    // EFFECTS: updates learning rate, gradient clipping or domain bounds based on slider movement
     @Override
     public void stateChanged(ChangeEvent e) {
         if (e.getSource() == learningRateSlider) {
@@ -223,6 +233,10 @@ public class ScalarFieldEditorPanel extends JPanel implements ActionListener, Ch
             SimulatorState.getInstance().setLearningRate(lr);
             return;
         }
+        if (e.getSource() == clippingSlider) {
+            handleClippingSliderChanged();
+            return;
+        }
 
         Object src = e.getSource();
         if (src == xxMinSlider || src == xxMaxSlider || src == yyMinSlider || src == yyMaxSlider 
@@ -231,6 +245,36 @@ public class ScalarFieldEditorPanel extends JPanel implements ActionListener, Ch
         }
     }
 
+    // MODIFIES: SimulatorState simulation
+    // EFFECTS: once the slider is released, clips the gradient norm to its value (0 turns norm clipping off),
+    //          keeping the simulation's per-component limit
+    private void handleClippingSliderChanged() {
+        if (updatingClippingSlider || clippingSlider.getValueIsAdjusting()) {
+            return;
+        }
+        int maxNorm = clippingSlider.getValue();
+        SimulatorState.getInstance().lock();
+        Simulation sim = SimulatorState.getInstance().getSimulation();
+        GradientClipping clipping = new GradientClipping(maxNorm, sim.getGradientClipping().getMaxComponent());
+        lastClipping = clipping.isEnabled() ? clipping : GradientClipping.NONE;
+        sim.setGradientClipping(lastClipping);
+        SimulatorState.getInstance().unlock();
+    }
+
+    // MODIFIES: clippingSlider
+    // EFFECTS: moves the clipping slider to the simulation's norm limit whenever the simulation's clipping
+    //          was replaced elsewhere (e.g. by loading a saved simulation), without writing it back
+    private void syncClippingSlider(SimulatorState simState) {
+        GradientClipping clipping = simState.getSimulation().getGradientClipping();
+        if (clipping == lastClipping) {
+            return;
+        }
+        lastClipping = clipping;
+        updatingClippingSlider = true;
+        clippingSlider.setValue(Math.round(clipping.getMaxNorm()));
+        updatingClippingSlider = false;
+    }
+
     // REQUIRES: SimulatorState singleton initialized
     // MODIFIES: UI controls (enabled/disabled), domain slider positions
     // EFFECTS: syncs panel editability and slider values with current selection/state
@@ -241,6 +285,7 @@ public class ScalarFieldEditorPanel extends JPanel implements ActionListener, Ch
 
         handleShouldPanelsBeEditable(simState, selected);
         syncDomainControls(selected, simState);
+        syncClippingSlider(simState);
     }
 
     // REQUIRES: simState not null
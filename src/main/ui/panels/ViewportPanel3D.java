@@ -3,12 +3,36 @@ package ui.panels;
 import ca.ubc.cs.ExcludeFromJacocoGeneratedReport;
 import ui.*;
 import model.*;
+import model.analysis.BasinMap;
+import model.analysis.BasinMapper;
+import model.analysis.CriticalPoint;
+import model.analysis.CriticalPointFinder;
+import model.analysis.DescentBatch;
+import model.analysis.DescentResult;
+import model.analysis.HyperparameterSweep;
+import model.analysis.MultiStartDescent;
+import model.analysis.OptimizerComparison;
+import model.analysis.StartPoints;
+import model.analysis.SweepBatch;
+import model.analysis.SweepResult;
+import model.analysis.SweepSpace;
+import model.optimizer.OptimizerType;
+import model.optimizer.StepSizeMode;
 import ui.engine.CameraController;
 import ui.engine.RenderEngine3D;
 
 import java.awt.*;
 import javax.swing.*;
 import java.awt.event.*;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import persistence.BasinMapWriter;
+import persistence.SweepReportWriter;
 
 import model.ModelEventLogger;
 /**
@@ -21,18 +45,46 @@ public class ViewportPanel3D extends JPanel implements ActionListener, Tickable
     private static final float SPLIT_WEIGHT_BOTTOM = 1.0f;
     private static final int VIEWPORT_RESOLUTION = 350;
     private static final int PREVIEW_EPOCHS = 20;
+    private static final int MULTI_START_COUNT = 512;
+    private static final String MULTI_START_LABEL = "Multi Start";
+    private static final String BASIN_MAP_LABEL = "Basin Map";
+    private static final int BASIN_MAP_RESOLUTION = 256;
+    private static final float BASIN_TOLERANCE_FRACTION = 0.01f;   // of the wider domain side
+    private static final String SWEEP_LABEL = "Sweep";
+    private static final String CRITICAL_POINTS_LABEL = "Critical Points";
+    private static final int CRITICAL_POINT_SCAN = 64;              // scan vertices per axis
+    private static final int SWEEP_START_COUNT = 64;
+    private static final int SWEEP_RATE_COUNT = 5;                 // learning rates from a tenth to ten times
 
     private final JButton startButton;
     private final JButton stopButton;
     private final JButton resetButton; // crashes atm
     private final JButton randomPointButton;
+    private final JButton multiStartButton;
+    private final JButton compareButton;
+    private final JButton basinMapButton;
+    private final JButton exportBasinsButton;
+    private final JButton sweepButton;
+    private final JButton criticalPointsButton;
+    private final JComboBox<OptimizerType> optimizerBox;
+    private final JComboBox<StepSizeMode> stepSizeBox;
     private final JLabel timeElapsedLabel;
     private final JSlider timeScaleSlider;
+    private final JCheckBox unlimitedSpeedBox;
+    private final JCheckBox parallelRenderBox;
+    private final JCheckBox filledSurfaceBox;
 
     private final RenderEngine3D renderEngine;
     private final CameraController cameraController;
     private final ActualViewport viewport;
 
+    private DescentBatch multiStartBatch;   // null when no multi-start batch is running
+    private BasinMapper basinMapper;        // null when no basin map is being computed
+    private ForkJoinTask<BasinMap> basinTask;
+    private SweepBatch sweepBatch;          // null when no sweep is running
+    private ForkJoinTask<List<CriticalPoint>> criticalPointTask;   // null when no search is running
+    private SweepReportWriter sweepReport;
+
     // Holds the drawing surface which the engine paints into
     @ExcludeFromJacocoGeneratedReport
     private class ActualViewport extends JPanel {
@@ -62,6 +114,22 @@ public class ViewportPanel3D extends JPanel implements ActionListener, Tickable
         resetButton.addActionListener(this);
         randomPointButton = new JButton("Random Start");
         randomPointButton.addActionListener(this);
+        multiStartButton = new JButton(MULTI_START_LABEL);
+        multiStartButton.addActionListener(this);
+        compareButton = new JButton("Compare Optimizers");
+        compareButton.addActionListener(this);
+        basinMapButton = new JButton(BASIN_MAP_LABEL);
+        basinMapButton.addActionListener(this);
+        exportBasinsButton = new JButton("Export Basins");
+        exportBasinsButton.addActionListener(this);
+        sweepButton = new JButton(SWEEP_LABEL);
+        sweepButton.addActionListener(this);
+        criticalPointsButton = new JButton(CRITICAL_POINTS_LABEL);
+        criticalPointsButton.addActionListener(this);
+        optimizerBox = new JComboBox<>(OptimizerType.values());
+        optimizerBox.addActionListener(this);
+        stepSizeBox = new JComboBox<>(StepSizeMode.values());
+        stepSizeBox.addActionListener(this);
         timeElapsedLabel = new JLabel();
 
         viewport = new ActualViewport();
@@ -76,6 +144,9 @@ public class ViewportPanel3D extends JPanel implements ActionListener, Tickable
                 (int) SimulatorState.TIMESCALE_MIN,
                 (int) SimulatorState.TIMESCALE_MAX,
                 (int) SimulatorState.getInstance().getTimeScale());
+        unlimitedSpeedBox = new JCheckBox("Max Speed");
+        parallelRenderBox = new JCheckBox("Parallel Render", renderEngine.isParallelRendering());
+        filledSurfaceBox = new JCheckBox("Filled Surface", renderEngine.isFilledSurface());
 
         JSplitPane bottomSplitter = new JSplitPane(JSplitPane.VERTICAL_SPLIT, topSplitter, buildBottomControls());
         bottomSplitter.setResizeWeight(SPLIT_WEIGHT_BOTTOM);
@@ -111,6 +182,38 @@ public class ViewportPanel3D extends JPanel implements ActionListener, Tickable
             handleRandomStartPoint();
         }
 
+        if (e.getSource() == multiStartButton) {
+            toggleMultiStart();
+        }
+
+        if (e.getSource() == optimizerBox) {
+            handleOptimizerSelection();
+        }
+
+        if (e.getSource() == stepSizeBox) {
+            handleStepSizeSelection();
+        }
+
+        if (e.getSource() == compareButton) {
+            compareOptimizers();
+        }
+
+        if (e.getSource() == basinMapButton) {
+            toggleBasinMap();
+        }
+
+        if (e.getSource() == exportBasinsButton) {
+            exportBasinMap();
+        }
+
+        if (e.getSource() == sweepButton) {
+            toggleSweep();
+        }
+
+        if (e.getSource() == criticalPointsButton) {
+            toggleCriticalPoints();
+        }
+
         SimulatorState.getInstance().unlock();
     }
 
@@ -122,9 +225,19 @@ public class ViewportPanel3D extends JPanel implements ActionListener, Tickable
 
         SimulatorState sim = SimulatorState.getInstance();
         sim.setTimeScale(timeScaleSlider.getValue());
-
-        timeElapsedLabel.setText(String.format("Time Elapsed: %03.3fs", sim.getSimulation().getTimeElapsed()));
-
+        sim.setUnlimitedSpeed(unlimitedSpeedBox.isSelected());
+        timeScaleSlider.setEnabled(!unlimitedSpeedBox.isSelected());
+        renderEngine.setParallelRendering(parallelRenderBox.isSelected());
+        renderEngine.setFilledSurface(filledSurfaceBox.isSelected());
+
+        timeElapsedLabel.setText(String.format("Time Elapsed: %03.3fs (%.0f steps/s, %.2fs dropped, %.1f ms/frame)",
+                sim.getSimulation().getTimeElapsed(), sim.getWorker().getMeasuredStepsPerSecond(),
+                sim.getWorker().getTimestep().getDroppedSeconds(), renderEngine.getFrameMillis()));
+
+        pollMultiStart();
+        pollBasinMap();
+        pollSweep();
+        pollCriticalPoints();
         cameraController.tick();
         renderEngine.tick();
 
@@ -152,6 +265,19 @@ public class ViewportPanel3D extends JPanel implements ActionListener, Tickable
 
         startButton.setEnabled(hasObjects && !isRunning);
         stopButton.setEnabled(hasObjects && isRunning);
+        compareButton.setEnabled(hasObjects && !isRunning);
+        basinMapButton.setEnabled(sim.getField() != null && basinTask == null);
+        exportBasinsButton.setEnabled(renderEngine.getBasinOverlay() != null);
+        sweepButton.setEnabled(sim.getField() != null || sweepBatch != null);
+        criticalPointsButton.setEnabled(sim.getField() != null && criticalPointTask == null);
+
+        OptimizerType current = sim.getOptimizer().getType();
+        if (optimizerBox.getSelectedItem() != current) {
+            optimizerBox.setSelectedItem(current);  // follows loads and resets
+        }
+        if (stepSizeBox.getSelectedItem() != sim.getStepSizeMode()) {
+            stepSizeBox.setSelectedItem(sim.getStepSizeMode());
+        }
     }
 
     // MODIFIES: sim
@@ -183,6 +309,233 @@ public class ViewportPanel3D extends JPanel implements ActionListener, Tickable
         ModelEventLogger.logRandomStart(randomX, randomY);
     }
 
+    // MODIFIES: sim
+    // EFFECTS: switches the simulation to a fresh optimizer of the selected type, unless it already uses it
+    private void handleOptimizerSelection() {
+        Simulation sim = SimulatorState.getInstance().getSimulation();
+        OptimizerType selected = (OptimizerType) optimizerBox.getSelectedItem();
+        if (selected != null && selected != sim.getOptimizer().getType()) {
+            sim.setOptimizer(selected.create());
+        }
+    }
+
+    // MODIFIES: sim
+    // EFFECTS: switches the simulation to the selected step size mode, unless it already uses it
+    private void handleStepSizeSelection() {
+        Simulation sim = SimulatorState.getInstance().getSimulation();
+        StepSizeMode selected = (StepSizeMode) stepSizeBox.getSelectedItem();
+        if (selected != null && selected != sim.getStepSizeMode()) {
+            sim.setStepSizeMode(selected);
+        }
+    }
+
+    // EFFECTS: descends from the current point with every optimizer and logs how many iterations each took
+    private void compareOptimizers() {
+        Simulation sim = SimulatorState.getInstance().getSimulation();
+        Vector2 start = sim.getCurrentPoint();
+        if (sim.getField() == null || start == null) {
+            System.out.println("[DEBUG][ERROR] Cannot compare optimizers without a field and start point.");
+            return;
+        }
+        OptimizerComparison comparison = new OptimizerComparison(sim.getField(), sim.getLearningRate(),
+                sim.getStopThreshold(), sim.getMaxIterations(), sim.getStepSizeMode());
+        ModelEventLogger.logOptimizerComparison(comparison.run(start.getX(), start.getY()));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: cancels the running multi-start batch, or launches a new one from random starts over
+    //          the loaded field using the simulation's parameters; the batch runs off the UI thread
+    private void toggleMultiStart() {
+        if (multiStartBatch != null) {
+            multiStartBatch.cancel();
+            return;
+        }
+        Simulation sim = SimulatorState.getInstance().getSimulation();
+        ScalarField field = sim.getField();
+        if (field == null) {
+            System.out.println("[DEBUG][ERROR] Cannot run a multi-start batch without a scalar field.");
+            return;
+        }
+        MultiStartDescent engine = new MultiStartDescent(field, sim.getLearningRate(), sim.getStopThreshold(),
+                sim.getMaxIterations(), sim.getOptimizer(), sim.getStepSizeMode(), ForkJoinPool.commonPool());
+        multiStartBatch = engine.start(StartPoints.uniform(field, MULTI_START_COUNT, new Random()), null);
+    }
+
+    // MODIFIES: this, sim
+    // EFFECTS: shows the progress of a running multi-start batch; once it finishes, logs its outcome and
+    //          moves the simulation to the deepest minimum found
+    private void pollMultiStart() {
+        if (multiStartBatch == null) {
+            multiStartButton.setText(MULTI_START_LABEL);
+            return;
+        }
+        if (!multiStartBatch.isDone()) {
+            multiStartButton.setText(String.format("Cancel (%d/%d)",
+                    multiStartBatch.getCompletedCount(), multiStartBatch.getTotal()));
+            return;
+        }
+        List<DescentResult> results = multiStartBatch.getResults();
+        multiStartBatch = null;
+        ModelEventLogger.logMultiStart(results);
+
+        DescentResult best = MultiStartDescent.bestOf(results);
+        if (best != null) {
+            SimulatorState.getInstance().lock();
+            SimulatorState.getInstance().getSimulation().setInitialPoint(best.getFinalX(), best.getFinalY());
+            SimulatorState.getInstance().unlock();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: clears the basin overlay if one is shown, otherwise starts mapping the basins of the loaded
+    //          field with the simulation's parameters off the UI thread
+    private void toggleBasinMap() {
+        if (renderEngine.getBasinOverlay() != null) {
+            renderEngine.setBasinOverlay(null);
+            return;
+        }
+        Simulation sim = SimulatorState.getInstance().getSimulation();
+        ScalarField field = sim.getField();
+        if (field == null || basinTask != null) {
+            return;
+        }
+        float tolerance = BASIN_TOLERANCE_FRACTION
+                * Math.max(field.getXMax() - field.getXMin(), field.getYMax() - field.getYMin());
+        basinMapper = new BasinMapper(field, sim.getLearningRate(), sim.getStopThreshold(), sim.getMaxIterations(),
+                sim.getOptimizer(), sim.getStepSizeMode(), ForkJoinPool.commonPool());
+        basinTask = basinMapper.start(BASIN_MAP_RESOLUTION, BASIN_MAP_RESOLUTION, tolerance);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shows the progress of a basin map being computed; once it finishes, overlays and logs it
+    private void pollBasinMap() {
+        if (basinTask == null) {
+            basinMapButton.setText((renderEngine.getBasinOverlay() == null) ? BASIN_MAP_LABEL : "Clear Basins");
+            return;
+        }
+        if (!basinTask.isDone()) {
+            basinMapButton.setText(String.format("Mapping (%d%%)", 100 * basinMapper.getCompletedCells()
+                    / (BASIN_MAP_RESOLUTION * BASIN_MAP_RESOLUTION)));
+            return;
+        }
+        BasinMap map = basinTask.join();
+        basinTask = null;
+        basinMapper = null;
+        renderEngine.setBasinOverlay(map);
+        ModelEventLogger.logBasinMap(map);
+    }
+
+    // EFFECTS: writes the shown basin map as a PNG into the save directory
+    private void exportBasinMap() {
+        BasinMap map = renderEngine.getBasinOverlay();
+        if (map == null) {
+            return;
+        }
+        String title = "basins_" + new SimpleDateFormat("ddMMyy_HHmmss").format(new Date());
+        try {
+            ModelEventLogger.logBasinMapExported(BasinMapWriter.writePng(map, title).getPath());
+        } catch (IOException ex) {
+            System.out.println("[DEBUG][ERROR] Failed to export basin map: " + ex.getMessage());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: clears the critical point markers if they are shown, otherwise starts searching the loaded
+    //          field for its critical points off the UI thread, refining to the simulation's stop threshold
+    private void toggleCriticalPoints() {
+        if (renderEngine.getCriticalPoints() != null) {
+            renderEngine.setCriticalPoints(null);
+            return;
+        }
+        Simulation sim = SimulatorState.getInstance().getSimulation();
+        ScalarField field = sim.getField();
+        if (field == null || criticalPointTask != null) {
+            return;
+        }
+        float tolerance = BASIN_TOLERANCE_FRACTION
+                * Math.max(field.getXMax() - field.getXMin(), field.getYMax() - field.getYMin());
+        float threshold = Math.max(sim.getStopThreshold(), 1e-5f);   // a zero threshold is rarely reachable
+        criticalPointTask = new CriticalPointFinder(field, threshold)
+                .start(CRITICAL_POINT_SCAN, CRITICAL_POINT_SCAN, tolerance);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: once a critical point search finishes, marks and logs the points it found, or logs why it failed
+    private void pollCriticalPoints() {
+        if (criticalPointTask == null) {
+            criticalPointsButton.setText((renderEngine.getCriticalPoints() == null)
+                    ? CRITICAL_POINTS_LABEL : "Clear Points");
+            return;
+        }
+        if (!criticalPointTask.isDone()) {
+            criticalPointsButton.setText("Searching...");
+            return;
+        }
+        ForkJoinTask<List<CriticalPoint>> finished = criticalPointTask;
+        criticalPointTask = null;
+        if (finished.isCompletedAbnormally()) {
+            ModelEventLogger.logCriticalPointSearchFailed(String.valueOf(finished.getException()));
+            return;
+        }
+        List<CriticalPoint> points = finished.join();
+        renderEngine.setCriticalPoints(points);
+        ModelEventLogger.logCriticalPoints(points);
+    }
+
+    // MODIFIES: this, filesystem
+    // EFFECTS: cancels the running sweep, or sweeps every optimizer, learning rates around the simulation's
+    //          and its stop threshold and a tenth of it over random starts, streaming results to a CSV report
+    private void toggleSweep() {
+        if (sweepBatch != null) {
+            sweepBatch.cancel();
+            return;
+        }
+        Simulation sim = SimulatorState.getInstance().getSimulation();
+        ScalarField field = sim.getField();
+        if (field == null) {
+            return;
+        }
+        float rate = sim.getLearningRate();
+        float threshold = sim.getStopThreshold();
+        SweepSpace space = new SweepSpace(OptimizerType.values(),
+                SweepSpace.logarithmic(rate * 0.1f, rate * 10f, SWEEP_RATE_COUNT),
+                new float[] {threshold, threshold * 0.1f}, new int[] {sim.getMaxIterations()});
+        try {
+            sweepReport = new SweepReportWriter("sweep_" + new SimpleDateFormat("ddMMyy_HHmmss").format(new Date()));
+        } catch (IOException ex) {
+            System.out.println("[DEBUG][ERROR] Failed to create sweep report: " + ex.getMessage());
+            return;
+        }
+        HyperparameterSweep sweep = new HyperparameterSweep(field, sim.getStepSizeMode(), ForkJoinPool.commonPool());
+        sweepBatch = sweep.start(space, StartPoints.uniform(field, SWEEP_START_COUNT, new Random()), sweepReport);
+    }
+
+    // MODIFIES: this, filesystem
+    // EFFECTS: shows the progress of a running sweep; once it finishes or is cancelled, closes its report,
+    //          writes the ranked table next to it and logs the best configuration
+    private void pollSweep() {
+        if (sweepBatch == null) {
+            sweepButton.setText(SWEEP_LABEL);
+            return;
+        }
+        if (!sweepBatch.isDone()) {
+            sweepButton.setText(String.format("Cancel Sweep (%d/%d)",
+                    sweepBatch.getCompletedCount(), sweepBatch.getTotal()));
+            return;
+        }
+        List<SweepResult> ranked = sweepBatch.getRankedResults();
+        int total = sweepBatch.getTotal();
+        sweepBatch = null;
+        sweepReport.close();
+        String title = sweepReport.getFile().getName().replace(SweepReportWriter.FILE_SUFFIX, "_ranked");
+        sweepReport = null;
+        try {
+            ModelEventLogger.logSweep(ranked, total, SweepReportWriter.writeTable(ranked, title).getPath());
+        } catch (IOException ex) {
+            System.out.println("[DEBUG][ERROR] Failed to write ranked sweep report: " + ex.getMessage());
+        }
+    }
+
     // MODIFIES: sim state
     // EFFECTS: resets simulation while preserving selected field
     private void performReset() {
@@ -198,10 +551,15 @@ public class ViewportPanel3D extends JPanel implements ActionListener, Tickable
         }
 
         Simulation fresh = new Simulation();
+        fresh.setOptimizer(sim.getOptimizer().freshCopy());
+        fresh.setStepSizeMode(sim.getStepSizeMode());
+        fresh.setGradientClipping(sim.getGradientClipping());
+        fresh.setDivergenceDetector(sim.getDivergenceDetector().freshCopy());
         fresh.setField(selected);
         fresh.setInitialPoint(0f, 0f);
 
         SimulatorUtils.transferSimData(fresh, sim);
+        state.getWorker().requestReset();
         ModelEventLogger.logSimulationReset();
     }
 
@@ -213,6 +571,12 @@ public class ViewportPanel3D extends JPanel implements ActionListener, Tickable
         topSimControlPanel.add(stopButton);
         topSimControlPanel.add(resetButton);
         topSimControlPanel.add(randomPointButton);
+        topSimControlPanel.add(multiStartButton);
+        topSimControlPanel.add(compareButton);
+        topSimControlPanel.add(basinMapButton);
+        topSimControlPanel.add(exportBasinsButton);
+        topSimControlPanel.add(sweepButton);
+        topSimControlPanel.add(criticalPointsButton);
         topSimControlPanel.add(timeElapsedLabel);
         return topSimControlPanel;
     }
@@ -227,7 +591,15 @@ public class ViewportPanel3D extends JPanel implements ActionListener, Tickable
         timeScaleSlider.setMajorTickSpacing(4);
         timeScaleSlider.setPaintTicks(true);
         timeScaleSlider.setPaintLabels(true);
+        timeScaleSlider.setToolTipText("Steps per second, in multiples of " + SimulationWorker.BASE_STEPS_PER_SECOND);
         bottomSimControlPanel.add(timeScaleSlider);
+        bottomSimControlPanel.add(unlimitedSpeedBox);
+        bottomSimControlPanel.add(parallelRenderBox);
+        bottomSimControlPanel.add(filledSurfaceBox);
+        bottomSimControlPanel.add(new JLabel("Optimizer:"));
+        bottomSimControlPanel.add(optimizerBox);
+        bottomSimControlPanel.add(new JLabel("Step Size:"));
+        bottomSimControlPanel.add(stepSizeBox);
         return bottomSimControlPanel;
     }
 }
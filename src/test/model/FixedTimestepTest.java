@@ -0,0 +1,52 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+import org.junit.jupiter.api.Test;
+
+public class FixedTimestepTest {
+    private static final float STEP = 0.25f;
+
+    @Test
+    void paysOutWholeStepsAndCarriesTheRemainder() {
+        FixedTimestep timestep = new FixedTimestep(STEP, 100);
+        assertEquals(0, timestep.poll(0.1f, 1f));
+        assertEquals(0.4f, timestep.getBankedFraction(), 1e-6f);
+        assertEquals(1, timestep.poll(0.2f, 1f));          // 0.3 banked: one step, 0.05 left over
+        assertEquals(0.2f, timestep.getBankedFraction(), 1e-5f);
+        assertEquals(1, timestep.getSteps());
+    }
+
+    @Test
+    void timescaleMultipliesTheStepsTaken() {
+        FixedTimestep timestep = new FixedTimestep(STEP, 100);
+        assertEquals(2, timestep.poll(0.5f, 1f));
+        assertEquals(40, timestep.poll(0.5f, 20f));
+        assertEquals(0.0, timestep.getDroppedSeconds());
+    }
+
+    @Test
+    void dropsTimeBeyondTheBudget() {
+        FixedTimestep timestep = new FixedTimestep(STEP, 4);
+        assertEquals(4, timestep.poll(2.6f, 1f));           // 10 steps due, 6 dropped, 0.1 s carried
+        assertEquals(1.5, timestep.getDroppedSeconds(), 1e-6);
+        assertEquals(1, timestep.getDroppedPolls());
+        assertEquals(0.4f, timestep.getBankedFraction(), 1e-5f);
+        assertEquals(1, timestep.poll(0.2f, 1f));           // no debt is carried into the next poll
+
+        timestep.clearBank();
+        assertEquals(0f, timestep.getBankedFraction());
+        assertEquals(1, timestep.getDroppedPolls());
+        timestep.reset();
+        assertEquals(0.0, timestep.getDroppedSeconds());
+        assertEquals(0, timestep.getSteps());
+    }
+
+    @Test
+    void rejectsInvalidSteps() {
+        assertThrows(ArgumentOutOfBoundsException.class, () -> new FixedTimestep(0f, 1));
+        assertThrows(ArgumentOutOfBoundsException.class, () -> new FixedTimestep(STEP, 0));
+    }
+}
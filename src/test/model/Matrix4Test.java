@@ -0,0 +1,154 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class Matrix4Test {
+    private static final float DELTA = 1e-5f;
+
+    // EFFECTS: returns a matrix with a non-trivial bottom row
+    private static Matrix4 projective() {
+        Matrix4 m = new Matrix4();
+        int value = 1;
+        for (int r = 0; r < 4; r++) {
+            for (int c = 0; c < 4; c++) {
+                m.set(r, c, value++);
+            }
+        }
+        return m;
+    }
+
+    // EFFECTS: returns left * right by the textbook triple loop
+    private static Matrix4 reference(Matrix4 left, Matrix4 right) {
+        Matrix4 out = new Matrix4();
+        for (int r = 0; r < 4; r++) {
+            for (int c = 0; c < 4; c++) {
+                float sum = 0f;
+                for (int k = 0; k < 4; k++) {
+                    sum += left.get(r, k) * right.get(k, c);
+                }
+                out.set(r, c, sum);
+            }
+        }
+        return out;
+    }
+
+    private static void assertMatrixEquals(Matrix4 expected, Matrix4 actual) {
+        for (int r = 0; r < 4; r++) {
+            for (int c = 0; c < 4; c++) {
+                assertEquals(expected.get(r, c), actual.get(r, c), DELTA, "entry " + r + "," + c);
+            }
+        }
+    }
+
+    @Test
+    void startsAsAffineIdentity() {
+        Matrix4 m = new Matrix4();
+        for (int r = 0; r < 4; r++) {
+            for (int c = 0; c < 4; c++) {
+                assertEquals(r == c ? 1f : 0f, m.get(r, c));
+            }
+        }
+        assertTrue(m.isAffine());
+        assertFalse(projective().isAffine());
+    }
+
+    @Test
+    void rotationsMatchTransformFactories() {
+        Matrix4 m = new Matrix4();
+        m.setRotationX(30f);
+        assertMatrixEquals(Transform.rotationX(30f).getMatrix(), m);
+        m.setRotationY(-40f);
+        assertEquals(-Transform.rotationY(40f).getComponents()[0][2], m.get(0, 2), DELTA);
+        m.setRotationZ(90f);
+        assertMatrixEquals(Transform.rotationZ(90f).getMatrix(), m);
+    }
+
+    @Test
+    void mulIntoMatchesReferenceOnBothPaths() {
+        Matrix4 rotation = new Matrix4();
+        rotation.setRotationY(25f);
+        Matrix4 translation = new Matrix4();
+        translation.setTranslation(1f, -2f, 3f);
+        Matrix4 product = new Matrix4();
+        Matrix4.mulInto(translation, rotation, product);
+        assertMatrixEquals(reference(translation, rotation), product);
+
+        Matrix4.mulInto(projective(), rotation, product);
+        assertMatrixEquals(reference(projective(), rotation), product);
+        Matrix4.mulInto(rotation, projective(), product);
+        assertMatrixEquals(reference(rotation, projective()), product);
+    }
+
+    @Test
+    void mulIntoAllowsOutputToAliasEitherOperand() {
+        Matrix4 scale = new Matrix4();
+        scale.setScale(2f, 3f, 4f);
+        Matrix4 left = projective();
+        Matrix4 expected = reference(left, scale);
+        Matrix4.mulInto(left, scale, left);
+        assertMatrixEquals(expected, left);
+
+        Matrix4 right = projective();
+        expected = reference(scale, right);
+        Matrix4.mulInto(scale, right, right);
+        assertMatrixEquals(expected, right);
+
+        Matrix4 translation = new Matrix4();
+        translation.setTranslation(1f, 1f, 1f);
+        expected = reference(translation, translation);
+        Matrix4.mulInto(translation, translation, translation);
+        assertMatrixEquals(expected, translation);
+    }
+
+    @Test
+    void transformPointsAppliesAffineMatricesInPlace() {
+        Matrix4 m = new Matrix4();
+        m.setRotationZ(90f);
+        Matrix4 translation = new Matrix4();
+        translation.setTranslation(10f, 0f, 0f);
+        Matrix4.mulInto(translation, m, m);
+        float[] points = {1f, 0f, 0f, 0f, 2f, 5f};
+        m.transformPoints(points, points, 2);
+        // the rotation factories turn z clockwise, like Transform's
+        assertArrayEquals(new float[] {10f, -1f, 0f, 12f, 0f, 5f}, points, DELTA);
+    }
+
+    @Test
+    void transformPointsDividesByWForProjectiveMatrices() {
+        Matrix4 m = new Matrix4();
+        m.set(3, 2, 1f);
+        m.set(3, 3, 0f);
+        float[] out = new float[3];
+        m.transformPoints(new float[] {2f, 4f, 2f}, out, 1);
+        assertArrayEquals(new float[] {1f, 2f, 1f}, out, DELTA);
+    }
+
+    @Test
+    void transformPointsLeavesPointsBeyondCountAlone() {
+        Matrix4 m = new Matrix4();
+        m.setScale(2f, 2f, 2f);
+        float[] out = {-1f, -1f, -1f, -1f, -1f, -1f};
+        m.transformPoints(new float[] {1f, 1f, 1f, 1f, 1f, 1f}, out, 1);
+        assertArrayEquals(new float[] {2f, 2f, 2f, -1f, -1f, -1f}, out);
+    }
+
+    @Test
+    void copiesAreIndependentAndEqual() {
+        Matrix4 original = projective();
+        Matrix4 copy = new Matrix4(original);
+        assertEquals(original, copy);
+        assertEquals(original.hashCode(), copy.hashCode());
+        copy.set(0, 0, 42f);
+        assertNotEquals(original, copy);
+        copy.set(original);
+        assertEquals(original, copy);
+        assertEquals(copy, copy);
+        assertNotEquals(copy, "matrix");
+    }
+}
@@ -1,19 +1,23 @@
 package model;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.function.BiFunction;
 
 import model.exceptions.ArgumentOutOfBoundsException;
+import model.exceptions.InvalidFunctionException;
+import model.expression.CompiledExpression;
 import org.junit.jupiter.api.Test;
 
 public class ScalarFieldTest {
 
     @Test
     void evaluateAndGradientWithinDomain() {
-        BiFunction<Float, Float, Float> fn = (x, y) -> x * x + y * y;
+        ScalarFunction fn = (x, y) -> x * x + y * y;
         ScalarField field = new ScalarField("quad", fn);
         assertEquals(5f, field.evaluate(1f, 2f));
         Vector2 grad = field.gradientAt(1f, 2f);
@@ -21,9 +25,131 @@ public class ScalarFieldTest {
         assertTrue(Math.abs(grad.getY() - 4f) < 0.02f);
     }
 
+    @Test
+    void writesGradientIntoCallerBuffer() {
+        ScalarField field = new ScalarField("quad", (x, y) -> x * x + y * y);
+        float[] out = new float[2];
+        field.gradientAt(-1f, 3f, out);
+        assertTrue(Math.abs(out[0] + 2f) < 0.02f);
+        assertTrue(Math.abs(out[1] - 6f) < 0.02f);
+    }
+
+    @Test
+    void expressionFieldsUseExactGradients() {
+        ScalarField field = new ScalarField(CompiledExpression.compile("x^3 + x*y"));
+        assertTrue(field.hasAnalyticGradient());
+        float[] out = new float[2];
+        field.gradientAt(2f, 5f, out);
+        assertEquals(17f, out[0]);
+        assertEquals(2f, out[1]);
+    }
+
+    @Test
+    void stepFunctionsFallBackToFiniteDifferences() {
+        ScalarField field = new ScalarField(CompiledExpression.compile("floor(x) + 2*y"));
+        assertFalse(field.hasAnalyticGradient());
+        float[] out = new float[2];
+        field.gradientAt(0.5f, 1f, out);
+        assertEquals(0f, out[0]);
+        assertTrue(Math.abs(out[1] - 2f) < 0.02f);
+    }
+
+    @Test
+    void expressionFieldsUseExactHessians() {
+        ScalarField field = new ScalarField(CompiledExpression.compile("x^2*y + 3*y^2"));
+        assertTrue(field.hasAnalyticHessian());
+        float[] out = new float[3];
+        assertEquals(3, field.hessianAt(1f, 2f, out));
+        assertArrayEquals(new float[] {4f, 2f, 6f}, out);
+    }
+
+    @Test
+    void hessianStencilReusesTheCentreSample() {
+        int[] calls = new int[1];
+        ScalarField field = new ScalarField("cubic", (x, y) -> {
+            calls[0]++;
+            return x * x * y + 3f * y * y;
+        });
+        assertFalse(field.hasAnalyticHessian());
+        float[] out = new float[3];
+        assertEquals(8, field.hessianAt(1f, 2f, field.evaluate(1f, 2f), out));
+        assertEquals(9, calls[0]);
+        assertArrayEquals(new float[] {4f, 2f, 6f}, out, 0.05f);
+        assertEquals(9, field.hessianAt(1f, 2f, out));
+    }
+
+    @Test
+    void hessianAtDomainEdgeStaysInsideDomain() {
+        ScalarField field = new ScalarField("quad", (x, y) -> {
+            if (x > 10f || y < -10f) {
+                throw new IllegalStateException("sampled outside the domain");
+            }
+            return x * x + x * y;
+        });
+        float[] out = new float[3];
+        assertEquals(9, field.hessianAt(10f, -10f, 100f, out));
+        assertArrayEquals(new float[] {2f, 1f, 0f}, out, 0.05f);
+    }
+
+    @Test
+    void gradientAtDomainEdgeStaysInsideDomain() {
+        ScalarField field = new ScalarField("quad", (x, y) -> x * x + y * y);
+        float[] out = new float[2];
+        field.gradientAt(10f, -10f, out);
+        assertTrue(Math.abs(out[0] - 20f) < 0.05f);
+        assertTrue(Math.abs(out[1] + 20f) < 0.05f);
+        assertThrows(ArgumentOutOfBoundsException.class, () -> field.gradientAt(10.5f, 0f, out));
+    }
+
+    @Test
+    void valueAndGradientWorksForArbitraryFunctions() {
+        ScalarField field = new ScalarField("quad", (x, y) -> x * x + y * y);
+        float[] out = new float[3];
+        field.valueAndGradient(1f, -2f, out);
+        assertEquals(5f, out[0]);
+        assertTrue(Math.abs(out[1] - 2f) < 0.02f);
+        assertTrue(Math.abs(out[2] + 4f) < 0.02f);
+        assertThrows(ArgumentOutOfBoundsException.class, () -> field.valueAndGradient(0f, 11f, out));
+    }
+
+    @Test
+    void evaluatesGridInRowMajorOrder() {
+        ScalarField field = new ScalarField(CompiledExpression.compile("x + 10*y"));
+        float[] out = new float[3 * 2];
+        field.evaluateGrid(-1f, 1f, 0f, 2f, 3, 2, out);
+        assertArrayEquals(new float[] {-1f, 0f, 1f, 19f, 20f, 21f}, out);
+        assertThrows(ArgumentOutOfBoundsException.class, () -> field.evaluateGrid(-1f, 11f, 0f, 2f, 3, 2, out));
+        assertThrows(ArgumentOutOfBoundsException.class, () -> field.evaluateGrid(-1f, 1f, 0f, 2f, 4, 2, out));
+    }
+
+    @Test
+    void batchEvaluationReportsUndefinedPointsWithoutThrowing() {
+        ScalarField field = new ScalarField(CompiledExpression.compile("1 / x + y"));
+        float[] out = new float[3];
+        field.evaluateBatch(new float[] {1f, 0f, 2f}, new float[] {1f, 1f, 1f}, out);
+        assertEquals(2f, out[0]);
+        assertTrue(Float.isInfinite(out[1]));
+        assertEquals(1.5f, out[2]);
+        assertThrows(ArgumentOutOfBoundsException.class,
+                () -> field.evaluateBatch(new float[] {1f, 20f}, new float[] {1f, 1f}, out));
+        assertThrows(ArgumentOutOfBoundsException.class,
+                () -> field.evaluateBatch(new float[] {1f, 2f}, new float[] {-20f, 1f}, out));
+        assertThrows(ArgumentOutOfBoundsException.class,
+                () -> field.evaluateBatch(new float[] {1f, Float.NaN}, new float[] {1f, 1f}, out));
+        field.evaluateBatch(new float[0], new float[0], out);
+    }
+
+    @Test
+    void adaptsBoxedFunctions() {
+        BiFunction<Float, Float, Float> boxed = (x, y) -> (x > 0) ? x * y : null;
+        ScalarField field = new ScalarField("boxed", ScalarFunction.boxed(boxed));
+        assertEquals(6f, field.evaluate(2f, 3f));
+        assertThrows(InvalidFunctionException.class, () -> field.evaluate(-1f, 3f));
+    }
+
     @Test
     void rejectsInvalidDomainOrdering() {
-        BiFunction<Float, Float, Float> fn = (x, y) -> x + y;
+        ScalarFunction fn = (x, y) -> x + y;
         ScalarField field = new ScalarField("linear", fn);
         assertThrows(ArgumentOutOfBoundsException.class, () -> field.setDomain(1f, 0f, -1f, 1f, -1f, 1f));
     }
@@ -7,18 +7,43 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.BiFunction;
 
+import model.analysis.DescentStatus;
 import model.exceptions.ArgumentOutOfBoundsException;
+import model.expression.CompiledExpression;
+import model.optimizer.OptimizerType;
+import model.optimizer.StepSizeMode;
 import org.junit.jupiter.api.Test;
 
 public class SimulationTest {
 
     private ScalarField makeField() {
-        BiFunction<Float, Float, Float> fn = (x, y) -> x + y;
+        ScalarFunction fn = (x, y) -> x + y;
         return new ScalarField("linear", fn);
     }
 
+    @Test
+    void repeatedStepsSampleEachPointOnce() {
+        int[] evaluations = new int[1];
+        Simulation sim = new Simulation();
+        sim.setField(new ScalarField("bowl", (x, y) -> {
+            evaluations[0]++;
+            return x * x + y * y;
+        }));
+        sim.setInitialPoint(2f, 1f);
+        sim.step(0.1f);
+        int perSample = evaluations[0] / 2;
+        for (int i = 0; i < 5; i++) {
+            sim.step(0.1f);
+        }
+        assertEquals(7 * perSample, evaluations[0]);
+        assertEquals(7, sim.getPath().size());
+
+        sim.setLearningRate(0.02f);
+        sim.step(0.1f);
+        assertEquals(9 * perSample, evaluations[0]);
+    }
+
     @Test
     void performsSingleStepAndTracksTime() {
         Simulation sim = new Simulation();
@@ -44,6 +69,153 @@ public class SimulationTest {
         assertEquals(4, sim.getPath().size());
     }
 
+    @Test
+    void reportsValueAtLastSampledPoint() {
+        Simulation sim = new Simulation();
+        sim.setField(makeField());
+        assertTrue(Float.isNaN(sim.getCurrentValue()));
+        sim.setInitialPoint(1f, 2f);
+        sim.step(0.1f);
+        assertEquals(2.98f, sim.getCurrentValue(), 1e-5f);  // the step samples the point it lands on
+    }
+
+    @Test
+    void trajectoryCachesSampledHeights() {
+        Simulation sim = new Simulation();
+        sim.setField(makeField());
+        sim.setInitialPoint(1f, 2f);
+        sim.runEpochs(2);
+
+        TrajectoryView trajectory = sim.getTrajectory();
+        assertEquals(3, trajectory.size());
+        assertEquals(3f, trajectory.getZ(0));
+        assertEquals(trajectory.getX(1) + trajectory.getY(1), trajectory.getZ(1), 1e-6f);
+        assertEquals(trajectory.getX(2) + trajectory.getY(2), trajectory.getZ(2), 1e-6f);
+        assertEquals(trajectory.getZ(2), sim.getCurrentValue());
+
+        Simulation copy = new Simulation();
+        copy.setField(makeField());
+        copy.overwriteTrajectory(trajectory);
+        assertEquals(new Vector2(trajectory.getX(2), trajectory.getY(2)), copy.getCurrentPoint());
+    }
+
+    @Test
+    void stepsAndBatchesShareTheOptimizerState() {
+        Simulation stepped = new Simulation();
+        Simulation batched = new Simulation();
+        for (Simulation sim : Arrays.asList(stepped, batched)) {
+            sim.setField(new ScalarField("bowl", (x, y) -> x * x + 4 * y * y));
+            sim.setOptimizer(OptimizerType.MOMENTUM.create());
+            sim.setInitialPoint(2f, 1f);
+        }
+        for (int i = 0; i < 6; i++) {
+            stepped.step(0.1f);
+        }
+        batched.runEpochs(3);
+        batched.runEpochs(3);
+        assertEquals(stepped.getCurrentPoint(), batched.getCurrentPoint());
+
+        batched.setInitialPoint(2f, 1f);
+        assertEquals(0f, batched.getOptimizer().getState()[0]);
+    }
+
+    @Test
+    void tracksLineSearchEvaluationsPerRun() {
+        Simulation sim = new Simulation();
+        sim.setField(new ScalarField("bowl", (x, y) -> x * x + y * y));
+        sim.setLearningRate(2f);
+        sim.setStopThreshold(0.01f);
+        sim.setStepSizeMode(StepSizeMode.BACKTRACKING);
+        sim.setInitialPoint(3f, -2f);
+        sim.runUntilConverged(0.1f);
+
+        assertEquals(0f, sim.getCurrentPoint().getX(), 0.01f);
+        assertTrue(sim.getLineSearchEvaluations() > 0);
+        sim.setInitialPoint(1f, 1f);
+        assertEquals(0, sim.getLineSearchEvaluations());
+        assertEquals(StepSizeMode.BACKTRACKING, sim.getStepSizeMode());
+    }
+
+    @Test
+    void tracksHessianEvaluationsPerRun() {
+        Simulation sim = new Simulation();
+        sim.setField(new ScalarField(CompiledExpression.compile("x^2 + 4*y^2 + x*y")));
+        sim.setStopThreshold(0.001f);
+        sim.setOptimizer(OptimizerType.NEWTON.create());
+        sim.setInitialPoint(3f, -2f);
+        sim.runUntilConverged(0.1f);
+
+        assertEquals(0f, sim.getCurrentPoint().getX(), 0.001f);
+        assertTrue(sim.getHessianEvaluations() > 0);
+        assertTrue(sim.getHessianEvaluations() <= 3 * 10);
+        sim.setInitialPoint(1f, 1f);
+        assertEquals(0, sim.getHessianEvaluations());
+    }
+
+    @Test
+    void countsHessianEvaluationsOnceHoweverTheRunIsChunked() {
+        long[] totals = new long[2];
+        for (int run = 0; run < 2; run++) {
+            Simulation sim = new Simulation();
+            sim.setField(new ScalarField(CompiledExpression.compile("x^4 + y^4 + x^2 + y^2")));
+            sim.setStopThreshold(1e-6f);
+            sim.setOptimizer(OptimizerType.NEWTON.create());
+            sim.setInitialPoint(3f, -2f);
+            if (run == 0) {
+                for (int i = 0; i < 4; i++) {
+                    sim.step(0.1f);
+                }
+            } else {
+                sim.advance(4, 0.1f);
+            }
+            totals[run] = sim.getHessianEvaluations();
+        }
+        assertTrue(totals[0] > 0);
+        assertEquals(totals[1], totals[0]);
+    }
+
+    @Test
+    void advanceStepsInBatchesWithoutLoggingEachStep() {
+        Simulation sim = new Simulation();
+        sim.setField(new ScalarField("bowl", (x, y) -> x * x + y * y));
+        sim.setLearningRate(0.1f);
+        sim.setStopThreshold(0.001f);
+        sim.setInitialPoint(3f, -2f);
+
+        int eventsBefore = countEvents();
+        assertEquals(DescentStatus.MAX_ITERATIONS, sim.advance(5, 0.5f));
+        assertEquals(5, sim.getStepCount());
+        assertEquals(2.5f, sim.getTimeElapsed(), 1e-6f);
+        assertEquals(eventsBefore, countEvents());
+
+        assertEquals(DescentStatus.CONVERGED, sim.advance(10000, 0.5f));
+        assertEquals(sim.getStepCount() + 1, sim.getPath().size());
+        assertEquals(eventsBefore + 1, countEvents());   // only the convergence
+        sim.setInitialPoint(1f, 1f);
+        assertEquals(0, sim.getStepCount());
+    }
+
+    private static int countEvents() {
+        int count = 0;
+        for (Event ignored : EventLog.getInstance()) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    void stepReportsEscapesInsteadOfThrowing() {
+        Simulation sim = new Simulation();
+        sim.setField(new ScalarField("slope", (x, y) -> -100 * x));
+        sim.setLearningRate(0.06f);     // 6 units per step; the domain ends at x = 10
+        sim.setInitialPoint(0f, 0f);
+
+        assertEquals(DescentStatus.MAX_ITERATIONS, sim.step(0.1f));
+        assertEquals(DescentStatus.OUT_OF_DOMAIN, sim.step(0.1f));
+        assertEquals(DescentStatus.OUT_OF_DOMAIN, sim.step(0.1f));
+        assertEquals(0.2f, sim.getTimeElapsed(), 1e-6f);
+    }
+
     @Test
     void overwritesPathAndTracksHead() {
         Simulation sim = new Simulation();
@@ -0,0 +1,97 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+import org.junit.jupiter.api.Test;
+
+public class TrajectoryTest {
+
+    @Test
+    void growsPastInitialCapacity() {
+        Trajectory trajectory = new Trajectory();
+        for (int i = 0; i < 1000; i++) {
+            trajectory.add(i, -i);
+        }
+        assertEquals(1000, trajectory.size());
+        assertEquals(999f, trajectory.getX(999));
+        assertEquals(-999f, trajectory.getY(999));
+        assertTrue(Float.isNaN(trajectory.getZ(999)));
+    }
+
+    @Test
+    void visitsRangesInOrder() {
+        Trajectory trajectory = new Trajectory();
+        for (int i = 0; i < 10; i++) {
+            trajectory.add(i, 2 * i, 3 * i);
+        }
+        float[] sum = new float[1];
+        trajectory.forEach(2, 5, (index, x, y, z) -> {
+            assertEquals(2 * x, y);
+            assertEquals(3 * x, z);
+            assertEquals(index, (int) x);
+            sum[0] += x;
+        });
+        assertEquals(2f + 3f + 4f, sum[0]);
+        assertThrows(ArgumentOutOfBoundsException.class, () -> trajectory.forEach(5, 11, (i, x, y, z) -> { }));
+    }
+
+    @Test
+    void copiesAndCachesHeights() {
+        Trajectory source = new Trajectory();
+        source.add(1f, 2f);
+        source.setZ(0, 7f);
+        Trajectory copy = new Trajectory(source);
+        source.clear();
+        assertTrue(source.isEmpty());
+        assertEquals(1, copy.size());
+        assertEquals(7f, copy.getZ(0));
+        copy.addAll(copy);
+        assertEquals(2, copy.size());
+        assertThrows(ArgumentOutOfBoundsException.class, () -> copy.getX(2));
+    }
+
+    @Test
+    void snapshotsSurviveGrowthAndClear() {
+        Trajectory trajectory = new Trajectory();
+        trajectory.add(1f, 1f);
+        TrajectorySnapshot before = trajectory.snapshot();
+        for (int i = 0; i < 500; i++) {
+            trajectory.add(2f, 2f);
+        }
+        trajectory.clear();
+        trajectory.add(3f, 3f);
+
+        assertEquals(1, before.size());
+        assertEquals(1f, before.getX(0));
+        assertEquals(3f, trajectory.snapshot().getX(0));
+        assertEquals(before.getVersion() + 1, trajectory.getVersion());
+        assertThrows(ArgumentOutOfBoundsException.class, () -> before.getY(1));
+    }
+
+    @Test
+    void readersSeeOnlyFullyWrittenPoints() throws InterruptedException {
+        Trajectory trajectory = new Trajectory();
+        int count = 200_000;
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                trajectory.add(i, -i, 2 * i);
+            }
+        });
+        writer.start();
+        boolean consistent = true;
+        while (writer.isAlive()) {
+            TrajectorySnapshot snapshot = trajectory.snapshot();
+            int last = snapshot.size() - 1;
+            if (last >= 0) {
+                float x = snapshot.getX(last);
+                consistent &= (x == last) && (snapshot.getY(last) == -x) && (snapshot.getZ(last) == 2 * x);
+            }
+        }
+        writer.join();
+        assertTrue(consistent);
+        assertEquals(count, trajectory.snapshot().size());
+    }
+}
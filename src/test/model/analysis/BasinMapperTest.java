@@ -0,0 +1,76 @@
+package model.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.ScalarField;
+import model.exceptions.ArgumentOutOfBoundsException;
+import model.expression.CompiledExpression;
+import org.junit.jupiter.api.Test;
+
+public class BasinMapperTest {
+
+    // EFFECTS: returns a tilted double well on [-3, 3]^2 whose minimum near (-2, 0) is deeper than the one near (2, 0)
+    private static ScalarField doubleWell() {
+        ScalarField field = new ScalarField(CompiledExpression.compile("(x^2 - 4)^2 + y^2 + 0.5*x"));
+        field.setDomain(-3f, 3f, -3f, 3f, -10f, 30f);
+        return field;
+    }
+
+    @Test
+    void labelsEachCellByTheMinimumItDrainsInto() {
+        BasinMapper mapper = new BasinMapper(doubleWell(), 0.01f, 0.001f, 5000);
+        BasinMap map = mapper.compute(16, 8, 0.1f);
+
+        assertEquals(16 * 8, mapper.getCompletedCells());
+        assertEquals(2, map.getBasinCount());
+        assertEquals(0, map.getUnconvergedCount());
+        assertEquals(-2f, map.getMinimumX(0), 0.05f);    // the deeper well comes first
+        assertEquals(2f, map.getMinimumX(1), 0.05f);
+        assertTrue(map.getMinimumValue(0) < map.getMinimumValue(1));
+        for (int row = 0; row < 8; row++) {
+            assertEquals(0, map.getLabel(0, row));
+            assertEquals(1, map.getLabel(15, row));
+        }
+        assertEquals(0, map.labelAt(-2.5f, 1f));
+        assertEquals(BasinMap.UNCONVERGED, map.labelAt(5f, 0f));
+        assertEquals(16 * 8, map.getBasinSize(0) + map.getBasinSize(1));
+    }
+
+    @Test
+    void leavesUnconvergedCellsUnlabelled() {
+        BasinMap map = new BasinMapper(doubleWell(), 0.01f, 0.001f, 1).compute(4, 4, 0.1f);
+        assertEquals(0, map.getBasinCount());
+        assertEquals(16, map.getUnconvergedCount());
+        assertEquals(BasinMap.UNCONVERGED_COLOR, map.getColor(2, 2));
+        assertThrows(ArgumentOutOfBoundsException.class, () -> new BasinMapper(doubleWell(), 0.01f, 0.001f, 1)
+                .start(0, 4, 0.1f));
+    }
+
+    @Test
+    void clustersEndpointsWithinTolerance() {
+        float[] xs = {0f, 0.04f, 1f, 0.02f, 5f};
+        float[] ys = {0f, 0.03f, 1f, -0.01f, 5f};
+        float[] values = {2f, 1f, 0.5f, 3f, Float.NaN};
+        BasinMap map = BasinMapper.cluster(5, 1, doubleWell(), xs, ys, values, 0.1f);
+
+        assertEquals(2, map.getBasinCount());
+        assertEquals(0, map.getLabel(2, 0));             // value 0.5 is the deepest
+        assertEquals(1, map.getLabel(0, 0));
+        assertEquals(1, map.getLabel(1, 0));
+        assertEquals(1, map.getLabel(3, 0));
+        assertEquals(BasinMap.UNCONVERGED, map.getLabel(4, 0));
+        assertEquals(0.04f, map.getMinimumX(1));         // the deepest member stands for the cluster
+        assertEquals(1f, map.getMinimumValue(1));
+    }
+
+    @Test
+    void givesSuccessiveLabelsDistinctOpaqueColors() {
+        for (int label = 0; label < 8; label++) {
+            assertEquals(0xFF000000, BasinMap.colorOf(label) & 0xFF000000);
+            assertNotEquals(BasinMap.colorOf(label), BasinMap.colorOf(label + 1));
+        }
+    }
+}
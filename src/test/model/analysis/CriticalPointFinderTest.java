@@ -0,0 +1,102 @@
+package model.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import model.ScalarField;
+import model.exceptions.ArgumentOutOfBoundsException;
+import model.expression.CompiledExpression;
+import org.junit.jupiter.api.Test;
+
+public class CriticalPointFinderTest {
+
+    @Test
+    void findsAMinimumAndASaddle() {
+        ScalarField cubic = new ScalarField(CompiledExpression.compile("x^3 - 3*x + y^2"));
+        cubic.setDomain(-3f, 3f, -3f, 3f, -30f, 30f);
+        List<CriticalPoint> points = new CriticalPointFinder(cubic, 1e-4f).find(25, 25, 0.05f);
+
+        assertEquals(2, points.size());
+        CriticalPoint minimum = points.get(0);
+        assertEquals(CriticalPointType.MINIMUM, minimum.getType());
+        assertEquals(1f, minimum.getX(), 1e-3f);
+        assertEquals(0f, minimum.getY(), 1e-3f);
+        assertEquals(-2f, minimum.getValue(), 1e-3f);
+        CriticalPoint saddle = points.get(1);
+        assertEquals(CriticalPointType.SADDLE, saddle.getType());
+        assertEquals(-1f, saddle.getX(), 1e-3f);
+        assertEquals(2f, saddle.getValue(), 1e-3f);
+    }
+
+    @Test
+    void findsEveryPointOfAnEggCrateOnce() {
+        ScalarField crate = new ScalarField(CompiledExpression.compile("sin(x) * sin(y)"));
+        crate.setDomain(-4f, 4f, -4f, 4f, -2f, 2f);
+        List<CriticalPoint> points = new CriticalPointFinder(crate, 1e-4f).find(41, 41, 0.05f);
+
+        assertEquals(13, points.size());
+        assertEquals(2, count(points, CriticalPointType.MINIMUM));
+        assertEquals(2, count(points, CriticalPointType.MAXIMUM));
+        assertEquals(9, count(points, CriticalPointType.SADDLE));
+        for (int i = 1; i < points.size(); i++) {
+            assertTrue(points.get(i - 1).getValue() <= points.get(i).getValue());
+        }
+        assertEquals(-1f, points.get(0).getValue(), 1e-4f);
+    }
+
+    @Test
+    void skipsWherePartOfTheDomainIsUndefined() {
+        // f is undefined for x < 0, and finite differences at x = 0 step there too
+        ScalarField half = new ScalarField(CompiledExpression.compile("sqrt(x) + (x - 2)^2 + (y - 1)^2"));
+        half.setDomain(-3f, 3f, -3f, 3f, -30f, 30f);
+        List<CriticalPoint> points = new CriticalPointFinder(half, 1e-4f).find(25, 25, 0.05f);
+
+        assertEquals(1, points.size());
+        assertEquals(CriticalPointType.MINIMUM, points.get(0).getType());
+        float x = points.get(0).getX();
+        assertEquals(0f, 2f * (x - 2f) + 0.5f / (float) Math.sqrt(x), 1e-3f);
+        assertEquals(1f, points.get(0).getY(), 1e-3f);
+
+        ScalarField noCriticalPoints = new ScalarField(CompiledExpression.compile("sqrt(x) + (y - 1)^2"));
+        assertTrue(new CriticalPointFinder(noCriticalPoints, 1e-4f).find(25, 25, 0.05f).isEmpty());
+    }
+
+    @Test
+    void refinesWithFiniteDifferencesWithoutAnExpression() {
+        ScalarField bowl = new ScalarField("bowl", (x, y) -> (x - 0.3f) * (x - 0.3f) + 2f * (y + 0.7f) * (y + 0.7f));
+        List<CriticalPoint> points = new CriticalPointFinder(bowl, 1e-2f).find(11, 11, 0.1f);
+
+        assertEquals(1, points.size());
+        assertEquals(CriticalPointType.MINIMUM, points.get(0).getType());
+        assertEquals(0.3f, points.get(0).getX(), 0.01f);
+        assertEquals(-0.7f, points.get(0).getY(), 0.01f);
+    }
+
+    @Test
+    void seedsAtVerticesWhereTheGradientIsLocallySmallest() {
+        ScalarField bowl = new ScalarField(CompiledExpression.compile("x^2 + y^2"));
+        StartPoints seeds = CriticalPointFinder.seeds(bowl, 21, 21);
+        assertEquals(1, seeds.size());
+        assertEquals(0f, seeds.getX(0), 1e-6f);
+        assertEquals(0f, seeds.getY(0), 1e-6f);
+    }
+
+    @Test
+    void rejectsDegenerateScans() {
+        CriticalPointFinder finder = new CriticalPointFinder(new ScalarField(CompiledExpression.compile("x")), 1e-3f);
+        assertThrows(ArgumentOutOfBoundsException.class, () -> finder.start(1, 10, 0.1f));
+        assertThrows(ArgumentOutOfBoundsException.class, () -> finder.start(10, 10, 0f));
+        assertTrue(finder.find(5, 5, 0.1f).isEmpty());
+    }
+
+    private static int count(List<CriticalPoint> points, CriticalPointType type) {
+        int count = 0;
+        for (CriticalPoint point : points) {
+            count += (point.getType() == type) ? 1 : 0;
+        }
+        return count;
+    }
+}
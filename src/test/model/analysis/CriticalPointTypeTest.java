@@ -0,0 +1,29 @@
+package model.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class CriticalPointTypeTest {
+    private static final float TOLERANCE = 1e-4f;
+
+    @Test
+    void classifiesBySignsOfTheEigenvalues() {
+        assertEquals(CriticalPointType.MINIMUM, CriticalPointType.classify(new float[] {2f, 1f, 2f}, TOLERANCE));
+        assertEquals(CriticalPointType.MAXIMUM, CriticalPointType.classify(new float[] {-2f, 1f, -3f}, TOLERANCE));
+        assertEquals(CriticalPointType.SADDLE, CriticalPointType.classify(new float[] {1f, 3f, 1f}, TOLERANCE));
+        assertEquals(CriticalPointType.DEGENERATE, CriticalPointType.classify(new float[] {1f, 1f, 1f}, TOLERANCE));
+        assertEquals(CriticalPointType.DEGENERATE,
+                CriticalPointType.classify(new float[] {Float.NaN, 0f, 1f}, TOLERANCE));
+    }
+
+    @Test
+    void computesEigenvaluesSmallestFirst() {
+        float[] out = new float[2];
+        CriticalPointType.eigenvalues(new float[] {2f, 1f, 2f}, out);
+        assertArrayEquals(new float[] {1f, 3f}, out, 1e-6f);
+        CriticalPointType.eigenvalues(new float[] {5f, 0f, -4f}, out);
+        assertArrayEquals(new float[] {-4f, 5f}, out, 1e-6f);
+    }
+}
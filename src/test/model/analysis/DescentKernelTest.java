@@ -0,0 +1,170 @@
+package model.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import model.ScalarField;
+import model.Trajectory;
+import model.expression.CompiledExpression;
+import model.optimizer.GradientClipping;
+import model.optimizer.OptimizerType;
+import org.junit.jupiter.api.Test;
+
+public class DescentKernelTest {
+
+    @Test
+    void convergesAndRecordsEveryStep() {
+        ScalarField bowl = new ScalarField(CompiledExpression.compile("(x - 1)^2 + y^2"));
+        DescentKernel kernel = new DescentKernel(bowl, 0.1f, 0.001f);
+        Trajectory path = new Trajectory();
+        path.add(3f, 2f);
+        kernel.reset(3f, 2f);
+
+        assertEquals(DescentStatus.CONVERGED, kernel.advance(10000, path));
+        assertEquals(kernel.getIterations() + 1, path.size());
+        assertEquals(1f, kernel.getX(), 0.001f);
+        assertTrue(kernel.getGradientMagnitude() < 0.001f);
+        assertEquals(kernel.getValue(), path.getZ(path.size() - 1));
+        assertNull(kernel.getHaltReason());
+    }
+
+    @Test
+    void newtonUsesHessiansAndCountsTheirCost() {
+        ScalarField analytic = new ScalarField(CompiledExpression.compile("(x - 1)^2 + 10*y^2 + x*y"));
+        DescentKernel kernel = new DescentKernel(analytic, 0.01f, 1e-4f, OptimizerType.NEWTON.create());
+        kernel.reset(6f, 4f);
+        assertEquals(DescentStatus.CONVERGED, kernel.advance(100, null));
+        assertTrue(kernel.getIterations() < 8, "took " + kernel.getIterations() + " steps");
+        assertEquals(3L * kernel.getIterations(), kernel.getHessianEvaluations());
+
+        ScalarField sampled = new ScalarField("quadratic", (x, y) -> (x - 1) * (x - 1) + 10 * y * y + x * y);
+        DescentKernel stencil = new DescentKernel(sampled, 0.01f, 1e-2f, OptimizerType.NEWTON.create());
+        stencil.reset(6f, 4f);
+        assertEquals(DescentStatus.CONVERGED, stencil.advance(100, null));
+        assertEquals(8L * stencil.getIterations(), stencil.getHessianEvaluations());
+
+        kernel.reset(6f, 4f);
+        assertEquals(0L, kernel.getHessianEvaluations());
+    }
+
+    @Test
+    void resumesAcrossChunks() {
+        ScalarField bowl = new ScalarField(CompiledExpression.compile("x^2 + y^2"));
+        DescentKernel chunked = new DescentKernel(bowl, 0.01f, 0f);
+        DescentKernel whole = new DescentKernel(bowl, 0.01f, 0f);
+        chunked.reset(4f, -3f);
+        whole.reset(4f, -3f);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(DescentStatus.MAX_ITERATIONS, chunked.advance(7, null));
+        }
+        whole.advance(70, null);
+        assertEquals(70, chunked.getIterations());
+        assertEquals(whole.getX(), chunked.getX());
+        assertEquals(whole.getY(), chunked.getY());
+    }
+
+    @Test
+    void chunkingCostsNoExtraSamples() {
+        int[] evaluations = new int[1];
+        ScalarField bowl = new ScalarField("bowl", (x, y) -> {
+            evaluations[0]++;
+            return x * x + y * y;
+        });
+        DescentKernel kernel = new DescentKernel(bowl, 0.01f, 0f);
+        kernel.reset(4f, -3f);
+        kernel.advance(1, null);
+        int perSample = evaluations[0] / 2;   // the start point and the point after one step
+        for (int i = 0; i < 9; i++) {
+            kernel.resume(kernel.getX(), kernel.getY());
+            assertEquals(DescentStatus.MAX_ITERATIONS, kernel.advance(1, null));
+        }
+        assertEquals(11 * perSample, evaluations[0]);
+        assertEquals(kernel.getValue(), kernel.getX() * kernel.getX() + kernel.getY() * kernel.getY(), 1e-6f);
+
+        kernel.resume(1f, 1f);
+        assertTrue(Float.isNaN(kernel.getValue()));
+        kernel.advance(0, null);
+        assertEquals(12 * perSample, evaluations[0]);
+    }
+
+    @Test
+    void stopsWhenLeavingTheDomain() {
+        ScalarField plane = new ScalarField(CompiledExpression.compile("-x"));
+        DescentKernel kernel = new DescentKernel(plane, 1f, 0f);
+        kernel.reset(5f, 0f);
+        assertEquals(DescentStatus.OUT_OF_DOMAIN, kernel.advance(100, null));
+        assertEquals(DescentStatus.OUT_OF_DOMAIN, kernel.getStatus());
+        assertEquals(6, kernel.getIterations());
+        assertEquals(11f, kernel.getX());
+        assertTrue(Float.isNaN(kernel.getValue()));
+        assertEquals("Input (x, y) outside domain.", kernel.getHaltReason());
+    }
+
+    @Test
+    void reportsUndefinedPointsInsteadOfThrowing() {
+        ScalarField root = new ScalarField(CompiledExpression.compile("sqrt(x)"));
+        DescentKernel kernel = new DescentKernel(root, 10f, 0f);
+        kernel.reset(1f, 0f);
+        assertEquals(DescentStatus.UNDEFINED, kernel.advance(100, null));
+        assertTrue(kernel.getX() < 0f);
+        assertTrue(Float.isNaN(kernel.getValue()));
+        assertTrue(kernel.getHaltReason() != null);
+    }
+
+    @Test
+    void divergenceDetectorEndsOscillatingRunsEarly() {
+        ScalarField bowl = new ScalarField(CompiledExpression.compile("x^2 + y^2"));
+        bowl.setDomain(-1e9f, 1e9f, -1e9f, 1e9f, 0f, 1f);
+        DescentKernel kernel = new DescentKernel(bowl, 1.5f, 1e-3f);   // every step doubles the overshoot
+        kernel.reset(1f, 1f);
+        assertEquals(DescentStatus.DIVERGED, kernel.advance(10000, null));
+        assertTrue(kernel.getIterations() <= DivergenceDetector.DEFAULT_OSCILLATION_PATIENCE);
+        assertTrue(kernel.getHaltReason().startsWith("Diverging: "));
+
+        kernel.setDivergenceDetector(DivergenceDetector.disabled());
+        kernel.reset(1f, 1f);
+        assertEquals(DescentStatus.OUT_OF_DOMAIN, kernel.advance(10000, null));   // runs until it escapes
+        assertTrue(kernel.getIterations() > DivergenceDetector.DEFAULT_OSCILLATION_PATIENCE);
+    }
+
+    @Test
+    void clippingShapesStepsButNotConvergence() {
+        ScalarField cliff = new ScalarField(CompiledExpression.compile("100 * x^2"));
+        DescentKernel kernel = new DescentKernel(cliff, 0.1f, 1e-3f);
+        kernel.setGradientClipping(new GradientClipping(1f, 0f));
+        kernel.reset(2f, 0f);
+        assertEquals(DescentStatus.MAX_ITERATIONS, kernel.advance(1, null));
+        assertEquals(1.9f, kernel.getX(), 1e-6f);
+        assertEquals(380f, kernel.getGradientMagnitude(), 1e-2f);   // the reported gradient is not clipped
+    }
+
+    @Test
+    void innerLoopDoesNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        ScalarField bowl = new ScalarField(CompiledExpression.compile("x^2 + 3*y^2 + sin(x*y)"));
+        DescentKernel kernel = new DescentKernel(bowl, 1e-4f, 0f);
+        kernel.setGradientClipping(new GradientClipping(1f, 0.5f));
+        int steps = 200_000;
+        Trajectory path = new Trajectory();
+        path.ensureCapacity(steps + 1);
+        path.add(5f, 5f);
+        kernel.reset(5f, 5f);
+        kernel.advance(1000, path); // warm up the thread-local scratch and the JIT
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        kernel.advance(steps - 1000, path);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(steps, kernel.getIterations());
+        assertTrue(allocated < 4096, "allocated " + allocated + " bytes over " + steps + " iterations");
+    }
+}
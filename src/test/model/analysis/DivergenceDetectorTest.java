@@ -0,0 +1,53 @@
+package model.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class DivergenceDetectorTest {
+
+    @Test
+    void flagsExplodingValues() {
+        DivergenceDetector detector = new DivergenceDetector(100f, 0f, 0);
+        assertNull(detector.observeSample(0.5f, 1f));     // reference: max(|f|, 1) = 1
+        assertNull(detector.observeSample(-99f, 1e9f));
+        assertNotNull(detector.observeSample(-101f, 1f));
+
+        detector.reset();
+        assertNull(detector.observeSample(-101f, 1f));    // a new run takes a new reference
+    }
+
+    @Test
+    void flagsExplodingGradients() {
+        DivergenceDetector detector = new DivergenceDetector(0f, 10f, 0);
+        assertNull(detector.observeSample(1f, 4f));       // reference norm 2
+        assertNull(detector.observeSample(1e9f, 399f));
+        assertNotNull(detector.observeSample(1f, 401f));
+    }
+
+    @Test
+    void flagsOnlyOscillationsThatDoNotShrink() {
+        DivergenceDetector detector = new DivergenceDetector(0f, 0f, 3);
+        float step = 1f;
+        for (int i = 0; i < 10; i++) {
+            step *= -0.9f;
+            assertNull(detector.observeStep(step, 0f));   // damped oscillation converges
+        }
+        detector.reset();
+        assertNull(detector.observeStep(1f, 0f));
+        assertNull(detector.observeStep(-1f, 0f));
+        assertNull(detector.observeStep(1.5f, 0f));
+        assertNotNull(detector.observeStep(-2f, 0f));
+    }
+
+    @Test
+    void disabledNeverFlags() {
+        DivergenceDetector detector = DivergenceDetector.disabled();
+        detector.observeSample(1f, 1f);
+        assertNull(detector.observeSample(Float.MAX_VALUE, Float.MAX_VALUE));
+        for (int i = 1; i < 100; i++) {
+            assertNull(detector.observeStep((i % 2 == 0) ? i : -i, 0f));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package model.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.ScalarField;
+import model.exceptions.ArgumentOutOfBoundsException;
+import model.expression.CompiledExpression;
+import model.optimizer.OptimizerType;
+import org.junit.jupiter.api.Test;
+
+public class HyperparameterSweepTest {
+
+    @Test
+    void spaceEnumeratesEveryCombination() {
+        SweepSpace space = new SweepSpace(new OptimizerType[] {OptimizerType.GRADIENT_DESCENT, OptimizerType.ADAM},
+                new float[] {0.1f, 0.2f, 0.3f}, new float[] {1e-3f}, new int[] {100, 200});
+        assertEquals(12, space.size());
+
+        SweepConfiguration first = space.get(0);
+        assertEquals(OptimizerType.GRADIENT_DESCENT, first.getOptimizerType());
+        assertEquals(0.1f, first.getLearningRate());
+        assertEquals(100, first.getMaxIterations());
+        assertEquals(200, space.get(1).getMaxIterations());
+        assertEquals(0.2f, space.get(2).getLearningRate());
+        SweepConfiguration last = space.get(11);
+        assertEquals(OptimizerType.ADAM, last.getOptimizerType());
+        assertEquals(0.3f, last.getLearningRate());
+        assertEquals(1e-3f, last.getStopThreshold());
+        assertEquals(200, last.getMaxIterations());
+    }
+
+    @Test
+    void rangesAreEvenlySpaced() {
+        assertArrayEquals(new float[] {0f, 0.5f, 1f}, SweepSpace.linear(0f, 1f, 3), 1e-6f);
+        assertArrayEquals(new float[] {2f}, SweepSpace.linear(2f, 5f, 1), 1e-6f);
+        assertArrayEquals(new float[] {0.01f, 0.1f, 1f}, SweepSpace.logarithmic(0.01f, 1f, 3), 1e-6f);
+
+        assertThrows(ArgumentOutOfBoundsException.class, () -> SweepSpace.linear(0f, 1f, 0));
+        assertThrows(ArgumentOutOfBoundsException.class, () -> SweepSpace.logarithmic(0f, 1f, 3));
+        assertThrows(ArgumentOutOfBoundsException.class, () -> new SweepSpace(new OptimizerType[0],
+                new float[] {0.1f}, new float[] {0f}, new int[] {1}));
+        assertThrows(ArgumentOutOfBoundsException.class, () -> new SweepSpace(OptimizerType.values(),
+                new float[] {-0.1f}, new float[] {0f}, new int[] {1}));
+    }
+
+    @Test
+    void ranksReliableFastConfigurationsFirst() {
+        ScalarField bowl = new ScalarField(CompiledExpression.compile("x^2 + y^2"));
+        // on this bowl plain descent contracts by 1 - 2 * lr per step, so 1.5 overshoots further each time
+        SweepSpace space = new SweepSpace(new OptimizerType[] {OptimizerType.GRADIENT_DESCENT},
+                new float[] {0.01f, 0.1f, 1.5f}, new float[] {1e-3f}, new int[] {5000});
+        List<SweepResult> ranked = new HyperparameterSweep(bowl).run(space, StartPoints.grid(bowl, 4, 4));
+
+        assertEquals(3, ranked.size());
+        assertEquals(0.1f, ranked.get(0).getConfiguration().getLearningRate());
+        assertEquals(0.01f, ranked.get(1).getConfiguration().getLearningRate());
+        assertEquals(1.5f, ranked.get(2).getConfiguration().getLearningRate());
+
+        SweepResult best = ranked.get(0);
+        assertEquals(16, best.getRuns());
+        assertEquals(1f, best.getConvergenceRate());
+        assertEquals(0f, best.getDivergenceRate());
+        assertTrue(best.getMeanIterations() < ranked.get(1).getMeanIterations());
+        assertTrue(best.getBestFinalValue() < 1e-6f);
+        assertTrue(best.getMeanFinalValue() < 1e-6f);
+
+        SweepResult worst = ranked.get(2);
+        assertEquals(1f, worst.getDivergenceRate());
+        assertTrue(Float.isNaN(worst.getMeanIterations()));
+        assertTrue(Float.isNaN(worst.getBestFinalValue()));
+    }
+
+    @Test
+    void streamsEveryConfigurationToTheListener() {
+        ScalarField bowl = new ScalarField(CompiledExpression.compile("(x - 1)^2 + y^2"));
+        SweepSpace space = new SweepSpace(OptimizerType.values(), SweepSpace.logarithmic(0.01f, 0.1f, 3),
+                new float[] {1e-2f, 1e-3f}, new int[] {2000});
+        Set<SweepConfiguration> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger calls = new AtomicInteger();
+        SweepBatch batch = new HyperparameterSweep(bowl).start(space, StartPoints.uniform(bowl, 20, new Random(5)),
+                (result, completed, total) -> {
+                    calls.incrementAndGet();
+                    seen.add(result.getConfiguration());
+                    assertEquals(space.size(), total);
+                    assertEquals(20, result.getRuns());
+                });
+
+        assertEquals(space.size(), batch.getRankedResults().size());
+        assertTrue(batch.isDone());
+        assertEquals(space.size(), batch.getCompletedCount());
+        assertEquals(space.size(), calls.get());
+        assertEquals(space.size(), seen.size());
+    }
+
+    @Test
+    void cancellationKeepsOnlyFinishedConfigurations() {
+        ScalarField bowl = new ScalarField(CompiledExpression.compile("x^2 + y^2"));
+        // a zero threshold never converges, so every configuration would take millions of iterations
+        SweepSpace space = new SweepSpace(OptimizerType.values(), SweepSpace.linear(1e-7f, 2e-7f, 4),
+                new float[] {0f}, new int[] {1_000_000});
+        SweepBatch batch = new HyperparameterSweep(bowl).start(space, StartPoints.uniform(bowl, 100,
+                new Random(3)), null);
+        batch.cancel();
+
+        List<SweepResult> ranked = batch.getRankedResults();
+        assertTrue(batch.isCancelled());
+        assertTrue(ranked.size() < space.size());
+        assertEquals(batch.getCompletedCount(), ranked.size());
+    }
+}
@@ -0,0 +1,86 @@
+package model.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.ScalarField;
+import model.expression.CompiledExpression;
+import org.junit.jupiter.api.Test;
+
+public class MultiStartDescentTest {
+
+    @Test
+    void convergesFromEveryGridStartOnABowl() {
+        ScalarField bowl = new ScalarField(CompiledExpression.compile("(x - 1)^2 + (y + 2)^2"));
+        MultiStartDescent engine = new MultiStartDescent(bowl, 0.1f, 0.001f, 1000);
+        List<DescentResult> results = engine.run(StartPoints.grid(bowl, 6, 5));
+
+        assertEquals(30, results.size());
+        for (DescentResult result : results) {
+            assertEquals(DescentStatus.CONVERGED, result.getStatus());
+            assertEquals(1f, result.getFinalX(), 0.01f);
+            assertEquals(-2f, result.getFinalY(), 0.01f);
+            assertTrue(result.getGradientMagnitude() < 0.001f);
+            assertTrue(result.getIterations() > 0);
+        }
+    }
+
+    @Test
+    void reportsEscapesAndIterationLimit() {
+        ScalarField saddle = new ScalarField(CompiledExpression.compile("x^2 - y^2"));
+        float[] xs = {1f, 1f};
+        float[] ys = {1f, 0f};
+        List<DescentResult> results = new MultiStartDescent(saddle, 0.1f, 1e-6f, 10000)
+                .run(StartPoints.of(xs, ys));
+        assertEquals(DescentStatus.OUT_OF_DOMAIN, results.get(0).getStatus());
+        assertEquals(DescentStatus.CONVERGED, results.get(1).getStatus());
+
+        List<DescentResult> limited = new MultiStartDescent(saddle, 0.001f, 1e-6f, 5).run(StartPoints.of(xs, ys));
+        assertEquals(DescentStatus.MAX_ITERATIONS, limited.get(1).getStatus());
+        assertEquals(5, limited.get(1).getIterations());
+    }
+
+    @Test
+    void picksTheDeepestConvergedMinimum() {
+        ScalarField wells = new ScalarField(CompiledExpression.compile("(x^2 - 4)^2 / 10 + y^2 + x / 2"));
+        List<DescentResult> results = new MultiStartDescent(wells, 0.01f, 0.001f, 20000)
+                .run(StartPoints.uniform(wells, 64, new Random(7)));
+        DescentResult best = MultiStartDescent.bestOf(results);
+        assertNotNull(best);
+        assertTrue(best.getFinalX() < 0f);
+    }
+
+    @Test
+    void reportsProgressForEveryStart() {
+        ScalarField bowl = new ScalarField(CompiledExpression.compile("x^2 + y^2"));
+        AtomicInteger calls = new AtomicInteger();
+        DescentBatch batch = new MultiStartDescent(bowl, 0.1f, 0.001f, 1000)
+                .start(StartPoints.gaussian(bowl, 100, 0f, 0f, 3f, new Random(1)), (done, total) -> {
+                    calls.incrementAndGet();
+                    assertEquals(100, total);
+                });
+        assertEquals(100, batch.getResults().size());
+        assertTrue(batch.isDone());
+        assertEquals(100, batch.getCompletedCount());
+        assertEquals(100, calls.get());
+    }
+
+    @Test
+    void cancellationStopsRunsEarly() {
+        ScalarField bowl = new ScalarField(CompiledExpression.compile("x^2 + y^2"));
+        // a zero threshold never converges, so every run would take the full million iterations
+        DescentBatch batch = new MultiStartDescent(bowl, 1e-7f, 0f, 1_000_000)
+                .start(StartPoints.uniform(bowl, 500, new Random(3)), null);
+        batch.cancel();
+
+        List<DescentResult> results = batch.getResults();
+        assertTrue(batch.isCancelled());
+        assertEquals(500, results.size());
+        assertTrue(results.stream().anyMatch(r -> r.getStatus() == DescentStatus.CANCELLED));
+    }
+}
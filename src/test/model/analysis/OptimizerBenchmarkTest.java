@@ -0,0 +1,48 @@
+package model.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileNotFoundException;
+
+import model.Event;
+import model.EventLog;
+import model.Simulation;
+import model.optimizer.OptimizerType;
+import persistence.SimulationReadWriter;
+import org.junit.jupiter.api.Test;
+
+// Compares how many iterations runUntilConverged needs with plain gradient descent and with the
+// quasi-Newton and conjugate-gradient optimizers on the saved simulations
+public class OptimizerBenchmarkTest {
+
+    @Test
+    void lbfgsNeedsAFractionOfTheIterationsOnSavedFields() throws FileNotFoundException {
+        // Default.json starts at the minimum of x^2 + y^2, so that run starts away from it
+        assertLbfgsBeatsGradientDescent("Default", 4f, -3f);
+        assertLbfgsBeatsGradientDescent("complexSF", Float.NaN, Float.NaN);
+    }
+
+    // EFFECTS: runs the saved simulation to convergence with every optimizer (from its saved point, or from
+    //          (x, y) when given), reports the iteration counts to the event log and checks L-BFGS needs at
+    //          most a fifth of the iterations plain gradient descent does
+    private void assertLbfgsBeatsGradientDescent(String title, float x, float y) throws FileNotFoundException {
+        int[] iterations = new int[OptimizerType.values().length];
+        StringBuilder report = new StringBuilder("Optimizer benchmark on " + title + ":");
+        for (OptimizerType type : OptimizerType.values()) {
+            Simulation sim = SimulationReadWriter.readSimulation(title);
+            if (!Float.isNaN(x)) {
+                sim.setInitialPoint(x, y);
+            }
+            sim.setOptimizer(type.create());
+            int before = sim.getTrajectory().size();
+            sim.runUntilConverged(0f);
+            iterations[type.ordinal()] = sim.getTrajectory().size() - before;
+            report.append(' ').append(type).append(' ').append(iterations[type.ordinal()]).append(" it;");
+        }
+        EventLog.getInstance().logEvent(new Event(report.toString()));
+        int plain = iterations[OptimizerType.GRADIENT_DESCENT.ordinal()];
+        int lbfgs = iterations[OptimizerType.LBFGS.ordinal()];
+        assertTrue(plain > 0);
+        assertTrue(lbfgs * 5 <= plain, title + ": L-BFGS took " + lbfgs + " iterations, descent " + plain);
+    }
+}
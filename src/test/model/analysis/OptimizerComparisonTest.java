@@ -0,0 +1,48 @@
+package model.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static model.optimizer.OptimizerType.GRADIENT_DESCENT;
+import static model.optimizer.OptimizerType.MOMENTUM;
+import static model.optimizer.OptimizerType.NESTEROV;
+
+import java.util.Map;
+
+import model.ScalarField;
+import model.expression.CompiledExpression;
+import model.optimizer.OptimizerType;
+import org.junit.jupiter.api.Test;
+
+public class OptimizerComparisonTest {
+
+    @Test
+    void momentumMethodsBeatPlainDescentOnANarrowValley() {
+        ScalarField valley = new ScalarField(CompiledExpression.compile("x^2 + 25 * y^2"));
+        Map<OptimizerType, DescentResult> results = new OptimizerComparison(valley, 0.01f, 0.001f, 20000)
+                .run(3f, 1f);
+
+        assertEquals(OptimizerType.values().length, results.size());
+        for (OptimizerType type : new OptimizerType[] {GRADIENT_DESCENT, MOMENTUM, NESTEROV}) {
+            DescentResult result = results.get(type);
+            assertTrue(result.isConverged(), type.toString());
+            assertEquals(0f, result.getFinalX(), 0.01f);
+            assertEquals(0f, result.getFinalY(), 0.01f);
+        }
+        int plain = results.get(GRADIENT_DESCENT).getIterations();
+        assertTrue(results.get(MOMENTUM).getIterations() < plain);
+        assertTrue(results.get(NESTEROV).getIterations() < plain);
+
+        OptimizerType fastest = OptimizerComparison.fastest(results);
+        for (DescentResult result : results.values()) {
+            assertTrue(!result.isConverged() || results.get(fastest).getIterations() <= result.getIterations());
+        }
+    }
+
+    @Test
+    void noFastestWhenNothingConverges() {
+        ScalarField plane = new ScalarField(CompiledExpression.compile("x + y"));
+        Map<OptimizerType, DescentResult> results = new OptimizerComparison(plane, 0.01f, 0.001f, 10).run(0f, 0f);
+        assertNull(OptimizerComparison.fastest(results));
+    }
+}
@@ -0,0 +1,46 @@
+package model.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class SpatialHashTest {
+
+    @Test
+    void mergesPointsWithinToleranceAndNumbersTheRest() {
+        SpatialHash hash = new SpatialHash(0.1f);
+        assertEquals(0, hash.insert(1f, 1f));
+        assertEquals(1, hash.insert(2f, 1f));
+        assertEquals(0, hash.insert(1.05f, 0.95f));
+        assertEquals(1, hash.insert(1.95f, 1.02f));
+        assertEquals(2, hash.insert(1.2f, 1f));
+        assertEquals(3, hash.size());
+        assertEquals(1f, hash.getX(0));
+        assertEquals(2f, hash.getX(1));
+        assertEquals(1.2f, hash.getX(2));
+    }
+
+    @Test
+    void findsNeighboursAcrossCellBoundaries() {
+        SpatialHash hash = new SpatialHash(0.5f);
+        hash.insert(0.49f, -0.01f);                      // cell (0, -1)
+        assertEquals(0, hash.find(0.51f, 0.01f));        // cell (1, 0), diagonal neighbour
+        assertEquals(0, hash.find(0f, 0f));
+        assertEquals(-1, hash.find(1f, 0f));
+        assertEquals(-1, hash.find(-5f, 3f));
+        assertEquals(1, hash.size());
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        SpatialHash hash = new SpatialHash(0.25f);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, hash.insert(i, -i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, hash.insert(i + 0.1f, -i));
+            assertEquals(-i, hash.getY(i));
+        }
+        assertEquals(100, hash.size());
+    }
+}
@@ -0,0 +1,45 @@
+package model.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import model.ScalarField;
+import model.exceptions.ArgumentOutOfBoundsException;
+import org.junit.jupiter.api.Test;
+
+public class StartPointsTest {
+    private final ScalarField field = new ScalarField("plane", (x, y) -> x + y);
+
+    @Test
+    void gridUsesCellCentres() {
+        StartPoints grid = StartPoints.grid(field, 4, 2);
+        assertEquals(8, grid.size());
+        assertEquals(-7.5f, grid.getX(0));
+        assertEquals(-5f, grid.getY(0));
+        assertEquals(7.5f, grid.getX(7));
+        assertEquals(5f, grid.getY(7));
+        assertThrows(ArgumentOutOfBoundsException.class, () -> StartPoints.grid(field, 0, 2));
+    }
+
+    @Test
+    void randomStartsStayInsideTheDomain() {
+        StartPoints uniform = StartPoints.uniform(field, 200, new Random(11));
+        StartPoints gaussian = StartPoints.gaussian(field, 200, 9f, -9f, 5f, new Random(11));
+        for (int i = 0; i < 200; i++) {
+            assertTrue(Math.abs(uniform.getX(i)) <= 10f && Math.abs(uniform.getY(i)) <= 10f);
+            assertTrue(Math.abs(gaussian.getX(i)) <= 10f && Math.abs(gaussian.getY(i)) <= 10f);
+        }
+    }
+
+    @Test
+    void copiesExplicitPoints() {
+        float[] xs = {1f, 2f};
+        StartPoints points = StartPoints.of(xs, new float[] {3f, 4f});
+        xs[0] = 99f;
+        assertEquals(1f, points.getX(0));
+        assertThrows(ArgumentOutOfBoundsException.class, () -> StartPoints.of(xs, new float[1]));
+    }
+}
@@ -0,0 +1,160 @@
+package model.expression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.ScalarField;
+import model.ScalarFunction;
+import model.exceptions.InvalidFunctionException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+public class BytecodeCompilerTest {
+    private static final String[] GRAMMAR_SAMPLES = {
+        "x^2 + y^2",
+        "-x^2 + 2y",
+        "3*(1 - x)^2 * exp(-(x^2) - (y + 1)^2) - (1/3)*exp(-(x + 1)^2 - y^2)",
+        "sin(x) * cos(y) + tan(x / 7) - cot(y + 11)",
+        "asin(x / 20) + acos(y / 20) + atan(x * y)",
+        "sinh(x / 4) - cosh(y / 4) + tanh(x - y)",
+        "abs(x) + log(abs(y) + 1) + log10(x^2 + 1) + log2(y^2 + 2) + log1p(abs(x))",
+        "ceil(x) - floor(y) + sqrt(x^2 + y^2) + cbrt(x - y) + signum(x)",
+        "exp(-x^2) + expm1(y / 10) + pow(x, 2) + x % 3",
+        "pi * x + e * y + +x",
+    };
+
+    @Test
+    void matchesExp4jOnSavedFieldExpressions() throws IOException {
+        List<JSONObject> saved = loadSavedFields();
+        assertFalse(saved.isEmpty());
+        for (JSONObject json : saved) {
+            assertParity(json.getString("expression"),
+                    (float) json.getDouble("xMin"), (float) json.getDouble("xMax"),
+                    (float) json.getDouble("yMin"), (float) json.getDouble("yMax"));
+        }
+    }
+
+    @Test
+    void matchesExp4jAcrossTheGrammar() {
+        for (String expression : GRAMMAR_SAMPLES) {
+            assertParity(expression, -10f, 10f, -10f, 10f);
+        }
+    }
+
+    @Test
+    void divisionByZeroAgreesAcrossEngines() {
+        String[] poles = {"x / y", "x % y", "1 / (2 * y)", "cot(y) + x", "0 / y"};   // all undefined at y = 0
+        float[][] points = {{1f, 0f}, {-1f, 0f}, {0f, 0f}, {2f, -0f}};
+        for (String expression : poles) {
+            CompiledExpression reference = CompiledExpression.compile(expression, ExpressionEngine.EXP4J);
+            CompiledExpression generated = CompiledExpression.compile(expression, ExpressionEngine.BYTECODE);
+            for (float[] p : points) {
+                String where = expression + " at " + p[0] + ", " + p[1];
+                float expected = reference.applyAsFloat(p[0], p[1]);
+                assertEquals(expected, generated.getEvaluator().applyAsFloat(p[0], p[1]), where);
+                assertEquals(expected, (float) generated.getTree().evaluate(p[0], p[1]), where);
+                assertThrows(InvalidFunctionException.class, () -> new ScalarField(reference).evaluate(p[0], p[1]));
+                assertThrows(InvalidFunctionException.class, () -> new ScalarField(generated).evaluate(p[0], p[1]));
+            }
+        }
+        assertEquals(Float.POSITIVE_INFINITY, CompiledExpression.compile("1 / 0", ExpressionEngine.EXP4J)
+                .applyAsFloat(0f, 0f));
+    }
+
+    @Test
+    void fieldsUseTheGeneratedClassDirectly() {
+        CompiledExpression expr = CompiledExpression.compile("x*y + 1");
+        assertEquals(ExpressionEngine.BYTECODE, expr.getEngine());
+        assertNotSame(expr, expr.getEvaluator());
+        assertEquals(7f, new ScalarField(expr).evaluate(2f, 3f));
+    }
+
+    @Test
+    void generatedBatchLoopMatchesPointwiseEvaluation() {
+        for (String expression : GRAMMAR_SAMPLES) {
+            ScalarFunction fast = CompiledExpression.compile(expression).getEvaluator();
+            int count = 97;
+            float[] xs = new float[count + 3];
+            float[] ys = new float[count + 3];
+            float[] out = new float[count + 3];
+            for (int i = 0; i < xs.length; i++) {
+                xs[i] = -9.5f + i * 0.19f;
+                ys[i] = 8.7f - i * 0.17f;
+                out[i] = -1234f;
+            }
+            fast.applyBatch(xs, ys, out, count);
+            for (int i = 0; i < count; i++) {
+                assertEquals(fast.applyAsFloat(xs[i], ys[i]), out[i], expression);
+            }
+            assertEquals(-1234f, out[count]); // entries past count are untouched
+        }
+    }
+
+    @Test
+    void fallsBackToExp4jWhenMethodWouldBeTooLarge() {
+        StringBuilder huge = new StringBuilder("x");
+        for (int i = 0; i < 3000; i++) {
+            huge.append(" + x");
+        }
+        CompiledExpression expr = CompiledExpression.compile(huge.toString());
+        assertEquals(ExpressionEngine.EXP4J, expr.getEngine());
+        assertEquals(3001f, expr.applyAsFloat(1f, 0f));
+    }
+
+    @Test
+    void exp4jEngineCanBeRequestedExplicitly() {
+        CompiledExpression expr = CompiledExpression.compile("x + y", ExpressionEngine.EXP4J);
+        assertEquals(ExpressionEngine.EXP4J, expr.getEngine());
+        assertEquals(3f, expr.applyAsFloat(1f, 2f));
+    }
+
+    // EFFECTS: asserts the bytecode and exp4j engines agree on a 41x41 grid over the given domain
+    private static void assertParity(String expression, float xMin, float xMax, float yMin, float yMax) {
+        CompiledExpression reference = CompiledExpression.compile(expression, ExpressionEngine.EXP4J);
+        CompiledExpression generated = CompiledExpression.compile(expression, ExpressionEngine.BYTECODE);
+        assertEquals(ExpressionEngine.BYTECODE, generated.getEngine(), expression);
+        ScalarFunction fast = generated.getEvaluator();
+
+        int steps = 40;
+        for (int i = 0; i <= steps; i++) {
+            for (int j = 0; j <= steps; j++) {
+                float x = xMin + (xMax - xMin) * i / steps;
+                float y = yMin + (yMax - yMin) * j / steps;
+                float expected = reference.applyAsFloat(x, y);
+                float actual = fast.applyAsFloat(x, y);
+                if (Float.isNaN(expected)) {
+                    assertTrue(Float.isNaN(actual), expression + " at " + x + ", " + y);
+                } else {
+                    assertEquals(expected, actual, 1e-5f * Math.max(1f, Math.abs(expected)),
+                            expression + " at " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    // EFFECTS: returns the field objects of every saved simulation under data/
+    private static List<JSONObject> loadSavedFields() throws IOException {
+        List<JSONObject> fields = new ArrayList<>();
+        File[] files = new File("./data/").listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null) {
+            return fields;
+        }
+        for (File file : files) {
+            JSONObject json = new JSONObject(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            if (json.has("field")) {
+                fields.add(json.getJSONObject("field"));
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,81 @@
+package model.expression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.ScalarField;
+import model.exceptions.InvalidFunctionException;
+import org.junit.jupiter.api.Test;
+
+public class CompiledExpressionTest {
+
+    @Test
+    void evaluatesParsedExpression() {
+        CompiledExpression expr = CompiledExpression.compile("x^2 + 3*y");
+        assertEquals("x^2 + 3*y", expr.getSource());
+        assertEquals(10.0, expr.evaluate(2.0, 2.0), 1e-9);
+        assertEquals(1f, expr.applyAsFloat(1f, 0f));
+    }
+
+    @Test
+    void rejectsUnparsableExpressions() {
+        assertThrows(InvalidFunctionException.class, () -> CompiledExpression.compile("x +* y"));
+        assertThrows(InvalidFunctionException.class, () -> CompiledExpression.compile("z + 1"));
+        assertThrows(InvalidFunctionException.class, () -> CompiledExpression.compile(" "));
+        assertFalse(CompiledExpression.isCompilable("sin(x"));
+        assertTrue(CompiledExpression.isCompilable("sin(x)"));
+    }
+
+    @Test
+    void scalarFieldKeepsCompiledForm() {
+        CompiledExpression expr = CompiledExpression.compile("x*y");
+        ScalarField field = new ScalarField(expr);
+        assertSame(expr, field.getExpression());
+        assertEquals("x*y", field.getName());
+        assertEquals(6f, field.evaluate(2f, 3f));
+    }
+
+    @Test
+    void derivesSecondPartialsWhenTwiceDifferentiable() {
+        CompiledExpression smooth = CompiledExpression.compile("sin(x)*y^2");
+        assertTrue(smooth.hasSecondPartials());
+        assertEquals(-4f * (float) Math.sin(1.0), smooth.getPartialXX().applyAsFloat(1f, 2f), 1e-5f);
+        assertEquals(4f * (float) Math.cos(1.0), smooth.getPartialXY().applyAsFloat(1f, 2f), 1e-5f);
+        assertEquals(2f * (float) Math.sin(1.0), smooth.getPartialYY().applyAsFloat(1f, 2f), 1e-5f);
+
+        CompiledExpression kinked = CompiledExpression.compile("abs(x) + y");
+        assertNotNull(kinked.getPartialX());
+        assertFalse(kinked.hasSecondPartials());
+    }
+
+    @Test
+    void evaluatesConsistentlyAcrossThreads() throws InterruptedException {
+        CompiledExpression expr = CompiledExpression.compile("x - y");
+        AtomicInteger mismatches = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final float offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    if (expr.evaluate(i + offset, i) != offset) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, mismatches.get());
+    }
+}
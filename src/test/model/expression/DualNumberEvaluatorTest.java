@@ -0,0 +1,61 @@
+package model.expression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.ScalarField;
+import org.junit.jupiter.api.Test;
+
+public class DualNumberEvaluatorTest {
+    private static final String[] SAMPLES = {
+        "x^2 + y^2",
+        "-x^2 + 2y",
+        "3*(1 - x)^2 * exp(-(x^2) - (y + 1)^2) - (1/3)*exp(-(x + 1)^2 - y^2)",
+        "sin(x) * cos(y) + atan(x * y / 10) + tanh(x - y)",
+        "sqrt(x^2 + y^2 + 1) + log(y^2 + 1) + cbrt(x + 20) + x / (y^2 + 1)",
+        "pow(x^2 + 1, y / 5) + 2^(x / 4) + x % 3 + floor(y)",
+    };
+
+    @Test
+    void matchesFiniteDifferenceGradients() {
+        float[] exact = new float[3];
+        float[] numeric = new float[2];
+        for (String source : SAMPLES) {
+            CompiledExpression expr = CompiledExpression.compile(source);
+            ScalarField dualField = new ScalarField(expr);
+            ScalarField reference = new ScalarField(source, expr.getEvaluator()); // finite differences only
+            for (float x = -4.3f; x < 5f; x += 1.7f) {
+                for (float y = -4.1f; y < 5f; y += 1.9f) {
+                    dualField.valueAndGradient(x, y, exact);
+                    reference.gradientAt(x, y, numeric);
+                    assertEquals(reference.evaluate(x, y), exact[0], 1e-5f * Math.max(1f, Math.abs(exact[0])));
+                    assertClose(numeric[0], exact[1], source);
+                    assertClose(numeric[1], exact[2], source);
+                }
+            }
+        }
+    }
+
+    @Test
+    void evaluatesValueAndGradientInOnePass() {
+        DualNumberEvaluator dual = new DualNumberEvaluator(ExpressionParser.parse("x^2 * y + sin(y)"));
+        float[] out = new float[3];
+        dual.evaluate(2.0, 0.0, out);
+        assertEquals(0f, out[0]);
+        assertEquals(0f, out[1]);
+        assertEquals(5f, out[2]);
+    }
+
+    @Test
+    void reportsUndefinedDerivativesAsNonFinite() {
+        DualNumberEvaluator dual = new DualNumberEvaluator(ExpressionParser.parse("sqrt(x) + y"));
+        float[] out = new float[3];
+        dual.evaluate(0.0, 1.0, out);
+        assertEquals(1f, out[0]);
+        assertTrue(Float.isInfinite(out[1]));
+    }
+
+    private static void assertClose(float expected, float actual, String source) {
+        assertEquals(expected, actual, 0.02f + 2e-3f * Math.abs(expected), source);
+    }
+}
@@ -0,0 +1,81 @@
+package model.expression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.exceptions.InvalidFunctionException;
+import org.junit.jupiter.api.Test;
+
+public class SymbolicDifferentiatorTest {
+    private static final String[] DIFFERENTIABLE = {
+        "x^2 + y^2",
+        "-x^2 + 2y",
+        "3*(1 - x)^2 * exp(-(x^2) - (y + 1)^2) - (1/3)*exp(-(x + 1)^2 - y^2)",
+        "sin(x) * cos(y) + tan(x / 7) - cot(y / 3 + 11)",
+        "asin(x / 20) + acos(y / 20) + atan(x * y)",
+        "sinh(x / 4) - cosh(y / 4) + tanh(x - y)",
+        "abs(x) + log(y^2 + 1) + log10(x^2 + 1) + log2(y^2 + 2) + log1p(x^2)",
+        "sqrt(x^2 + y^2 + 1) + cbrt(x + 20) + expm1(y / 10) + x % 3",
+        "pow(x^2 + 1, y / 5) + 2^(x / 4) + x / (y^2 + 1)",
+    };
+
+    @Test
+    void matchesCentralDifferences() {
+        for (String source : DIFFERENTIABLE) {
+            ExpressionNode tree = ExpressionParser.parse(source);
+            ExpressionNode dx = SymbolicDifferentiator.differentiate(tree, Operation.VAR_X);
+            ExpressionNode dy = SymbolicDifferentiator.differentiate(tree, Operation.VAR_Y);
+            for (double x = -4.3; x < 5; x += 1.7) {
+                for (double y = -4.1; y < 5; y += 1.9) {
+                    assertClose(numericPartial(tree, x, y, true), dx.evaluate(x, y), source);
+                    assertClose(numericPartial(tree, x, y, false), dy.evaluate(x, y), source);
+                }
+            }
+        }
+    }
+
+    @Test
+    void simplifiesDerivativeTrees() {
+        ExpressionNode dx = SymbolicDifferentiator.differentiate(ExpressionParser.parse("x^2 + 3*y"), Operation.VAR_X);
+        assertEquals("(2.0 * x)", dx.toString());
+        ExpressionNode dy = SymbolicDifferentiator.differentiate(ExpressionParser.parse("x^2 + 3*y"), Operation.VAR_Y);
+        assertTrue(dy.isConstant(3.0));
+    }
+
+    @Test
+    void rejectsStepFunctions() {
+        assertThrows(InvalidFunctionException.class,
+                () -> SymbolicDifferentiator.differentiate(ExpressionParser.parse("floor(x) + y"), Operation.VAR_X));
+        assertThrows(InvalidFunctionException.class,
+                () -> SymbolicDifferentiator.differentiate(ExpressionParser.parse("y % x"), Operation.VAR_X));
+        // a step function of the other variable is still fine
+        ExpressionNode dy = SymbolicDifferentiator.differentiate(ExpressionParser.parse("floor(x) + y"),
+                Operation.VAR_Y);
+        assertTrue(dy.isConstant(1.0));
+    }
+
+    @Test
+    void compiledExpressionsExposePartials() {
+        CompiledExpression expr = CompiledExpression.compile("x^2 * y");
+        assertEquals(12f, expr.getPartialX().applyAsFloat(2f, 3f), 1e-6f);
+        assertEquals(4f, expr.getPartialY().applyAsFloat(2f, 3f), 1e-6f);
+        CompiledExpression interpreted = CompiledExpression.compile("x^2 * y", ExpressionEngine.EXP4J);
+        assertEquals(12f, interpreted.getPartialX().applyAsFloat(2f, 3f), 1e-6f);
+        assertNull(CompiledExpression.compile("ceil(x) * y").getPartialX());
+    }
+
+    // EFFECTS: returns the central-difference estimate of a partial derivative of tree at (x, y)
+    private static double numericPartial(ExpressionNode tree, double x, double y, boolean alongX) {
+        double h = 1e-6;
+        if (alongX) {
+            return (tree.evaluate(x + h, y) - tree.evaluate(x - h, y)) / (2 * h);
+        }
+        return (tree.evaluate(x, y + h) - tree.evaluate(x, y - h)) / (2 * h);
+    }
+
+    private static void assertClose(double expected, double actual, String source) {
+        assertEquals(expected, actual, 1e-4 * Math.max(1.0, Math.abs(expected)), source);
+    }
+}
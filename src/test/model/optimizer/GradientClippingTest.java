@@ -0,0 +1,39 @@
+package model.optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class GradientClippingTest {
+
+    @Test
+    void noneLeavesGradientsAlone() {
+        float[] out = new float[2];
+        GradientClipping.NONE.clip(300f, -4f, out);
+        assertArrayEquals(new float[] {300f, -4f}, out);
+        assertFalse(GradientClipping.NONE.isEnabled());
+    }
+
+    @Test
+    void normClippingKeepsDirection() {
+        float[] out = new float[2];
+        GradientClipping byNorm = new GradientClipping(1f, 0f);
+        byNorm.clip(30f, -40f, out);
+        assertArrayEquals(new float[] {0.6f, -0.8f}, out, 1e-6f);
+        byNorm.clip(0.3f, 0.4f, out);
+        assertArrayEquals(new float[] {0.3f, 0.4f}, out);
+        assertTrue(byNorm.isEnabled());
+    }
+
+    @Test
+    void componentClippingClampsEachAxis() {
+        float[] out = new float[2];
+        new GradientClipping(0f, 2f).clip(30f, -0.5f, out);
+        assertArrayEquals(new float[] {2f, -0.5f}, out);
+
+        new GradientClipping(1f, 2f).clip(30f, -40f, out);   // clamped to (2, -2), then scaled to norm 1
+        assertArrayEquals(new float[] {(float) Math.sqrt(0.5), (float) -Math.sqrt(0.5)}, out, 1e-6f);
+    }
+}
@@ -0,0 +1,199 @@
+package model.optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+import org.junit.jupiter.api.Test;
+
+public class OptimizerTest {
+    private static final float LR = 0.1f;
+
+    @Test
+    void gradientDescentStepsAgainstTheGradient() {
+        float[] delta = new float[2];
+        new GradientDescent().computeStep(2f, -4f, LR, delta);
+        assertArrayEquals(new float[] {-0.2f, 0.4f}, delta, 1e-6f);
+    }
+
+    @Test
+    void momentumAccumulatesVelocity() {
+        Optimizer momentum = OptimizerType.MOMENTUM.create();
+        float[] delta = new float[2];
+        momentum.computeStep(1f, 0f, LR, delta);
+        assertEquals(-0.1f, delta[0], 1e-6f);
+        momentum.computeStep(1f, 0f, LR, delta);
+        assertEquals(-0.19f, delta[0], 1e-6f);   // 0.9 * -0.1 - 0.1
+
+        momentum.reset();
+        momentum.computeStep(1f, 0f, LR, delta);
+        assertEquals(-0.1f, delta[0], 1e-6f);
+    }
+
+    @Test
+    void nesterovLooksAhead() {
+        Optimizer nesterov = OptimizerType.NESTEROV.create();
+        float[] delta = new float[2];
+        nesterov.computeStep(1f, 0f, LR, delta);
+        assertEquals(-0.19f, delta[0], 1e-6f);   // (1 + 0.9) * -0.1
+        nesterov.computeStep(1f, 0f, LR, delta);
+        assertEquals(-0.271f, delta[0], 1e-6f);  // -0.9 * -0.1 + 1.9 * -0.19
+    }
+
+    @Test
+    void adaptiveMethodsNormaliseTheFirstStep() {
+        for (OptimizerType type : new OptimizerType[] {OptimizerType.ADAGRAD, OptimizerType.ADAM}) {
+            float[] delta = new float[2];
+            type.create().computeStep(50f, -0.02f, LR, delta);
+            assertEquals(-LR, delta[0], 1e-4f, type.toString());
+            assertEquals(LR, delta[1], 1e-4f, type.toString());
+        }
+        float[] delta = new float[2];
+        OptimizerType.RMSPROP.create().computeStep(50f, 0f, LR, delta);
+        assertEquals(-LR / (float) Math.sqrt(0.1), delta[0], 1e-4f);
+    }
+
+    @Test
+    void restoredStateContinuesTheRun() {
+        for (OptimizerType type : OptimizerType.values()) {
+            Optimizer original = type.create();
+            float[] delta = new float[2];
+            for (int i = 0; i < 5; i++) {
+                original.computeStep(1f + i * i, -2f * i, LR, delta);
+                original.onStepTaken(delta[0], delta[1]);
+            }
+            Optimizer restored = original.freshCopy();
+            assertNotSame(original, restored);
+            assertArrayEquals(original.getHyperparameters(), restored.getHyperparameters());
+            restored.restoreState(original.getState());
+
+            float[] expected = new float[2];
+            original.computeStep(0.5f, 0.25f, LR, expected);
+            restored.computeStep(0.5f, 0.25f, LR, delta);
+            assertArrayEquals(expected, delta, type.toString());
+        }
+    }
+
+    @Test
+    void lbfgsFindsTheMinimumOfAQuadratic() {
+        // f = (x - 1)^2 + 10 y^2; plain descent at this rate needs several hundred steps
+        Optimizer lbfgs = OptimizerType.LBFGS.create();
+        float x = 3f;
+        float y = 1f;
+        float[] delta = new float[2];
+        int steps = 0;
+        while (Math.abs(x - 1f) + Math.abs(y) > 1e-4f && steps < 100) {
+            lbfgs.computeStep(2f * (x - 1f), 20f * y, 0.01f, delta);
+            lbfgs.onStepTaken(delta[0], delta[1]);
+            x += delta[0];
+            y += delta[1];
+            steps++;
+        }
+        assertTrue(steps < 15, "took " + steps + " steps");
+    }
+
+    @Test
+    void lbfgsRingBufferKeepsOnlyTheNewestPairs() {
+        // f = x^4 + y^4 + x^2 + y^2 keeps producing pairs with positive curvature
+        Optimizer small = new Lbfgs(2);
+        float x = 2f;
+        float y = -1f;
+        float[] delta = new float[2];
+        for (int i = 0; i < 6; i++) {
+            small.computeStep(4f * x * x * x + 2f * x, 4f * y * y * y + 2f * y, 0.01f, delta);
+            small.onStepTaken(delta[0], delta[1]);
+            x += delta[0];
+            y += delta[1];
+        }
+        assertEquals(8 + 4 * 2, small.getState().length);
+        assertEquals(2f, small.getState()[1]);   // count saturates at the history size
+        assertThrows(ArgumentOutOfBoundsException.class, () -> new Lbfgs(0));
+
+        float[] corrupt = small.getState();
+        corrupt[0] = 2f;   // head past the ring
+        assertThrows(ArgumentOutOfBoundsException.class, () -> new Lbfgs(2).restoreState(corrupt));
+        corrupt[0] = 0f;
+        corrupt[1] = 3f;   // more pairs than the ring holds
+        assertThrows(ArgumentOutOfBoundsException.class, () -> new Lbfgs(2).restoreState(corrupt));
+        corrupt[1] = -1f;
+        assertThrows(ArgumentOutOfBoundsException.class, () -> new Lbfgs(2).restoreState(corrupt));
+        corrupt[1] = 2f;
+        new Lbfgs(2).restoreState(corrupt);
+    }
+
+    @Test
+    void conjugateGradientMixesInThePreviousDirection() {
+        float[] delta = new float[2];
+        Optimizer fletcherReeves = OptimizerType.FLETCHER_REEVES.create();
+        fletcherReeves.computeStep(2f, 0f, 1f, delta);
+        assertArrayEquals(new float[] {-2f, 0f}, delta);
+        fletcherReeves.computeStep(1f, 1f, 1f, delta);       // beta = 2 / 4
+        assertArrayEquals(new float[] {-2f, -1f}, delta, 1e-6f);
+        fletcherReeves.computeStep(1f, 1f, 1f, delta);       // restart interval 2: plain gradient again
+        assertArrayEquals(new float[] {-1f, -1f}, delta, 1e-6f);
+
+        Optimizer polakRibiere = OptimizerType.POLAK_RIBIERE.create();
+        polakRibiere.computeStep(2f, 0f, 1f, delta);
+        polakRibiere.computeStep(1f, 1f, 1f, delta);          // beta = (1 * -1 + 1 * 1) / 4 = 0
+        assertArrayEquals(new float[] {-1f, -1f}, delta, 1e-6f);
+    }
+
+    @Test
+    void newtonConvergesQuadraticallyInsideItsTrustRegion() {
+        // f = (x - 1)^2 + 10 y^2 + x y, started far outside the initial trust radius
+        Newton newton = (Newton) OptimizerType.NEWTON.create();
+        assertTrue(newton.usesCurvature());
+        float x = 6f;
+        float y = 4f;
+        float[] delta = new float[2];
+        int steps = 0;
+        while (Math.abs(x - 1.0256f) + Math.abs(y + 0.0513f) > 1e-3f && steps < 20) {
+            float value = (x - 1f) * (x - 1f) + 10f * y * y + x * y;
+            newton.observeCurvature(value, 2f, 1f, 20f);
+            newton.computeStep(2f * (x - 1f) + y, 20f * y + x, 0.01f, delta);
+            assertTrue(delta[0] * delta[0] + delta[1] * delta[1] <= 1.0001f * sq(newton.getTrustRadius()));
+            newton.onStepTaken(delta[0], delta[1]);
+            x += delta[0];
+            y += delta[1];
+            steps++;
+        }
+        assertTrue(steps < 8, "took " + steps + " steps");
+        assertTrue(newton.getTrustRadius() > 1f);
+    }
+
+    @Test
+    void newtonEscapesSaddlesAndFallsBackWithoutCurvature() {
+        Newton newton = new Newton(0.5f);
+        float[] delta = new float[2];
+        newton.computeStep(2f, -4f, LR, delta);                 // no Hessian supplied: plain gradient step
+        assertArrayEquals(new float[] {-0.2f, 0.4f}, delta, 1e-6f);
+
+        newton.observeCurvature(0f, 2f, 0f, -2f);               // f = x^2 - y^2 near its saddle
+        newton.computeStep(0.2f, -0.02f, LR, delta);
+        assertTrue(0.2f * delta[0] - 0.02f * delta[1] < 0f);    // still a descent direction
+        assertTrue(Math.abs(delta[1]) > Math.abs(delta[0]));    // mostly along the negative curvature
+        assertEquals(0.5f, (float) Math.hypot(delta[0], delta[1]), 1e-4f);
+
+        float[] state = newton.getState();
+        Newton restored = new Newton(0.5f);
+        restored.restoreState(state);
+        assertArrayEquals(state, restored.getState());
+        assertThrows(ArgumentOutOfBoundsException.class, () -> new Newton(0f));
+    }
+
+    private static float sq(float value) {
+        return value * value;
+    }
+
+    @Test
+    void rejectsMismatchedLayouts() {
+        assertThrows(ArgumentOutOfBoundsException.class, () -> OptimizerType.ADAM.create(new float[] {0.9f}));
+        assertThrows(ArgumentOutOfBoundsException.class, () -> new Momentum(0.9f).restoreState(new float[3]));
+        assertThrows(ArgumentOutOfBoundsException.class, () -> OptimizerType.fromName("SGD"));
+        assertEquals(OptimizerType.RMSPROP, OptimizerType.fromName("RMSPROP"));
+        assertEquals("RMSProp", OptimizerType.RMSPROP.create().toString());
+    }
+}
@@ -0,0 +1,108 @@
+package model.optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.ScalarField;
+import model.analysis.DescentKernel;
+import model.analysis.DescentStatus;
+import model.expression.CompiledExpression;
+import org.junit.jupiter.api.Test;
+
+public class StepSizeControllerTest {
+    private final ScalarField bowl = new ScalarField(CompiledExpression.compile("x^2 + y^2"));
+
+    @Test
+    void fixedModeLeavesStepsAlone() {
+        StepSizeController fixed = new StepSizeController(StepSizeMode.FIXED);
+        assertEquals(0.1f, fixed.learningRate(0.1f, 1f, 1f, 2f, 2f));
+        float[] delta = {-0.2f, -0.2f};
+        fixed.adjust(bowl, 1f, 1f, 2f, 2f, 2f, delta);
+        assertArrayEquals(new float[] {-0.2f, -0.2f}, delta);
+        assertEquals(0, fixed.getLineSearchEvaluations());
+    }
+
+    @Test
+    void barzilaiBorweinRecoversTheCurvature() {
+        StepSizeController bb = new StepSizeController(StepSizeMode.BARZILAI_BORWEIN);
+        assertEquals(0.01f, bb.learningRate(0.01f, 2f, 1f, 4f, 2f));           // no history yet
+        assertEquals(0.5f, bb.learningRate(0.01f, 1.96f, 0.98f, 3.92f, 1.96f), 1e-4f);  // 1 / (2 * 1)
+        assertEquals(0.01f, bb.learningRate(0.01f, 1.96f, 0.98f, 3.92f, 1.96f)); // no movement, no estimate
+
+        bb.reset();
+        assertEquals(0.01f, bb.learningRate(0.01f, 0f, 0f, 0f, 0f));
+    }
+
+    @Test
+    void backtrackingShrinksOvershootingSteps() {
+        StepSizeController backtracking = new StepSizeController(StepSizeMode.BACKTRACKING);
+        float[] delta = {-6f, 0f};   // from x = 2 this lands on x = -4, where f is four times larger
+        backtracking.adjust(bowl, 2f, 0f, 4f, 4f, 0f, delta);
+        assertTrue(bowl.evaluate(2f + delta[0], 0f) < 4f);
+        assertTrue(backtracking.getLineSearchEvaluations() >= 2);
+
+        float[] uphill = {1f, 0f};
+        long before = backtracking.getLineSearchEvaluations();
+        backtracking.adjust(bowl, 2f, 0f, 4f, 4f, 0f, uphill);
+        assertArrayEquals(new float[] {1f, 0f}, uphill);
+        assertEquals(before, backtracking.getLineSearchEvaluations());
+    }
+
+    @Test
+    void backtrackingTamesADivergentLearningRate() {
+        DescentKernel fixed = new DescentKernel(bowl, 1.5f, 0.001f, new GradientDescent());
+        fixed.reset(3f, 2f);
+        assertTrue(fixed.advance(1000, null).isFailure());
+
+        DescentKernel searched = new DescentKernel(bowl, 1.5f, 0.001f, new GradientDescent(),
+                new StepSizeController(StepSizeMode.BACKTRACKING));
+        searched.reset(3f, 2f);
+        assertEquals(DescentStatus.CONVERGED, searched.advance(1000, null));
+        assertTrue(searched.getLineSearchEvaluations() > 0);
+        assertEquals(0f, searched.getX(), 0.001f);
+    }
+
+    @Test
+    void adaptiveModesOutpaceACrawlingLearningRate() {
+        ScalarField valley = new ScalarField(CompiledExpression.compile("(x - 1)^2 + 10 * y^2"));
+        int[] iterations = new int[StepSizeMode.values().length];
+        for (StepSizeMode mode : StepSizeMode.values()) {
+            DescentKernel kernel = new DescentKernel(valley, 0.001f, 0.001f, new GradientDescent(),
+                    new StepSizeController(mode));
+            kernel.reset(-2f, 1.5f);
+            assertEquals(DescentStatus.CONVERGED, kernel.advance(100000, null), mode.toString());
+            iterations[mode.ordinal()] = kernel.getIterations();
+        }
+        int fixed = iterations[StepSizeMode.FIXED.ordinal()];
+        assertTrue(iterations[StepSizeMode.BACKTRACKING.ordinal()] * 10 < fixed);
+        assertTrue(iterations[StepSizeMode.BARZILAI_BORWEIN.ordinal()] * 10 < fixed);
+    }
+
+    @Test
+    void momentumCarriesTheStepTheLineSearchAccepted() {
+        Momentum momentum = new Momentum(0.9f);
+        DescentKernel kernel = new DescentKernel(bowl, 1.5f, 0.001f, momentum,
+                new StepSizeController(StepSizeMode.BACKTRACKING));
+        kernel.reset(3f, 2f);
+        kernel.advance(1, null);
+        assertTrue(kernel.getLineSearchEvaluations() > 0);
+        assertArrayEquals(new float[] {kernel.getX() - 3f, kernel.getY() - 2f}, momentum.getState(), 1e-5f);
+    }
+
+    @Test
+    void nesterovCarriesTheStepTheLineSearchAccepted() {
+        Nesterov nesterov = new Nesterov(0.5f);
+        DescentKernel kernel = new DescentKernel(bowl, 1.5f, 0.001f, nesterov,
+                new StepSizeController(StepSizeMode.BACKTRACKING));
+        kernel.reset(3f, 2f);
+        kernel.advance(1, null);
+        assertTrue(kernel.getLineSearchEvaluations() > 0);
+        // from rest the step is (1 + momentum) * v'
+        float[] expected = {(kernel.getX() - 3f) / 1.5f, (kernel.getY() - 2f) / 1.5f};
+        assertArrayEquals(expected, nesterov.getState(), 1e-5f);
+
+        kernel.reset(3f, 2f);
+        assertEquals(DescentStatus.CONVERGED, kernel.advance(1000, null));
+    }
+}
@@ -0,0 +1,44 @@
+package persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+
+import model.ScalarField;
+import model.analysis.BasinMap;
+import model.analysis.BasinMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class BasinMapWriterTest {
+
+    private File lastFile;
+
+    @AfterEach
+    void cleanup() {
+        if (lastFile != null && lastFile.isFile()) {
+            lastFile.delete();
+        }
+    }
+
+    @Test
+    void writesOnePixelPerCellWithTheFirstRowAtTheBottom() throws IOException {
+        ScalarField slope = new ScalarField("bowl", (x, y) -> (x - 5) * (x - 5) + y * y);
+        BasinMap map = new BasinMapper(slope, 0.1f, 0.001f, 1000).compute(6, 3, 0.1f);
+
+        lastFile = BasinMapWriter.writePng(map, "test_basins_" + System.nanoTime());
+        assertTrue(lastFile.isFile());
+        BufferedImage image = ImageIO.read(lastFile);
+        assertEquals(6, image.getWidth());
+        assertEquals(3, image.getHeight());
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 6; column++) {
+                assertEquals(map.getColor(column, row), image.getRGB(column, 2 - row));
+            }
+        }
+    }
+}
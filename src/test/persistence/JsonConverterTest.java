@@ -1,11 +1,16 @@
 package persistence;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import model.ScalarField;
 import model.Simulation;
 import model.Vector2;
+import model.analysis.DivergenceDetector;
+import model.optimizer.GradientClipping;
+import model.optimizer.OptimizerType;
+import model.optimizer.StepSizeMode;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 
@@ -36,4 +41,53 @@ public class JsonConverterTest {
         Vector2 end = sim.getPath().get(sim.getPath().size() - 1);
         assertEquals(end, restored.getCurrentPoint());
     }
+
+    @Test
+    void optimizerStateSurvivesRoundTrip() {
+        Simulation sim = new Simulation();
+        sim.setField(new ScalarField("x^2+y^2", (x, y) -> x * x + y * y));
+        sim.setOptimizer(OptimizerType.ADAM.create(new float[] {0.8f, 0.99f, 1e-6f}));
+        sim.setInitialPoint(2f, -1f);
+        sim.runEpochs(5);
+
+        Simulation restored = JsonConverter.jsonObjectToSimulation(JsonConverter.simulationToJsonObject(sim));
+        assertEquals(OptimizerType.ADAM, restored.getOptimizer().getType());
+        assertArrayEquals(sim.getOptimizer().getHyperparameters(), restored.getOptimizer().getHyperparameters());
+        assertArrayEquals(sim.getOptimizer().getState(), restored.getOptimizer().getState());
+
+        sim.runEpochs(5);
+        restored.runEpochs(5);
+        assertEquals(sim.getCurrentPoint(), restored.getCurrentPoint());
+    }
+
+    @Test
+    void stepSizeModeSurvivesRoundTrip() {
+        Simulation sim = new Simulation();
+        sim.setStepSizeMode(StepSizeMode.BARZILAI_BORWEIN);
+        Simulation restored = JsonConverter.jsonObjectToSimulation(JsonConverter.simulationToJsonObject(sim));
+        assertEquals(StepSizeMode.BARZILAI_BORWEIN, restored.getStepSizeMode());
+    }
+
+    @Test
+    void clippingAndDivergenceLimitsSurviveRoundTrip() {
+        Simulation sim = new Simulation();
+        sim.setGradientClipping(new GradientClipping(5f, 2f));
+        sim.setDivergenceDetector(new DivergenceDetector(1e3f, 0f, 7));
+        Simulation restored = JsonConverter.jsonObjectToSimulation(JsonConverter.simulationToJsonObject(sim));
+
+        assertEquals(5f, restored.getGradientClipping().getMaxNorm());
+        assertEquals(2f, restored.getGradientClipping().getMaxComponent());
+        assertEquals(1e3f, restored.getDivergenceDetector().getValueGrowth());
+        assertEquals(0f, restored.getDivergenceDetector().getGradientGrowth());
+        assertEquals(7, restored.getDivergenceDetector().getOscillationPatience());
+    }
+
+    @Test
+    void missingOptimizerMeansGradientDescent() {
+        JSONObject json = new JSONObject();
+        json.put("learningRate", 0.1);
+        Simulation restored = JsonConverter.jsonObjectToSimulation(json);
+        assertEquals(OptimizerType.GRADIENT_DESCENT, restored.getOptimizer().getType());
+        assertEquals(StepSizeMode.FIXED, restored.getStepSizeMode());
+    }
 }
@@ -0,0 +1,64 @@
+package persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import model.ScalarField;
+import model.analysis.HyperparameterSweep;
+import model.analysis.StartPoints;
+import model.analysis.SweepBatch;
+import model.analysis.SweepResult;
+import model.analysis.SweepSpace;
+import model.optimizer.OptimizerType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SweepReportWriterTest {
+
+    private File streamed;
+    private File table;
+
+    @AfterEach
+    void cleanup() {
+        for (File file : new File[] {streamed, table}) {
+            if (file != null && file.isFile()) {
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    void streamsOneRowPerConfigurationAndWritesTheRankedTable() throws IOException {
+        ScalarField bowl = new ScalarField("bowl", (x, y) -> x * x + y * y);
+        SweepSpace space = new SweepSpace(new OptimizerType[] {OptimizerType.GRADIENT_DESCENT, OptimizerType.ADAM},
+                new float[] {0.05f, 0.1f}, new float[] {1e-3f}, new int[] {1000});
+        String title = "test_sweep_" + System.nanoTime();
+        SweepReportWriter writer = new SweepReportWriter(title);
+        streamed = writer.getFile();
+
+        SweepBatch batch = new HyperparameterSweep(bowl).start(space, StartPoints.grid(bowl, 3, 3), writer);
+        List<SweepResult> ranked = batch.getRankedResults();
+        assertFalse(writer.hasFailed());
+        writer.close();
+
+        List<String> lines = Files.readAllLines(streamed.toPath());
+        assertEquals(SweepReportWriter.HEADER, lines.get(0));
+        assertEquals(5, lines.size());
+        for (SweepResult result : ranked) {
+            assertTrue(lines.contains(SweepReportWriter.toRow(result)));
+        }
+
+        table = SweepReportWriter.writeTable(ranked, title + "_ranked");
+        List<String> rows = Files.readAllLines(table.toPath());
+        assertEquals(5, rows.size());
+        assertEquals(SweepReportWriter.toRow(ranked.get(0)), rows.get(1));
+        assertEquals(SweepReportWriter.HEADER.split(",").length, rows.get(1).split(",").length);
+        assertTrue(rows.get(1).startsWith(ranked.get(0).getConfiguration().getOptimizerType().name() + ","));
+    }
+}